@@ -0,0 +1,182 @@
+package com.example.oneuiapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * قياس استيراد FontStore عبر FileChannel على الجهاز: سرعة نسخ ملف 30 MB (MB/s)،
+ * والزمن بين cancel() ورمي OperationCanceledException بين الدفعات وأثناء قراءة معلقة من pipe.
+ * النتائج في logcat تحت الوسم FontStoreImportBenchmark:
+ * ./gradlew :app:connectedDebugAndroidTest
+ */
+@RunWith(AndroidJUnit4.class)
+public class FontStoreImportBenchmark {
+
+    private static final String TAG = "FontStoreImportBenchmark";
+    private static final int SOURCE_SIZE = 30 * 1024 * 1024;
+    private static final int RUNS = 3;
+    private static final long CANCEL_LIMIT_MS = 500;
+
+    private FontStore store;
+    private File source;
+
+    @Before
+    public void setUp() throws IOException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        store = FontStore.getInstance(context);
+        source = new File(context.getCacheDir(), "import-benchmark.ttf");
+        writeSource(source);
+    }
+
+    @After
+    public void tearDown() {
+        source.delete();
+    }
+
+    private static void writeSource(File file) throws IOException {
+        // ترويسة sfnt صالحة ليسلك الاستيراد مسار transferFrom، ثم بيانات عشوائية
+        byte[] chunk = new byte[1024 * 1024];
+        Random random = new Random(9);
+        try (OutputStream out = new FileOutputStream(file)) {
+            for (int written = 0; written < SOURCE_SIZE; written += chunk.length) {
+                random.nextBytes(chunk);
+                if (written == 0) ByteBuffer.wrap(chunk).putInt(0x00010000);
+                out.write(chunk);
+            }
+        }
+    }
+
+    private ParcelFileDescriptor openSource() throws IOException {
+        return ParcelFileDescriptor.open(source, ParcelFileDescriptor.MODE_READ_ONLY);
+    }
+
+    @Test
+    public void importThroughput() throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            File imported = store.importFont(openSource(), ".ttf", null, null);
+            best = Math.min(best, System.nanoTime() - start);
+
+            assertEquals(SOURCE_SIZE, imported.length());
+            imported.delete();
+        }
+        double mb = SOURCE_SIZE / (1024.0 * 1024.0);
+        Log.i(TAG, String.format(Locale.US, "Import %.0f MB: %.1f ms, %.1f MB/s",
+                mb, best / 1e6, mb / (best / 1e9)));
+    }
+
+    @Test
+    public void cancelBetweenChunks() throws Exception {
+        CancellationSignal signal = new CancellationSignal();
+        long latency = runCancelled(signal, true,
+                listener -> store.importFont(openSource(), ".ttf", listener, signal));
+
+        Log.i(TAG, String.format(Locale.US, "Cancel between chunks: %.2f ms", latency / 1e6));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(latency) < CANCEL_LIMIT_MS);
+    }
+
+    @Test
+    public void cancelWhileReadBlocked() throws Exception {
+        // pipe لا يصله أي بايت بعد أول 1 MB: القراءة تبقى معلقة حتى يغلق الإلغاء الـ channel
+        ParcelFileDescriptor[] pipe = ParcelFileDescriptor.createPipe();
+        try (OutputStream writer = new ParcelFileDescriptor.AutoCloseOutputStream(pipe[1])) {
+            Thread feeder = new Thread(() -> {
+                byte[] first = new byte[1024 * 1024];
+                ByteBuffer.wrap(first).putInt(0x00010000);
+                try {
+                    writer.write(first);
+                    writer.flush();
+                } catch (IOException e) {
+                    Log.w(TAG, "Pipe write failed: " + e.getMessage());
+                }
+            });
+            feeder.start();
+
+            CancellationSignal signal = new CancellationSignal();
+            long latency = runCancelled(signal, false,
+                    listener -> store.importFont(pipe[0], ".ttf", listener, signal));
+            feeder.join();
+
+            Log.i(TAG, String.format(Locale.US, "Cancel while blocked: %.2f ms", latency / 1e6));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(latency) < CANCEL_LIMIT_MS);
+        }
+    }
+
+    private interface Import {
+        File run(FontStore.ProgressListener listener) throws IOException;
+    }
+
+    /**
+     * تشغيل الاستيراد على خيط منفصل وإلغاؤه بعد أول تقدم، وإرجاع الزمن من cancel() حتى الرمي.
+     * holdWorker: الخيط ينتظر داخل المستمع حتى يصدر الإلغاء، فلا ينتهي نسخ ملف سريع قبله؛
+     * وإلا يُترك ليصل إلى القراءة المعلقة قبل الإلغاء.
+     */
+    private static long runCancelled(CancellationSignal signal, boolean holdWorker, Import task)
+            throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelIssued = new CountDownLatch(1);
+        FontStore.ProgressListener listener = (copied, total) -> {
+            started.countDown();
+            if (!holdWorker) return;
+            try {
+                cancelIssued.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        AtomicLong thrownAt = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread worker = new Thread(() -> {
+            try {
+                File imported = task.run(listener);
+                imported.delete();
+                failure.set(new AssertionError("Import finished before cancel"));
+            } catch (OperationCanceledException e) {
+                thrownAt.set(System.nanoTime());
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        worker.start();
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        if (!holdWorker) Thread.sleep(100);
+        long cancelledAt = System.nanoTime();
+        signal.cancel();
+        cancelIssued.countDown();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+
+        if (failure.get() != null) throw new AssertionError(failure.get());
+        if (thrownAt.get() == 0) fail("Import did not stop after cancel");
+        return thrownAt.get() - cancelledAt;
+    }
+}
@@ -0,0 +1,390 @@
+package com.example.oneuiapp;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * CmapCoverage - فهرس مضغوط للمحارف التي يغطيها الخط، مبني من جدول cmap (الصيغ 4 و 12).
+ * - التغطية تُخزن كقائمة نطاقات مرتبة ومدموجة [start, end]، والاستعلام بحث ثنائي O(log n)
+ * - الفهرس يُحفظ في ملف جانبي بجوار ملف الخط (&lt;font&gt;.cmap) فلا يُعاد فتح الخط للاستعلام
+ * الكائن غير قابل للتعديل وآمن للقراءة من أي خيط.
+ */
+public final class CmapCoverage {
+
+    private static final String TAG = "CmapCoverage";
+
+    private static final int SIDECAR_MAGIC = 0x434D4150;    // 'CMAP'
+    // يُرفع عند تغيير طريقة البناء لإبطال الملفات الجانبية القديمة
+    private static final int SIDECAR_VERSION = 1;
+    private static final int SIDECAR_HEADER_SIZE = 28;
+    private static final String SIDECAR_SUFFIX = ".cmap";
+
+    private static final int PLATFORM_UNICODE = 0;
+    private static final int PLATFORM_WINDOWS = 3;
+    private static final int MAX_CODEPOINT = 0x10FFFF;
+
+    private final int[] starts;
+    private final int[] ends;
+    // عدد المحارف قبل كل نطاق، للوصول إلى المحرف رقم i بدون بناء قائمة بكل المحارف
+    private final int[] firstIndex;
+    private final int codepointCount;
+
+    private CmapCoverage(int[] starts, int[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+        this.firstIndex = new int[starts.length];
+        int count = 0;
+        for (int i = 0; i < starts.length; i++) {
+            firstIndex[i] = count;
+            count += ends[i] - starts[i] + 1;
+        }
+        this.codepointCount = count;
+    }
+
+    /**
+     * تغطية face محدد من ملف خط: تُقرأ من الملف الجانبي إن كان صالحاً، وإلا تُبنى من cmap وتُحفظ.
+     * يُفضّل استدعاؤها على خيط خلفي في أول مرة.
+     */
+    public static CmapCoverage forFont(File fontFile, int faceIndex) throws IOException {
+        File sidecar = sidecarFile(fontFile, faceIndex);
+        CmapCoverage coverage = readSidecar(sidecar, fontFile);
+        if (coverage != null) return coverage;
+
+        coverage = parse(SfntParser.open(fontFile), faceIndex);
+        writeSidecar(sidecar, fontFile, coverage);
+        return coverage;
+    }
+
+    /**
+     * حذف الملفات الجانبية لكل faces الخط (عند حذف ملف الخط نفسه).
+     */
+    public static void deleteSidecars(File fontFile) {
+        File dir = fontFile.getParentFile();
+        if (dir == null) return;
+        String prefix = fontFile.getName() + ".";
+        File[] files = dir.listFiles((d, name) -> name.startsWith(prefix) && name.endsWith(SIDECAR_SUFFIX));
+        if (files == null) return;
+        for (File f : files) {
+            if (!f.delete()) Log.w(TAG, "Failed to delete " + f.getName());
+        }
+    }
+
+    /**
+     * اسم ملف الخط الذي يتبع له ملف جانبي، أو null إن لم يكن الاسم لملف جانبي.
+     */
+    static String fontNameOfSidecar(String name) {
+        if (!name.endsWith(SIDECAR_SUFFIX)) return null;
+        String base = name.substring(0, name.length() - SIDECAR_SUFFIX.length());
+        // <font>.<face>.cmap للـ faces غير الأول
+        int dot = base.lastIndexOf('.');
+        if (dot > 0 && dot < base.length() - 1) {
+            boolean digits = true;
+            for (int i = dot + 1; i < base.length(); i++) {
+                if (!Character.isDigit(base.charAt(i))) {
+                    digits = false;
+                    break;
+                }
+            }
+            if (digits) return base.substring(0, dot);
+        }
+        return base;
+    }
+
+    static File sidecarFile(File fontFile, int faceIndex) {
+        String name = fontFile.getName() + (faceIndex == 0 ? "" : "." + faceIndex) + SIDECAR_SUFFIX;
+        return new File(fontFile.getParentFile(), name);
+    }
+
+    /**
+     * بناء التغطية من اتحاد كل الجداول الفرعية Unicode المدعومة في cmap.
+     */
+    static CmapCoverage parse(SfntParser parser, int faceIndex) throws IOException {
+        ByteBuffer cmap = parser.getTable(faceIndex, SfntParser.TAG_CMAP);
+        if (cmap == null || cmap.limit() < 4) {
+            return new CmapCoverage(new int[0], new int[0]);
+        }
+
+        RangeBuilder ranges = new RangeBuilder();
+        try {
+            int numTables = cmap.getShort(2) & 0xFFFF;
+            int[] seenOffsets = new int[numTables];
+            int seen = 0;
+            for (int i = 0; i < numTables; i++) {
+                int rec = 4 + 8 * i;
+                int platformId = cmap.getShort(rec) & 0xFFFF;
+                int encodingId = cmap.getShort(rec + 2) & 0xFFFF;
+                int offset = cmap.getInt(rec + 4);
+                if (!isUnicodeSubtable(platformId, encodingId)) continue;
+                if (offset < 0 || offset + 2 > cmap.limit()) continue;
+
+                // عدة سجلات قد تشير إلى نفس الجدول الفرعي
+                boolean duplicate = false;
+                for (int k = 0; k < seen; k++) {
+                    if (seenOffsets[k] == offset) {
+                        duplicate = true;
+                        break;
+                    }
+                }
+                if (duplicate) continue;
+                seenOffsets[seen++] = offset;
+
+                int format = cmap.getShort(offset) & 0xFFFF;
+                if (format == 4) {
+                    parseFormat4(cmap, offset, ranges);
+                } else if (format == 12) {
+                    parseFormat12(cmap, offset, ranges);
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Malformed cmap table", e);
+        }
+        return ranges.build();
+    }
+
+    private static boolean isUnicodeSubtable(int platformId, int encodingId) {
+        if (platformId == PLATFORM_UNICODE) return encodingId <= 6;
+        // Windows: 1 = BMP و 10 = UCS-4؛ الترميز 0 (Symbol) يستخدم نطاقاً خاصاً لا يمثل Unicode
+        return platformId == PLATFORM_WINDOWS && (encodingId == 1 || encodingId == 10);
+    }
+
+    private static void parseFormat4(ByteBuffer cmap, int offset, RangeBuilder ranges) {
+        int segCount = (cmap.getShort(offset + 6) & 0xFFFF) / 2;
+        int endCodes = offset + 14;
+        int startCodes = endCodes + 2 * segCount + 2;
+        int idDeltas = startCodes + 2 * segCount;
+        int idRangeOffsets = idDeltas + 2 * segCount;
+
+        for (int s = 0; s < segCount; s++) {
+            int end = cmap.getShort(endCodes + 2 * s) & 0xFFFF;
+            int start = cmap.getShort(startCodes + 2 * s) & 0xFFFF;
+            int delta = cmap.getShort(idDeltas + 2 * s) & 0xFFFF;
+            int rangeOffsetPos = idRangeOffsets + 2 * s;
+            int rangeOffset = cmap.getShort(rangeOffsetPos) & 0xFFFF;
+            if (start > end || start == 0xFFFF) continue;
+
+            if (rangeOffset == 0) {
+                // الحرف مغطى ما لم يكن (c + delta) mod 65536 يساوي 0
+                int missing = (0x10000 - delta) & 0xFFFF;
+                if (missing >= start && missing <= end) {
+                    if (missing > start) ranges.add(start, missing - 1);
+                    if (missing < end) ranges.add(missing + 1, end);
+                } else {
+                    ranges.add(start, end);
+                }
+            } else {
+                int runStart = -1;
+                for (int c = start; c <= end; c++) {
+                    int glyphPos = rangeOffsetPos + rangeOffset + 2 * (c - start);
+                    int glyph = 0;
+                    if (glyphPos + 2 <= cmap.limit()) {
+                        glyph = cmap.getShort(glyphPos) & 0xFFFF;
+                        if (glyph != 0) glyph = (glyph + delta) & 0xFFFF;
+                    }
+                    if (glyph != 0) {
+                        if (runStart < 0) runStart = c;
+                    } else if (runStart >= 0) {
+                        ranges.add(runStart, c - 1);
+                        runStart = -1;
+                    }
+                }
+                if (runStart >= 0) ranges.add(runStart, end);
+            }
+        }
+    }
+
+    private static void parseFormat12(ByteBuffer cmap, int offset, RangeBuilder ranges) {
+        long numGroups = cmap.getInt(offset + 12) & 0xFFFFFFFFL;
+        int groups = offset + 16;
+        if (groups + numGroups * 12 > cmap.limit()) {
+            throw new IndexOutOfBoundsException("cmap format 12 groups exceed table");
+        }
+        for (int g = 0; g < numGroups; g++) {
+            int rec = groups + 12 * g;
+            long start = cmap.getInt(rec) & 0xFFFFFFFFL;
+            long end = cmap.getInt(rec + 4) & 0xFFFFFFFFL;
+            long startGlyph = cmap.getInt(rec + 8) & 0xFFFFFFFFL;
+            // الحرف الأول في مجموعة تبدأ بالحرف 0 (.notdef) غير مغطى فعلياً
+            if (startGlyph == 0) start++;
+            if (start > end || start > MAX_CODEPOINT) continue;
+            ranges.add((int) start, (int) Math.min(end, MAX_CODEPOINT));
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // الاستعلام
+    // ------------------------------------------------------------------------
+
+    /**
+     * هل المحرف مغطى؟ بحث ثنائي على بدايات النطاقات.
+     */
+    public boolean contains(int codepoint) {
+        int idx = Arrays.binarySearch(starts, codepoint);
+        if (idx >= 0) return true;
+        int range = -idx - 2;
+        return range >= 0 && codepoint <= ends[range];
+    }
+
+    /**
+     * هل كل محارف النص مغطاة؟ المسافات ومحارف التحكم لا تُحسب.
+     */
+    public boolean coversText(CharSequence text) {
+        return firstMissing(text) < 0;
+    }
+
+    /**
+     * أول محرف غير مغطى في النص، أو -1 إن كان النص مغطى بالكامل.
+     */
+    public int firstMissing(CharSequence text) {
+        for (int i = 0; i < text.length(); ) {
+            int cp = Character.codePointAt(text, i);
+            if (!Character.isWhitespace(cp) && !Character.isISOControl(cp) && !contains(cp)) {
+                return cp;
+            }
+            i += Character.charCount(cp);
+        }
+        return -1;
+    }
+
+    /**
+     * عدد المحارف المغطاة ضمن [first, last]، مثلاً لمعرفة نسبة تغطية كتلة Unicode.
+     */
+    public int countCovered(int first, int last) {
+        if (first > last || starts.length == 0) return 0;
+        int idx = Arrays.binarySearch(starts, first);
+        int range = idx >= 0 ? idx : Math.max(0, -idx - 2);
+        int count = 0;
+        for (; range < starts.length && starts[range] <= last; range++) {
+            int lo = Math.max(first, starts[range]);
+            int hi = Math.min(last, ends[range]);
+            if (lo <= hi) count += hi - lo + 1;
+        }
+        return count;
+    }
+
+    /**
+     * المحرف رقم index بترتيب تصاعدي (0 حتى getCodepointCount() - 1). بحث ثنائي على النطاقات،
+     * فشبكة الأشكال تتصفح 60 ألف محرف بدون مصفوفة بحجمها.
+     */
+    public int codepointAt(int index) {
+        if (index < 0 || index >= codepointCount) {
+            throw new IndexOutOfBoundsException("index " + index + " of " + codepointCount);
+        }
+        int idx = Arrays.binarySearch(firstIndex, index);
+        int range = idx >= 0 ? idx : -idx - 2;
+        return starts[range] + (index - firstIndex[range]);
+    }
+
+    public int getCodepointCount() {
+        return codepointCount;
+    }
+
+    public int getRangeCount() {
+        return starts.length;
+    }
+
+    // ------------------------------------------------------------------------
+    // الملف الجانبي
+    // ------------------------------------------------------------------------
+
+    /**
+     * الترويسة: magic, version, حجم ملف الخط, وقت تعديله, عدد النطاقات؛ ثم أزواج (start, end).
+     * الملف غير صالح إن تغير حجم الخط أو وقت تعديله.
+     */
+    private static CmapCoverage readSidecar(File sidecar, File fontFile) {
+        if (!sidecar.exists()) return null;
+        try (RandomAccessFile raf = new RandomAccessFile(sidecar, "r")) {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            if (size < SIDECAR_HEADER_SIZE) return null;
+            ByteBuffer buf = ByteBuffer.allocate((int) size).order(ByteOrder.BIG_ENDIAN);
+            while (buf.hasRemaining()) {
+                if (channel.read(buf) < 0) return null;
+            }
+            buf.flip();
+
+            if (buf.getInt() != SIDECAR_MAGIC || buf.getInt() != SIDECAR_VERSION) return null;
+            if (buf.getLong() != fontFile.length() || buf.getLong() != fontFile.lastModified()) return null;
+            int count = buf.getInt();
+            if (count < 0 || buf.remaining() != 8L * count) return null;
+
+            int[] starts = new int[count];
+            int[] ends = new int[count];
+            for (int i = 0; i < count; i++) {
+                starts[i] = buf.getInt();
+                ends[i] = buf.getInt();
+            }
+            return new CmapCoverage(starts, ends);
+        } catch (Exception e) {
+            Log.w(TAG, "readSidecar failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeSidecar(File sidecar, File fontFile, CmapCoverage coverage) {
+        int count = coverage.starts.length;
+        ByteBuffer buf = ByteBuffer.allocate(SIDECAR_HEADER_SIZE + 8 * count).order(ByteOrder.BIG_ENDIAN);
+        buf.putInt(SIDECAR_MAGIC)
+                .putInt(SIDECAR_VERSION)
+                .putLong(fontFile.length())
+                .putLong(fontFile.lastModified())
+                .putInt(count);
+        for (int i = 0; i < count; i++) {
+            buf.putInt(coverage.starts[i]).putInt(coverage.ends[i]);
+        }
+        buf.flip();
+
+        // الكتابة في ملف مؤقت ثم إعادة التسمية حتى لا يُقرأ ملف نصف مكتوب
+        File tmp = new File(sidecar.getPath() + ".tmp");
+        try (RandomAccessFile raf = new RandomAccessFile(tmp, "rw")) {
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+            while (buf.hasRemaining()) channel.write(buf);
+        } catch (IOException e) {
+            Log.w(TAG, "writeSidecar failed: " + e.getMessage());
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(sidecar)) {
+            tmp.delete();
+        }
+    }
+
+    /**
+     * تجميع النطاقات ثم ترتيبها ودمج المتداخل والمتجاور منها.
+     */
+    private static final class RangeBuilder {
+        private long[] packed = new long[256];
+        private int size;
+
+        void add(int start, int end) {
+            if (size == packed.length) packed = Arrays.copyOf(packed, size * 2);
+            packed[size++] = ((long) start << 32) | (end & 0xFFFFFFFFL);
+        }
+
+        CmapCoverage build() {
+            Arrays.sort(packed, 0, size);
+            int[] starts = new int[size];
+            int[] ends = new int[size];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                int start = (int) (packed[i] >>> 32);
+                int end = (int) packed[i];
+                if (n > 0 && start <= ends[n - 1] + 1) {
+                    ends[n - 1] = Math.max(ends[n - 1], end);
+                } else {
+                    starts[n] = start;
+                    ends[n] = end;
+                    n++;
+                }
+            }
+            return new CmapCoverage(Arrays.copyOf(starts, n), Arrays.copyOf(ends, n));
+        }
+    }
+}
@@ -57,6 +57,9 @@ public class DrawerListAdapter extends RecyclerView.Adapter<DrawerListViewHolder
             // iconRes = getOneUiIconId("ic_oui_folder"); // ★★★ محذوف ★★★
             iconRes = dev.oneuiproject.oneui.R.drawable.ic_oui_folder; // ★★★ معدل ★★★
             title = mContext.getString(R.string.drawer_font_viewer);
+        } else if (fragment instanceof FontLibraryFragment) {
+            iconRes = R.drawable.text_24;
+            title = mContext.getString(R.string.drawer_font_library);
         }
 
         if (iconRes != 0) {
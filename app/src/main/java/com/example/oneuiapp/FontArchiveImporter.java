@@ -0,0 +1,141 @@
+package com.example.oneuiapp;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * FontArchiveImporter - استيراد الخطوط من أرشيف ZIP أثناء قراءته (streaming).
+ * - المدخلات تُقرأ بالتتابع من ZipInputStream؛ لا يُستخرج الأرشيف ولا يُحفظ على القرص
+ * - نوع كل مدخل يُحدد من أول بايتاته (FontFormat)، فالخطوط فقط تُنسخ إلى FontStore
+ * - المدخلات غير الخطية تُتخطى عبر closeEntry بدون كتابة أي شيء
+ * - الذاكرة ثابتة مهما كان حجم الأرشيف: مخازن مؤقتة بحجم ثابت فقط
+ * يُستدعى على خيط خلفي.
+ */
+public final class FontArchiveImporter {
+
+    private static final String TAG = "FontArchiveImporter";
+
+    static final int SIGNATURE_ZIP = 0x504B0304;    // 'PK\3\4'
+
+    private static final int ARCHIVE_BUFFER_SIZE = 64 * 1024;
+
+    public interface Callback {
+        void onFontImported(File file, String entryName);
+    }
+
+    private FontArchiveImporter() {
+    }
+
+    /**
+     * هل الترويسة ترويسة ZIP؟
+     */
+    public static boolean isArchive(byte[] header, int length) {
+        if (header == null || length < 4) return false;
+        int tag = ((header[0] & 0xFF) << 24) | ((header[1] & 0xFF) << 16)
+                | ((header[2] & 0xFF) << 8) | (header[3] & 0xFF);
+        return tag == SIGNATURE_ZIP;
+    }
+
+    /**
+     * قراءة أول بايتات المستند للتحقق إن كان أرشيفاً.
+     */
+    public static boolean isArchive(ContentResolver resolver, Uri uri) {
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) return false;
+            byte[] header = new byte[4];
+            return isArchive(header, FontStore.readFully(in, header));
+        } catch (IOException | SecurityException e) {
+            Log.w(TAG, "Cannot read " + uri + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * استيراد كل خطوط الأرشيف إلى FontStore. يُغلق التيار. يُرجع عدد الخطوط المستوردة.
+     */
+    public static int importZip(Context context, InputStream source, Callback callback,
+                                CancellationSignal signal) throws IOException {
+        FontStore store = FontStore.getInstance(context);
+        int fonts = 0;
+        byte[] header = new byte[FontFormat.SNIFF_LENGTH];
+
+        try (ZipInputStream zin = new ZipInputStream(new BufferedInputStream(source, ARCHIVE_BUFFER_SIZE))) {
+            ZipEntry entry;
+            while ((entry = zin.getNextEntry()) != null) {
+                if (signal != null) signal.throwIfCanceled();
+                if (entry.isDirectory()) continue;
+
+                BufferedInputStream in = new BufferedInputStream(new EntryStream(zin, signal), FontFormat.SNIFF_LENGTH);
+                in.mark(FontFormat.SNIFF_LENGTH);
+                int headerLength = FontStore.readFully(in, header);
+                in.reset();
+
+                // ★★★ الخطوط فقط تُكتب؛ غير ذلك يُتخطى بدون استخراج ★★★
+                if (FontFormat.detect(header, headerLength) == FontFormat.UNKNOWN) {
+                    zin.closeEntry();
+                    continue;
+                }
+
+                String name = baseName(entry.getName());
+                try {
+                    File file = store.importFont(in, extensionOf(name));
+                    fonts++;
+                    callback.onFontImported(file, name);
+                } catch (OperationCanceledException e) {
+                    throw e;
+                } catch (IOException e) {
+                    Log.w(TAG, "Failed to import " + entry.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+
+        return fonts;
+    }
+
+    private static String baseName(String entryName) {
+        int slash = entryName.lastIndexOf('/');
+        return slash >= 0 ? entryName.substring(slash + 1) : entryName;
+    }
+
+    private static String extensionOf(String name) {
+        int idx = name.lastIndexOf('.');
+        return idx > 0 && idx < name.length() - 1 ? name.substring(idx) : null;
+    }
+
+    /**
+     * المدخل الحالي فقط: الإغلاق ينهي المدخل ولا يغلق الأرشيف (FontStore يغلق تياره دائماً).
+     */
+    private static final class EntryStream extends FilterInputStream {
+        private final ZipInputStream zin;
+        private final CancellationSignal signal;
+
+        EntryStream(ZipInputStream zin, CancellationSignal signal) {
+            super(zin);
+            this.zin = zin;
+            this.signal = signal;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (signal != null) signal.throwIfCanceled();
+            return super.read(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            zin.closeEntry();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * FontCacheManager - حد أقصى لمساحة filesDir/fonts مع إخلاء الأقدم استخداماً (LRU).
+ * - وقت آخر استخدام لكل ملف يُحفظ في FontCachePrefs
+ * - الإخلاء يعمل في الخلفية حتى يصبح الحجم الكلي (الخط + ملفاته الجانبية) ضمن الحد
+ * - الخط المثبت (آخر خط مستخدم) لا يُخلى أبداً
+ * - الـ URI الأصلي لكل خط يُحفظ، فالخط المُخلى يُعاد جلبه عند الحاجة عبر refetch()
+ * - قارئو صفوف المكتبة (المعاينة، التغطية، المكرر) يمرون عبر ensureLocal فلا يتخطون الخط المُخلى
+ */
+public final class FontCacheManager {
+
+    private static final String TAG = "FontCacheManager";
+    private static final String PREFS_NAME = "FontCachePrefs";
+    private static final String KEY_USE_PREFIX = "use:";
+    private static final String KEY_URI_PREFIX = "uri:";
+    private static final String KEY_PINNED = "pinned";
+
+    private static volatile FontCacheManager sInstance;
+
+    private final Context appContext;
+    private final SharedPreferences prefs;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private FontCacheManager(Context context) {
+        appContext = context.getApplicationContext();
+        prefs = appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public static FontCacheManager getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (FontCacheManager.class) {
+                if (sInstance == null) {
+                    sInstance = new FontCacheManager(context);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * تسجيل استخدام الخط الآن (عند التحميل أو الاستيراد).
+     */
+    public void recordUse(File fontFile) {
+        prefs.edit().putLong(KEY_USE_PREFIX + fontFile.getName(), System.currentTimeMillis()).apply();
+    }
+
+    /**
+     * حفظ المصدر الأصلي للخط حتى يمكن إعادة جلبه بعد الإخلاء.
+     */
+    public void recordSource(File fontFile, Uri source) {
+        if (source == null) return;
+        prefs.edit().putString(KEY_URI_PREFIX + fontFile.getName(), source.toString()).apply();
+    }
+
+    /**
+     * المصدر الأصلي المحفوظ للخط، أو null إن لم يُسجل له مصدر.
+     */
+    public Uri getSource(File fontFile) {
+        String uri = prefs.getString(KEY_URI_PREFIX + fontFile.getName(), null);
+        return uri != null ? Uri.parse(uri) : null;
+    }
+
+    /**
+     * نقل وقت الاستخدام والمصدر من ملف إلى آخر (ترحيل الأسماء القديمة في FontStore). إن كان للملف
+     * الجديد سجل مسبقاً يبقى كما هو.
+     */
+    public void moveRecords(File from, File to) {
+        SharedPreferences.Editor editor = prefs.edit();
+        String fromUse = KEY_USE_PREFIX + from.getName();
+        String fromUri = KEY_URI_PREFIX + from.getName();
+        if (prefs.contains(fromUse) && !prefs.contains(KEY_USE_PREFIX + to.getName())) {
+            editor.putLong(KEY_USE_PREFIX + to.getName(), prefs.getLong(fromUse, 0));
+        }
+        if (prefs.contains(fromUri) && !prefs.contains(KEY_URI_PREFIX + to.getName())) {
+            editor.putString(KEY_URI_PREFIX + to.getName(), prefs.getString(fromUri, null));
+        }
+        editor.remove(fromUse).remove(fromUri).apply();
+    }
+
+    /**
+     * الخط الذي لا يُخلى أبداً (نفس ما يشير إليه آخر خط محفوظ في عارض الخطوط).
+     */
+    public void pin(File fontFile) {
+        prefs.edit().putString(KEY_PINNED, fontFile != null ? fontFile.getName() : null).apply();
+    }
+
+    /**
+     * إخلاء في الخلفية حسب الحد المضبوط في الإعدادات.
+     */
+    public void trimAsync() {
+        executor.execute(() -> trim(SettingsHelper.getFontCacheLimitBytes(appContext)));
+    }
+
+    /**
+     * إخلاء في الخلفية بحد محدد (مثلاً القيمة الجديدة قبل حفظها في الإعدادات).
+     */
+    public void trimAsync(long budgetBytes) {
+        executor.execute(() -> trim(budgetBytes));
+    }
+
+    /**
+     * حذف الأقدم استخداماً حتى يصبح الحجم ضمن budgetBytes. يُرجع عدد البايتات المحررة.
+     */
+    long trim(long budgetBytes) {
+        File fontsDir = FontStore.getInstance(appContext).getFontsDir();
+        File[] files = fontsDir.listFiles();
+        if (files == null || files.length == 0) return 0;
+
+        // قراءة واحدة للمجلد: الخطوط أولاً ثم تُضاف أحجام الملفات الجانبية إلى خطوطها
+        Map<String, Entry> byName = new HashMap<>();
+        for (File f : files) {
+            if (FontStore.isStoredFontName(f.getName())) {
+                byName.put(f.getName(), new Entry(f,
+                        prefs.getLong(KEY_USE_PREFIX + f.getName(), f.lastModified()), f.length()));
+            }
+        }
+        for (File f : files) {
+            Entry owner = byName.get(CmapCoverage.fontNameOfSidecar(f.getName()));
+            if (owner != null) owner.bytes += f.length();
+        }
+
+        String pinned = prefs.getString(KEY_PINNED, null);
+        List<Entry> entries = new ArrayList<>(byName.values());
+        long total = 0;
+        for (Entry e : entries) total += e.bytes;
+        if (total <= budgetBytes) return 0;
+
+        Collections.sort(entries, (a, b) -> Long.compare(a.lastUse, b.lastUse));
+        long freed = 0;
+        SharedPreferences.Editor editor = prefs.edit();
+        for (Entry e : entries) {
+            if (total - freed <= budgetBytes) break;
+            if (e.file.getName().equals(pinned)) continue;
+
+            if (e.file.delete()) {
+                CmapCoverage.deleteSidecars(e.file);
+                FontMetadataEngine.getInstance(appContext).forgetContentHash(e.file);
+                // الـ URI يبقى محفوظاً لإعادة الجلب لاحقاً؛ بدونه لا فائدة من صف المكتبة
+                editor.remove(KEY_USE_PREFIX + e.file.getName());
+                if (!prefs.contains(KEY_URI_PREFIX + e.file.getName())) {
+                    FontLibrary.getInstance(appContext).removeByPath(e.file.getAbsolutePath());
+                    FontSearchIndex.getInstance(appContext).removeByPath(e.file.getAbsolutePath());
+                }
+                freed += e.bytes;
+            } else {
+                Log.w(TAG, "Failed to evict " + e.file.getName());
+            }
+        }
+        editor.apply();
+        return freed;
+    }
+
+    /**
+     * إعادة جلب خط مُخلى من الـ URI المحفوظ له. الاسم مبني على المحتوى، فالناتج يطابق المسار
+     * القديم ما لم يتغير الملف الأصلي. يُستدعى على خيط خلفي؛ يُرجع null إن لم يكن هناك مصدر.
+     */
+    public File refetch(File missingFile) throws IOException {
+        String uri = prefs.getString(KEY_URI_PREFIX + missingFile.getName(), null);
+        if (uri == null) return null;
+
+        ParcelFileDescriptor pfd = appContext.getContentResolver().openFileDescriptor(Uri.parse(uri), "r");
+        if (pfd == null) return null;
+        String name = missingFile.getName();
+        int dot = name.lastIndexOf('.');
+        File restored = FontStore.getInstance(appContext)
+                .importFont(pfd, dot > 0 ? name.substring(dot) : null, null, null);
+        recordSource(restored, Uri.parse(uri));
+        recordUse(restored);
+        return restored;
+    }
+
+    /**
+     * ★★★ ملف صف المكتبة جاهزاً للقراءة ★★★
+     * الموجود يُرجع كما هو؛ المُخلى يُعاد جلبه من مصدره ثم يُراجع الحد في الخلفية. يُرجع null إن لم
+     * يكن له مصدر أو فشل الجلب، أو تغير المصدر فلم يعد الناتج يطابق الصف. خيط خلفي.
+     */
+    public File ensureLocal(File file) {
+        if (file.exists()) return file;
+        // جلب واحد للملف نفسه حتى لو طلبه أكثر من قارئ معاً
+        synchronized (this) {
+            if (file.exists()) return file;
+            File restored;
+            try {
+                restored = refetch(file);
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Failed to re-fetch " + file.getName() + ": " + e.getMessage());
+                return null;
+            }
+            if (restored == null) return null;
+            trimAsync();
+            return restored.getAbsolutePath().equals(file.getAbsolutePath()) ? restored : null;
+        }
+    }
+
+    private static final class Entry {
+        final File file;
+        final long lastUse;
+        long bytes;
+
+        Entry(File file, long lastUse, long bytes) {
+            this.file = file;
+            this.lastUse = lastUse;
+            this.bytes = bytes;
+        }
+    }
+}
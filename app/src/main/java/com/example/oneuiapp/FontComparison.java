@@ -0,0 +1,318 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.os.CancellationSignal;
+import android.text.TextPaint;
+import android.util.Log;
+
+import java.io.File;
+import java.text.Bidi;
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * FontComparison - نص المعاينة نفسه بعدة خطوط (حتى MAX_FONTS) للمقارنة.
+ * - التحليل المستقل عن الخط يُحسب مرة واحدة للنص: اتجاه الفقرة ومستويات Bidi، ومواضع كسر
+ *   السطر المسموحة حسب اللغة (BreakIterator)
+ * - كل لوحة (pane) تحمّل خطها عبر TypefaceCache وتقيس المقاطع بين مواضع الكسر فقط، ثم ترسم
+ *   كل سطر بترتيب الـ runs المرئي من نفس تحليل Bidi؛ النص الزائد عن MAX_LINES ينتهي بـ "…"
+ * - اللوحات تُبنى بالتوازي، ولكل لوحة توقيت التحميل والتخطيط والرسم
+ * يُستدعى على خيط خلفي.
+ */
+public final class FontComparison {
+
+    private static final String TAG = "FontComparison";
+
+    public static final int MAX_FONTS = 4;
+    // حد الأسطر لكل لوحة حتى يبقى حجم الـ Bitmap محدوداً مع نصوص المعاينة الطويلة
+    private static final int MAX_LINES = 8;
+    private static final float LINE_SPACING = 1.25f;
+    private static final String ELLIPSIS = "\u2026";
+
+    /**
+     * ★★★ التحليل المشترك: يعتمد على النص واللغة فقط، فيصلح لكل اللوحات ★★★
+     */
+    public static final class Analysis {
+        final String text;
+        final Bidi bidi;
+        // مواضع الكسر المسموحة بترتيب تصاعدي، تبدأ بـ 0 وتنتهي بطول النص
+        final int[] breaks;
+        // mandatory[i]: السطر يجب أن ينتهي عند breaks[i] (بعد سطر جديد في النص)
+        final boolean[] mandatory;
+        final long nanos;
+
+        private Analysis(String text, Bidi bidi, int[] breaks, boolean[] mandatory, long nanos) {
+            this.text = text;
+            this.bidi = bidi;
+            this.breaks = breaks;
+            this.mandatory = mandatory;
+            this.nanos = nanos;
+        }
+
+        public long getMillis() {
+            return nanos / 1_000_000;
+        }
+    }
+
+    /**
+     * لوحة خط واحد: الصورة المرسومة وتوقيت كل مرحلة، أو null للخط الذي تعذر تحميله.
+     */
+    public static final class Pane {
+        private final FontLibrary.Entry entry;
+        private final Bitmap bitmap;
+        private final long loadNanos;
+        private final long layoutNanos;
+        private final long drawNanos;
+
+        Pane(FontLibrary.Entry entry, Bitmap bitmap, long loadNanos, long layoutNanos, long drawNanos) {
+            this.entry = entry;
+            this.bitmap = bitmap;
+            this.loadNanos = loadNanos;
+            this.layoutNanos = layoutNanos;
+            this.drawNanos = drawNanos;
+        }
+
+        public FontLibrary.Entry getEntry() {
+            return entry;
+        }
+
+        public Bitmap getBitmap() {
+            return bitmap;
+        }
+
+        public long getLoadMillis() {
+            return loadNanos / 1_000_000;
+        }
+
+        public long getLayoutMillis() {
+            return layoutNanos / 1_000_000;
+        }
+
+        public long getDrawMillis() {
+            return drawNanos / 1_000_000;
+        }
+    }
+
+    /**
+     * أسطر لوحة واحدة: أزواج (بداية، نهاية) لكل سطر، و truncated إن بقي نص بعد MAX_LINES.
+     */
+    static final class LineBreaks {
+        final int[] lines;
+        final boolean truncated;
+
+        LineBreaks(int[] lines, boolean truncated) {
+            this.lines = lines;
+            this.truncated = truncated;
+        }
+    }
+
+    private static volatile FontComparison sInstance;
+
+    private final TypefaceCache typefaces;
+    private final ExecutorService executor = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(MAX_FONTS, Runtime.getRuntime().availableProcessors())));
+
+    private FontComparison(Context context) {
+        typefaces = TypefaceCache.getInstance(context.getApplicationContext());
+    }
+
+    public static FontComparison getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (FontComparison.class) {
+                if (sInstance == null) {
+                    sInstance = new FontComparison(context);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * تحليل Bidi وكسر الأسطر للنص مرة واحدة.
+     */
+    public static Analysis analyze(String text, Locale locale) {
+        long startNanos = System.nanoTime();
+        Bidi bidi = new Bidi(text, Bidi.DIRECTION_DEFAULT_LEFT_TO_RIGHT);
+
+        BreakIterator it = BreakIterator.getLineInstance(locale);
+        it.setText(text);
+        List<Integer> positions = new ArrayList<>();
+        for (int b = it.first(); b != BreakIterator.DONE; b = it.next()) positions.add(b);
+        if (positions.isEmpty() || positions.get(positions.size() - 1) != text.length()) positions.add(text.length());
+
+        int[] breaks = new int[positions.size()];
+        boolean[] mandatory = new boolean[breaks.length];
+        for (int i = 0; i < breaks.length; i++) {
+            breaks[i] = positions.get(i);
+            mandatory[i] = breaks[i] > 0 && text.charAt(breaks[i] - 1) == '\n';
+        }
+        return new Analysis(text, bidi, breaks, mandatory, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * ★★★ بناء كل اللوحات بالتوازي على نفس التحليل ★★★
+     */
+    public List<Pane> compare(List<FontLibrary.Entry> entries, Analysis analysis, int widthPx, float textSizePx,
+                              int color, CancellationSignal signal) throws InterruptedException {
+        List<Future<Pane>> futures = new ArrayList<>();
+        for (FontLibrary.Entry e : entries.subList(0, Math.min(entries.size(), MAX_FONTS))) {
+            futures.add(executor.submit(() -> {
+                if (signal != null) signal.throwIfCanceled();
+                return buildPane(e, analysis, widthPx, textSizePx, color);
+            }));
+        }
+
+        List<Pane> panes = new ArrayList<>(futures.size());
+        try {
+            for (Future<Pane> f : futures) panes.add(f.get());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            for (Future<Pane> f : futures) f.cancel(true);
+        }
+        return Collections.unmodifiableList(panes);
+    }
+
+    private Pane buildPane(FontLibrary.Entry entry, Analysis analysis, int widthPx, float textSizePx, int color) {
+        long t0 = System.nanoTime();
+        File file = new File(entry.getFilePath());
+        TypefaceCache.Lease lease = file.exists() ? typefaces.acquire(file, entry.getFaceIndex(), null) : null;
+        long t1 = System.nanoTime();
+        if (lease == null) {
+            Log.w(TAG, "Typeface failed for " + file.getName());
+            return new Pane(entry, null, t1 - t0, 0, 0);
+        }
+        try {
+            TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+            paint.setTypeface(lease.getTypeface());
+            paint.setTextSize(textSizePx);
+            paint.setColor(color);
+
+            LineBreaks lines = breakLines(analysis, paint, widthPx);
+            long t2 = System.nanoTime();
+            Bitmap bitmap = draw(analysis, paint, lines, widthPx);
+            long t3 = System.nanoTime();
+            return new Pane(entry, bitmap, t1 - t0, t2 - t1, t3 - t2);
+        } finally {
+            typefaces.release(lease);
+        }
+    }
+
+    /**
+     * تعبئة جشعة (greedy) على مواضع الكسر المشتركة؛ القياس فقط يعتمد على الخط.
+     * السطر الأخير يترك مكان "…" حتى لا تخرج عن العرض إن قُطع النص.
+     */
+    static LineBreaks breakLines(Analysis analysis, TextPaint paint, int widthPx) {
+        String text = analysis.text;
+        int[] breaks = analysis.breaks;
+        int[] lines = new int[MAX_LINES * 2];
+        float lastLineWidth = widthPx - paint.measureText(ELLIPSIS);
+        int count = 0;
+        int lineStart = 0;
+        int lastFit = 0;
+        for (int i = 1; i < breaks.length && count < MAX_LINES; i++) {
+            int end = breaks[i];
+            // المسافات والسطر الجديد في آخر السطر لا تدخل في العرض
+            float width = paint.measureText(text, lineStart, trimEnd(text, lineStart, end));
+            float limit = count == MAX_LINES - 1 ? lastLineWidth : widthPx;
+            if (width > limit && lastFit > lineStart) {
+                lines[count * 2] = lineStart;
+                lines[count * 2 + 1] = lastFit;
+                count++;
+                lineStart = lastFit;
+                if (count == MAX_LINES) break;
+            }
+            lastFit = end;
+            if (analysis.mandatory[i] || i == breaks.length - 1) {
+                lines[count * 2] = lineStart;
+                lines[count * 2 + 1] = end;
+                count++;
+                lineStart = end;
+                lastFit = end;
+            }
+        }
+        boolean truncated = count == MAX_LINES && trimEnd(text, lineStart, text.length()) > lineStart;
+        int[] out = new int[count * 2];
+        System.arraycopy(lines, 0, out, 0, out.length);
+        return new LineBreaks(out, truncated);
+    }
+
+    /**
+     * رسم كل سطر بترتيب الـ runs المرئي (Bidi السطر من Bidi الفقرة المشترك)، ومحاذاة حسب اتجاه السطر.
+     * عرض كل run من getRunAdvance بسياق السطر، فيطابق ما رسمه drawTextRun بعد التشكيل.
+     */
+    private static Bitmap draw(Analysis analysis, TextPaint paint, LineBreaks breaks, int widthPx) {
+        Paint.FontMetrics fm = paint.getFontMetrics();
+        float lineHeight = (fm.descent - fm.ascent) * LINE_SPACING;
+        int[] lines = breaks.lines;
+        int lineTotal = lines.length / 2;
+        Bitmap bitmap = Bitmap.createBitmap(widthPx, Math.max(1, Math.round(lineHeight * Math.max(1, lineTotal))),
+                Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        String text = analysis.text;
+
+        for (int l = 0; l < lineTotal; l++) {
+            int start = lines[l * 2];
+            int end = trimEnd(text, start, lines[l * 2 + 1]);
+            if (end <= start) continue;
+            float baseline = l * lineHeight - fm.ascent;
+
+            Bidi line = analysis.bidi.createLineBidi(start, end);
+            int runCount = line.getRunCount();
+            byte[] levels = new byte[runCount];
+            Integer[] order = new Integer[runCount];
+            for (int r = 0; r < runCount; r++) {
+                levels[r] = (byte) line.getRunLevel(r);
+                order[r] = r;
+            }
+            Bidi.reorderVisually(levels, 0, order, 0, runCount);
+
+            // السياق هو السطر كاملاً حتى يبقى تشكيل الحروف العربية متصلاً بين الـ runs
+            float[] advances = new float[runCount];
+            float lineWidth = 0;
+            for (int r = 0; r < runCount; r++) {
+                int runStart = start + line.getRunStart(r);
+                int runEnd = start + line.getRunLimit(r);
+                boolean runRtl = (line.getRunLevel(r) & 1) != 0;
+                advances[r] = paint.getRunAdvance(text, runStart, runEnd, start, end, runRtl, runEnd);
+                lineWidth += advances[r];
+            }
+
+            boolean lineRtl = !line.baseIsLeftToRight();
+            float x = lineRtl ? widthPx - lineWidth : 0;
+            for (int v = 0; v < runCount; v++) {
+                int r = order[v];
+                int runStart = start + line.getRunStart(r);
+                int runEnd = start + line.getRunLimit(r);
+                boolean runRtl = (line.getRunLevel(r) & 1) != 0;
+                canvas.drawTextRun(text, runStart, runEnd, start, end, x, baseline, runRtl, paint);
+                x += advances[r];
+            }
+
+            if (breaks.truncated && l == lineTotal - 1) {
+                // "…" عند نهاية السطر الأخير حسب اتجاهه؛ مكانها محجوز في breakLines
+                float ellipsisWidth = paint.measureText(ELLIPSIS);
+                float ex = lineRtl ? widthPx - lineWidth - ellipsisWidth : lineWidth;
+                canvas.drawTextRun(ELLIPSIS, 0, ELLIPSIS.length(), 0, ELLIPSIS.length(), ex, baseline, lineRtl, paint);
+            }
+        }
+        return bitmap;
+    }
+
+    private static int trimEnd(String text, int start, int end) {
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) end--;
+        return end;
+    }
+}
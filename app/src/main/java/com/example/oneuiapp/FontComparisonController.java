@@ -0,0 +1,214 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.util.TypedValue;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AlertDialog;
+import androidx.fragment.app.Fragment;
+
+import dev.oneuiproject.oneui.widget.Toast;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * FontComparisonController - اختيار حتى FontComparison.MAX_FONTS خطوط من المكتبة وعرضها معاً.
+ * الخط المعروض حالياً محدد مسبقاً؛ التحليل والرسم في FontComparison على خيط اللوحة.
+ */
+final class FontComparisonController extends FontViewerController {
+
+    private static final String TAG = "FontComparison";
+
+    private static final float COMPARE_TEXT_SIZE_SP = 24f;
+    // هامش محتوى نافذة المقارنة من كل جانب، إن لم يُقس عرض النافذة بعد
+    private static final float COMPARE_DIALOG_INSET_DP = 48f;
+    // من هذا العرض (tablet أو شاشة مفتوحة) تُعرض اللوحات في أعمدة متجاورة
+    private static final int COMPARE_COLUMNS_MIN_DP = 600;
+
+    FontComparisonController(Fragment host) {
+        super(host);
+    }
+
+    /**
+     * currentPath و currentFace للخط المعروض حالياً (null إن لم يكن من المكتبة).
+     */
+    void openPicker(String currentPath, int currentFace) {
+        CancellationSignal signal = restart();
+        Context appContext = requireContext().getApplicationContext();
+        execute(() -> {
+            List<FontLibrary.Entry> entries;
+            try {
+                entries = FontLibrary.getInstance(appContext).listAll();
+            } catch (Exception e) {
+                Log.w(TAG, "Failed to load library: " + e.getMessage());
+                entries = Collections.emptyList();
+            }
+            final List<FontLibrary.Entry> finalEntries = entries;
+            postIfCurrent(signal, () -> {
+                if (finalEntries.isEmpty()) {
+                    Toast.makeText(requireContext(), getString(R.string.font_viewer_compare_empty), Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                showPicker(finalEntries, currentPath, currentFace);
+            });
+        });
+    }
+
+    private void showPicker(List<FontLibrary.Entry> entries, String currentPath, int currentFace) {
+        CharSequence[] labels = new CharSequence[entries.size()];
+        boolean[] checked = new boolean[entries.size()];
+        for (int i = 0; i < labels.length; i++) {
+            FontLibrary.Entry e = entries.get(i);
+            labels[i] = e.getDisplayName();
+            checked[i] = e.getFilePath().equals(currentPath) && e.getFaceIndex() == currentFace;
+        }
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(getString(R.string.font_viewer_compare_pick, FontComparison.MAX_FONTS))
+                .setMultiChoiceItems(labels, checked, (dialog, which, isChecked) -> {
+                    int count = 0;
+                    for (boolean c : checked) if (c) count++;
+                    if (isChecked && count > FontComparison.MAX_FONTS) {
+                        checked[which] = false;
+                        ((AlertDialog) dialog).getListView().setItemChecked(which, false);
+                        Toast.makeText(requireContext(),
+                                getString(R.string.font_viewer_compare_limit, FontComparison.MAX_FONTS),
+                                Toast.LENGTH_SHORT).show();
+                    }
+                })
+                .setPositiveButton(R.string.font_viewer_compare_action, (dialog, which) -> {
+                    List<FontLibrary.Entry> selected = new ArrayList<>();
+                    for (int i = 0; i < checked.length; i++) {
+                        if (checked[i]) selected.add(entries.get(i));
+                    }
+                    if (!selected.isEmpty()) run(selected);
+                })
+                .setNegativeButton(android.R.string.cancel, null)
+                .show();
+    }
+
+    /**
+     * النافذة تُعرض أولاً بحاوية فارغة، وبعد تخطيطها يُقاس عرضها الفعلي؛ اللوحات تُرسم بعرض عمودها
+     * (أعمدة متجاورة على الشاشات العريضة، وفوق بعضها على الهاتف) ثم تُضاف إلى الحاوية.
+     */
+    private void run(List<FontLibrary.Entry> selected) {
+        CancellationSignal signal = restart();
+
+        Context ctx = requireContext();
+        DisplayMetrics dm = host.getResources().getDisplayMetrics();
+        final int padding = Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 24f, dm));
+        final boolean columns = host.getResources().getConfiguration().screenWidthDp >= COMPARE_COLUMNS_MIN_DP
+                && selected.size() > 1;
+
+        LinearLayout content = new LinearLayout(ctx);
+        content.setOrientation(LinearLayout.VERTICAL);
+        content.setPadding(padding, padding / 2, padding, padding / 2);
+
+        TextView shared = new TextView(ctx);
+        shared.setTextSize(TypedValue.COMPLEX_UNIT_SP, 12f);
+        shared.setTextColor(resolveColor(android.R.attr.textColorSecondary));
+        shared.setText(R.string.font_viewer_compare_running);
+        content.addView(shared);
+
+        LinearLayout panesContainer = new LinearLayout(ctx);
+        panesContainer.setOrientation(columns ? LinearLayout.HORIZONTAL : LinearLayout.VERTICAL);
+        content.addView(panesContainer, new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT));
+
+        ScrollView scroll = new ScrollView(ctx);
+        scroll.addView(content);
+        new AlertDialog.Builder(ctx)
+                .setTitle(R.string.font_viewer_compare)
+                .setView(scroll)
+                .setPositiveButton(android.R.string.ok, null)
+                .setOnDismissListener(d -> signal.cancel())
+                .show();
+
+        final Context appContext = ctx.getApplicationContext();
+        final float textSizePx = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, COMPARE_TEXT_SIZE_SP, dm);
+        final int color = resolveColor(android.R.attr.textColorPrimary);
+        final String text = SettingsHelper.getPreviewText(ctx);
+        final Locale locale = SettingsHelper.getLocale(ctx);
+
+        // بعد أول تخطيط للنافذة: عرض الحاوية هو المساحة المتاحة فعلاً للوحات
+        panesContainer.post(() -> {
+            if (!isCurrent(signal)) return;
+            int available = panesContainer.getWidth();
+            if (available <= 0) {
+                int inset = Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, COMPARE_DIALOG_INSET_DP, dm));
+                available = dm.widthPixels - 2 * inset - 2 * padding;
+            }
+            int count = Math.min(selected.size(), FontComparison.MAX_FONTS);
+            int gap = padding / 2;
+            final int paneWidthPx = Math.max(1, columns ? (available - gap * (count - 1)) / count : available);
+
+            execute(() -> {
+                // التحليل المستقل عن الخط مرة واحدة لكل اللوحات
+                FontComparison.Analysis analysis = FontComparison.analyze(text, locale);
+                List<FontComparison.Pane> panes;
+                try {
+                    panes = FontComparison.getInstance(appContext)
+                            .compare(selected, analysis, paneWidthPx, textSizePx, color, signal);
+                } catch (OperationCanceledException | InterruptedException e) {
+                    return;
+                } catch (Exception e) {
+                    Log.w(TAG, "comparison failed: " + e.getMessage());
+                    return;
+                }
+                final List<FontComparison.Pane> finalPanes = panes;
+                postIfCurrent(signal, () -> {
+                    shared.setText(getString(R.string.font_viewer_compare_shared, analysis.getMillis()));
+                    for (int i = 0; i < finalPanes.size(); i++) {
+                        LinearLayout.LayoutParams lp = columns
+                                ? new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.WRAP_CONTENT, 1f)
+                                : new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT,
+                                        LinearLayout.LayoutParams.WRAP_CONTENT);
+                        if (columns && i > 0) lp.setMarginStart(gap);
+                        panesContainer.addView(buildPane(finalPanes.get(i), padding), lp);
+                    }
+                });
+            });
+        });
+    }
+
+    private LinearLayout buildPane(FontComparison.Pane pane, int padding) {
+        Context ctx = requireContext();
+        LinearLayout column = new LinearLayout(ctx);
+        column.setOrientation(LinearLayout.VERTICAL);
+
+        TextView title = new TextView(ctx);
+        title.setTextSize(TypedValue.COMPLEX_UNIT_SP, 16f);
+        title.setTextColor(resolveColor(android.R.attr.textColorPrimary));
+        title.setText(pane.getEntry().getDisplayName());
+        title.setPadding(0, padding, 0, 0);
+        column.addView(title);
+
+        TextView timing = new TextView(ctx);
+        timing.setTextSize(TypedValue.COMPLEX_UNIT_SP, 12f);
+        timing.setTextColor(resolveColor(android.R.attr.textColorSecondary));
+        timing.setText(pane.getBitmap() != null
+                ? getString(R.string.font_viewer_compare_timing, pane.getLoadMillis(),
+                        pane.getLayoutMillis(), pane.getDrawMillis())
+                : getString(R.string.font_viewer_compare_failed));
+        column.addView(timing);
+
+        if (pane.getBitmap() != null) {
+            // الـ Bitmap بعرض العمود تماماً، فيُعرض بحجمه دون تحجيم
+            ImageView image = new ImageView(ctx);
+            image.setImageBitmap(pane.getBitmap());
+            image.setPadding(0, padding / 3, 0, 0);
+            column.addView(image, new LinearLayout.LayoutParams(
+                    LinearLayout.LayoutParams.WRAP_CONTENT, LinearLayout.LayoutParams.WRAP_CONTENT));
+        }
+        return column;
+    }
+}
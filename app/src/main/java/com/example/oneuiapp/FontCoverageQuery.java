@@ -0,0 +1,178 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.util.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * FontCoverageQuery - "أي الخطوط المستوردة تعرض هذا النص؟" عبر كل المكتبة.
+ * - محارف النص تُختصر إلى مجموعة مرتبة بلا تكرار، فالنص الطويل لا يكلف أكثر من محارفه المختلفة
+ * - الخطوط تُقسم على خيوط بعدد الأنوية، وكل خيط يعد المحارف الناقصة بالبحث الثنائي في CmapCoverage
+ * - التغطيات تبقى في الذاكرة بمفتاح (hash المحتوى، face) فلا تُقرأ الملفات الجانبية إلا أول مرة
+ * النتائج مرتبة بعدد المحارف الناقصة ثم بالاسم. يُستدعى على خيط خلفي.
+ */
+public final class FontCoverageQuery {
+
+    private static final String TAG = "FontCoverageQuery";
+
+    // أقصى عدد من المحارف الناقصة يُحفظ في النتيجة للعرض
+    public static final int MISSING_SAMPLE_SIZE = 8;
+
+    private static volatile FontCoverageQuery sInstance;
+
+    private final Context appContext;
+    private final int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    // المحتوى لا يتغير لنفس الـ hash، فالتغطية المحفوظة صالحة دائماً
+    private final Map<String, CmapCoverage> coverageByKey = new ConcurrentHashMap<>();
+
+    private FontCoverageQuery(Context context) {
+        appContext = context.getApplicationContext();
+    }
+
+    public static FontCoverageQuery getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (FontCoverageQuery.class) {
+                if (sInstance == null) {
+                    sInstance = new FontCoverageQuery(context);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * ترتيب كل خطوط المكتبة حسب تغطيتها للنص. الخطوط غير المقروءة تُستبعد.
+     */
+    public List<Result> query(CharSequence text, CancellationSignal signal) throws InterruptedException {
+        int[] codepoints = distinctCodepoints(text);
+        if (codepoints.length == 0) return Collections.emptyList();
+
+        List<FontLibrary.Entry> entries = FontLibrary.getInstance(appContext).listAll();
+
+        // ★★★ شرائح متساوية بعدد الأنوية؛ كل شريحة تُرجع نتائجها ثم تُدمج ★★★
+        int chunk = (entries.size() + threads - 1) / threads;
+        List<Future<List<Result>>> parts = new ArrayList<>();
+        for (int from = 0; from < entries.size(); from += chunk) {
+            List<FontLibrary.Entry> slice = entries.subList(from, Math.min(entries.size(), from + chunk));
+            parts.add(executor.submit(() -> evaluate(slice, codepoints, signal)));
+        }
+
+        List<Result> results = new ArrayList<>(entries.size());
+        try {
+            for (Future<List<Result>> part : parts) {
+                results.addAll(part.get());
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            for (Future<List<Result>> part : parts) part.cancel(true);
+        }
+
+        Collections.sort(results, (a, b) -> a.missingCount != b.missingCount
+                ? Integer.compare(a.missingCount, b.missingCount)
+                : a.entry.getDisplayName().compareToIgnoreCase(b.entry.getDisplayName()));
+        return results;
+    }
+
+    private List<Result> evaluate(List<FontLibrary.Entry> slice, int[] codepoints, CancellationSignal signal) {
+        List<Result> out = new ArrayList<>(slice.size());
+        for (FontLibrary.Entry e : slice) {
+            if (signal != null) signal.throwIfCanceled();
+            CmapCoverage coverage = coverageOf(e);
+            if (coverage == null) continue;
+
+            int missing = 0;
+            int[] sample = new int[MISSING_SAMPLE_SIZE];
+            for (int cp : codepoints) {
+                if (coverage.contains(cp)) continue;
+                if (missing < sample.length) sample[missing] = cp;
+                missing++;
+            }
+            out.add(new Result(e, missing, Arrays.copyOf(sample, Math.min(missing, sample.length))));
+        }
+        return out;
+    }
+
+    private CmapCoverage coverageOf(FontLibrary.Entry e) {
+        String key = e.getContentHash() + "#" + e.getFaceIndex();
+        CmapCoverage coverage = coverageByKey.get(key);
+        if (coverage != null) return coverage;
+
+        // الخط الذي أُخلي لتوفير المساحة يُعاد جلبه؛ يُستبعد فقط إن تعذر ذلك
+        File file = FontCacheManager.getInstance(appContext).ensureLocal(new File(e.getFilePath()));
+        if (file == null) return null;
+        try {
+            coverage = CmapCoverage.forFont(file, e.getFaceIndex());
+        } catch (Exception ex) {
+            Log.w(TAG, "coverage failed for " + file.getName() + ": " + ex.getMessage());
+            return null;
+        }
+        coverageByKey.put(key, coverage);
+        return coverage;
+    }
+
+    /**
+     * محارف النص المختلفة مرتبة؛ المسافات ومحارف التحكم لا تُحسب (كما في CmapCoverage.firstMissing).
+     */
+    static int[] distinctCodepoints(CharSequence text) {
+        int[] cps = new int[text.length()];
+        int n = 0;
+        for (int i = 0; i < text.length(); ) {
+            int cp = Character.codePointAt(text, i);
+            if (!Character.isWhitespace(cp) && !Character.isISOControl(cp)) cps[n++] = cp;
+            i += Character.charCount(cp);
+        }
+        Arrays.sort(cps, 0, n);
+        int u = 0;
+        for (int i = 0; i < n; i++) {
+            if (u == 0 || cps[i] != cps[u - 1]) cps[u++] = cps[i];
+        }
+        return Arrays.copyOf(cps, u);
+    }
+
+    /**
+     * نتيجة خط واحد: عدد المحارف الناقصة وعينة منها.
+     */
+    public static final class Result {
+        private final FontLibrary.Entry entry;
+        private final int missingCount;
+        private final int[] missingSample;
+
+        Result(FontLibrary.Entry entry, int missingCount, int[] missingSample) {
+            this.entry = entry;
+            this.missingCount = missingCount;
+            this.missingSample = missingSample;
+        }
+
+        public FontLibrary.Entry getEntry() {
+            return entry;
+        }
+
+        public int getMissingCount() {
+            return missingCount;
+        }
+
+        public int[] getMissingSample() {
+            return missingSample.clone();
+        }
+
+        public boolean coversAll() {
+            return missingCount == 0;
+        }
+    }
+}
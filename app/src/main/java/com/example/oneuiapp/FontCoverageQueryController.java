@@ -0,0 +1,98 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.util.Log;
+import android.widget.EditText;
+
+import androidx.appcompat.app.AlertDialog;
+import androidx.fragment.app.Fragment;
+
+import dev.oneuiproject.oneui.widget.Toast;
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * FontCoverageQueryController - نافذة "أي الخطوط المستوردة تعرض النص؟" ونتائجها.
+ * النص الافتراضي هو نص المعاينة من الإعدادات؛ الفحص يجري على كل المكتبة بالتوازي في FontCoverageQuery.
+ */
+final class FontCoverageQueryController extends FontViewerController {
+
+    private static final String TAG = "FontCoverageQuery";
+
+    private final FontOpener opener;
+
+    FontCoverageQueryController(Fragment host, FontOpener opener) {
+        super(host);
+        this.opener = opener;
+    }
+
+    void show() {
+        EditText input = new EditText(requireContext());
+        input.setText(SettingsHelper.getPreviewText(requireContext()));
+        input.setSelectAllOnFocus(true);
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.font_viewer_coverage_query)
+                .setView(input)
+                .setPositiveButton(R.string.font_viewer_coverage_query_action,
+                        (dialog, which) -> run(input.getText().toString()))
+                .setNegativeButton(android.R.string.cancel, null)
+                .show();
+    }
+
+    private void run(String text) {
+        CancellationSignal signal = restart();
+        Context appContext = requireContext().getApplicationContext();
+
+        execute(() -> {
+            List<FontCoverageQuery.Result> results;
+            try {
+                results = FontCoverageQuery.getInstance(appContext).query(text, signal);
+            } catch (OperationCanceledException | InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                Log.w(TAG, "coverage query failed: " + e.getMessage());
+                results = Collections.emptyList();
+            }
+            final List<FontCoverageQuery.Result> finalResults = results;
+            postIfCurrent(signal, () -> showResults(finalResults));
+        });
+    }
+
+    private void showResults(List<FontCoverageQuery.Result> results) {
+        if (results.isEmpty()) {
+            Toast.makeText(requireContext(), getString(R.string.font_viewer_coverage_empty), Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        int fullCount = 0;
+        CharSequence[] labels = new CharSequence[results.size()];
+        for (int i = 0; i < labels.length; i++) {
+            FontCoverageQuery.Result r = results.get(i);
+            String status;
+            if (r.coversAll()) {
+                fullCount++;
+                status = getString(R.string.font_viewer_coverage_all);
+            } else {
+                StringBuilder sample = new StringBuilder();
+                for (int cp : r.getMissingSample()) sample.appendCodePoint(cp).append(' ');
+                if (r.getMissingCount() > FontCoverageQuery.MISSING_SAMPLE_SIZE) sample.append('…');
+                status = getString(R.string.font_viewer_coverage_missing, r.getMissingCount(), sample.toString().trim());
+            }
+            labels[i] = r.getEntry().getDisplayName() + "\n" + status;
+        }
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(getString(R.string.font_viewer_coverage_results, fullCount, results.size()))
+                .setItems(labels, (dialog, which) -> {
+                    FontLibrary.Entry e = results.get(which).getEntry();
+                    opener.open(e.getFilePath(), new File(e.getFilePath()).getName(), e.getDisplayName(),
+                            e.getFaceIndex());
+                })
+                .setNegativeButton(android.R.string.cancel, null)
+                .show();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.util.Log;
+
+import androidx.appcompat.app.AlertDialog;
+import androidx.fragment.app.Fragment;
+
+import dev.oneuiproject.oneui.widget.Toast;
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * FontDuplicateController - فحص الخطوط المكررة في المكتبة وعرض مجموعاتها.
+ * الفحص تزايدي في FontDuplicateDetector: hashes الجداول تُحسب فقط للخطوط التي لم تُفحص من قبل.
+ */
+final class FontDuplicateController extends FontViewerController {
+
+    private static final String TAG = "FontDuplicateDetector";
+
+    FontDuplicateController(Fragment host) {
+        super(host);
+    }
+
+    void run() {
+        CancellationSignal signal = restart();
+        Context appContext = requireContext().getApplicationContext();
+
+        execute(() -> {
+            List<FontDuplicateDetector.Group> groups;
+            try {
+                groups = FontDuplicateDetector.getInstance(appContext).scan(signal);
+            } catch (OperationCanceledException | InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                Log.w(TAG, "duplicate scan failed: " + e.getMessage());
+                groups = Collections.emptyList();
+            }
+            final List<FontDuplicateDetector.Group> finalGroups = groups;
+            postIfCurrent(signal, () -> showGroups(finalGroups));
+        });
+    }
+
+    private void showGroups(List<FontDuplicateDetector.Group> groups) {
+        if (groups.isEmpty()) {
+            Toast.makeText(requireContext(), getString(R.string.font_viewer_duplicates_none), Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        CharSequence[] labels = new CharSequence[groups.size()];
+        for (int i = 0; i < labels.length; i++) {
+            FontDuplicateDetector.Group g = groups.get(i);
+            StringBuilder sb = new StringBuilder(getString(g.getKind() == FontDuplicateDetector.Kind.EXACT
+                    ? R.string.font_viewer_duplicates_exact : R.string.font_viewer_duplicates_near));
+            for (FontLibrary.Entry e : g.getEntries()) {
+                sb.append("\n• ").append(e.getDisplayName());
+                if (e.getVersion() != null) sb.append(" (").append(e.getVersion()).append(')');
+                sb.append(" — ").append(new File(e.getFilePath()).getName());
+            }
+            labels[i] = sb.toString();
+        }
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(getString(R.string.font_viewer_duplicates_results, groups.size()))
+                .setItems(labels, null)
+                .setNegativeButton(android.R.string.cancel, null)
+                .show();
+    }
+}
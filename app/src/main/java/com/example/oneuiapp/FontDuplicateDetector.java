@@ -0,0 +1,280 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * FontDuplicateDetector - كشف الخطوط المكررة في المكتبة من hash كل جدول في الـ table directory.
+ * - مطابق: كل الجداول متطابقة (نفس الخط بغلاف آخر أو باسم ملف آخر، أو face مكرر داخل TTC)
+ * - شبيه: نفس بيانات الأشكال (glyf/loca أو CFF/CFF2) مع اختلاف الاسم أو الإصدار أو غيرهما
+ * كل جدول يُقرأ مرة واحدة من الملف المُعيّن في الذاكرة. الـ hashes تُحفظ في FontLibrary،
+ * فالفحص التالي يحسب فقط الصفوف الجديدة. يُستدعى على خيط خلفي.
+ */
+public final class FontDuplicateDetector {
+
+    private static final String TAG = "FontDuplicateDetector";
+
+    private static final int TAG_HEAD = 0x68656164;         // 'head'
+    private static final int TAG_GLYF = 0x676C7966;         // 'glyf'
+    private static final int TAG_LOCA = 0x6C6F6361;         // 'loca'
+    private static final int TAG_CFF = 0x43464620;          // 'CFF '
+    private static final int TAG_CFF2 = 0x43464632;         // 'CFF2'
+
+    // حقول head التي تتغير مع كل تصدير بدون تغيير الخط: checkSumAdjustment و created/modified
+    private static final int HEAD_CHECKSUM_OFFSET = 8;
+    private static final int HEAD_DATES_OFFSET = 20;
+    private static final int HEAD_DATES_LENGTH = 16;
+
+    // طول hash الجدول الواحد المحفوظ في table_hashes (hex)
+    private static final int TABLE_HASH_CHARS = 16;
+
+    public enum Kind {
+        EXACT,
+        NEAR
+    }
+
+    /**
+     * مجموعة خطوط مكررة. في NEAR قد تحتوي المجموعة نسخاً مطابقة فيما بينها أيضاً.
+     */
+    public static final class Group {
+        private final Kind kind;
+        private final List<FontLibrary.Entry> entries;
+
+        Group(Kind kind, List<FontLibrary.Entry> entries) {
+            this.kind = kind;
+            this.entries = Collections.unmodifiableList(entries);
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public List<FontLibrary.Entry> getEntries() {
+            return entries;
+        }
+    }
+
+    /**
+     * hashes face واحد: لكل جدول، ولكل الجداول معاً، ولبيانات الأشكال.
+     */
+    static final class TableHashes {
+        final String perTable;
+        final String tables;
+        final String outlines;
+
+        TableHashes(String perTable, String tables, String outlines) {
+            this.perTable = perTable;
+            this.tables = tables;
+            this.outlines = outlines;
+        }
+    }
+
+    private static volatile FontDuplicateDetector sInstance;
+
+    private final Context appContext;
+    private final int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    private FontDuplicateDetector(Context context) {
+        appContext = context.getApplicationContext();
+    }
+
+    public static FontDuplicateDetector getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (FontDuplicateDetector.class) {
+                if (sInstance == null) {
+                    sInstance = new FontDuplicateDetector(context);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * حساب الـ hashes الناقصة ثم تجميع المكرر. المجموعات المطابقة أولاً ثم الشبيهة.
+     */
+    public List<Group> scan(CancellationSignal signal) throws InterruptedException {
+        FontLibrary library = FontLibrary.getInstance(appContext);
+        List<FontLibrary.Entry> entries = library.listAll();
+
+        // ★★★ فحص تزايدي: فقط الصفوف التي لم تُحسب hashes جداولها بعد ★★★
+        List<FontLibrary.Entry> pending = new ArrayList<>();
+        for (FontLibrary.Entry e : entries) {
+            if (e.getTablesHash() == null) pending.add(e);
+        }
+        if (!pending.isEmpty()) {
+            List<FontLibrary.Entry> hashed = hashAll(pending, signal);
+            library.updateHashes(hashed);
+            entries = library.listAll();
+        }
+
+        return group(entries);
+    }
+
+    private List<FontLibrary.Entry> hashAll(List<FontLibrary.Entry> pending, CancellationSignal signal)
+            throws InterruptedException {
+        List<Future<FontLibrary.Entry>> futures = new ArrayList<>(pending.size());
+        for (FontLibrary.Entry e : pending) {
+            futures.add(executor.submit(() -> {
+                if (signal != null) signal.throwIfCanceled();
+                return hashEntry(e);
+            }));
+        }
+
+        List<FontLibrary.Entry> out = new ArrayList<>(pending.size());
+        try {
+            for (Future<FontLibrary.Entry> f : futures) {
+                FontLibrary.Entry e = f.get();
+                if (e != null) out.add(e);
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            for (Future<FontLibrary.Entry> f : futures) f.cancel(true);
+        }
+        return out;
+    }
+
+    private FontLibrary.Entry hashEntry(FontLibrary.Entry e) {
+        // الملف المُخلى لتوفير المساحة يُعاد جلبه أولاً؛ إن تعذر يبقى الصف بلا hashes للفحص القادم
+        File file = FontCacheManager.getInstance(appContext).ensureLocal(new File(e.getFilePath()));
+        if (file == null) return null;
+        try {
+            TableHashes h = hashTables(SfntParser.open(file), e.getFaceIndex());
+            return e.withHashes(h.perTable, h.tables, h.outlines);
+        } catch (IOException ex) {
+            Log.w(TAG, "hashing failed for " + file.getName() + ": " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * تجميع الصفوف حسب tables_hash (مطابق) ثم outline_hash (شبيه: أكثر من نسخة مختلفة بنفس الأشكال).
+     */
+    static List<Group> group(List<FontLibrary.Entry> entries) {
+        Map<String, List<FontLibrary.Entry>> byTables = new LinkedHashMap<>();
+        Map<String, List<FontLibrary.Entry>> byOutlines = new LinkedHashMap<>();
+        for (FontLibrary.Entry e : entries) {
+            if (e.getTablesHash() == null) continue;
+            addTo(byTables, e.getTablesHash(), e);
+            if (e.getOutlineHash() != null) addTo(byOutlines, e.getOutlineHash(), e);
+        }
+
+        List<Group> groups = new ArrayList<>();
+        for (List<FontLibrary.Entry> list : byTables.values()) {
+            if (list.size() > 1) groups.add(new Group(Kind.EXACT, list));
+        }
+        for (List<FontLibrary.Entry> list : byOutlines.values()) {
+            Set<String> variants = new HashSet<>();
+            for (FontLibrary.Entry e : list) variants.add(e.getTablesHash());
+            if (variants.size() > 1) groups.add(new Group(Kind.NEAR, list));
+        }
+        return groups;
+    }
+
+    private static void addTo(Map<String, List<FontLibrary.Entry>> map, String key, FontLibrary.Entry e) {
+        List<FontLibrary.Entry> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<>();
+            map.put(key, list);
+        }
+        list.add(e);
+    }
+
+    /**
+     * hash كل جدول في الـ table directory بقراءة واحدة. الـ hash المجمع يُبنى من hashes الجداول
+     * بترتيب الوسوم فلا يُعاد قراءة أي جدول.
+     */
+    static TableHashes hashTables(SfntParser parser, int faceIndex) throws IOException {
+        SfntParser.TableDirectory dir = parser.getTableDirectory(faceIndex);
+        int count = dir.getTableCount();
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        // الوسوم مرتبة عادة، لكن الترتيب لا يُفترض حتى يتطابق الـ hash المجمع بين الملفات
+        Arrays.sort(order, (a, b) -> Integer.compareUnsigned(dir.getTag(a), dir.getTag(b)));
+
+        MessageDigest tableDigest = newDigest();
+        MessageDigest allDigest = newDigest();
+        Map<Integer, byte[]> outlineParts = new LinkedHashMap<>();
+        StringBuilder perTable = new StringBuilder();
+
+        for (int i : order) {
+            int tag = dir.getTag(i);
+            ByteBuffer table = parser.getTable(faceIndex, tag);
+            if (table == null) continue;
+            if (tag == TAG_HEAD) table = normalizedHead(table);
+
+            tableDigest.update(table);
+            byte[] hash = tableDigest.digest();
+
+            allDigest.update(intBytes(tag));
+            allDigest.update(hash);
+            if (tag == TAG_GLYF || tag == TAG_LOCA || tag == TAG_CFF || tag == TAG_CFF2) {
+                outlineParts.put(tag, hash);
+            }
+
+            if (perTable.length() > 0) perTable.append(';');
+            perTable.append(FontLibrary.tagToString(tag)).append('=')
+                    .append(FontMetadataEngine.toHex(hash), 0, TABLE_HASH_CHARS);
+        }
+
+        String outlines = null;
+        if (!outlineParts.isEmpty()) {
+            MessageDigest outlineDigest = newDigest();
+            for (Map.Entry<Integer, byte[]> part : outlineParts.entrySet()) {
+                outlineDigest.update(intBytes(part.getKey()));
+                outlineDigest.update(part.getValue());
+            }
+            outlines = FontMetadataEngine.toHex(outlineDigest.digest());
+        }
+        return new TableHashes(perTable.toString(), FontMetadataEngine.toHex(allDigest.digest()), outlines);
+    }
+
+    /**
+     * نسخة من head بدون checkSumAdjustment وتواريخ الإنشاء والتعديل.
+     */
+    private static ByteBuffer normalizedHead(ByteBuffer head) {
+        byte[] copy = new byte[head.remaining()];
+        head.get(copy);
+        zero(copy, HEAD_CHECKSUM_OFFSET, 4);
+        zero(copy, HEAD_DATES_OFFSET, HEAD_DATES_LENGTH);
+        return ByteBuffer.wrap(copy);
+    }
+
+    private static void zero(byte[] b, int offset, int length) {
+        for (int i = offset; i < offset + length && i < b.length; i++) b[i] = 0;
+    }
+
+    private static byte[] intBytes(int v) {
+        return new byte[]{(byte) (v >>> 24), (byte) (v >>> 16), (byte) (v >>> 8), (byte) v};
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
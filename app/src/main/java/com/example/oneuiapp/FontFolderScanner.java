@@ -0,0 +1,81 @@
+package com.example.oneuiapp;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.provider.DocumentsContract;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+
+/**
+ * FontFolderScanner - فحص مجلد (document tree) وكل مجلداته الفرعية بحثاً عن الخطوط.
+ * - استعلام children واحد لكل مجلد يجلب المعرّف والاسم والنوع معاً، بدون استعلام لكل ملف
+ * - الملفات لا تُفتح هنا: النوع يُحدد من أول بايتات الملف (وليس من الامتداد) في FontImportPipeline
+ *   عند فتحه للنسخ، فيُقرأ كل ملف مرة واحدة فقط
+ * - كل ملف مرشح يُسلَّم للـ callback فور اكتشافه، قبل اكتمال الفحص
+ * يُستدعى على خيط خلفي.
+ */
+public final class FontFolderScanner {
+
+    private static final String TAG = "FontFolderScanner";
+
+    private static final String[] PROJECTION = {
+            DocumentsContract.Document.COLUMN_DOCUMENT_ID,
+            DocumentsContract.Document.COLUMN_DISPLAY_NAME,
+            DocumentsContract.Document.COLUMN_MIME_TYPE,
+            DocumentsContract.Document.COLUMN_SIZE
+    };
+
+    public interface Callback {
+        void onCandidate(Uri documentUri, String displayName);
+    }
+
+    private FontFolderScanner() {
+    }
+
+    /**
+     * فحص الشجرة كاملة (عرضاً أولاً). يُرجع عدد الملفات المرشحة.
+     */
+    public static int scan(Context context, Uri treeUri, Callback callback, CancellationSignal signal) {
+        ContentResolver resolver = context.getContentResolver();
+        ArrayDeque<String> pending = new ArrayDeque<>();
+        pending.add(DocumentsContract.getTreeDocumentId(treeUri));
+
+        int candidates = 0;
+
+        while (!pending.isEmpty()) {
+            if (signal != null) signal.throwIfCanceled();
+            String parentId = pending.poll();
+            Uri childrenUri = DocumentsContract.buildChildDocumentsUriUsingTree(treeUri, parentId);
+
+            try (Cursor cursor = resolver.query(childrenUri, PROJECTION, null, null, null, signal)) {
+                if (cursor == null) continue;
+                while (cursor.moveToNext()) {
+                    if (signal != null) signal.throwIfCanceled();
+                    String id = cursor.getString(0);
+                    String name = cursor.getString(1);
+                    String mime = cursor.getString(2);
+                    if (DocumentsContract.Document.MIME_TYPE_DIR.equals(mime)) {
+                        pending.add(id);
+                        continue;
+                    }
+                    // أصغر من ترويسة sfnt؛ لا داعي لفتحه
+                    if (!cursor.isNull(3) && cursor.getLong(3) < 12) continue;
+
+                    candidates++;
+                    callback.onCandidate(DocumentsContract.buildDocumentUriUsingTree(treeUri, id), name);
+                }
+            } catch (OperationCanceledException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Listing failed for " + parentId + ": " + e.getMessage());
+            }
+        }
+
+        return candidates;
+    }
+}
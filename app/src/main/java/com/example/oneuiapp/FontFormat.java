@@ -0,0 +1,67 @@
+package com.example.oneuiapp;
+
+/**
+ * FontFormat - اكتشاف نوع ملف الخط من أول بايتات فيه بدلاً من امتداد الاسم أو MIME.
+ */
+public enum FontFormat {
+    TRUETYPE(".ttf"),
+    OPENTYPE(".otf"),
+    COLLECTION(".ttc"),
+    WOFF(".woff"),
+    WOFF2(".woff2"),
+    UNKNOWN(null);
+
+    /** عدد البايتات الكافية لتحديد النوع ونكهة (flavor) خطوط الويب. */
+    public static final int SNIFF_LENGTH = 8;
+
+    static final int SIGNATURE_WOFF = 0x774F4646;   // 'wOFF'
+    static final int SIGNATURE_WOFF2 = 0x774F4632;  // 'wOF2'
+
+    private final String extension;
+
+    FontFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public boolean isWebFont() {
+        return this == WOFF || this == WOFF2;
+    }
+
+    /**
+     * تحديد النوع من أول 4 بايتات.
+     */
+    public static FontFormat detect(byte[] header, int length) {
+        if (header == null || length < 4) return UNKNOWN;
+        return fromTag(readInt(header, 0));
+    }
+
+    /**
+     * لخطوط الويب: نوع ملف sfnt الناتج بعد فك الضغط، من حقل flavor (البايتات 4..8).
+     */
+    public static FontFormat webFontFlavor(byte[] header, int length) {
+        if (header == null || length < SNIFF_LENGTH) return UNKNOWN;
+        FontFormat flavor = fromTag(readInt(header, 4));
+        return flavor.isWebFont() ? UNKNOWN : flavor;
+    }
+
+    static FontFormat fromTag(int tag) {
+        switch (tag) {
+            case SfntParser.SFNT_VERSION_TRUETYPE:
+            case SfntParser.SFNT_VERSION_APPLE: return TRUETYPE;
+            case SfntParser.SFNT_VERSION_CFF: return OPENTYPE;
+            case SfntParser.TAG_TTCF: return COLLECTION;
+            case SIGNATURE_WOFF: return WOFF;
+            case SIGNATURE_WOFF2: return WOFF2;
+            default: return UNKNOWN;
+        }
+    }
+
+    private static int readInt(byte[] b, int off) {
+        return ((b[off] & 0xFF) << 24) | ((b[off + 1] & 0xFF) << 16)
+                | ((b[off + 2] & 0xFF) << 8) | (b[off + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+
+/**
+ * FontHeaderValidator - فحص ترويسة الملف قبل نسخه، بقراءة أول بضع مئات من البايتات فقط.
+ * - sfnt: رقم الإصدار وعدد الجداول وحدود كل سجل في table directory
+ * - TTC: عدد الـ faces وإزاحاتها، ثم table directory لأول face
+ * - WOFF / WOFF2: الترويسة (الطول الكلي، الـ flavor، عدد الجداول) وحدود جداول WOFF
+ * الملف المرفوض لا يُنسخ أبداً، وسبب الرفض يظهر للمستخدم برسالة واضحة.
+ */
+public final class FontHeaderValidator {
+
+    private static final String TAG = "FontHeaderValidator";
+
+    private static final int TAG_CMAP = SfntParser.TAG_CMAP;
+    private static final int TAG_HEAD = 0x68656164;         // 'head'
+
+    // أكبر عدد جداول معقول لخط حقيقي؛ ما فوقه يعني ترويسة تالفة
+    private static final int MAX_TABLES = 256;
+    private static final int MAX_FACES = 4096;
+    // أول face في TTC يُفحص فقط إن كان قريباً من بداية الملف
+    private static final int MAX_FACE_SKIP = 64 * 1024;
+
+    private static final int SFNT_HEADER_SIZE = 12;
+    private static final int SFNT_RECORD_SIZE = 16;
+    private static final int WOFF_HEADER_SIZE = 44;
+    private static final int WOFF_RECORD_SIZE = 20;
+    private static final int WOFF2_HEADER_SIZE = 48;
+
+    private static final int READ_BUFFER_SIZE = 1024;
+
+    private FontHeaderValidator() {
+    }
+
+    /**
+     * نتيجة الفحص: النوع عند النجاح، أو رسالة الرفض وسببه التقني.
+     */
+    public static final class Verdict {
+        private final FontFormat format;
+        private final boolean archive;
+        private final int errorMessage;
+        private final String detail;
+
+        private Verdict(FontFormat format, boolean archive, int errorMessage, String detail) {
+            this.format = format;
+            this.archive = archive;
+            this.errorMessage = errorMessage;
+            this.detail = detail;
+        }
+
+        static Verdict valid(FontFormat format) {
+            return new Verdict(format, false, 0, null);
+        }
+
+        static Verdict archive() {
+            return new Verdict(FontFormat.UNKNOWN, true, 0, null);
+        }
+
+        static Verdict notAFont(String detail) {
+            return new Verdict(FontFormat.UNKNOWN, false, R.string.font_viewer_error_not_a_font, detail);
+        }
+
+        static Verdict damaged(FontFormat format, String detail) {
+            return new Verdict(format, false, R.string.font_viewer_error_damaged_font, detail);
+        }
+
+        static Verdict unreadable(String detail) {
+            return new Verdict(FontFormat.UNKNOWN, false, R.string.font_viewer_error_unreadable_font, detail);
+        }
+
+        /** خط سليم الترويسة (وليس أرشيفاً). */
+        public boolean isValid() {
+            return errorMessage == 0 && !archive;
+        }
+
+        /** أرشيف ZIP؛ يُعالج عبر FontArchiveImporter. */
+        public boolean isArchive() {
+            return archive;
+        }
+
+        public FontFormat getFormat() {
+            return format;
+        }
+
+        /** معرف نص الرسالة المعروضة للمستخدم، أو 0 إن لم يُرفض الملف. */
+        public int getErrorMessage() {
+            return errorMessage;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+    }
+
+    /**
+     * فحص مستند من الـ content resolver. يُستدعى على خيط خلفي.
+     */
+    public static Verdict validate(Context context, Uri uri) {
+        try {
+            ParcelFileDescriptor pfd = context.getContentResolver().openFileDescriptor(uri, "r");
+            if (pfd == null) return Verdict.unreadable("No descriptor for " + uri);
+            long size = pfd.getStatSize();
+            try (InputStream in = new ParcelFileDescriptor.AutoCloseInputStream(pfd)) {
+                Verdict verdict = validate(in, size);
+                if (!verdict.isValid() && !verdict.isArchive()) {
+                    Log.w(TAG, "Rejected " + uri + ": " + verdict.getDetail());
+                }
+                return verdict;
+            }
+        } catch (IOException | SecurityException e) {
+            Log.w(TAG, "Cannot read " + uri + ": " + e.getMessage());
+            return Verdict.unreadable(e.getMessage());
+        }
+    }
+
+    /**
+     * فحص ترويسة ملف سيُنسخ من نفس التيار بعد ذلك: القراءة من الـ channel ثم إعادة موضعه إلى
+     * البداية، فلا يُفتح المستند مرتين. يعيد null دون قراءة شيء إن لم يكن الـ channel قابلاً للـ seek
+     * (pipe). لا يُغلق التيار.
+     */
+    public static Verdict validateAndRewind(FileInputStream source, long size) throws IOException {
+        FileChannel channel = source.getChannel();
+        if (!FontStore.isSeekable(channel)) return null;
+        long start = channel.position();
+        Verdict verdict = validate(source, size);
+        channel.position(start);
+        return verdict;
+    }
+
+    /**
+     * فحص أول بايتات التيار. size هو الحجم الكلي إن كان معروفاً، أو قيمة سالبة.
+     * لا يُغلق التيار.
+     */
+    public static Verdict validate(InputStream source, long size) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(source, READ_BUFFER_SIZE));
+        byte[] header = new byte[FontFormat.SNIFF_LENGTH];
+        in.mark(FontFormat.SNIFF_LENGTH);
+        int headerLength = FontStore.readFully(in, header);
+        in.reset();
+
+        if (headerLength == 0) return Verdict.notAFont("Empty file");
+        if (FontArchiveImporter.isArchive(header, headerLength)) return Verdict.archive();
+
+        FontFormat format = FontFormat.detect(header, headerLength);
+        try {
+            switch (format) {
+                case TRUETYPE:
+                case OPENTYPE:
+                    return checkTableDirectory(in, format, 0, size);
+                case COLLECTION:
+                    return checkCollection(in, size);
+                case WOFF:
+                    return checkWoff(in, size);
+                case WOFF2:
+                    return checkWoff2(in, size);
+                default:
+                    return Verdict.notAFont(String.format(Locale.US, "Unknown signature %08X",
+                            headerLength >= 4 ? readTag(header) : 0));
+            }
+        } catch (EOFException e) {
+            return Verdict.damaged(format, "Truncated header");
+        }
+    }
+
+    /**
+     * table directory لـ face واحد يبدأ عند الموضع الحالي للتيار (faceOffset من بداية الملف).
+     */
+    private static Verdict checkTableDirectory(DataInputStream in, FontFormat format, long faceOffset, long size)
+            throws IOException {
+        int version = in.readInt();
+        if (FontFormat.fromTag(version) != FontFormat.TRUETYPE && FontFormat.fromTag(version) != FontFormat.OPENTYPE) {
+            return Verdict.damaged(format, String.format(Locale.US, "Bad sfnt version %08X", version));
+        }
+        int numTables = in.readUnsignedShort();
+        skipFully(in, 6);    // searchRange, entrySelector, rangeShift
+        if (numTables == 0 || numTables > MAX_TABLES) {
+            return Verdict.damaged(format, "Table count " + numTables);
+        }
+
+        long directoryEnd = faceOffset + SFNT_HEADER_SIZE + (long) numTables * SFNT_RECORD_SIZE;
+        if (size >= 0 && directoryEnd > size) return Verdict.damaged(format, "Directory past end of file");
+
+        boolean hasCmap = false;
+        boolean hasHead = false;
+        for (int i = 0; i < numTables; i++) {
+            int tag = in.readInt();
+            in.readInt();   // checksum
+            long offset = in.readInt() & 0xFFFFFFFFL;
+            long length = in.readInt() & 0xFFFFFFFFL;
+            if (!isPrintableTag(tag)) return Verdict.damaged(format, "Bad table tag at record " + i);
+            if (offset < SFNT_HEADER_SIZE || (size >= 0 && offset + length > size)) {
+                return Verdict.damaged(format, String.format(Locale.US, "Table '%s' out of bounds", tagToString(tag)));
+            }
+            if (tag == TAG_CMAP) hasCmap = true;
+            if (tag == TAG_HEAD) hasHead = true;
+        }
+        if (!hasCmap || !hasHead) return Verdict.damaged(format, "Missing cmap or head table");
+        return Verdict.valid(format);
+    }
+
+    private static Verdict checkCollection(DataInputStream in, long size) throws IOException {
+        in.readInt();   // 'ttcf'
+        int major = in.readUnsignedShort();
+        in.readUnsignedShort();
+        long numFonts = in.readInt() & 0xFFFFFFFFL;
+        if (major < 1 || major > 2) return Verdict.damaged(FontFormat.COLLECTION, "TTC version " + major);
+        if (numFonts == 0 || numFonts > MAX_FACES) return Verdict.damaged(FontFormat.COLLECTION, "Face count " + numFonts);
+
+        long firstOffset = -1;
+        for (int i = 0; i < numFonts; i++) {
+            long offset = in.readInt() & 0xFFFFFFFFL;
+            if (offset < SFNT_HEADER_SIZE || (size >= 0 && offset + SFNT_HEADER_SIZE > size)) {
+                return Verdict.damaged(FontFormat.COLLECTION, "Face " + i + " offset out of bounds");
+            }
+            if (i == 0) firstOffset = offset;
+        }
+
+        long consumed = SFNT_HEADER_SIZE + numFonts * 4;
+        if (firstOffset < consumed || firstOffset - consumed > MAX_FACE_SKIP) {
+            // ترتيب غير معتاد؛ الإزاحات سليمة والتحقق الكامل يحدث عند التحليل
+            return Verdict.valid(FontFormat.COLLECTION);
+        }
+        skipFully(in, firstOffset - consumed);
+        Verdict face = checkTableDirectory(in, FontFormat.COLLECTION, firstOffset, size);
+        return face.isValid() ? Verdict.valid(FontFormat.COLLECTION) : face;
+    }
+
+    private static Verdict checkWoff(DataInputStream in, long size) throws IOException {
+        in.readInt();   // 'wOFF'
+        int flavor = in.readInt();
+        long length = in.readInt() & 0xFFFFFFFFL;
+        int numTables = in.readUnsignedShort();
+        int reserved = in.readUnsignedShort();
+        long totalSfntSize = in.readInt() & 0xFFFFFFFFL;
+        skipFully(in, WOFF_HEADER_SIZE - 20);
+
+        FontFormat flavorFormat = FontFormat.fromTag(flavor);
+        if (flavorFormat != FontFormat.TRUETYPE && flavorFormat != FontFormat.OPENTYPE) {
+            return Verdict.damaged(FontFormat.WOFF, String.format(Locale.US, "Bad flavor %08X", flavor));
+        }
+        Verdict common = checkWebHeader(FontFormat.WOFF, length, size, numTables, reserved, totalSfntSize);
+        if (common != null) return common;
+
+        long dataStart = WOFF_HEADER_SIZE + (long) numTables * WOFF_RECORD_SIZE;
+        for (int i = 0; i < numTables; i++) {
+            int tag = in.readInt();
+            long offset = in.readInt() & 0xFFFFFFFFL;
+            long compLength = in.readInt() & 0xFFFFFFFFL;
+            long origLength = in.readInt() & 0xFFFFFFFFL;
+            in.readInt();   // origChecksum
+            if (!isPrintableTag(tag) || offset < dataStart || offset + compLength > length || compLength > origLength) {
+                return Verdict.damaged(FontFormat.WOFF, "Bad table record " + i);
+            }
+        }
+        return Verdict.valid(FontFormat.WOFF);
+    }
+
+    private static Verdict checkWoff2(DataInputStream in, long size) throws IOException {
+        in.readInt();   // 'wOF2'
+        int flavor = in.readInt();
+        long length = in.readInt() & 0xFFFFFFFFL;
+        int numTables = in.readUnsignedShort();
+        int reserved = in.readUnsignedShort();
+        long totalSfntSize = in.readInt() & 0xFFFFFFFFL;
+        long totalCompressedSize = in.readInt() & 0xFFFFFFFFL;
+
+        if (FontFormat.fromTag(flavor) == FontFormat.UNKNOWN || FontFormat.fromTag(flavor).isWebFont()) {
+            return Verdict.damaged(FontFormat.WOFF2, String.format(Locale.US, "Bad flavor %08X", flavor));
+        }
+        Verdict common = checkWebHeader(FontFormat.WOFF2, length, size, numTables, reserved, totalSfntSize);
+        if (common != null) return common;
+        if (totalCompressedSize == 0 || WOFF2_HEADER_SIZE + totalCompressedSize > length) {
+            return Verdict.damaged(FontFormat.WOFF2, "Compressed size " + totalCompressedSize);
+        }
+        return Verdict.valid(FontFormat.WOFF2);
+    }
+
+    private static Verdict checkWebHeader(FontFormat format, long length, long size, int numTables,
+                                          int reserved, long totalSfntSize) {
+        if (size >= 0 && length != size) return Verdict.damaged(format, "Length " + length + " != file size " + size);
+        if (numTables == 0 || numTables > MAX_TABLES) return Verdict.damaged(format, "Table count " + numTables);
+        if (reserved != 0) return Verdict.damaged(format, "Reserved field set");
+        if (totalSfntSize < SFNT_HEADER_SIZE + (long) numTables * SFNT_RECORD_SIZE) {
+            return Verdict.damaged(format, "Decoded size " + totalSfntSize);
+        }
+        return null;
+    }
+
+    private static void skipFully(DataInputStream in, long n) throws IOException {
+        while (n > 0) {
+            long skipped = in.skip(n);
+            if (skipped <= 0) {
+                if (in.read() < 0) throw new EOFException();
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+
+    private static boolean isPrintableTag(int tag) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            int c = (tag >> shift) & 0xFF;
+            if (c < 0x20 || c > 0x7E) return false;
+        }
+        return true;
+    }
+
+    private static int readTag(byte[] b) {
+        return ((b[0] & 0xFF) << 24) | ((b[1] & 0xFF) << 16) | ((b[2] & 0xFF) << 8) | (b[3] & 0xFF);
+    }
+
+    private static String tagToString(int tag) {
+        char[] c = {(char) ((tag >> 24) & 0xFF), (char) ((tag >> 16) & 0xFF),
+                (char) ((tag >> 8) & 0xFF), (char) (tag & 0xFF)};
+        return new String(c);
+    }
+}
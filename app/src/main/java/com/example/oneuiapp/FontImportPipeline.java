@@ -0,0 +1,349 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FontImportPipeline - استيراد دفعة من الخطوط على ثلاث مراحل متوازية:
+ * - copy: نسخ الملف إلى FontStore (I/O)، بعدد خيوط من الإعدادات (SettingsHelper.getImportConcurrency)
+ * - parse: استخراج الاسم وبناء فهرس cmap لكل face (CPU)، بعدد أنوية الجهاز كحد أقصى
+ * - register: تسجيل المصدر ووقت الاستخدام وصفوف FontLibrary، على خيط واحد حتى تبقى الكتابة متسلسلة؛
+ *   صفوف المكتبة تُجمع وتُكتب كل LIBRARY_BATCH_SIZE في transaction واحدة، ومعها فهرس البحث
+ * نتيجة كل عنصر تُرسل إلى الـ listener على الخيط الرئيسي فور انتهائه.
+ * أرشيف ZIP يُفك أثناء النسخ (FontArchiveImporter) وكل خط فيه يصبح عنصراً مستقلاً.
+ * العناصر تُضاف دفعة واحدة عبر start() أو تدريجياً عبر submit() ثم finishSubmitting()
+ * (مثل فحص مجلد تظهر ملفاته أثناء المرور عليه).
+ */
+public final class FontImportPipeline {
+
+    private static final String TAG = "FontImportPipeline";
+
+    // حدود عدد خيوط النسخ الافتراضي المشتق من عدد أنوية الجهاز
+    private static final int MIN_DEFAULT_CONCURRENCY = 2;
+    private static final int MAX_DEFAULT_CONCURRENCY = 4;
+
+    private static final int LIBRARY_BATCH_SIZE = 32;
+
+    public interface Listener {
+        void onItemFinished(Result result, int finishedCount, int totalCount);
+
+        void onBatchFinished(int importedCount, int failedCount);
+    }
+
+    /**
+     * نتيجة عنصر واحد: file و displayName عند النجاح، و error عند الفشل.
+     */
+    public static final class Result {
+        public final int index;
+        public final Uri uri;
+        public final String fileName;
+        public final File file;
+        public final String displayName;
+        public final String error;
+
+        Result(int index, Uri uri, String fileName, File file, String displayName, String error) {
+            this.index = index;
+            this.uri = uri;
+            this.fileName = fileName;
+            this.file = file;
+            this.displayName = displayName;
+            this.error = error;
+        }
+
+        public boolean isSuccess() {
+            return file != null;
+        }
+    }
+
+    private final Context appContext;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final int copyThreads;
+    private final int parseThreads;
+    // تُنشأ عند أول عنصر فقط؛ دفعة لم يُضف إليها شيء لا تترك خيوطاً معلقة
+    private volatile ExecutorService copyExecutor;
+    private volatile ExecutorService parseExecutor;
+    private volatile ExecutorService registerExecutor;
+    // كل عنصر له إشارة خاصة (FontStore يربط بها مستمع إغلاق واحد)، والإلغاء يمر عليها كلها
+    private final Set<CancellationSignal> activeSignals = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    // عدد النتائج المنتظرة؛ الأرشيف يحجز خانة حتى ينتهي فكه ثم يستبدلها بخطوطه
+    private final AtomicInteger expected = new AtomicInteger();
+    private final AtomicInteger finished = new AtomicInteger();
+    private final AtomicInteger imported = new AtomicInteger();
+    private boolean submitClosed;
+    private boolean batchReported;
+    // تُقرأ وتُكتب على registerExecutor فقط
+    private final List<FontLibrary.Entry> pendingLibraryEntries = new ArrayList<>();
+
+    public FontImportPipeline(Context context, int concurrency, Listener listener) {
+        this.appContext = context.getApplicationContext();
+        this.listener = listener;
+        this.copyThreads = Math.max(1, concurrency);
+        this.parseThreads = Math.max(1, Math.min(copyThreads, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * عدد خيوط النسخ عند اختيار "تلقائي" في الإعدادات: نصف الأنوية بين 2 و 4.
+     */
+    public static int defaultConcurrency() {
+        int half = Runtime.getRuntime().availableProcessors() / 2;
+        return Math.max(MIN_DEFAULT_CONCURRENCY, Math.min(MAX_DEFAULT_CONCURRENCY, half));
+    }
+
+    private synchronized void ensureExecutors() {
+        if (copyExecutor != null) return;
+        parseExecutor = Executors.newFixedThreadPool(parseThreads);
+        registerExecutor = Executors.newSingleThreadExecutor();
+        copyExecutor = Executors.newFixedThreadPool(copyThreads);
+    }
+
+    /**
+     * بدء استيراد كل العناصر. fileNames (قد تكون null) تُستخدم للامتداد الاحتياطي وللعرض.
+     */
+    public void start(List<Uri> uris, List<String> fileNames) {
+        for (int i = 0; i < uris.size(); i++) {
+            submit(uris.get(i), fileNames != null ? fileNames.get(i) : null);
+        }
+        finishSubmitting();
+    }
+
+    /**
+     * إضافة عنصر واحد إلى الدفعة؛ يبدأ نسخه فوراً. آمنة من أي خيط.
+     */
+    public void submit(Uri uri, String fileName) {
+        submit(uri, fileName, false);
+    }
+
+    /**
+     * fontsOnly لعناصر فحص المجلدات: ما ليس خطاً من ترويسته (توقيع غير معروف أو أرشيف) يُتجاهل
+     * بصمت بدلاً من نتيجة خطأ. الخط التالف يبقى نتيجة خطأ كالمعتاد.
+     */
+    public void submit(Uri uri, String fileName, boolean fontsOnly) {
+        final int index = nextIndex.getAndIncrement();
+        expected.incrementAndGet();
+        ensureExecutors();
+        copyExecutor.execute(() -> {
+            File copied;
+            FileInputStream in = null;
+            try {
+                if (cancelled) throw new OperationCanceledException();
+                ParcelFileDescriptor pfd = appContext.getContentResolver().openFileDescriptor(uri, "r");
+                if (pfd == null) throw new IllegalStateException("Cannot open " + uri);
+                long size = pfd.getStatSize();
+                in = new ParcelFileDescriptor.AutoCloseInputStream(pfd);
+
+                // ★★★ واصف واحد للفحص والنسخ: الترويسة تُقرأ مرة ثم يعود الموضع إلى البداية ★★★
+                // الملف المرفوض لا يصل إلى FontStore
+                FontHeaderValidator.Verdict verdict = FontHeaderValidator.validateAndRewind(in, size);
+                if (verdict == null) {
+                    // pipe: الفحص من واصف ثانٍ، والنسخ من الأول الذي لم يُقرأ منه شيء
+                    verdict = FontHeaderValidator.validate(appContext, uri);
+                } else if (!verdict.isValid() && !verdict.isArchive()) {
+                    Log.w(TAG, "Rejected " + uri + ": " + verdict.getDetail());
+                }
+                if (fontsOnly && verdict.getFormat() == FontFormat.UNKNOWN) {
+                    // خانة العنصر تُحرر دون نتيجة
+                    expected.decrementAndGet();
+                    maybeFinishBatch();
+                    return;
+                }
+                if (verdict.isArchive()) {
+                    InputStream archive = in;
+                    in = null;
+                    expandArchive(index, uri, archive, fileName);
+                    return;
+                }
+                if (!verdict.isValid()) {
+                    finish(new Result(index, uri, fileName, null, null, appContext.getString(verdict.getErrorMessage())));
+                    return;
+                }
+                FileInputStream source = in;
+                in = null;
+                copied = copy(source, size, verdict.getFormat(), fileName);
+            } catch (Exception e) {
+                finish(new Result(index, uri, fileName, null, null, describe(e)));
+                return;
+            } finally {
+                closeQuietly(in);
+            }
+            register(index, uri, fileName, copied, uri);
+        });
+    }
+
+    /**
+     * الخطوط داخل الأرشيف تُنسخ بالتتابع على نفس خيط النسخ، وكل خط يمر بمرحلتي parse و register.
+     * المصدر لا يُسجل لها: إعادة الجلب من الأرشيف غير ممكنة عبر refetch. يُغلق in.
+     */
+    private void expandArchive(int archiveIndex, Uri uri, InputStream in, String fileName) throws Exception {
+        CancellationSignal signal = new CancellationSignal();
+        activeSignals.add(signal);
+        int fonts;
+        try {
+            if (cancelled) signal.cancel();
+            fonts = FontArchiveImporter.importZip(appContext, in, (file, entryName) -> {
+                expected.incrementAndGet();
+                register(nextIndex.getAndIncrement(), uri, entryName, file, null);
+            }, signal);
+        } finally {
+            activeSignals.remove(signal);
+        }
+        if (fonts == 0) throw new IllegalStateException("No fonts in " + (fileName != null ? fileName : "archive"));
+        // خانة الأرشيف نفسه تُحرر بعد أن حلت محلها نتائج خطوطه
+        expected.decrementAndGet();
+        maybeFinishBatch();
+    }
+
+    private void register(int index, Uri uri, String fileName, File copied, Uri source) {
+        parseExecutor.execute(() -> {
+            String displayName = parse(copied);
+            List<FontLibrary.Entry> entries = describe(copied, source);
+            registerExecutor.execute(() -> {
+                FontCacheManager cache = FontCacheManager.getInstance(appContext);
+                cache.recordSource(copied, source);
+                cache.recordUse(copied);
+                pendingLibraryEntries.addAll(entries);
+                if (pendingLibraryEntries.size() >= LIBRARY_BATCH_SIZE) flushLibrary();
+                finish(new Result(index, uri, fileName, copied, displayName, null));
+            });
+        });
+    }
+
+    /**
+     * لا عناصر أخرى بعد الآن؛ onBatchFinished يصل بعد انتهاء آخر عنصر مُضاف.
+     */
+    public void finishSubmitting() {
+        synchronized (this) {
+            submitClosed = true;
+        }
+        maybeFinishBatch();
+    }
+
+    /**
+     * إلغاء العناصر الجارية والمتبقية. كل عنصر متبقٍ ينتهي بنتيجة "Cancelled" فتكتمل الدفعة
+     * ويصل onBatchFinished كالمعتاد؛ النتائج التي وصلت تبقى كما هي.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (CancellationSignal s : activeSignals) {
+            s.cancel();
+        }
+    }
+
+    /**
+     * النسخ من التيار الذي فُحصت ترويسته؛ format من الفحص فلا يُعاد تحديده. يُغلق in.
+     */
+    private File copy(FileInputStream in, long size, FontFormat format, String fileName) throws Exception {
+        String ext = null;
+        if (fileName != null) {
+            int idx = fileName.lastIndexOf('.');
+            if (idx > 0 && idx < fileName.length() - 1) ext = fileName.substring(idx);
+        }
+        CancellationSignal signal = new CancellationSignal();
+        activeSignals.add(signal);
+        try {
+            if (cancelled) signal.cancel();
+            return FontStore.getInstance(appContext).importFont(in, size, format, ext, null, signal);
+        } finally {
+            activeSignals.remove(signal);
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        if (in == null) return;
+        try {
+            in.close();
+        } catch (IOException ignored) {
+            // لم يُقرأ منه شيء يُحفظ
+        }
+    }
+
+    private String parse(File fontFile) {
+        try {
+            return FontMetadataEngine.getInstance(appContext).getMetadata(fontFile).getDisplayName();
+        } catch (Exception e) {
+            Log.w(TAG, "parse failed for " + fontFile.getName() + ": " + e.getMessage());
+            return FontMetadata.UNKNOWN_FONT;
+        }
+    }
+
+    /**
+     * صفوف المكتبة لكل faces الملف؛ يبني أيضاً فهرس cmap الجانبي لكل face.
+     */
+    private List<FontLibrary.Entry> describe(File fontFile, Uri source) {
+        try {
+            return FontLibrary.describe(appContext, fontFile, source);
+        } catch (Exception e) {
+            Log.w(TAG, "describe failed for " + fontFile.getName() + ": " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    private void flushLibrary() {
+        if (pendingLibraryEntries.isEmpty()) return;
+        try {
+            FontLibrary.getInstance(appContext).putAll(pendingLibraryEntries);
+            FontSearchIndex.getInstance(appContext).addAll(pendingLibraryEntries);
+        } catch (Exception e) {
+            Log.w(TAG, "library write failed: " + e.getMessage());
+        }
+        pendingLibraryEntries.clear();
+    }
+
+    private void finish(Result result) {
+        if (result.isSuccess()) imported.incrementAndGet();
+        int done = finished.incrementAndGet();
+        int total = expected.get();
+        mainHandler.post(() -> listener.onItemFinished(result, done, total));
+        maybeFinishBatch();
+    }
+
+    private void maybeFinishBatch() {
+        int total;
+        synchronized (this) {
+            total = expected.get();
+            if (batchReported || !submitClosed || finished.get() < total) return;
+            batchReported = true;
+        }
+        int ok = imported.get();
+        if (registerExecutor == null) {
+            // لم يُضف أي عنصر؛ لا خيوط لإيقافها
+            mainHandler.post(() -> listener.onBatchFinished(0, 0));
+            return;
+        }
+        // آخر الصفوف تُكتب أولاً، فمن يعيد قراءة المكتبة عند onBatchFinished يجدها كاملة
+        registerExecutor.execute(() -> {
+            flushLibrary();
+            mainHandler.post(() -> listener.onBatchFinished(ok, total - ok));
+        });
+        copyExecutor.shutdown();
+        parseExecutor.shutdown();
+        registerExecutor.shutdown();
+    }
+
+    private static String describe(Exception e) {
+        if (e instanceof OperationCanceledException) return "Cancelled";
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,514 @@
+package com.example.oneuiapp;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.net.Uri;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FontLibrary - مكتبة الخطوط المستوردة في قاعدة SQLite محلية.
+ * - صف لكل face: hash المحتوى، المسار، الـ URI الأصلي، حقول جدول name، أحجام الجداول،
+ *   عدد الـ glyphs وملخص تغطية cmap، و hash لكل جدول لكشف التكرار (FontDuplicateDetector)
+ * - فتح المكتبة استعلام واحد على فهرس family/full_name بدون إعادة تحليل أي ملف
+ * - الكتابة الجماعية (استيراد دفعة أو مجلد) تتم داخل transaction واحدة
+ * - الخطوط الموجودة في FontStore قبل وجود المكتبة (أو بعد إعادة إنشاء الجدول) تُسجل مرة واحدة
+ *   عند أول قراءة للمكتبة
+ */
+public final class FontLibrary extends SQLiteOpenHelper {
+
+    private static final String TAG = "FontLibrary";
+    private static final String DATABASE_NAME = "font_library.db";
+    private static final int DATABASE_VERSION = 2;
+    private static final String PREFS_NAME = "FontLibraryPrefs";
+    private static final String KEY_BACKFILLED = "store_backfilled";
+    private static final String KEY_GENERATION = "generation";
+
+    static final String TABLE_FONTS = "fonts";
+    static final String COL_ID = "_id";
+    static final String COL_HASH = "content_hash";
+    static final String COL_FACE = "face_index";
+    static final String COL_PATH = "file_path";
+    static final String COL_SOURCE = "source_uri";
+    static final String COL_DISPLAY_NAME = "display_name";
+    static final String COL_FULL_NAME = "full_name";
+    static final String COL_FAMILY = "family";
+    static final String COL_SUBFAMILY = "subfamily";
+    static final String COL_POSTSCRIPT = "postscript_name";
+    static final String COL_VERSION = "version";
+    static final String COL_MANUFACTURER = "manufacturer";
+    static final String COL_FILE_SIZE = "file_size";
+    static final String COL_TABLE_SIZES = "table_sizes";
+    static final String COL_GLYPH_COUNT = "glyph_count";
+    static final String COL_CODEPOINTS = "codepoint_count";
+    static final String COL_ARABIC = "arabic_count";
+    static final String COL_ADDED = "added_at";
+    static final String COL_TABLE_HASHES = "table_hashes";
+    static final String COL_TABLES_HASH = "tables_hash";
+    static final String COL_OUTLINE_HASH = "outline_hash";
+
+    private static final String[] ENTRY_COLUMNS = {
+            COL_ID, COL_HASH, COL_FACE, COL_PATH, COL_SOURCE, COL_DISPLAY_NAME, COL_FULL_NAME, COL_FAMILY,
+            COL_SUBFAMILY, COL_POSTSCRIPT, COL_VERSION, COL_MANUFACTURER, COL_FILE_SIZE, COL_TABLE_SIZES,
+            COL_GLYPH_COUNT, COL_CODEPOINTS, COL_ARABIC, COL_ADDED, COL_TABLE_HASHES, COL_TABLES_HASH,
+            COL_OUTLINE_HASH
+    };
+
+    private static final int TAG_MAXP = 0x6D617870;         // 'maxp'
+    private static final int ARABIC_BLOCK_START = 0x0600;
+    private static final int ARABIC_BLOCK_END = 0x06FF;
+
+    private static volatile FontLibrary sInstance;
+
+    private final Context appContext;
+    private final SharedPreferences prefs;
+    private volatile boolean backfillChecked;
+
+    private FontLibrary(Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+        appContext = context.getApplicationContext();
+        prefs = appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public static FontLibrary getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (FontLibrary.class) {
+                if (sInstance == null) {
+                    sInstance = new FontLibrary(context);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_FONTS + " ("
+                + COL_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COL_HASH + " TEXT NOT NULL, "
+                + COL_FACE + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_PATH + " TEXT, "
+                + COL_SOURCE + " TEXT, "
+                + COL_DISPLAY_NAME + " TEXT, "
+                + COL_FULL_NAME + " TEXT, "
+                + COL_FAMILY + " TEXT, "
+                + COL_SUBFAMILY + " TEXT, "
+                + COL_POSTSCRIPT + " TEXT, "
+                + COL_VERSION + " TEXT, "
+                + COL_MANUFACTURER + " TEXT, "
+                + COL_FILE_SIZE + " INTEGER, "
+                + COL_TABLE_SIZES + " TEXT, "
+                + COL_GLYPH_COUNT + " INTEGER, "
+                + COL_CODEPOINTS + " INTEGER, "
+                + COL_ARABIC + " INTEGER, "
+                + COL_ADDED + " INTEGER, "
+                + COL_TABLE_HASHES + " TEXT, "
+                + COL_TABLES_HASH + " TEXT, "
+                + COL_OUTLINE_HASH + " TEXT, "
+                + "UNIQUE (" + COL_HASH + ", " + COL_FACE + "))");
+        // الترتيب في listAll يطابق هذين الفهرسين، فلا يحتاج SQLite إلى فرز مؤقت
+        db.execSQL("CREATE INDEX idx_fonts_family ON " + TABLE_FONTS
+                + " (" + COL_FAMILY + " COLLATE NOCASE, " + COL_FULL_NAME + " COLLATE NOCASE)");
+        db.execSQL("CREATE INDEX idx_fonts_full_name ON " + TABLE_FONTS
+                + " (" + COL_FULL_NAME + " COLLATE NOCASE)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion == 1) {
+            // أعمدة الـ hash تبقى فارغة للصفوف القديمة، و FontDuplicateDetector يملؤها عند أول فحص
+            db.execSQL("ALTER TABLE " + TABLE_FONTS + " ADD COLUMN " + COL_TABLE_HASHES + " TEXT");
+            db.execSQL("ALTER TABLE " + TABLE_FONTS + " ADD COLUMN " + COL_TABLES_HASH + " TEXT");
+            db.execSQL("ALTER TABLE " + TABLE_FONTS + " ADD COLUMN " + COL_OUTLINE_HASH + " TEXT");
+            return;
+        }
+        // الجدول يُعاد إنشاؤه فارغاً، ثم يعيد backfillFromStore تسجيل ملفات filesDir/fonts
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_FONTS);
+        onCreate(db);
+        prefs.edit().remove(KEY_BACKFILLED).commit();
+        backfillChecked = false;
+        bumpGeneration();
+    }
+
+    /**
+     * رقم يزيد مع كل تعديل على صفوف المكتبة (إضافة، حذف، إعادة إنشاء). الفهارس المحفوظة خارج
+     * القاعدة (FontSearchIndex) تحفظه معها وتُعاد بناؤها إن تغير.
+     */
+    public long getGeneration() {
+        return prefs.getLong(KEY_GENERATION, 0);
+    }
+
+    private void bumpGeneration() {
+        synchronized (prefs) {
+            prefs.edit().putLong(KEY_GENERATION, getGeneration() + 1).commit();
+        }
+    }
+
+    /**
+     * ★★★ تسجيل لمرة واحدة لخطوط FontStore التي لا صف لها ★★★
+     * الخطوط المستوردة قبل وجود المكتبة لا تظهر في القائمة ولا البحث ولا الفحوص بدونه.
+     * كل ملف بلا صف يُوصف ويُسجل في transaction واحدة، ثم يُحفظ علم فلا يُعاد الفحص.
+     * ملفات selected_font_* القديمة تُرحّل قبل ذلك إلى أسماء hash، وصفوفها القديمة تُحذف فيُعاد الفحص.
+     * يُستدعى من listAll على خيط خلفي.
+     */
+    private void backfillFromStore() {
+        if (backfillChecked) return;
+        synchronized (this) {
+            if (backfillChecked) return;
+            // فتح القاعدة أولاً: onUpgrade قد يمسح العلم إن أعاد إنشاء الجدول
+            SQLiteDatabase db = getWritableDatabase();
+            Map<String, File> migrated = FontStore.getInstance(appContext).migrateLegacyFiles();
+            for (String oldPath : migrated.keySet()) removeByPath(oldPath);
+            if (!migrated.isEmpty() || !prefs.getBoolean(KEY_BACKFILLED, false)) {
+                Set<String> known = new HashSet<>();
+                try (Cursor c = db.query(true, TABLE_FONTS, new String[]{COL_PATH}, null, null, null, null, null, null)) {
+                    while (c.moveToNext()) known.add(c.getString(0));
+                }
+
+                File[] files = FontStore.getInstance(appContext).getFontsDir()
+                        .listFiles((dir, name) -> FontStore.isStoredFontName(name));
+                FontCacheManager cache = FontCacheManager.getInstance(appContext);
+                List<Entry> entries = new ArrayList<>();
+                if (files != null) {
+                    for (File f : files) {
+                        if (known.contains(f.getAbsolutePath())) continue;
+                        try {
+                            entries.addAll(describe(appContext, f, cache.getSource(f)));
+                        } catch (IOException | RuntimeException e) {
+                            Log.w(TAG, "backfill skipped " + f.getName() + ": " + e.getMessage());
+                        }
+                    }
+                }
+                putAll(entries);
+                prefs.edit().putBoolean(KEY_BACKFILLED, true).apply();
+            }
+            backfillChecked = true;
+        }
+    }
+
+    /**
+     * كل الخطوط مرتبة حسب العائلة ثم الاسم الكامل: استعلام واحد على idx_fonts_family.
+     */
+    public List<Entry> listAll() {
+        backfillFromStore();
+        List<Entry> out = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().query(TABLE_FONTS, ENTRY_COLUMNS, null, null, null, null,
+                COL_FAMILY + " COLLATE NOCASE, " + COL_FULL_NAME + " COLLATE NOCASE")) {
+            while (c.moveToNext()) out.add(Entry.fromCursor(c));
+        }
+        return out;
+    }
+
+    /**
+     * خطوط عائلة واحدة عبر idx_fonts_family.
+     */
+    public List<Entry> findByFamily(String family) {
+        backfillFromStore();
+        List<Entry> out = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().query(TABLE_FONTS, ENTRY_COLUMNS,
+                COL_FAMILY + " = ? COLLATE NOCASE", new String[]{family}, null, null,
+                COL_FULL_NAME + " COLLATE NOCASE")) {
+            while (c.moveToNext()) out.add(Entry.fromCursor(c));
+        }
+        return out;
+    }
+
+    public void put(Entry entry) {
+        putAll(Collections.singletonList(entry));
+    }
+
+    /**
+     * إدراج أو تحديث مجموعة صفوف في transaction واحدة.
+     */
+    public void putAll(List<Entry> entries) {
+        if (entries.isEmpty()) return;
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (Entry e : entries) {
+                db.insertWithOnConflict(TABLE_FONTS, null, e.toValues(), SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        bumpGeneration();
+    }
+
+    /**
+     * كتابة hashes الجداول المحسوبة لاحقاً لصفوف موجودة، في transaction واحدة.
+     */
+    public void updateHashes(List<Entry> entries) {
+        if (entries.isEmpty()) return;
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (Entry e : entries) {
+                ContentValues v = new ContentValues();
+                v.put(COL_TABLE_HASHES, e.tableHashes);
+                v.put(COL_TABLES_HASH, e.tablesHash);
+                v.put(COL_OUTLINE_HASH, e.outlineHash);
+                db.update(TABLE_FONTS, v, COL_ID + " = ?", new String[]{String.valueOf(e.id)});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * حذف صفوف ملف لم يعد موجوداً ولا مصدر له لإعادة الجلب.
+     */
+    public void removeByPath(String path) {
+        if (getWritableDatabase().delete(TABLE_FONTS, COL_PATH + " = ?", new String[]{path}) > 0) bumpGeneration();
+    }
+
+    /**
+     * بناء صف لكل face في الملف بتحليل واحد له. يُستدعى على خيط خلفي.
+     */
+    public static List<Entry> describe(Context context, File fontFile, Uri source) throws IOException {
+        FontMetadataEngine engine = FontMetadataEngine.getInstance(context);
+        String hash = engine.contentHash(fontFile);
+        SfntParser parser = SfntParser.open(fontFile);
+        long now = System.currentTimeMillis();
+
+        List<Entry> out = new ArrayList<>(parser.getFaceCount());
+        for (int face = 0; face < parser.getFaceCount(); face++) {
+            FontMetadata meta = FontMetadataEngine.parse(parser, face, hash);
+
+            SfntParser.TableDirectory dir = parser.getTableDirectory(face);
+            StringBuilder tables = new StringBuilder();
+            for (int i = 0; i < dir.getTableCount(); i++) {
+                if (tables.length() > 0) tables.append(';');
+                tables.append(tagToString(dir.getTag(i))).append('=').append(dir.getLength(i));
+            }
+
+            int glyphCount = 0;
+            ByteBuffer maxp = parser.getTable(face, TAG_MAXP);
+            if (maxp != null && maxp.limit() >= 6) glyphCount = maxp.getShort(4) & 0xFFFF;
+
+            int codepoints = 0;
+            int arabic = 0;
+            try {
+                CmapCoverage coverage = CmapCoverage.forFont(fontFile, face);
+                codepoints = coverage.getCodepointCount();
+                arabic = coverage.countCovered(ARABIC_BLOCK_START, ARABIC_BLOCK_END);
+            } catch (IOException e) {
+                Log.w(TAG, "coverage failed for " + fontFile.getName() + ": " + e.getMessage());
+            }
+
+            FontDuplicateDetector.TableHashes hashes = FontDuplicateDetector.hashTables(parser, face);
+
+            out.add(new Entry(0, hash, face, fontFile.getAbsolutePath(), source != null ? source.toString() : null,
+                    meta.getDisplayName(), meta.getFullName(), meta.getFamily(), meta.getSubFamily(),
+                    meta.getPostScriptName(), meta.getVersion(), meta.getManufacturer(), fontFile.length(),
+                    tables.toString(), glyphCount, codepoints, arabic, now,
+                    hashes.perTable, hashes.tables, hashes.outlines));
+        }
+        return out;
+    }
+
+    static String tagToString(int tag) {
+        char[] c = {(char) ((tag >> 24) & 0xFF), (char) ((tag >> 16) & 0xFF),
+                (char) ((tag >> 8) & 0xFF), (char) (tag & 0xFF)};
+        return new String(c).trim();
+    }
+
+    /**
+     * صف واحد في المكتبة (face واحد من ملف). غير قابل للتعديل.
+     */
+    public static final class Entry {
+        private final long id;
+        private final String contentHash;
+        private final int faceIndex;
+        private final String filePath;
+        private final String sourceUri;
+        private final String displayName;
+        private final String fullName;
+        private final String family;
+        private final String subFamily;
+        private final String postScriptName;
+        private final String version;
+        private final String manufacturer;
+        private final long fileSize;
+        private final String tableSizes;
+        private final int glyphCount;
+        private final int codepointCount;
+        private final int arabicCount;
+        private final long addedAt;
+        private final String tableHashes;
+        private final String tablesHash;
+        private final String outlineHash;
+
+        Entry(long id, String contentHash, int faceIndex, String filePath, String sourceUri, String displayName,
+              String fullName, String family, String subFamily, String postScriptName, String version,
+              String manufacturer, long fileSize, String tableSizes, int glyphCount, int codepointCount,
+              int arabicCount, long addedAt, String tableHashes, String tablesHash, String outlineHash) {
+            this.id = id;
+            this.contentHash = contentHash;
+            this.faceIndex = faceIndex;
+            this.filePath = filePath;
+            this.sourceUri = sourceUri;
+            this.displayName = displayName;
+            this.fullName = fullName;
+            this.family = family;
+            this.subFamily = subFamily;
+            this.postScriptName = postScriptName;
+            this.version = version;
+            this.manufacturer = manufacturer;
+            this.fileSize = fileSize;
+            this.tableSizes = tableSizes;
+            this.glyphCount = glyphCount;
+            this.codepointCount = codepointCount;
+            this.arabicCount = arabicCount;
+            this.addedAt = addedAt;
+            this.tableHashes = tableHashes;
+            this.tablesHash = tablesHash;
+            this.outlineHash = outlineHash;
+        }
+
+        static Entry fromCursor(Cursor c) {
+            return new Entry(c.getLong(0), c.getString(1), c.getInt(2), c.getString(3), c.getString(4),
+                    c.getString(5), c.getString(6), c.getString(7), c.getString(8), c.getString(9),
+                    c.getString(10), c.getString(11), c.getLong(12), c.getString(13), c.getInt(14),
+                    c.getInt(15), c.getInt(16), c.getLong(17), c.getString(18), c.getString(19),
+                    c.getString(20));
+        }
+
+        /**
+         * نسخة من الصف مع hashes الجداول (لصفوف أُضيفت قبل وجود هذه الأعمدة).
+         */
+        Entry withHashes(String tableHashes, String tablesHash, String outlineHash) {
+            return new Entry(id, contentHash, faceIndex, filePath, sourceUri, displayName, fullName, family,
+                    subFamily, postScriptName, version, manufacturer, fileSize, this.tableSizes, glyphCount,
+                    codepointCount, arabicCount, addedAt, tableHashes, tablesHash, outlineHash);
+        }
+
+        ContentValues toValues() {
+            ContentValues v = new ContentValues();
+            v.put(COL_HASH, contentHash);
+            v.put(COL_FACE, faceIndex);
+            v.put(COL_PATH, filePath);
+            v.put(COL_SOURCE, sourceUri);
+            v.put(COL_DISPLAY_NAME, displayName);
+            v.put(COL_FULL_NAME, fullName);
+            v.put(COL_FAMILY, family);
+            v.put(COL_SUBFAMILY, subFamily);
+            v.put(COL_POSTSCRIPT, postScriptName);
+            v.put(COL_VERSION, version);
+            v.put(COL_MANUFACTURER, manufacturer);
+            v.put(COL_FILE_SIZE, fileSize);
+            v.put(COL_TABLE_SIZES, tableSizes);
+            v.put(COL_GLYPH_COUNT, glyphCount);
+            v.put(COL_CODEPOINTS, codepointCount);
+            v.put(COL_ARABIC, arabicCount);
+            v.put(COL_ADDED, addedAt);
+            v.put(COL_TABLE_HASHES, tableHashes);
+            v.put(COL_TABLES_HASH, tablesHash);
+            v.put(COL_OUTLINE_HASH, outlineHash);
+            return v;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        public int getFaceIndex() {
+            return faceIndex;
+        }
+
+        public String getFilePath() {
+            return filePath;
+        }
+
+        public String getSourceUri() {
+            return sourceUri;
+        }
+
+        public String getDisplayName() {
+            return displayName != null ? displayName : FontMetadata.UNKNOWN_FONT;
+        }
+
+        public String getFullName() {
+            return fullName;
+        }
+
+        public String getFamily() {
+            return family;
+        }
+
+        public String getSubFamily() {
+            return subFamily;
+        }
+
+        public String getPostScriptName() {
+            return postScriptName;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getManufacturer() {
+            return manufacturer;
+        }
+
+        public long getFileSize() {
+            return fileSize;
+        }
+
+        /** أحجام الجداول بصيغة "tag=length;tag=length". */
+        public String getTableSizes() {
+            return tableSizes;
+        }
+
+        public int getGlyphCount() {
+            return glyphCount;
+        }
+
+        public int getCodepointCount() {
+            return codepointCount;
+        }
+
+        /** عدد المحارف المغطاة من كتلة Unicode العربية الأساسية (U+0600..U+06FF). */
+        public int getArabicCount() {
+            return arabicCount;
+        }
+
+        public long getAddedAt() {
+            return addedAt;
+        }
+
+        /** hash كل جدول بصيغة "tag=hash;tag=hash"، أو null إن لم يُحسب بعد. */
+        public String getTableHashes() {
+            return tableHashes;
+        }
+
+        /** hash كل الجداول معاً: يتطابق فقط بين نسختين متطابقتين من نفس الخط. */
+        public String getTablesHash() {
+            return tablesHash;
+        }
+
+        /** hash بيانات الأشكال (glyf/loca أو CFF/CFF2)، أو null لخط بلا أشكال. */
+        public String getOutlineHash() {
+            return outlineHash;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FontLibraryAdapter - صف لكل خط في المكتبة: الاسم، العائلة واسم الملف، وسطر المعاينة بخطه.
+ * الربط لا يبني Typeface ولا يقيس نصاً؛ المعاينة تأتي جاهزة من FontPreviewRenderer.
+ */
+public class FontLibraryAdapter extends RecyclerView.Adapter<FontLibraryViewHolder> {
+
+    private final Context mContext;
+    private final FontPreviewRenderer mRenderer;
+    private final FontLibraryListener mListener;
+    private List<FontLibrary.Entry> mEntries = new ArrayList<>();
+    private FontPreviewRenderer.Spec mSpec;
+
+    public interface FontLibraryListener {
+        void onFontSelected(FontLibrary.Entry entry);
+    }
+
+    public FontLibraryAdapter(@NonNull Context context, FontPreviewRenderer renderer, FontLibraryListener listener) {
+        mContext = context;
+        mRenderer = renderer;
+        mListener = listener;
+        setHasStableIds(true);
+    }
+
+    public void setEntries(List<FontLibrary.Entry> entries) {
+        mEntries = entries;
+        notifyDataSetChanged();
+    }
+
+    /**
+     * مواصفات الرسم (النص، الحجم، العرض)؛ تغييرها يعيد رسم الصفوف الظاهرة.
+     */
+    public void setSpec(FontPreviewRenderer.Spec spec) {
+        mSpec = spec;
+        notifyDataSetChanged();
+    }
+
+    public FontPreviewRenderer.Spec getSpec() {
+        return mSpec;
+    }
+
+    public FontLibrary.Entry getEntry(int position) {
+        return mEntries.get(position);
+    }
+
+    @NonNull
+    @Override
+    public FontLibraryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(mContext).inflate(R.layout.item_font_library, parent, false);
+        return new FontLibraryViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull FontLibraryViewHolder holder, int position) {
+        FontLibrary.Entry entry = mEntries.get(position);
+        holder.setTitle(entry.getDisplayName());
+        String fileName = new File(entry.getFilePath()).getName();
+        holder.setSubtitle(entry.getFamily() != null ? entry.getFamily() + " · " + fileName : fileName);
+
+        holder.cancelRender();
+        if (mSpec == null) {
+            holder.boundKey = null;
+            holder.setPreview(null);
+            return;
+        }
+
+        // ★★★ من الكاش مباشرة إن وُجد، وإلا يُرسم في الخلفية ويُعرض عند وصوله ★★★
+        holder.boundKey = mSpec.key(entry);
+        Bitmap cached = mRenderer.getCached(entry, mSpec);
+        holder.setPreview(cached);
+        if (cached == null) {
+            holder.pendingRender = mRenderer.render(entry, mSpec, (key, bitmap) -> {
+                if (key.equals(holder.boundKey)) holder.setPreview(bitmap);
+            });
+        }
+
+        holder.itemView.setOnClickListener(v -> {
+            int pos = holder.getBindingAdapterPosition();
+            if (pos != RecyclerView.NO_POSITION && mListener != null) {
+                mListener.onFontSelected(mEntries.get(pos));
+            }
+        });
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull FontLibraryViewHolder holder) {
+        // الصف خرج من الشاشة: لا فائدة من إكمال رسمه
+        holder.cancelRender();
+        holder.boundKey = null;
+        holder.setPreview(null);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mEntries.get(position).getId();
+    }
+
+    @Override
+    public int getItemCount() {
+        return mEntries != null ? mEntries.size() : 0;
+    }
+}
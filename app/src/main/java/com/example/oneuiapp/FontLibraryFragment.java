@@ -0,0 +1,183 @@
+package com.example.oneuiapp;
+
+import android.content.res.Configuration;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.TypedValue;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * FontLibraryFragment - قائمة كل الخطوط المستوردة، وكل صف يعرض نص المعاينة بخطه.
+ * - القائمة RecyclerView: الصفوف الظاهرة فقط موجودة، مهما كان عدد الخطوط
+ * - المعاينات تُرسم في الخلفية (FontPreviewRenderer) وتُلغى عند خروج الصف من الشاشة
+ * - أثناء التمرير تُرسم مسبقاً الصفوف القادمة في اتجاه الحركة
+ * - الضغط على خط يفتحه في عارض الخطوط
+ */
+public class FontLibraryFragment extends Fragment {
+
+    private static final String TAG = "FontLibraryFragment";
+
+    // عدد الصفوف المرسومة مسبقاً بعد آخر صف ظاهر في اتجاه التمرير
+    private static final int PREFETCH_DISTANCE = 8;
+    private static final float PREVIEW_TEXT_SIZE_SP = 22f;
+    private static final float PREVIEW_HEIGHT_DP = 40f;
+    // يطابق paddingStart/paddingEnd في item_font_library
+    private static final float ITEM_PADDING_DP = 24f;
+
+    private RecyclerView mListView;
+    private TextView mEmptyView;
+    private FontLibraryAdapter mAdapter;
+    private FontPreviewRenderer mRenderer;
+    private LinearLayoutManager mLayoutManager;
+
+    private final ExecutorService mLoadExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private int mScrollDirection = 1;
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.fragment_font_library, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        mListView = view.findViewById(R.id.font_library_list);
+        mEmptyView = view.findViewById(R.id.font_library_empty);
+
+        mRenderer = new FontPreviewRenderer(requireContext());
+        mAdapter = new FontLibraryAdapter(requireContext(), mRenderer, entry -> {
+            if (getActivity() instanceof MainActivity) {
+                ((MainActivity) getActivity()).openInFontViewer(entry);
+            }
+        });
+        mLayoutManager = new LinearLayoutManager(requireContext());
+        mListView.setLayoutManager(mLayoutManager);
+        mListView.setHasFixedSize(true);
+        mListView.setAdapter(mAdapter);
+        mListView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy != 0) mScrollDirection = dy > 0 ? 1 : -1;
+                prefetchAhead();
+            }
+        });
+
+        // عرض المعاينة يُعرف بعد أول layout للقائمة
+        mListView.post(this::updateSpec);
+        loadEntries();
+    }
+
+    @Override
+    public void onHiddenChanged(boolean hidden) {
+        super.onHiddenChanged(hidden);
+        // الـ fragments تُخفى وتُظهر بدل استبدالها، فالقائمة تُحدّث عند كل ظهور
+        if (!hidden && mListView != null) {
+            updateSpec();
+            loadEntries();
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (mRenderer != null) mRenderer.shutdown();
+        mRenderer = null;
+        mAdapter = null;
+        mLayoutManager = null;
+        mListView = null;
+        mEmptyView = null;
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        mLoadExecutor.shutdownNow();
+    }
+
+    private void loadEntries() {
+        final FontLibrary library = FontLibrary.getInstance(requireContext());
+        mLoadExecutor.execute(() -> {
+            List<FontLibrary.Entry> entries;
+            try {
+                entries = library.listAll();
+            } catch (Exception e) {
+                Log.w(TAG, "Failed to load library: " + e.getMessage());
+                return;
+            }
+            mMainHandler.post(() -> {
+                if (mAdapter == null) return;
+                mAdapter.setEntries(entries);
+                mEmptyView.setVisibility(entries.isEmpty() ? View.VISIBLE : View.GONE);
+                mListView.setVisibility(entries.isEmpty() ? View.GONE : View.VISIBLE);
+            });
+        });
+    }
+
+    /**
+     * مواصفات الرسم من نص المعاينة الحالي وعرض القائمة والسمة واللغة.
+     */
+    private void updateSpec() {
+        if (mListView == null || mAdapter == null) return;
+        int padding = Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, ITEM_PADDING_DP,
+                getResources().getDisplayMetrics()));
+        int width = mListView.getWidth() - mListView.getPaddingStart() - mListView.getPaddingEnd() - 2 * padding;
+        if (width <= 0) return;
+
+        String text = SettingsHelper.getPreviewText(requireContext());
+        float textSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, PREVIEW_TEXT_SIZE_SP,
+                getResources().getDisplayMetrics());
+        int height = Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, PREVIEW_HEIGHT_DP,
+                getResources().getDisplayMetrics()));
+
+        TypedArray a = requireContext().obtainStyledAttributes(new int[]{android.R.attr.textColorPrimary});
+        int color = a.getColor(0, Color.BLACK);
+        a.recycle();
+
+        boolean night = (getResources().getConfiguration().uiMode & Configuration.UI_MODE_NIGHT_MASK)
+                == Configuration.UI_MODE_NIGHT_YES;
+        String locale = SettingsHelper.getLocale(requireContext()).toLanguageTag();
+
+        FontPreviewRenderer.Spec current = mAdapter.getSpec();
+        FontPreviewRenderer.Spec spec = new FontPreviewRenderer.Spec(text, textSize, width, height, color,
+                night ? "night" : "day", locale);
+        if (current == null || !current.sameAs(spec)) mAdapter.setSpec(spec);
+    }
+
+    /**
+     * رسم مسبق لما بعد آخر صف ظاهر (أو قبل أول صف عند التمرير للأعلى).
+     */
+    private void prefetchAhead() {
+        if (mAdapter == null || mAdapter.getSpec() == null) return;
+        int count = mAdapter.getItemCount();
+        int from;
+        int to;
+        if (mScrollDirection > 0) {
+            from = mLayoutManager.findLastVisibleItemPosition() + 1;
+            to = Math.min(count, from + PREFETCH_DISTANCE);
+        } else {
+            to = mLayoutManager.findFirstVisibleItemPosition();
+            from = Math.max(0, to - PREFETCH_DISTANCE);
+        }
+        List<FontLibrary.Entry> window = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) window.add(mAdapter.getEntry(i));
+        mRenderer.prefetch(window, mAdapter.getSpec());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.oneuiapp;
+
+import android.graphics.Bitmap;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.concurrent.Future;
+
+public class FontLibraryViewHolder extends RecyclerView.ViewHolder {
+
+    private final TextView mTitleView;
+    private final TextView mSubtitleView;
+    private final ImageView mPreviewView;
+
+    // مفتاح المعاينة المرتبطة حالياً بالصف؛ نتيجة بمفتاح آخر تعني أن الصف أُعيد استخدامه
+    String boundKey;
+    Future<?> pendingRender;
+
+    public FontLibraryViewHolder(@NonNull View itemView) {
+        super(itemView);
+        mTitleView = itemView.findViewById(R.id.font_library_title);
+        mSubtitleView = itemView.findViewById(R.id.font_library_subtitle);
+        mPreviewView = itemView.findViewById(R.id.font_library_preview);
+    }
+
+    public void setTitle(String title) {
+        mTitleView.setText(title);
+    }
+
+    public void setSubtitle(String subtitle) {
+        mSubtitleView.setText(subtitle);
+    }
+
+    public void setPreview(Bitmap bitmap) {
+        mPreviewView.setImageBitmap(bitmap);
+    }
+
+    void cancelRender() {
+        if (pendingRender != null) {
+            pendingRender.cancel(true);
+            pendingRender = null;
+        }
+    }
+}
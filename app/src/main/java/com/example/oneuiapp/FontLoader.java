@@ -0,0 +1,270 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Typeface;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * FontLoader - تحميل خط مستورد خارج الخيط الرئيسي.
+ * - بناء الـ Typeface (عبر TypefaceCache) وعدّ الـ faces وقراءة fvar كلها على خيط خلفي
+ * - النتيجة تصل إلى Callback على الخيط الرئيسي، إلا إن أُلغي الطلب لأن خطاً أحدث طُلب بعده
+ * - الجلب المسبق للخط الأخير يبدأ من MainActivity قبل بناء الواجهة، فيجده العارض في الكاش
+ * - نسخ الخط المتغير (محاور fvar) تُبنى هنا أيضاً، فلا يُفتح ملف أو URI على الخيط الرئيسي أثناء السحب
+ * الطلبات تُنفذ بالترتيب على خيط واحد: طلب العارض بعد الجلب المسبق لنفس الخط يصيب الكاش
+ * ولا يبني الخط مرتين.
+ */
+public final class FontLoader {
+
+    private static final String TAG = "FontLoader";
+
+    // نفس ملف ومفاتيح FontViewerFragment.saveLastUsedFont
+    private static final String PREFS_NAME = "FontViewerPrefs";
+    private static final String PREF_LAST_FONT_PATH = "last_font_path";
+    private static final String PREF_LAST_FONT_FACE_INDEX = "last_font_face_index";
+
+    public interface Callback {
+        void onLoaded(Result result);
+
+        void onFailed();
+    }
+
+    /**
+     * نسخة خط متغير: lease لمصدر ملف (يُعاد إلى TypefaceCache)، أو null لمصدر URI.
+     * typeface هو null إن فشل البناء.
+     */
+    public interface InstanceCallback {
+        void onInstance(TypefaceCache.Lease lease, Typeface typeface);
+    }
+
+    /**
+     * خط محمّل. الـ Lease ينتقل إلى المستقبل، وهو المسؤول عن إعادته إلى TypefaceCache.
+     */
+    public static final class Result {
+        private final TypefaceCache.Lease lease;
+        private final int faceCount;
+        private final String[] faceNames;
+        private final FontVariations variations;
+
+        Result(TypefaceCache.Lease lease, int faceCount, String[] faceNames, FontVariations variations) {
+            this.lease = lease;
+            this.faceCount = faceCount;
+            this.faceNames = faceNames;
+            this.variations = variations;
+        }
+
+        public TypefaceCache.Lease getLease() {
+            return lease;
+        }
+
+        public int getFaceCount() {
+            return faceCount;
+        }
+
+        /**
+         * أسماء كل faces الملف لقائمة الاختيار، أو null لملف بـ face واحد.
+         */
+        public String[] getFaceNames() {
+            return faceNames;
+        }
+
+        public FontVariations getVariations() {
+            return variations;
+        }
+    }
+
+    /**
+     * طلب تحميل قيد التنفيذ؛ cancel يجعل نتيجته تُهمل بدلاً من أن تصل إلى الواجهة.
+     */
+    public static final class Request {
+        private volatile boolean cancelled;
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static volatile FontLoader sInstance;
+
+    private final Context appContext;
+    private final TypefaceCache typefaces;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private FontLoader(Context context) {
+        appContext = context.getApplicationContext();
+        typefaces = TypefaceCache.getInstance(appContext);
+    }
+
+    public static FontLoader getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (FontLoader.class) {
+                if (sInstance == null) {
+                    sInstance = new FontLoader(context);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * ★★★ تحميل غير متزامن؛ الـ callback على الخيط الرئيسي ولا يُستدعى للطلب الملغى ★★★
+     */
+    public Request load(File file, int faceIndex, Callback callback) {
+        final Request request = new Request();
+        executor.execute(() -> {
+            // طلب أُلغي وهو في الطابور لا يبني شيئاً
+            if (request.isCancelled()) return;
+            Result result = loadBlocking(file, faceIndex);
+            mainHandler.post(() -> deliver(request, result, callback));
+        });
+        return request;
+    }
+
+    /**
+     * نسخة بقيم محاور محددة لخط ملف، عبر TypefaceCache.
+     */
+    public Request loadInstance(File file, int faceIndex, String variationSettings, InstanceCallback callback) {
+        final Request request = new Request();
+        executor.execute(() -> {
+            if (request.isCancelled()) return;
+            TypefaceCache.Lease lease = typefaces.acquire(file, faceIndex, variationSettings);
+            mainHandler.post(() -> {
+                if (request.isCancelled()) {
+                    typefaces.release(lease);
+                    return;
+                }
+                callback.onInstance(lease, lease != null ? lease.getTypeface() : null);
+            });
+        });
+        return request;
+    }
+
+    /**
+     * نسخة بقيم محاور محددة لخط معروض بدون نسخ، من ParcelFileDescriptor للـ URI.
+     */
+    public Request loadInstance(Uri uri, int faceIndex, String variationSettings, InstanceCallback callback) {
+        final Request request = new Request();
+        executor.execute(() -> {
+            if (request.isCancelled()) return;
+            Typeface typeface = null;
+            try (ParcelFileDescriptor pfd = appContext.getContentResolver().openFileDescriptor(uri, "r")) {
+                if (pfd != null) {
+                    typeface = new Typeface.Builder(pfd.getFileDescriptor())
+                            .setTtcIndex(faceIndex)
+                            .setFontVariationSettings(variationSettings)
+                            .build();
+                }
+            } catch (Exception e) {
+                Log.w(TAG, "Failed to build variation instance: " + e.getMessage());
+            }
+            final Typeface result = typeface;
+            mainHandler.post(() -> {
+                if (!request.isCancelled()) callback.onInstance(null, result);
+            });
+        });
+        return request;
+    }
+
+    /**
+     * بناء الخط في الخلفية ووضعه في TypefaceCache فقط، بدون أي callback.
+     */
+    public void prefetch(File file, int faceIndex) {
+        executor.execute(() -> {
+            if (!file.exists()) return;
+            TypefaceCache.Lease lease = typefaces.acquire(file, faceIndex, null);
+            // لا أحد يستخدمه بعد؛ يبقى في الكاش كأحدث عنصر حتى يطلبه العارض
+            typefaces.release(lease);
+        });
+    }
+
+    /**
+     * الجلب المسبق لآخر خط فتحه العارض، من التفضيلات المحفوظة.
+     */
+    public void prefetchLastUsed() {
+        SharedPreferences prefs = appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String path = prefs.getString(PREF_LAST_FONT_PATH, null);
+        if (path == null || path.isEmpty()) return;
+        prefetch(new File(path), prefs.getInt(PREF_LAST_FONT_FACE_INDEX, 0));
+    }
+
+    private Result loadBlocking(File file, int faceIndex) {
+        TypefaceCache.Lease lease = typefaces.acquire(file, faceIndex, null);
+        if (lease == null) return null;
+
+        int faceCount = 1;
+        FontMetadataEngine engine = FontMetadataEngine.getInstance(appContext);
+        try {
+            faceCount = engine.getFaceCount(file);
+        } catch (Exception e) {
+            Log.w(TAG, "getFaceCount failed: " + e.getMessage());
+        }
+        String[] faceNames = faceCount > 1 ? faceNames(engine, file, faceCount) : null;
+        FontVariations variations = null;
+        try {
+            variations = FontVariations.parse(SfntParser.open(file), faceIndex);
+        } catch (Exception e) {
+            Log.w(TAG, "fvar parse failed: " + e.getMessage());
+        }
+        return new Result(lease, faceCount, faceNames, variations);
+    }
+
+    /**
+     * ★★★ أسماء الـ faces مع تحميل الخط ★★★
+     * تُحسب على خيط التحميل وتبقى مع الخط المعروض، فتفتح قائمة اختيار الـ face بدون أي تحليل.
+     * الاسم الذي تعذر استخراجه يصبح FontMetadata.UNKNOWN_FONT.
+     */
+    static String[] faceNames(FontMetadataEngine engine, File file, int count) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            try {
+                names[i] = engine.getMetadata(file, i).getDisplayName();
+            } catch (Exception e) {
+                Log.w(TAG, "face " + i + " name failed: " + e.getMessage());
+            }
+            if (names[i] == null) names[i] = FontMetadata.UNKNOWN_FONT;
+        }
+        return names;
+    }
+
+    /**
+     * نفس faceNames لخط معروض من الـ URI مباشرة، من الـ parser المفتوح للتحميل.
+     */
+    static String[] faceNames(SfntParser parser, int count) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            try {
+                names[i] = FontMetadataEngine.parse(parser, i, null).getDisplayName();
+            } catch (Exception e) {
+                Log.w(TAG, "face " + i + " name failed: " + e.getMessage());
+            }
+            if (names[i] == null) names[i] = FontMetadata.UNKNOWN_FONT;
+        }
+        return names;
+    }
+
+    private void deliver(Request request, Result result, Callback callback) {
+        // النتيجة القديمة تُهمل ويُعاد حجزها إلى الكاش
+        if (request.isCancelled()) {
+            if (result != null) typefaces.release(result.lease);
+            return;
+        }
+        if (result != null) {
+            callback.onLoaded(result);
+        } else {
+            callback.onFailed();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.oneuiapp;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * FontMetadata - سجل غير قابل للتعديل لحقول جدول name لخط واحد.
+ * يُبنى مرة واحدة من FontMetadataEngine ثم يُقرأ من الكاش في كل مرة لاحقة.
+ */
+public final class FontMetadata {
+
+    public static final String UNKNOWN_FONT = "Unknown Font";
+
+    private final String contentHash;
+    private final String displayName;
+    private final String fullName;
+    private final String family;
+    private final String subFamily;
+    private final String postScriptName;
+    private final String version;
+    private final String manufacturer;
+
+    FontMetadata(String contentHash, String displayName, String fullName, String family,
+                 String subFamily, String postScriptName, String version, String manufacturer) {
+        this.contentHash = contentHash;
+        this.displayName = displayName;
+        this.fullName = fullName;
+        this.family = family;
+        this.subFamily = subFamily;
+        this.postScriptName = postScriptName;
+        this.version = version;
+        this.manufacturer = manufacturer;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * الاسم المعروض للمستخدم: أول nameID 4 (الاسم الكامل) أو 6 (PostScript) بترتيب سجلات جدول name،
+     * ثم العائلة (1) إن لم يوجد أيهما. العائلة الطباعية (16) لا تُقرأ.
+     */
+    public String getDisplayName() {
+        return displayName != null ? displayName : UNKNOWN_FONT;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getFamily() {
+        return family;
+    }
+
+    public String getSubFamily() {
+        return subFamily;
+    }
+
+    public String getPostScriptName() {
+        return postScriptName;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getManufacturer() {
+        return manufacturer;
+    }
+
+    /**
+     * نفس المفاتيح التي يعرضها MainActivity في نافذة معلومات الخط.
+     */
+    public Map<String, String> toMap() {
+        Map<String, String> out = new HashMap<>();
+        if (fullName != null) out.put("FullName", fullName);
+        if (family != null) out.put("Family", family);
+        if (subFamily != null) out.put("SubFamily", subFamily);
+        if (postScriptName != null) out.put("PostScriptName", postScriptName);
+        if (version != null) out.put("Version", version);
+        if (manufacturer != null) out.put("Manufacturer", manufacturer);
+        return out;
+    }
+
+    JSONObject toJson() throws JSONException {
+        JSONObject o = new JSONObject();
+        o.put("hash", contentHash);
+        o.putOpt("displayName", displayName);
+        o.putOpt("fullName", fullName);
+        o.putOpt("family", family);
+        o.putOpt("subFamily", subFamily);
+        o.putOpt("postScriptName", postScriptName);
+        o.putOpt("version", version);
+        o.putOpt("manufacturer", manufacturer);
+        return o;
+    }
+
+    static FontMetadata fromJson(JSONObject o) {
+        return new FontMetadata(
+                o.optString("hash", null),
+                optString(o, "displayName"),
+                optString(o, "fullName"),
+                optString(o, "family"),
+                optString(o, "subFamily"),
+                optString(o, "postScriptName"),
+                optString(o, "version"),
+                optString(o, "manufacturer"));
+    }
+
+    private static String optString(JSONObject o, String key) {
+        return o.has(key) && !o.isNull(key) ? o.optString(key) : null;
+    }
+}
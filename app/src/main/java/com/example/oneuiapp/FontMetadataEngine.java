@@ -0,0 +1,318 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+import android.util.LruCache;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FontMetadataEngine - المحرك الوحيد لاستخراج معلومات الخط من جدول name.
+ * - يفك الجدول مرة واحدة في تمريرة واحدة إلى FontMetadata
+ * - كاش في الذاكرة (LruCache) وعلى القرص (filesDir/font_meta/&lt;hash&gt;.json) مفتاحه hash محتوى الملف
+ * - لملفات TTC كل face له سجل مستقل يُستخرج عند أول طلب فقط
+ * - hash الملف نفسه يُحفظ مقابل (path, size, mtime) حتى لا يُعاد حسابه بعد إعادة تشغيل التطبيق،
+ *   في LRU محدود بـ HASH_MEMO_ENTRIES سجل (في الذاكرة، ونسخته في SharedPreferences)
+ */
+public final class FontMetadataEngine {
+
+    private static final String TAG = "FontMetadataEngine";
+    private static final String META_DIR = "font_meta";
+    // الـ memo القديم (path -> "size:mtime:hash") بلا حد؛ يُمسح مرة واحدة
+    private static final String LEGACY_PREFS_NAME = "FontMetadataPrefs";
+    private static final String HASH_PREFS_NAME = "FontHashMemo";
+    private static final int MEMORY_CACHE_ENTRIES = 64;
+    // ★★★ حد سجلات hash المحفوظة؛ الأقدم استخداماً يُحذف أولاً ★★★
+    private static final int HASH_MEMO_ENTRIES = 512;
+    // يُرفع عند تغيير طريقة الاستخراج لإبطال الكاش القديم على القرص
+    private static final int FORMAT_VERSION = 1;
+
+    private static volatile FontMetadataEngine sInstance;
+
+    private final File metaDir;
+    private final SharedPreferences hashPrefs;
+    private final LruCache<String, FontMetadata> memoryCache = new LruCache<>(MEMORY_CACHE_ENTRIES);
+    // مفتاح -> hash بترتيب الاستخدام (access order)؛ يُحمّل من hashPrefs عند أول طلب. محمي بـ hashLock
+    private final Object hashLock = new Object();
+    private LinkedHashMap<String, String> hashMemo;
+
+    private FontMetadataEngine(Context context) {
+        Context app = context.getApplicationContext();
+        metaDir = new File(app.getFilesDir(), META_DIR);
+        hashPrefs = app.getSharedPreferences(HASH_PREFS_NAME, Context.MODE_PRIVATE);
+        SharedPreferences legacy = app.getSharedPreferences(LEGACY_PREFS_NAME, Context.MODE_PRIVATE);
+        if (!legacy.getAll().isEmpty()) legacy.edit().clear().apply();
+    }
+
+    public static FontMetadataEngine getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (FontMetadataEngine.class) {
+                if (sInstance == null) {
+                    sInstance = new FontMetadataEngine(context);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * معلومات الخط من الكاش إن وُجدت، وإلا تُستخرج وتُحفظ. قد تقرأ الملف كاملاً لحساب الـ hash
+     * في أول مرة؛ تُستدعى على خيط خلفي فقط.
+     */
+    public FontMetadata getMetadata(File fontFile) throws IOException {
+        return getMetadata(fontFile, 0);
+    }
+
+    /**
+     * معلومات face محدد داخل الملف (0 للخطوط العادية). يُفك جدول name لهذا الـ face فقط.
+     */
+    public FontMetadata getMetadata(File fontFile, int faceIndex) throws IOException {
+        String hash = contentHash(fontFile);
+        String key = cacheKey(hash, faceIndex);
+
+        FontMetadata meta = memoryCache.get(key);
+        if (meta != null) return meta;
+
+        meta = readFromDisk(key);
+        if (meta == null) {
+            meta = parse(SfntParser.open(fontFile), faceIndex, hash);
+            writeToDisk(key, meta);
+        }
+        memoryCache.put(key, meta);
+        return meta;
+    }
+
+    /**
+     * عدد الـ faces في الملف: 1 للخط العادي، و numFonts من ترويسة TTC.
+     * تُقرأ الترويسة فقط؛ جداول الـ faces لا تُفهرس هنا.
+     */
+    public int getFaceCount(File fontFile) throws IOException {
+        return SfntParser.open(fontFile).getFaceCount();
+    }
+
+    private static String cacheKey(String hash, int faceIndex) {
+        // face 0 يحتفظ بالمفتاح القديم حتى يبقى الكاش الموجود صالحاً
+        return faceIndex == 0 ? hash : hash + "-" + faceIndex;
+    }
+
+    /**
+     * تمريرة واحدة على سجلات name: أول سجل لكل nameID هو المعتمد.
+     */
+    static FontMetadata parse(SfntParser parser, int faceIndex, String hash) throws IOException {
+        SfntParser.TableDirectory dir = parser.getTableDirectory(faceIndex);
+        if (!dir.hasKnownSfntVersion()) {
+            return new FontMetadata(hash, null, null, null, null, null, null, null);
+        }
+        SfntParser.NameTable names = parser.getNameTable(faceIndex);
+        if (names == null) {
+            return new FontMetadata(hash, null, null, null, null, null, null, null);
+        }
+
+        // ★★★ الاسم المعروض: أول 4 أو 6 بترتيب السجلات، ثم 1؛ نفس قاعدة الكود القديم ★★★
+        String displayName = null;
+        String fullName = null, family = null, subfamily = null, postScriptName = null, version = null, manuf = null;
+        for (int i = 0; i < names.getCount(); i++) {
+            switch (names.getNameId(i)) {
+                case 0: if (manuf == null) manuf = names.getString(i);
+                    break;
+                case 1: if (family == null) family = names.getString(i); break;
+                case 2: if (subfamily == null) subfamily = names.getString(i);
+                    break;
+                case 4: if (fullName == null) fullName = names.getString(i);
+                    if (displayName == null) displayName = fullName;
+                    break;
+                case 5: if (version == null) version = names.getString(i);
+                    break;
+                case 6: if (postScriptName == null) postScriptName = names.getString(i);
+                    // اسم PostScript بديل للاسم المعروض إن سبق الاسم الكامل
+                    if (displayName == null) displayName = postScriptName;
+                    break;
+            }
+        }
+        if (displayName == null && family != null && !family.isEmpty()) {
+            displayName = family;
+        }
+
+        return new FontMetadata(hash, displayName, fullName, family, subfamily, postScriptName, version, manuf);
+    }
+
+    /**
+     * SHA-256 لمحتوى الملف كنص hex. يُحفظ مقابل المسار والحجم ووقت التعديل لتجنب إعادة الحساب.
+     */
+    public String contentHash(File file) throws IOException {
+        String key = hashKey(file);
+        synchronized (hashLock) {
+            String saved = loadHashMemoLocked().get(key);
+            if (saved != null) return saved;
+        }
+
+        String hash;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(mapped);
+            hash = toHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        putContentHash(key, hash);
+        return hash;
+    }
+
+    /**
+     * تسجيل hash محسوب مسبقاً (مثلاً أثناء النسخ في FontStore) حتى لا يُقرأ الملف مرة أخرى.
+     */
+    public void rememberContentHash(File file, String hash) {
+        putContentHash(hashKey(file), hash);
+    }
+
+    /**
+     * حذف كل سجلات المسار. يُستدعى بعد حذف الملف، فلا يُعتمد على حجمه أو وقت تعديله.
+     */
+    public void forgetContentHash(File file) {
+        String prefix = file.getAbsolutePath() + "|";
+        synchronized (hashLock) {
+            SharedPreferences.Editor editor = hashPrefs.edit();
+            Iterator<String> it = loadHashMemoLocked().keySet().iterator();
+            while (it.hasNext()) {
+                String key = it.next();
+                if (key.startsWith(prefix)) {
+                    it.remove();
+                    editor.remove(key);
+                }
+            }
+            editor.apply();
+        }
+    }
+
+    private static String hashKey(File file) {
+        return file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified();
+    }
+
+    private void putContentHash(String key, String hash) {
+        synchronized (hashLock) {
+            LinkedHashMap<String, String> memo = loadHashMemoLocked();
+            memo.put(key, hash);
+            // القيمة على القرص "وقت الحفظ:hash" لاستعادة الترتيب تقريبياً بعد إعادة التشغيل
+            SharedPreferences.Editor editor = hashPrefs.edit();
+            editor.putString(key, System.currentTimeMillis() + ":" + hash);
+            Iterator<String> it = memo.keySet().iterator();
+            while (memo.size() > HASH_MEMO_ENTRIES && it.hasNext()) {
+                editor.remove(it.next());
+                it.remove();
+            }
+            editor.apply();
+        }
+    }
+
+    private LinkedHashMap<String, String> loadHashMemoLocked() {
+        if (hashMemo != null) return hashMemo;
+        hashMemo = new LinkedHashMap<>(16, 0.75f, true);
+
+        List<String[]> saved = new ArrayList<>();
+        for (Map.Entry<String, ?> e : hashPrefs.getAll().entrySet()) {
+            Object value = e.getValue();
+            if (!(value instanceof String)) continue;
+            String v = (String) value;
+            int colon = v.indexOf(':');
+            if (colon <= 0) continue;
+            saved.add(new String[]{e.getKey(), v.substring(0, colon), v.substring(colon + 1)});
+        }
+        // من الأقدم للأحدث، فالأحدث يبقى في آخر ترتيب الـ LRU
+        Collections.sort(saved, (a, b) -> Long.compare(parseTime(a[1]), parseTime(b[1])));
+        int skip = Math.max(0, saved.size() - HASH_MEMO_ENTRIES);
+        SharedPreferences.Editor editor = skip > 0 ? hashPrefs.edit() : null;
+        for (int i = 0; i < saved.size(); i++) {
+            String[] row = saved.get(i);
+            if (i < skip) {
+                editor.remove(row[0]);
+            } else {
+                hashMemo.put(row[0], row[2]);
+            }
+        }
+        if (editor != null) editor.apply();
+        return hashMemo;
+    }
+
+    private static long parseTime(String s) {
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private File diskFile(String key) {
+        return new File(metaDir, key + ".json");
+    }
+
+    private FontMetadata readFromDisk(String key) {
+        File f = diskFile(key);
+        if (!f.exists()) return null;
+        try (FileInputStream in = new FileInputStream(f)) {
+            byte[] data = new byte[(int) f.length()];
+            int read = 0;
+            while (read < data.length) {
+                int r = in.read(data, read, data.length - read);
+                if (r < 0) break;
+                read += r;
+            }
+            JSONObject o = new JSONObject(new String(data, 0, read, StandardCharsets.UTF_8));
+            if (o.optInt("v") != FORMAT_VERSION) return null;
+            return FontMetadata.fromJson(o);
+        } catch (Exception e) {
+            Log.w(TAG, "readFromDisk failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, FontMetadata meta) {
+        try {
+            if (!metaDir.exists() && !metaDir.mkdirs()) {
+                Log.w(TAG, "Failed to create metadata dir");
+                return;
+            }
+            JSONObject o = meta.toJson();
+            o.put("v", FORMAT_VERSION);
+            // الكتابة في ملف مؤقت ثم إعادة التسمية حتى لا يُقرأ ملف نصف مكتوب
+            File tmp = new File(metaDir, key + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(tmp)) {
+                out.write(o.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            if (!tmp.renameTo(diskFile(key))) {
+                tmp.delete();
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "writeToDisk failed: " + e.getMessage());
+        }
+    }
+}
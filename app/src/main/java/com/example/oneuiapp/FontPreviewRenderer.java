@@ -0,0 +1,225 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextDirectionHeuristics;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FontPreviewRenderer - رسم سطر المعاينة لكل خط في قائمة المكتبة خارج الخيط الرئيسي.
+ * - الـ Typeface من TypefaceCache، وقياس النص (StaticLayout) والرسم في Bitmap كلها على خيوط خلفية
+ * - الخيط الرئيسي يعرض Bitmap جاهزاً فقط، فلا يتأخر أي إطار أثناء التمرير
+ * - كل طلب يُرجع Future يمكن إلغاؤه عندما يخرج الصف من الشاشة
+ * - الجلب المسبق (prefetch) يرسم الصفوف القادمة في اتجاه التمرير ويضعها في الكاش؛ كل نافذة جديدة
+ *   تُلغي ما لم يبدأ من النافذة السابقة، فالطابور لا يتجاوز حجم نافذة واحدة
+ * - الصور تُحفظ في FontThumbnailCache (ذاكرة + قرص)، فالرسم لا يتكرر بين الجلسات
+ */
+public final class FontPreviewRenderer {
+
+    private static final String TAG = "FontPreviewRenderer";
+
+    public interface Callback {
+        void onRendered(String key, Bitmap bitmap);
+    }
+
+    /**
+     * مواصفات الرسم المشتركة لكل الصفوف: النص والحجم والأبعاد واللون، والسمة واللغة لمفتاح الكاش.
+     */
+    public static final class Spec {
+        final String text;
+        final float textSizePx;
+        final int widthPx;
+        final int heightPx;
+        final int color;
+        final String theme;
+        final String locale;
+        private final String textDigest;
+
+        public Spec(String text, float textSizePx, int widthPx, int heightPx, int color, String theme, String locale) {
+            this.text = text;
+            this.textSizePx = textSizePx;
+            this.widthPx = widthPx;
+            this.heightPx = heightPx;
+            this.color = color;
+            this.theme = theme;
+            this.locale = locale;
+            this.textDigest = FontThumbnailCache.textDigest(text);
+        }
+
+        boolean sameAs(Spec other) {
+            return text.equals(other.text) && textSizePx == other.textSizePx && widthPx == other.widthPx
+                    && heightPx == other.heightPx && color == other.color && theme.equals(other.theme)
+                    && locale.equals(other.locale);
+        }
+
+        String key(FontLibrary.Entry e) {
+            return FontThumbnailCache.key(textDigest, e.getContentHash(), e.getFaceIndex(), textSizePx,
+                    widthPx, heightPx, theme + Integer.toHexString(color), locale);
+        }
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor;
+    private final LinkedBlockingQueue<Runnable> prefetchQueue = new LinkedBlockingQueue<>();
+    // الرسم المسبق بأولوية خلفية حتى لا ينافس الصفوف الظاهرة وخيط الواجهة على المعالج
+    private final ThreadPoolExecutor prefetchExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            prefetchQueue, r -> new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                r.run();
+            }, "FontPreviewPrefetch"));
+    private final FontThumbnailCache thumbnails;
+    private final TypefaceCache typefaces;
+    private final FontCacheManager fontCache;
+    // مفاتيح قيد الرسم المسبق؛ تمنع تكرار نفس العمل عند تمرير سريع ذهاباً وإياباً
+    private final Set<String> prefetching = new HashSet<>();
+
+    public FontPreviewRenderer(Context context) {
+        thumbnails = FontThumbnailCache.getInstance(context);
+        typefaces = TypefaceCache.getInstance(context);
+        fontCache = FontCacheManager.getInstance(context);
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * الصورة الجاهزة إن وُجدت في الكاش. الخيط الرئيسي.
+     */
+    public Bitmap getCached(FontLibrary.Entry entry, Spec spec) {
+        return thumbnails.getFromMemory(spec.key(entry));
+    }
+
+    /**
+     * رسم صف ظاهر؛ النتيجة تصل إلى callback على الخيط الرئيسي ما لم يُلغ الطلب.
+     */
+    public Future<?> render(FontLibrary.Entry entry, Spec spec, Callback callback) {
+        final String key = spec.key(entry);
+        return executor.submit(() -> {
+            Bitmap bitmap = thumbnails.get(key);
+            if (bitmap == null) {
+                bitmap = draw(entry, spec, true);
+                if (bitmap == null || Thread.currentThread().isInterrupted()) return;
+                thumbnails.put(key, bitmap);
+            }
+            final Bitmap result = bitmap;
+            mainHandler.post(() -> callback.onRendered(key, result));
+        });
+    }
+
+    /**
+     * ★★★ رسم الصفوف القادمة في الخلفية وحفظها في الكاش فقط ★★★
+     * على خيط منفصل بأولوية أقل من الصفوف الظاهرة. الصفوف المطلوبة في نافذة سابقة ولم يبدأ رسمها
+     * تُحذف من الطابور أولاً، فالتمرير السريع لا يراكم عملاً لصفوف تجاوزها.
+     */
+    public void prefetch(List<FontLibrary.Entry> window, Spec spec) {
+        List<Runnable> stale = new ArrayList<>();
+        synchronized (prefetching) {
+            prefetchQueue.drainTo(stale);
+            for (Runnable r : stale) prefetching.remove(((PrefetchTask) r).key);
+            for (FontLibrary.Entry entry : window) {
+                String key = spec.key(entry);
+                if (thumbnails.getFromMemory(key) != null || !prefetching.add(key)) continue;
+                prefetchExecutor.execute(new PrefetchTask(key, entry, spec));
+            }
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        prefetchExecutor.shutdownNow();
+    }
+
+    private final class PrefetchTask implements Runnable {
+        final String key;
+        private final FontLibrary.Entry entry;
+        private final Spec spec;
+
+        PrefetchTask(String key, FontLibrary.Entry entry, Spec spec) {
+            this.key = key;
+            this.entry = entry;
+            this.spec = spec;
+        }
+
+        @Override
+        public void run() {
+            try {
+                // من القرص إن وُجدت، فتُرفع إلى الذاكرة قبل أن يصل إليها التمرير
+                if (thumbnails.get(key) != null) return;
+                Bitmap bitmap = draw(entry, spec, false);
+                if (bitmap != null) thumbnails.put(key, bitmap);
+            } finally {
+                synchronized (prefetching) {
+                    prefetching.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * ★★★ كل العمل الثقيل هنا، خارج الخيط الرئيسي ★★★
+     * الصف الظاهر يعيد جلب خطه المُخلى (refetch)؛ الرسم المسبق يتخطاه حتى لا يجلب ما قد لا يظهر.
+     */
+    private Bitmap draw(FontLibrary.Entry entry, Spec spec, boolean refetch) {
+        if (spec.widthPx <= 0 || spec.heightPx <= 0) return null;
+        File file = new File(entry.getFilePath());
+        if (refetch) file = fontCache.ensureLocal(file);
+        if (file == null || !file.exists()) return null;
+
+        // الخط المفتوح في العارض أو المرسوم قبل قليل يُستخدم من TypefaceCache بدون تحليل الملف
+        TypefaceCache.Lease lease = typefaces.acquire(file, entry.getFaceIndex(), null);
+        if (lease == null) {
+            Log.w(TAG, "Typeface failed for " + file.getName());
+            return null;
+        }
+        try {
+            return draw(lease.getTypeface(), spec);
+        } finally {
+            typefaces.release(lease);
+        }
+    }
+
+    private static Bitmap draw(Typeface typeface, Spec spec) {
+        if (Thread.currentThread().isInterrupted()) return null;
+
+        TextPaint paint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+        paint.setTypeface(typeface);
+        paint.setTextSize(spec.textSizePx);
+        paint.setColor(spec.color);
+
+        // سطر واحد مقطوع بعلامة الحذف؛ اتجاه النص يُستنتج منه (العربية من اليمين)
+        StaticLayout layout = StaticLayout.Builder.obtain(spec.text, 0, spec.text.length(), paint, spec.widthPx)
+                .setTextDirection(TextDirectionHeuristics.FIRSTSTRONG_LTR)
+                .setAlignment(Layout.Alignment.ALIGN_NORMAL)
+                .setMaxLines(1)
+                .setEllipsize(TextUtils.TruncateAt.END)
+                .setIncludePad(false)
+                .build();
+        if (Thread.currentThread().isInterrupted()) return null;
+
+        Bitmap bitmap = Bitmap.createBitmap(spec.widthPx, spec.heightPx, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        canvas.translate(0, Math.max(0, (spec.heightPx - layout.getHeight()) / 2f));
+        layout.draw(canvas);
+        return bitmap;
+    }
+}
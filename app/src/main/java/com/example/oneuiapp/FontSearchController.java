@@ -0,0 +1,81 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.fragment.app.Fragment;
+
+import java.io.File;
+
+/**
+ * FontSearchController - حقل البحث بالاسم في العارض ونتائجه.
+ * الفهرس يُحمّل على خيط اللوحة مرة واحدة، وبعدها كل حرف يُبحث فيه مباشرة على الخيط الرئيسي.
+ */
+final class FontSearchController extends FontViewerController {
+
+    private static final int SEARCH_RESULT_LIMIT = 20;
+
+    private final EditText field;
+    private final LinearLayout results;
+    private final FontOpener opener;
+
+    FontSearchController(Fragment host, EditText field, LinearLayout results, FontOpener opener) {
+        super(host);
+        this.field = field;
+        this.results = results;
+        this.opener = opener;
+
+        Context appContext = requireContext().getApplicationContext();
+        execute(() -> FontSearchIndex.getInstance(appContext).ensureLoaded(appContext));
+
+        field.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                runSearch();
+            }
+        });
+    }
+
+    private void runSearch() {
+        if (!host.isAdded()) return;
+        String query = field.getText().toString();
+        FontSearchIndex index = FontSearchIndex.getInstance(requireContext());
+        if (!index.isLoaded() && !query.trim().isEmpty()) {
+            // أول بحث قبل اكتمال التحميل: يُعاد بعده بآخر نص مكتوب
+            Context appContext = requireContext().getApplicationContext();
+            execute(() -> {
+                index.ensureLoaded(appContext);
+                mainHandler.post(this::runSearch);
+            });
+            return;
+        }
+
+        results.removeAllViews();
+        for (FontSearchIndex.Hit hit : index.search(query, SEARCH_RESULT_LIMIT)) {
+            View row = LayoutInflater.from(requireContext()).inflate(R.layout.item_batch_result, results, false);
+            ((TextView) row.findViewById(R.id.batch_result_title)).setText(hit.getLabel());
+            ((TextView) row.findViewById(R.id.batch_result_subtitle)).setText(new File(hit.getPath()).getName());
+            row.setOnClickListener(v -> showHit(hit));
+            results.addView(row);
+        }
+    }
+
+    private void showHit(FontSearchIndex.Hit hit) {
+        field.setText("");
+        opener.open(hit.getPath(), new File(hit.getPath()).getName(), hit.getLabel(), hit.getFaceIndex());
+    }
+}
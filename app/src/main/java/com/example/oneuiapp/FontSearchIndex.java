@@ -0,0 +1,619 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * FontSearchIndex - فهرس بحث في الذاكرة لأسماء الخطوط (الاسم الكامل، العائلة، PostScript).
+ * - الاستعلام بثلاثة أحرف فأكثر: تقاطع قوائم trigram ثم تحقق من النص
+ * - الاستعلام الأقصر: بحث ثنائي في مصفوفة كلمات مرتبة (prefix)
+ * - يُبنى تدريجياً مع تسجيل الخطوط في FontLibrary، ويُحفظ في ملف لتحميل سريع عند البدء
+ * - الفهرس snapshot ثابت (copy-on-write): التعديل يبني snapshot جديداً تحت القفل وينشره،
+ *   والبحث والحفظ يقرآن آخر snapshot منشور بدون قفل
+ * - إعادة تسجيل خط تُلغي وثيقته القديمة؛ الوثائق الملغاة تُحذف عندما تتجاوز ربع الفهرس
+ * - الملف يحفظ رقم جيل المكتبة (FontLibrary.getGeneration)؛ إن تغير يُعاد البناء
+ * البحث آمن من الخيط الرئيسي بعد التحميل؛ التحميل والحفظ على خيط خلفي.
+ */
+public final class FontSearchIndex {
+
+    private static final String TAG = "FontSearchIndex";
+    private static final String INDEX_FILE = "font_search.idx";
+    private static final int INDEX_MAGIC = 0x46534958;      // 'FSIX'
+    private static final int INDEX_VERSION = 2;
+    // فاصل بين الحقول داخل النص المفهرس حتى لا تتكون trigrams عابرة للحقول
+    private static final char FIELD_SEPARATOR = '\u0001';
+    private static final long DOC_INDEX_MASK = (1L << 30) - 1;
+    // ★★★ الضغط: حذف الوثائق الملغاة عندما تتجاوز هذا العدد وربع الوثائق معاً ★★★
+    private static final int COMPACT_MIN_REMOVED = 64;
+
+    private static volatile FontSearchIndex sInstance;
+
+    private final File indexFile;
+    // null في فهرس الاختبارات، الذي يُحمّل عبر load مباشرة
+    private final FontLibrary library;
+    // جيل المكتبة الذي يُحفظ مع الفهرس ويُقارن عند التحميل
+    private final LongSupplier generation;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    // آخر snapshot منشور؛ لا يُعدّل بعد نشره
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean loaded;
+    private final AtomicBoolean savePending = new AtomicBoolean();
+
+    private FontSearchIndex(Context context) {
+        indexFile = new File(context.getApplicationContext().getFilesDir(), INDEX_FILE);
+        library = FontLibrary.getInstance(context);
+        generation = library::getGeneration;
+    }
+
+    /**
+     * فهرس على ملف محدد بدون FontLibrary (اختبارات JVM).
+     */
+    FontSearchIndex(File indexFile, LongSupplier generation) {
+        this.indexFile = indexFile;
+        this.library = null;
+        this.generation = generation;
+    }
+
+    public static FontSearchIndex getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (FontSearchIndex.class) {
+                if (sInstance == null) {
+                    sInstance = new FontSearchIndex(context);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * تحميل الفهرس من ملفه، أو بناؤه من FontLibrary إن لم يوجد أو تغيرت المكتبة بعد حفظه. خيط خلفي.
+     */
+    public void ensureLoaded(Context context) {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            // listAll أولاً: قد يسجل خطوط FontStore القديمة فيرفع الجيل
+            load(library.listAll());
+        }
+    }
+
+    /**
+     * الفهرس المحفوظ إن كان لجيل المكتبة الحالي، وإلا بناؤه من entries (كل صفوف المكتبة) وحفظه.
+     */
+    synchronized void load(List<FontLibrary.Entry> entries) {
+        Snapshot fromDisk = readIndex(generation.getAsLong());
+        if (fromDisk != null) {
+            snapshot = fromDisk;
+        } else {
+            Editor editor = new Editor(Snapshot.EMPTY);
+            for (FontLibrary.Entry e : entries) editor.add(e);
+            snapshot = editor.build();
+            scheduleSave();
+        }
+        loaded = true;
+    }
+
+    /**
+     * إضافة صفوف مكتبة جديدة (أو تحديثها) ثم حفظ الفهرس في الخلفية.
+     */
+    public void addAll(List<FontLibrary.Entry> entries) {
+        if (entries.isEmpty()) return;
+        synchronized (this) {
+            // قبل التحميل يكفي أن تكون الصفوف في المكتبة؛ ensureLoaded سيقرؤها
+            if (!loaded) return;
+            Editor editor = new Editor(snapshot);
+            for (FontLibrary.Entry e : entries) editor.add(e);
+            snapshot = editor.build();
+        }
+        scheduleSave();
+    }
+
+    public void removeByPath(String path) {
+        synchronized (this) {
+            if (!loaded) return;
+            Editor editor = new Editor(snapshot);
+            if (!editor.removeByPath(path)) return;
+            snapshot = editor.build();
+        }
+        scheduleSave();
+    }
+
+    /**
+     * البحث بالاسم. الترتيب: يبدأ الاسم بالاستعلام، ثم تبدأ به كلمة، ثم يحتويه.
+     */
+    public List<Hit> search(String query, int limit) {
+        String q = normalize(query).trim();
+        if (q.isEmpty() || !loaded) return Collections.emptyList();
+
+        Snapshot s = snapshot;
+        int[] candidates = q.length() >= 3 ? trigramCandidates(s, q) : prefixCandidates(s, q);
+        int[] labelOrder = s.labelOrder;
+
+        // ★★★ مفتاح ترتيب رقمي (rank ثم موضع الاسم ثم الوثيقة) بدل مقارنة النصوص ★★★
+        long[] keys = new long[candidates.length];
+        int n = 0;
+        for (int docIndex : candidates) {
+            if (s.removed[docIndex]) continue;
+            int rank = rank(s.docs[docIndex], q);
+            if (rank >= 0) keys[n++] = ((long) rank << 60) | ((long) labelOrder[docIndex] << 30) | docIndex;
+        }
+        Arrays.sort(keys, 0, n);
+
+        List<Hit> hits = new ArrayList<>(Math.min(n, limit));
+        for (int i = 0; i < n && i < limit; i++) {
+            hits.add(new Hit(s.docs[(int) (keys[i] & DOC_INDEX_MASK)]));
+        }
+        return hits;
+    }
+
+    private static int[] trigramCandidates(Snapshot s, String q) {
+        // التقاطع يبدأ بأقصر قائمة لتقليل العمل
+        List<int[]> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            int[] ids = s.trigrams.get(trigramKey(q, i));
+            if (ids == null) return new int[0];
+            lists.add(ids);
+        }
+        Collections.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        int[] result = lists.get(0).clone();
+        int n = result.length;
+        for (int l = 1; l < lists.size() && n > 0; l++) {
+            int[] ids = lists.get(l);
+            int out = 0;
+            for (int i = 0; i < n; i++) {
+                if (Arrays.binarySearch(ids, result[i]) >= 0) result[out++] = result[i];
+            }
+            n = out;
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static int[] prefixCandidates(Snapshot s, String q) {
+        Words words = s.words;
+        int lo = Arrays.binarySearch(words.words, q);
+        if (lo < 0) lo = -lo - 1;
+        int[] out = new int[16];
+        int n = 0;
+        for (int i = lo; i < words.words.length && words.words[i].startsWith(q); i++) {
+            if (n == out.length) out = Arrays.copyOf(out, n * 2);
+            out[n++] = words.docs[i];
+        }
+        // الوثيقة قد تظهر عدة مرات (أكثر من كلمة بنفس البادئة)
+        int[] unique = Arrays.copyOf(out, n);
+        Arrays.sort(unique);
+        int u = 0;
+        for (int i = 0; i < unique.length; i++) {
+            if (i == 0 || unique[i] != unique[i - 1]) unique[u++] = unique[i];
+        }
+        return Arrays.copyOf(unique, u);
+    }
+
+    private static int rank(Doc d, String q) {
+        if (d.normalizedLabel.startsWith(q)) return 0;
+        int at = d.text.indexOf(q);
+        if (at < 0) return -1;
+        // بداية كلمة داخل أي حقل
+        for (; at >= 0; at = d.text.indexOf(q, at + 1)) {
+            if (at == 0 || !Character.isLetterOrDigit(d.text.charAt(at - 1))) return 1;
+        }
+        return 2;
+    }
+
+    private static String buildText(String... fields) {
+        StringBuilder sb = new StringBuilder();
+        for (String f : fields) {
+            if (f == null || f.isEmpty()) continue;
+            if (sb.length() > 0) sb.append(FIELD_SEPARATOR);
+            sb.append(normalize(f));
+        }
+        return sb.toString();
+    }
+
+    private static String normalize(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * ثلاثة محارف UTF-16 في مفتاح واحد؛ trigram يعبر فاصل الحقول يُرجع -1.
+     */
+    private static long trigramKey(String s, int i) {
+        char a = s.charAt(i), b = s.charAt(i + 1), c = s.charAt(i + 2);
+        if (a == FIELD_SEPARATOR || b == FIELD_SEPARATOR || c == FIELD_SEPARATOR) return -1;
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    /**
+     * حفظ واحد معلق على الأكثر: تعديلات متتالية أثناء استيراد دفعة تُكتب مرة واحدة.
+     * الـ snapshot ثابت، فالتسلسل والكتابة لا يأخذان قفل الفهرس.
+     */
+    private void scheduleSave() {
+        if (!savePending.compareAndSet(false, true)) return;
+        executor.execute(() -> {
+            savePending.set(false);
+            // الجيل بعد كل تعديل وصل إلى الفهرس؛ تعديل لم يصله بعد يرفع الجيل فيُعاد البناء
+            byte[] bytes = serialize(snapshot, generation.getAsLong());
+            if (bytes != null) writeIndex(bytes);
+        });
+    }
+
+    /**
+     * انتظار انتهاء الحفظ المجدول، إن وُجد.
+     */
+    void awaitSave() throws InterruptedException {
+        try {
+            executor.submit(() -> { }).get();
+        } catch (ExecutionException e) {
+            // المهمة فارغة؛ لا يحدث
+        }
+    }
+
+    /**
+     * عدد الوثائق في الـ snapshot الحالي، بما فيها الملغاة التي لم تُضغط بعد.
+     */
+    int docCount() {
+        return snapshot.docs.length;
+    }
+
+    /**
+     * الملف يحفظ الوثائق الحية فقط مع قوائم trigram الخاصة بها، بحيث لا يُعاد التقطيع عند التحميل.
+     */
+    private static byte[] serialize(Snapshot s, long generation) {
+        // إعادة ترقيم الوثائق الحية حتى لا تُحفظ المحذوفة
+        int[] remap = new int[s.docs.length];
+        int live = 0;
+        for (int i = 0; i < s.docs.length; i++) remap[i] = s.removed[i] ? -1 : live++;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeLong(generation);
+            out.writeInt(live);
+            for (int i = 0; i < s.docs.length; i++) {
+                if (s.removed[i]) continue;
+                Doc d = s.docs[i];
+                out.writeUTF(d.key);
+                out.writeUTF(d.path != null ? d.path : "");
+                out.writeInt(d.faceIndex);
+                out.writeUTF(d.label);
+                out.writeUTF(d.text);
+            }
+            out.writeInt(s.trigrams.size());
+            for (Map.Entry<Long, int[]> t : s.trigrams.entrySet()) {
+                int[] ids = t.getValue();
+                int n = 0;
+                for (int id : ids) if (remap[id] >= 0) n++;
+                out.writeLong(t.getKey());
+                out.writeInt(n);
+                for (int id : ids) {
+                    if (remap[id] >= 0) out.writeInt(remap[id]);
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to serialize index: " + e.getMessage());
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeIndex(byte[] bytes) {
+        File tmp = new File(indexFile.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write index: " + e.getMessage());
+            if (!tmp.delete()) Log.w(TAG, "Failed to delete " + tmp.getName());
+            return;
+        }
+        if (!tmp.renameTo(indexFile)) Log.w(TAG, "Failed to replace " + indexFile.getName());
+    }
+
+    /**
+     * الفهرس المحفوظ إن كان لنفس جيل المكتبة، وإلا null.
+     */
+    private Snapshot readIndex(long generation) {
+        if (!indexFile.exists()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) return null;
+            if (in.readLong() != generation) return null;
+            int docCount = in.readInt();
+            Doc[] docs = new Doc[docCount];
+            Map<String, Integer> docByKey = new HashMap<>();
+            for (int i = 0; i < docCount; i++) {
+                String key = in.readUTF();
+                String path = in.readUTF();
+                int face = in.readInt();
+                String label = in.readUTF();
+                String text = in.readUTF();
+                docs[i] = new Doc(key, path.isEmpty() ? null : path, face, label, text);
+                docByKey.put(key, i);
+            }
+            int trigramCount = in.readInt();
+            Map<Long, int[]> trigrams = new HashMap<>();
+            for (int t = 0; t < trigramCount; t++) {
+                long key = in.readLong();
+                int[] ids = new int[in.readInt()];
+                for (int i = 0; i < ids.length; i++) ids[i] = in.readInt();
+                trigrams.put(key, ids);
+            }
+            return new Snapshot(docs, new boolean[docCount], docByKey, trigrams);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read index: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * ★★★ حالة الفهرس الثابتة التي يقرؤها البحث ★★★
+     * الوثائق بترتيب الإضافة؛ المحذوف يبقى في مكانه مع removed = true حتى يضغطها Editor.build.
+     * الكلمات المرتبة وترتيب الأسماء تُبنى مع الـ snapshot على خيط الكتابة (Editor.build أو
+     * readIndex)، فالبحث من الخيط الرئيسي لا يرتب شيئاً.
+     */
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new Doc[0], new boolean[0],
+                Collections.emptyMap(), Collections.emptyMap());
+
+        final Doc[] docs;
+        final boolean[] removed;
+        final Map<String, Integer> docByKey;
+        // قائمة معرفات وثائق مرتبة تصاعدياً لكل trigram
+        final Map<Long, int[]> trigrams;
+        // موضع كل وثيقة في الترتيب الأبجدي للأسماء
+        final int[] labelOrder;
+        // كلمات مرتبة للبحث بالبادئة
+        final Words words;
+
+        Snapshot(Doc[] docs, boolean[] removed, Map<String, Integer> docByKey, Map<Long, int[]> trigrams) {
+            this.docs = docs;
+            this.removed = removed;
+            this.docByKey = docByKey;
+            this.trigrams = trigrams;
+            this.labelOrder = buildLabelOrder(docs);
+            this.words = buildWords(docs, removed);
+        }
+
+        private static int[] buildLabelOrder(Doc[] docs) {
+            Integer[] sorted = new Integer[docs.length];
+            for (int i = 0; i < sorted.length; i++) sorted[i] = i;
+            Arrays.sort(sorted, (a, b) -> docs[a].normalizedLabel.compareTo(docs[b].normalizedLabel));
+            int[] order = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) order[sorted[i]] = i;
+            return order;
+        }
+
+        private static Words buildWords(Doc[] docs, boolean[] removed) {
+            List<String> all = new ArrayList<>();
+            List<Integer> owners = new ArrayList<>();
+            for (int i = 0; i < docs.length; i++) {
+                if (removed[i]) continue;
+                for (String word : docs[i].text.split("[^\\p{L}\\p{N}]+")) {
+                    if (word.isEmpty()) continue;
+                    all.add(word);
+                    owners.add(i);
+                }
+            }
+            Integer[] order = new Integer[all.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> all.get(a).compareTo(all.get(b)));
+            String[] sorted = new String[order.length];
+            int[] sortedDocs = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sorted[i] = all.get(order[i]);
+                sortedDocs[i] = owners.get(order[i]);
+            }
+            return new Words(sorted, sortedDocs);
+        }
+    }
+
+    private static final class Words {
+        final String[] words;
+        final int[] docs;
+
+        Words(String[] words, int[] docs) {
+            this.words = words;
+            this.docs = docs;
+        }
+    }
+
+    /**
+     * بناء snapshot جديد من السابق: الخرائط تُنسخ سطحياً، وقائمة trigram تُنسخ فقط عند أول تعديل لها.
+     * يُستخدم تحت قفل الفهرس.
+     */
+    private static final class Editor {
+        private final List<Doc> docs;
+        private boolean[] removed;
+        private final Map<String, Integer> docByKey;
+        private final Map<Long, int[]> trigrams;
+        private final Map<Long, Postings> touched = new HashMap<>();
+
+        Editor(Snapshot base) {
+            docs = new ArrayList<>(Arrays.asList(base.docs));
+            removed = base.removed.clone();
+            docByKey = new HashMap<>(base.docByKey);
+            trigrams = new HashMap<>(base.trigrams);
+        }
+
+        void add(FontLibrary.Entry e) {
+            String key = e.getContentHash() + "#" + e.getFaceIndex();
+            Doc d = new Doc(key, e.getFilePath(), e.getFaceIndex(), e.getDisplayName(),
+                    buildText(e.getFullName(), e.getFamily(), e.getPostScriptName(), e.getDisplayName()));
+
+            // إعادة تسجيل نفس الوجه بنفس المسار والنصوص لا تضيف وثيقة ملغاة جديدة
+            Integer existing = docByKey.get(key);
+            if (existing != null && docs.get(existing).sameAs(d)) return;
+
+            int docIndex = docs.size();
+            docs.add(d);
+            if (removed.length < docs.size()) removed = Arrays.copyOf(removed, Math.max(16, docs.size() * 2));
+            docByKey.put(key, docIndex);
+            if (existing != null) removed[existing] = true;
+
+            for (int i = 0; i + 3 <= d.text.length(); i++) {
+                long k = trigramKey(d.text, i);
+                if (k < 0) continue;
+                Postings p = touched.get(k);
+                if (p == null) {
+                    p = new Postings(trigrams.get(k));
+                    touched.put(k, p);
+                }
+                p.add(docIndex);
+            }
+        }
+
+        boolean removeByPath(String path) {
+            boolean changed = false;
+            for (int i = 0; i < docs.size(); i++) {
+                Doc d = docs.get(i);
+                if (!removed[i] && path.equals(d.path)) {
+                    removed[i] = true;
+                    docByKey.remove(d.key);
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+
+        Snapshot build() {
+            for (Map.Entry<Long, Postings> t : touched.entrySet()) trigrams.put(t.getKey(), t.getValue().toArray());
+            Doc[] all = docs.toArray(new Doc[0]);
+            boolean[] dead = Arrays.copyOf(removed, all.length);
+            int deadCount = 0;
+            for (boolean r : dead) if (r) deadCount++;
+            if (deadCount > COMPACT_MIN_REMOVED && deadCount * 4 > all.length) {
+                return compact(all, dead, all.length - deadCount, trigrams);
+            }
+            return new Snapshot(all, dead, docByKey, trigrams);
+        }
+
+        /**
+         * ★★★ snapshot بدون الوثائق الملغاة ★★★
+         * الترقيم الجديد يحفظ الترتيب، فقوائم trigram تبقى مرتبة بعد التحويل؛ القوائم الفارغة تُحذف.
+         */
+        private static Snapshot compact(Doc[] all, boolean[] dead, int liveCount, Map<Long, int[]> base) {
+            int[] remap = new int[all.length];
+            Doc[] live = new Doc[liveCount];
+            Map<String, Integer> docByKey = new HashMap<>();
+            int n = 0;
+            for (int i = 0; i < all.length; i++) {
+                if (dead[i]) {
+                    remap[i] = -1;
+                    continue;
+                }
+                remap[i] = n;
+                live[n] = all[i];
+                docByKey.put(all[i].key, n);
+                n++;
+            }
+            Map<Long, int[]> trigrams = new HashMap<>();
+            for (Map.Entry<Long, int[]> t : base.entrySet()) {
+                int[] ids = t.getValue();
+                int[] kept = new int[ids.length];
+                int k = 0;
+                for (int id : ids) {
+                    if (remap[id] >= 0) kept[k++] = remap[id];
+                }
+                if (k > 0) trigrams.put(t.getKey(), k == kept.length ? kept : Arrays.copyOf(kept, k));
+            }
+            return new Snapshot(live, new boolean[live.length], docByKey, trigrams);
+        }
+    }
+
+    /** قائمة معرفات وثائق مرتبة تصاعدياً (الإضافة دائماً بمعرف أكبر). */
+    private static final class Postings {
+        int[] ids;
+        int size;
+
+        Postings(int[] base) {
+            ids = base != null ? Arrays.copyOf(base, base.length + 4) : new int[4];
+            size = base != null ? base.length : 0;
+        }
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+
+    private static final class Doc {
+        final String key;
+        final String path;
+        final int faceIndex;
+        final String label;
+        final String normalizedLabel;
+        final String text;
+
+        Doc(String key, String path, int faceIndex, String label, String text) {
+            this.key = key;
+            this.path = path;
+            this.faceIndex = faceIndex;
+            this.label = label;
+            this.normalizedLabel = normalize(label);
+            this.text = text;
+        }
+
+        boolean sameAs(Doc other) {
+            return key.equals(other.key) && faceIndex == other.faceIndex && text.equals(other.text)
+                    && Objects.equals(label, other.label) && Objects.equals(path, other.path);
+        }
+    }
+
+    /**
+     * نتيجة بحث: ما يكفي لفتح الخط في العارض.
+     */
+    public static final class Hit {
+        private final String path;
+        private final int faceIndex;
+        private final String label;
+
+        Hit(Doc d) {
+            this.path = d.path;
+            this.faceIndex = d.faceIndex;
+            this.label = d.label;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public int getFaceIndex() {
+            return faceIndex;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+}
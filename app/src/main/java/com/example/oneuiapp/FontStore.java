@@ -0,0 +1,438 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * FontStore - مخزن الخطوط المستوردة في filesDir/fonts، مُسمّى بمحتوى الملف (content-addressed).
+ * - الـ hash (SHA-256) يُحسب أثناء مرور البايتات في حلقة النسخ، بدون قراءة ثانية للملف
+ * - الكتابة تتم في ملف مؤقت؛ إن كان الخط موجوداً مسبقاً يُحذف المؤقت ويُعاد الملف الموجود
+ * - النقل إلى الاسم النهائي ذري (ATOMIC_MOVE) فلا يظهر ملف ناقص باسم hash أبداً
+ * كل الدوال تعمل على خيط خلفي.
+ */
+public final class FontStore {
+
+    private static final String TAG = "FontStore";
+    private static final String FONTS_DIR = "fonts";
+    private static final String TEMP_PREFIX = ".import-";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    // حجم دفعة transferFrom: كل دفعة نقطة فحص للإلغاء وتحديث للتقدم
+    private static final long TRANSFER_CHUNK_SIZE = 1024 * 1024;
+    private static final int DIRECT_BUFFER_SIZE = 256 * 1024;
+    // أسماء الملفات قبل التخزين بالـ hash
+    private static final String LEGACY_PREFIX = "selected_font_";
+    private static final String VIEWER_PREFS_NAME = "FontViewerPrefs";
+    private static final String PREF_LAST_FONT_PATH = "last_font_path";
+
+    private static volatile FontStore sInstance;
+
+    private final Context appContext;
+    private final File fontsDir;
+
+    private FontStore(Context context) {
+        appContext = context.getApplicationContext();
+        fontsDir = new File(appContext.getFilesDir(), FONTS_DIR);
+        deleteStaleTempFiles();
+    }
+
+    public static FontStore getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (FontStore.class) {
+                if (sInstance == null) {
+                    sInstance = new FontStore(context);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    public File getFontsDir() {
+        return fontsDir;
+    }
+
+    /**
+     * هل الاسم لملف خط في المخزن (وليس ملفاً مؤقتاً أو جانبياً)؟ يشمل ملفات selected_font_* القديمة
+     * التي لم يكتمل ترحيلها (migrateLegacyFiles).
+     */
+    static boolean isStoredFontName(String name) {
+        return !name.startsWith(".") && !name.endsWith(".tmp") && CmapCoverage.fontNameOfSidecar(name) == null;
+    }
+
+    /**
+     * تقدم الاستيراد بالبايت؛ total = -1 إن كان الحجم غير معروف. يُستدعى من خيط الاستيراد.
+     */
+    public interface ProgressListener {
+        void onProgress(long bytesCopied, long totalBytes);
+    }
+
+    /**
+     * استيراد خط من ParcelFileDescriptor (من ContentResolver#openFileDescriptor) عبر FileChannel.
+     * - الملفات العادية تُنسخ بـ transferFrom على دفعات، والـ hash يُحدّث من mapping كل دفعة
+     *   بعد كتابتها مباشرة (البيانات لا تمر بالـ heap)
+     * - إن لم يدعم المصدر transferFrom يُستخدم direct buffer كبير بدلاً منه
+     * - المصادر غير القابلة للـ seek (pipe) وخطوط الويب تمر عبر مسار التيار مع نفس التقدم والإلغاء
+     * الإلغاء عبر signal: يُفحص بين الدفعات، ويغلق الـ channel فوراً لفك أي قراءة معلقة؛
+     * عندها تُرمى OperationCanceledException ولا يبقى أي ملف ناقص. يتولى إغلاق pfd.
+     */
+    public File importFont(ParcelFileDescriptor source, String fallbackExtension,
+                           ProgressListener listener, CancellationSignal signal) throws IOException {
+        return importFont(new ParcelFileDescriptor.AutoCloseInputStream(source), source.getStatSize(), null,
+                fallbackExtension, listener, signal);
+    }
+
+    /**
+     * مثل importFont(ParcelFileDescriptor, ...) لتيار مفتوح مسبقاً على واصف، موضعه في بداية الملف.
+     * knownFormat هو النوع إن حُدد من الترويسة قبل ذلك (FontHeaderValidator)، فلا تُقرأ مرة أخرى،
+     * أو null. يتولى إغلاق التيار.
+     */
+    public File importFont(FileInputStream source, long total, FontFormat knownFormat, String fallbackExtension,
+                           ProgressListener listener, CancellationSignal signal) throws IOException {
+        ensureFontsDir();
+        File temp = new File(fontsDir, TEMP_PREFIX + UUID.randomUUID());
+
+        try (FileInputStream fis = source;
+             FileChannel src = fis.getChannel()) {
+            if (signal != null) {
+                signal.setOnCancelListener(() -> {
+                    try {
+                        src.close();
+                    } catch (IOException ignored) {
+                        // الإغلاق هنا فقط لفك القراءة المعلقة
+                    }
+                });
+            }
+
+            boolean seekable = total >= 0 && isSeekable(src);
+            byte[] header = new byte[FontFormat.SNIFF_LENGTH];
+            int headerLength = 0;
+            if (seekable && knownFormat == null) {
+                ByteBuffer hb = ByteBuffer.wrap(header);
+                while (hb.hasRemaining() && src.read(hb, hb.position()) > 0) {
+                    // قراءة بموضع مطلق لا تغير موضع الـ channel
+                }
+                headerLength = hb.position();
+            }
+
+            FontFormat format = knownFormat != null ? knownFormat : FontFormat.detect(header, headerLength);
+            File committed;
+            if (!seekable || format.isWebFont()) {
+                InputStream in = new MonitoredInputStream(Channels.newInputStream(src), total, listener, signal);
+                committed = importStream(in, fallbackExtension, temp);
+            } else {
+                String hash = transferAndHash(src, total, temp, listener, signal);
+                String ext = format.getExtension();
+                if (ext == null) ext = fallbackExtension != null ? fallbackExtension : ".ttf";
+                committed = commitHashed(temp, hash, ext);
+            }
+            return committed;
+        } catch (IOException e) {
+            // الإغلاق من مستمع الإلغاء يظهر هنا كـ ClosedChannelException
+            if (signal != null && signal.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            throw e;
+        } finally {
+            if (signal != null) signal.setOnCancelListener(null);
+            if (temp.exists() && !temp.delete()) {
+                Log.w(TAG, "Failed to delete temp file " + temp.getName());
+            }
+        }
+    }
+
+    /**
+     * استيراد خط من تيار: تحديد النوع من أول بايتات، فك WOFF/WOFF2 أو نسخ مباشر، ثم تسمية
+     * الملف بـ hash محتواه. fallbackExtension يُستخدم فقط إن لم يُعرف النوع من الترويسة.
+     * يُغلق التيار في كل الأحوال.
+     */
+    public File importFont(InputStream source, String fallbackExtension) throws IOException {
+        ensureFontsDir();
+        File temp = new File(fontsDir, TEMP_PREFIX + UUID.randomUUID());
+        try {
+            return importStream(source, fallbackExtension, temp);
+        } finally {
+            if (temp.exists() && !temp.delete()) {
+                Log.w(TAG, "Failed to delete temp file " + temp.getName());
+            }
+        }
+    }
+
+    private File importStream(InputStream source, String fallbackExtension, File temp) throws IOException {
+        try (BufferedInputStream in = new BufferedInputStream(source, COPY_BUFFER_SIZE)) {
+            // ★★★ تحديد النوع من أول بايتات الملف: WOFF/WOFF2 تُفك إلى sfnt أثناء القراءة ★★★
+            in.mark(FontFormat.SNIFF_LENGTH);
+            byte[] header = new byte[FontFormat.SNIFF_LENGTH];
+            int headerLength = readFully(in, header);
+            in.reset();
+
+            FontFormat format = FontFormat.detect(header, headerLength);
+            String ext;
+            String hash;
+            if (format.isWebFont()) {
+                ext = FontFormat.webFontFlavor(header, headerLength).getExtension();
+                WoffDecoder.decode(in, temp, appContext.getCacheDir());
+                // الناتج لا يمر بحلقة نسخ، لذا يُحسب الـ hash من mapping للملف المفكوك
+                hash = hashFile(temp);
+            } else {
+                ext = format.getExtension();
+                hash = copyAndHash(in, temp);
+            }
+            if (ext == null) ext = fallbackExtension != null ? fallbackExtension : ".ttf";
+            return commitHashed(temp, hash, ext);
+        }
+    }
+
+    /**
+     * ★★★ ترحيل ملفات selected_font_* القديمة إلى أسماء hash محتواها ★★★
+     * كل ملف يُنقل إلى hash.ext، أو يُحذف إن كان الخط نفسه موجوداً في المخزن. سجلات FontCacheManager
+     * تنتقل معه، وlast_font_path في FontViewerPrefs يُحدّث إن كان يشير إليه. الملف الذي يفشل ترحيله
+     * يبقى كما هو ويُعاد عليه في المرة التالية. يعيد المسار القديم -> الملف الجديد.
+     * تستدعيه FontLibrary قبل تسجيل ملفات المخزن.
+     */
+    synchronized Map<String, File> migrateLegacyFiles() {
+        File[] legacy = fontsDir.listFiles((dir, name) -> name.startsWith(LEGACY_PREFIX) && isStoredFontName(name));
+        if (legacy == null || legacy.length == 0) return Collections.emptyMap();
+
+        SharedPreferences viewerPrefs = appContext.getSharedPreferences(VIEWER_PREFS_NAME, Context.MODE_PRIVATE);
+        String lastPath = viewerPrefs.getString(PREF_LAST_FONT_PATH, null);
+        FontCacheManager cache = FontCacheManager.getInstance(appContext);
+        FontMetadataEngine engine = FontMetadataEngine.getInstance(appContext);
+        Map<String, File> moved = new HashMap<>();
+        for (File f : legacy) {
+            try {
+                String hash = hashFile(f);
+                // إن وُجد الخط نفسه يُعاد الموجود ويبقى القديم فيُحذف
+                File target = commit(f, new File(fontsDir, hash + legacyExtension(f)));
+                if (f.exists() && !f.delete()) throw new IOException("delete failed");
+                CmapCoverage.deleteSidecars(f);
+                engine.forgetContentHash(f);
+                engine.rememberContentHash(target, hash);
+                cache.moveRecords(f, target);
+                if (f.getAbsolutePath().equals(lastPath)) {
+                    viewerPrefs.edit().putString(PREF_LAST_FONT_PATH, target.getAbsolutePath()).apply();
+                    cache.pin(target);
+                }
+                moved.put(f.getAbsolutePath(), target);
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to migrate " + f.getName() + ": " + e.getMessage());
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * الامتداد من ترويسة الملف، ثم من اسمه القديم إن لم يُعرف النوع.
+     */
+    private static String legacyExtension(File f) throws IOException {
+        byte[] header = new byte[FontFormat.SNIFF_LENGTH];
+        int headerLength;
+        try (InputStream in = new FileInputStream(f)) {
+            headerLength = readFully(in, header);
+        }
+        String ext = FontFormat.detect(header, headerLength).getExtension();
+        if (ext != null) return ext;
+        String name = f.getName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(dot).toLowerCase(Locale.ROOT) : ".ttf";
+    }
+
+    private File commitHashed(File temp, String hash, String ext) throws IOException {
+        File target = new File(fontsDir, hash + ext.toLowerCase(Locale.ROOT));
+        File committed = commit(temp, target);
+        FontMetadataEngine.getInstance(appContext).rememberContentHash(committed, hash);
+        return committed;
+    }
+
+    /**
+     * نسخ channel إلى ملف بدفعات transferFrom، مع تحديث الـ hash من mapping كل دفعة مكتوبة.
+     */
+    private static String transferAndHash(FileChannel src, long total, File out,
+                                          ProgressListener listener, CancellationSignal signal) throws IOException {
+        MessageDigest digest = newDigest();
+        try (RandomAccessFile raf = new RandomAccessFile(out, "rw")) {
+            FileChannel dst = raf.getChannel();
+            long pos = 0;
+            ByteBuffer direct = null;
+            while (total < 0 || pos < total) {
+                if (signal != null) signal.throwIfCanceled();
+
+                long n = direct == null ? dst.transferFrom(src, pos, TRANSFER_CHUNK_SIZE) : 0;
+                if (n > 0) {
+                    digest.update(dst.map(FileChannel.MapMode.READ_ONLY, pos, n));
+                } else {
+                    // transferFrom غير مدعوم أو أعاد 0 قبل النهاية: direct buffer كبير بدلاً منه
+                    if (direct == null) direct = ByteBuffer.allocateDirect(DIRECT_BUFFER_SIZE);
+                    direct.clear();
+                    int r = src.read(direct, pos);
+                    if (r < 0) break;
+                    direct.flip();
+                    digest.update(direct.duplicate());
+                    while (direct.hasRemaining()) {
+                        dst.write(direct, pos + direct.position());
+                    }
+                    n = r;
+                }
+                pos += n;
+                if (listener != null) listener.onProgress(pos, total);
+            }
+            if (signal != null) signal.throwIfCanceled();
+            dst.force(false);
+        }
+        return FontMetadataEngine.toHex(digest.digest());
+    }
+
+    static boolean isSeekable(FileChannel channel) {
+        try {
+            channel.position();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * تيار يُبلغ التقدم ويفحص الإلغاء في كل قراءة؛ لمسار WOFF/WOFF2 والمصادر غير القابلة للـ seek.
+     */
+    private static final class MonitoredInputStream extends FilterInputStream {
+        private final long total;
+        private final ProgressListener listener;
+        private final CancellationSignal signal;
+        private long count;
+        private long lastReported;
+
+        MonitoredInputStream(InputStream in, long total, ProgressListener listener, CancellationSignal signal) {
+            super(in);
+            this.total = total;
+            this.listener = listener;
+            this.signal = signal;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) advance(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int r = super.read(b, off, len);
+            if (r > 0) advance(r);
+            return r;
+        }
+
+        private void advance(long n) {
+            if (signal != null) signal.throwIfCanceled();
+            count += n;
+            if (listener != null && (count - lastReported >= TRANSFER_CHUNK_SIZE || count == total)) {
+                lastReported = count;
+                listener.onProgress(count, total);
+            }
+        }
+    }
+
+    /**
+     * نقل الملف المؤقت إلى اسمه النهائي. إن وُجد خط بنفس المحتوى يُعاد الموجود ويُحذف المؤقت.
+     */
+    private File commit(File temp, File target) throws IOException {
+        if (target.exists() && target.length() == temp.length()) {
+            return target;
+        }
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // نفس المجلد دائماً، لكن بعض أنظمة الملفات لا تدعم الخيار صراحة؛ rename يبقى ذرياً عملياً
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (FileAlreadyExistsException e) {
+            // استيراد متزامن لنفس الخط سبقنا إلى الاسم النهائي
+            return target;
+        }
+        return target;
+    }
+
+    private static String copyAndHash(InputStream in, File out) throws IOException {
+        MessageDigest digest = newDigest();
+        try (FileOutputStream fos = new FileOutputStream(out)) {
+            byte[] buf = new byte[COPY_BUFFER_SIZE];
+            int r;
+            while ((r = in.read(buf)) != -1) {
+                digest.update(buf, 0, r);
+                fos.write(buf, 0, r);
+            }
+            fos.getFD().sync();
+        }
+        return FontMetadataEngine.toHex(digest.digest());
+    }
+
+    private static String hashFile(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            digest.update(mapped);
+        }
+        return FontMetadataEngine.toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void ensureFontsDir() throws IOException {
+        if (!fontsDir.exists() && !fontsDir.mkdirs() && !fontsDir.isDirectory()) {
+            throw new IOException("Failed to create fonts dir");
+        }
+    }
+
+    /**
+     * ملفات مؤقتة بقيت من استيراد قُطع (إغلاق التطبيق أثناء النسخ).
+     */
+    private void deleteStaleTempFiles() {
+        File[] stale = fontsDir.listFiles((dir, name) -> name.startsWith(TEMP_PREFIX));
+        if (stale == null) return;
+        for (File f : stale) {
+            if (!f.delete()) Log.w(TAG, "Failed to delete stale temp file " + f.getName());
+        }
+    }
+
+    static int readFully(InputStream in, byte[] buf) throws IOException {
+        int total = 0;
+        while (total < buf.length) {
+            int r = in.read(buf, total, buf.length - total);
+            if (r < 0) break;
+            total += r;
+        }
+        return total;
+    }
+}
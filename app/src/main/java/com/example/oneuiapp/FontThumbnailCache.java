@@ -0,0 +1,203 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+import android.util.LruCache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FontThumbnailCache - كاش صور المعاينة المرسومة مسبقاً على مستويين.
+ * - الذاكرة: LruCache بحجم جزء من الـ heap، محسوب بالبايت وليس بعدد الصور
+ * - القرص: ملفات PNG في cacheDir/font_thumbs، مجمعة في مجلد لكل نص معاينة
+ * - المفتاح: hash الخط و face، نص المعاينة، الحجم والأبعاد، السمة (theme) واللغة (locale)
+ * - تغيير نص المعاينة يحذف صور النص القديم فقط (من الذاكرة فوراً ومن القرص في الخلفية)
+ * القراءة من الذاكرة آمنة من الخيط الرئيسي؛ القرص على خيط خلفي فقط.
+ */
+public final class FontThumbnailCache {
+
+    private static final String TAG = "FontThumbnailCache";
+    private static final String DIR_NAME = "font_thumbs";
+    private static final String FILE_SUFFIX = ".png";
+
+    // جزء الـ heap المتاح لصور المعاينة في الذاكرة
+    private static final int MEMORY_HEAP_FRACTION = 8;
+    private static final long DISK_LIMIT_BYTES = 32L * 1024 * 1024;
+    // التقليم لا يمر على كل الملفات بعد كل كتابة
+    private static final int TRIM_EVERY_WRITES = 32;
+
+    private static volatile FontThumbnailCache sInstance;
+
+    private final File rootDir;
+    private final LruCache<String, Bitmap> memory;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicInteger writesSinceTrim = new AtomicInteger();
+
+    private FontThumbnailCache(Context context) {
+        rootDir = new File(context.getApplicationContext().getCacheDir(), DIR_NAME);
+        int maxBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / MEMORY_HEAP_FRACTION);
+        memory = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+    }
+
+    public static FontThumbnailCache getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (FontThumbnailCache.class) {
+                if (sInstance == null) {
+                    sInstance = new FontThumbnailCache(context);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * مفتاح صورة معاينة: "textDigest/fontHash_face_..."، فكل نص معاينة له مجلده على القرص.
+     * textDigest من textDigest(text)، يُحسب مرة واحدة لكل نص وليس لكل صف.
+     */
+    public static String key(String textDigest, String fontHash, int faceIndex, float textSizePx, int widthPx,
+                             int heightPx, String theme, String locale) {
+        return textDigest + "/" + fontHash + "_" + faceIndex + "_" + widthPx + "x" + heightPx
+                + "_" + Math.round(textSizePx * 10) + "_" + theme + "_" + locale;
+    }
+
+    /**
+     * من الذاكرة فقط. آمنة من الخيط الرئيسي.
+     */
+    public Bitmap getFromMemory(String key) {
+        return memory.get(key);
+    }
+
+    /**
+     * من الذاكرة ثم من القرص (وتُرفع إلى الذاكرة). خيط خلفي.
+     */
+    public Bitmap get(String key) {
+        Bitmap bitmap = memory.get(key);
+        if (bitmap != null) return bitmap;
+
+        File file = fileFor(key);
+        if (!file.exists()) return null;
+        bitmap = BitmapFactory.decodeFile(file.getPath());
+        if (bitmap == null) return null;
+        memory.put(key, bitmap);
+        // تحديث وقت التعديل يجعل التقليم يحذف الأقدم استخداماً أولاً
+        file.setLastModified(System.currentTimeMillis());
+        return bitmap;
+    }
+
+    /**
+     * حفظ في الذاكرة فوراً وعلى القرص في الخلفية.
+     */
+    public void put(String key, Bitmap bitmap) {
+        memory.put(key, bitmap);
+        diskExecutor.execute(() -> {
+            writeToDisk(key, bitmap);
+            if (writesSinceTrim.incrementAndGet() >= TRIM_EVERY_WRITES) {
+                writesSinceTrim.set(0);
+                trimDisk();
+            }
+        });
+    }
+
+    /**
+     * ★★★ إبطال تزايدي: صور نص المعاينة القديم فقط، وبقية الكاش يبقى كما هو ★★★
+     */
+    public void invalidateText(String oldText) {
+        final String prefix = textDigest(oldText) + "/";
+        for (String k : memory.snapshot().keySet()) {
+            if (k.startsWith(prefix)) memory.remove(k);
+        }
+
+        diskExecutor.execute(() -> {
+            File dir = new File(rootDir, prefix.substring(0, prefix.length() - 1));
+            File[] files = dir.listFiles();
+            if (files == null) return;
+            for (File f : files) {
+                if (!f.delete()) Log.w(TAG, "Failed to delete " + f.getName());
+            }
+            if (!dir.delete()) Log.w(TAG, "Failed to delete " + dir.getName());
+        });
+    }
+
+    private void writeToDisk(String key, Bitmap bitmap) {
+        File file = fileFor(key);
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            Log.w(TAG, "Failed to create " + dir.getName());
+            return;
+        }
+        // الكتابة إلى ملف مؤقت ثم إعادة التسمية: القارئ لا يرى ملفاً ناقصاً
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write thumbnail: " + e.getMessage());
+            if (!tmp.delete()) Log.w(TAG, "Failed to delete " + tmp.getName());
+            return;
+        }
+        if (!tmp.renameTo(file)) Log.w(TAG, "Failed to replace " + file.getName());
+    }
+
+    /**
+     * حذف الأقدم استخداماً حتى يعود حجم القرص تحت الحد.
+     */
+    private void trimDisk() {
+        File[] textDirs = rootDir.listFiles();
+        if (textDirs == null) return;
+        List<File> files = new ArrayList<>();
+        long total = 0;
+        for (File dir : textDirs) {
+            File[] children = dir.listFiles();
+            if (children == null) continue;
+            for (File f : children) {
+                files.add(f);
+                total += f.length();
+            }
+        }
+        if (total <= DISK_LIMIT_BYTES) return;
+
+        File[] byAge = files.toArray(new File[0]);
+        long[] modified = new long[byAge.length];
+        for (int i = 0; i < byAge.length; i++) modified[i] = byAge[i].lastModified();
+        Integer[] order = new Integer[byAge.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(modified[a], modified[b]));
+
+        for (int i : order) {
+            if (total <= DISK_LIMIT_BYTES) break;
+            long len = byAge[i].length();
+            if (byAge[i].delete()) total -= len;
+        }
+    }
+
+    private File fileFor(String key) {
+        return new File(rootDir, key + FILE_SUFFIX);
+    }
+
+    static String textDigest(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            return FontMetadataEngine.toHex(hash).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
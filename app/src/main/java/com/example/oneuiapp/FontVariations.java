@@ -0,0 +1,191 @@
+package com.example.oneuiapp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * FontVariations - محاور الخط المتغير والنسخ المسماة (named instances) من جدول fvar.
+ * الأسماء تُؤخذ من جدول name لنفس الـ face. الكائن غير قابل للتعديل.
+ */
+public final class FontVariations {
+
+    public static final int TAG_FVAR = 0x66766172;          // 'fvar'
+
+    private static final int AXIS_FLAG_HIDDEN = 0x0001;
+
+    private final List<Axis> axes;
+    private final List<NamedInstance> instances;
+
+    private FontVariations(List<Axis> axes, List<NamedInstance> instances) {
+        this.axes = Collections.unmodifiableList(axes);
+        this.instances = Collections.unmodifiableList(instances);
+    }
+
+    public List<Axis> getAxes() {
+        return axes;
+    }
+
+    public List<NamedInstance> getInstances() {
+        return instances;
+    }
+
+    /**
+     * القيم الافتراضية لكل المحاور بنفس ترتيب getAxes().
+     */
+    public float[] getDefaultCoordinates() {
+        float[] out = new float[axes.size()];
+        for (int i = 0; i < out.length; i++) out[i] = axes.get(i).getDefaultValue();
+        return out;
+    }
+
+    /**
+     * نص بصيغة CSS font-variation-settings كما يتوقعه Typeface.Builder#setFontVariationSettings.
+     */
+    public String toVariationSettings(float[] coordinates) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < axes.size(); i++) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append('\'').append(axes.get(i).getTag()).append("' ")
+                    .append(String.format(Locale.US, "%.2f", coordinates[i]));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * قراءة fvar للـ face المطلوب، أو null إن لم يكن الخط متغيراً.
+     */
+    public static FontVariations parse(SfntParser parser, int faceIndex) throws IOException {
+        ByteBuffer fvar = parser.getTable(faceIndex, TAG_FVAR);
+        if (fvar == null || fvar.limit() < 16) return null;
+
+        try {
+            int axesOffset = fvar.getShort(4) & 0xFFFF;
+            int axisCount = fvar.getShort(8) & 0xFFFF;
+            int axisSize = fvar.getShort(10) & 0xFFFF;
+            int instanceCount = fvar.getShort(12) & 0xFFFF;
+            int instanceSize = fvar.getShort(14) & 0xFFFF;
+            if (axisCount == 0 || axisSize < 20) return null;
+
+            SfntParser.NameTable names = parser.getNameTable(faceIndex);
+
+            List<Axis> axes = new ArrayList<>(axisCount);
+            for (int i = 0; i < axisCount; i++) {
+                int rec = axesOffset + i * axisSize;
+                String tag = tagToString(fvar.getInt(rec));
+                float min = fixed(fvar.getInt(rec + 4));
+                float def = fixed(fvar.getInt(rec + 8));
+                float max = fixed(fvar.getInt(rec + 12));
+                int flags = fvar.getShort(rec + 16) & 0xFFFF;
+                int nameId = fvar.getShort(rec + 18) & 0xFFFF;
+                String name = findName(names, nameId);
+                axes.add(new Axis(tag, name != null ? name : tag, min, def, max,
+                        (flags & AXIS_FLAG_HIDDEN) != 0));
+            }
+
+            // instanceSize = 4 + 4 * axisCount، ويزيد 2 إن وُجد postScriptNameID
+            List<NamedInstance> instances = new ArrayList<>(instanceCount);
+            int instancesOffset = axesOffset + axisCount * axisSize;
+            if (instanceSize >= 4 + 4 * axisCount) {
+                for (int i = 0; i < instanceCount; i++) {
+                    int rec = instancesOffset + i * instanceSize;
+                    int nameId = fvar.getShort(rec) & 0xFFFF;
+                    float[] coords = new float[axisCount];
+                    for (int a = 0; a < axisCount; a++) {
+                        coords[a] = fixed(fvar.getInt(rec + 4 + 4 * a));
+                    }
+                    String name = findName(names, nameId);
+                    instances.add(new NamedInstance(name != null ? name : "#" + (i + 1), coords));
+                }
+            }
+            return new FontVariations(axes, instances);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Malformed fvar table", e);
+        }
+    }
+
+    /**
+     * أول سجل بالـ nameID المطلوب، بنفس قاعدة FontMetadataEngine.
+     */
+    private static String findName(SfntParser.NameTable names, int nameId) throws IOException {
+        if (names == null) return null;
+        for (int i = 0; i < names.getCount(); i++) {
+            if (names.getNameId(i) == nameId) return names.getString(i);
+        }
+        return null;
+    }
+
+    private static float fixed(int value) {
+        return value / 65536f;
+    }
+
+    private static String tagToString(int tag) {
+        char[] c = {(char) ((tag >> 24) & 0xFF), (char) ((tag >> 16) & 0xFF),
+                (char) ((tag >> 8) & 0xFF), (char) (tag & 0xFF)};
+        return new String(c);
+    }
+
+    public static final class Axis {
+        private final String tag;
+        private final String name;
+        private final float minValue;
+        private final float defaultValue;
+        private final float maxValue;
+        private final boolean hidden;
+
+        Axis(String tag, String name, float minValue, float defaultValue, float maxValue, boolean hidden) {
+            this.tag = tag;
+            this.name = name;
+            this.minValue = minValue;
+            this.defaultValue = defaultValue;
+            this.maxValue = maxValue;
+            this.hidden = hidden;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public float getMinValue() {
+            return minValue;
+        }
+
+        public float getDefaultValue() {
+            return defaultValue;
+        }
+
+        public float getMaxValue() {
+            return maxValue;
+        }
+
+        /** محور يطلب الخط إخفاءه عن واجهات المستخدم العادية. */
+        public boolean isHidden() {
+            return hidden;
+        }
+    }
+
+    public static final class NamedInstance {
+        private final String name;
+        private final float[] coordinates;
+
+        NamedInstance(String name, float[] coordinates) {
+            this.name = name;
+            this.coordinates = coordinates;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public float[] getCoordinates() {
+            return coordinates.clone();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.fragment.app.Fragment;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * FontViewerController - أساس لوحات العارض الإضافية (البحث، التغطية، التكرار، الأشكال، المقارنة).
+ * - كل لوحة تملك خيطها الخلفي، فلا ينتظر عملها خلف استيراد جارٍ في العارض
+ * - العمل الجاري له إشارة إلغاء واحدة؛ بدء عمل جديد يلغي السابق وتُهمل نتيجته
+ * العارض ينشئ اللوحات في onViewCreated ويحررها عبر release في onDestroyView.
+ */
+abstract class FontViewerController {
+
+    /**
+     * فتح خط من نتيجة لوحة في العارض وحفظه كآخر خط مستخدم.
+     */
+    interface FontOpener {
+        void open(String path, String fileName, String realName, int faceIndex);
+    }
+
+    protected final Fragment host;
+    protected final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private volatile CancellationSignal signal;
+
+    FontViewerController(Fragment host) {
+        this.host = host;
+    }
+
+    /**
+     * إلغاء العمل الجاري وإرجاع إشارة العمل الجديد.
+     */
+    protected CancellationSignal restart() {
+        cancel();
+        CancellationSignal next = new CancellationSignal();
+        signal = next;
+        return next;
+    }
+
+    /**
+     * النتيجة تخص آخر عمل بدأ والعارض ما زال معروضاً.
+     */
+    protected boolean isCurrent(CancellationSignal s) {
+        return host.isAdded() && signal == s;
+    }
+
+    protected void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ignored) {
+            // اللوحة حُررت؛ لا عمل جديد بعد release
+        }
+    }
+
+    protected void postIfCurrent(CancellationSignal s, Runnable action) {
+        mainHandler.post(() -> {
+            if (isCurrent(s)) action.run();
+        });
+    }
+
+    protected Context requireContext() {
+        return host.requireContext();
+    }
+
+    protected String getString(int resId) {
+        return host.getString(resId);
+    }
+
+    protected String getString(int resId, Object... args) {
+        return host.getString(resId, args);
+    }
+
+    protected int resolveColor(int attr) {
+        TypedArray a = requireContext().obtainStyledAttributes(new int[]{attr});
+        try {
+            return a.getColor(0, Color.GRAY);
+        } finally {
+            a.recycle();
+        }
+    }
+
+    public void cancel() {
+        CancellationSignal current = signal;
+        signal = null;
+        if (current != null) current.cancel();
+    }
+
+    public void release() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
@@ -1,48 +1,60 @@
 package com.example.oneuiapp;
 
 import android.app.Activity;
+import android.content.ClipData;
 import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
+import android.content.UriPermission;
 import android.database.Cursor;
 import android.graphics.Typeface;
 import android.net.Uri;
-import android.os.Build;
 import android.os.Bundle;
+import android.os.CancellationSignal;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.OperationCanceledException;
 import android.os.ParcelFileDescriptor;
 import android.provider.OpenableColumns;
+import android.text.format.Formatter;
 import android.util.Log;
+import android.util.LruCache;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.EditText;
 import android.widget.LinearLayout;
+import android.widget.ProgressBar;
+import android.widget.SeekBar;
 import android.widget.TextView;
 
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
 import androidx.preference.PreferenceManager;
 import androidx.documentfile.provider.DocumentFile;
 
 import dev.oneuiproject.oneui.widget.Toast;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.RandomAccessFile;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 /**
  * FontViewerFragment - عارض الخطوط مع تحديث تلقائي لنص المعاينة
  * تحسين:
  * - تمرير takeFlags لاختبار persistable URI بشكل موثوق
- * - دعم اكتشاف TTC (TrueType Collection) بسيط
+ * - دعم كامل لملفات TTC (TrueType Collection): عرض كل الـ faces وبناء Typeface للـ face المختار فقط
  * - حفظ path بعد النسخ إلى storage المحلي
  * - تنظيف الموارد عند onDestroyView
  * - تعديلات طفيفة لتحسين استرجاع الاسم الحقيقي للخط
@@ -52,28 +64,90 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
     private static final String KEY_FONT_PATH = "font_path";
     private static final String KEY_FONT_FILE_NAME = "font_file_name";
     private static final String KEY_FONT_REAL_NAME = "font_real_name";
+    private static final String KEY_FONT_FACE_INDEX = "font_face_index";
+    private static final String KEY_FONT_URI = "font_uri";
     private static final String PREF_LAST_FONT_PATH = "last_font_path";
     private static final String PREF_LAST_FONT_FILE_NAME = "last_font_file_name";
     private static final String PREF_LAST_FONT_REAL_NAME = "last_font_real_name";
     private static final String PREF_LAST_FONT_URI = "last_font_uri";
+    private static final String PREF_LAST_FONT_FACE_INDEX = "last_font_face_index";
     private static final String TAG = "FontViewerFragment";
 
+    // كتلة Unicode العربية الأساسية لعرض نسبة التغطية
+    private static final int ARABIC_BLOCK_START = 0x0600;
+    private static final int ARABIC_BLOCK_END = 0x06FF;
+
+    // نسخ الخط المتغير المبنية تُحفظ بمفتاح قيم المحاور؛ السحب لا يبني Typeface لكل إطار
+    private static final int VARIATION_CACHE_SIZE = 16;
+    private static final long VARIATION_DEBOUNCE_MS = 80;
+    private static final int AXIS_SLIDER_STEPS = 1000;
+
     private LinearLayout selectFontButton;
+    private LinearLayout selectFolderButton;
+    private LinearLayout faceSelectorButton;
+    private TextView faceSelectorSummary;
+    private LinearLayout variationPanel;
+    private LinearLayout importProgressPanel;
+    private ProgressBar importProgressBar;
+    private TextView importProgressText;
+    private TextView importCancelButton;
+    private LinearLayout batchImportPanel;
+    private TextView batchImportSummary;
+    private LinearLayout batchImportResults;
+    private EditText fontSearchField;
+    private LinearLayout fontSearchResults;
+    private LinearLayout variationAxesContainer;
+    private TextView variationInstanceSummary;
     private TextView previewSentence;
     private TextView previewNumbers;
+    private FontWaterfallView previewWaterfall;
 
     private String currentFontPath;
+    // في وضع المعاينة بدون نسخ: مصدر الخط الحالي بدلاً من currentFontPath
+    private Uri currentFontUri;
     private String currentFontFileName;
     private String currentFontRealName;
+    private int currentFaceIndex = 0;
+    private int currentFaceCount = 1;
+    // أسماء faces الخط المعروض، محسوبة مع تحميله (null لخط بـ face واحد)
+    private String[] currentFaceNames;
     private Typeface currentTypeface;
+    private FontVariations currentVariations;
+    private float[] axisValues;
+
+    // الـ Typeface المعروض حالياً محجوز في TypefaceCache حتى لا يُحذف أثناء العرض
+    private TypefaceCache.Lease currentTypefaceLease;
+    // طلب FontLoader الجاري؛ يُلغى عند طلب خط آخر أو عند إغلاق العارض
+    private FontLoader.Request pendingFontLoad;
+    // يزيد مع كل طلب خط (مسار أو URI)؛ تحميل URI على bgExecutor يُهمل نتيجته إن تغير بعده
+    private volatile int fontLoadGeneration;
+    // نسخة الخط المتغير الجاري بناؤها؛ كل حركة جديدة للأشرطة تلغيها
+    private FontLoader.Request pendingVariationLoad;
+    // نسخ الخط المتغير لمصدر URI فقط؛ نسخ الملفات في TypefaceCache
+    private final LruCache<String, Typeface> variationCache = new LruCache<>(VARIATION_CACHE_SIZE);
+    private final Runnable applyVariationRunnable = this::applyVariation;
 
     private String lastPreviewText = "";
     private SharedPreferences sharedPreferences;
 
     private ActivityResultLauncher<Intent> fontPickerLauncher;
+    private ActivityResultLauncher<Intent> folderPickerLauncher;
     private OnFontChangedListener fontChangedListener;
 
     private final ExecutorService bgExecutor = Executors.newSingleThreadExecutor();
+    // shutdownNow لا يقطع I/O المعلق، لذا يُلغى الاستيراد الجاري عبر هذه الإشارة
+    private volatile CancellationSignal currentImportSignal;
+    private volatile boolean lastImportCancelled;
+    // استيراد عدة ملفات من جلسة اختيار واحدة يمر عبر FontImportPipeline وليس bgExecutor
+    private FontImportPipeline batchPipeline;
+    // فحص المجلد قد يطول، فله خيطه الخاص حتى لا يحجز bgExecutor
+    private final ExecutorService scanExecutor = Executors.newSingleThreadExecutor();
+    private volatile CancellationSignal folderScanSignal;
+    private FontSearchController searchController;
+    private FontCoverageQueryController coverageQueryController;
+    private FontDuplicateController duplicateController;
+    private GlyphGridController glyphGridController;
+    private FontComparisonController comparisonController;
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
     public interface OnFontChangedListener {
         void onFontChanged(String fontRealName, String fontFileName);
@@ -103,7 +177,14 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
                 if (result.getResultCode() == Activity.RESULT_OK &&
                         result.getData() != null) {
                     Intent data = result.getData();
-                    Uri fontUri = data.getData();
+                    ClipData clip = data.getClipData();
+                    if (clip != null && clip.getItemCount() > 1) {
+                        startBatchImport(clip, data.getFlags());
+                        return;
+                    }
+                    // بعض مزودي المستندات يعيدون الاختيار المفرد داخل ClipData فقط
+                    final Uri fontUri = data.getData() != null ? data.getData()
+                            : clip != null && clip.getItemCount() == 1 ? clip.getItemAt(0).getUri() : null;
                     if (fontUri != null) {
                         // استخرج takeFlags من intent ثم حاول أخذ persistable permission هنا
                     
@@ -121,27 +202,60 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
 
                         // قم بالنسخ والمعالجة في خيط خلفي
                         bgExecutor.execute(() -> {
+                            // ★★★ فحص الترويسة قبل أي نسخ: الملف غير الصالح يُرفض برسالة واضحة ★★★
+                            FontHeaderValidator.Verdict verdict = FontHeaderValidator.validate(requireContext(), fontUri);
+                            // أرشيف ZIP قد يحتوي عدة خطوط، فيمر بمسار الدفعات
+                            if (verdict.isArchive()) {
+                                mainHandler.post(() -> {
+                                    if (isAdded()) startBatchImport(Collections.singletonList(fontUri));
+                                });
+                                return;
+                            }
+                            if (!verdict.isValid()) {
+                                mainHandler.post(() -> {
+                                    if (!isAdded()) return;
+                                    Toast.makeText(requireContext(), getString(verdict.getErrorMessage()),
+                                            Toast.LENGTH_SHORT).show();
+                                });
+                                return;
+                            }
+                            if (canPreviewWithoutCopy(fontUri, verdict.getFormat())) {
+                                String fileName = getFileNameFromUri(fontUri);
+                                mainHandler.post(() -> {
+                                    if (isAdded()) loadFontFromUri(fontUri, fileName, null, 0);
+                                });
+                                return;
+                            }
                             File copied = copyUriToAppStorage(fontUri, null);
                             String fileName = getFileNameFromUri(fontUri);
                             String realName = "Unknown Font";
                             if (copied != null && copied.exists()) {
                                 realName = extractFontRealName(copied);
+                                buildCoverageIndex(copied);
+                                addToLibrary(copied, fontUri);
+                                FontCacheManager cache = FontCacheManager.getInstance(requireContext());
+                                cache.recordSource(copied, fontUri);
+                                cache.recordUse(copied);
                                 final String finalRealName = realName;
                                 final String finalFileName = fileName != null ? fileName : copied.getName();
                                 // احفظ أيضًا المسار المحلي لأننا نسخنا الملف داخل app storage
-                                saveLastUsedFont(copied.getAbsolutePath(), finalFileName, finalRealName);
+                                saveLastUsedFont(copied.getAbsolutePath(), finalFileName, finalRealName, 0);
+                                cache.trimAsync();
                                 final Uri finalUri = fontUri;
                                 // سطِّر عملية إنشاء typeface على الواجهة الرئيسية
                             
                                 mainHandler.post(() -> {
-                                    loadFontFromPath(copied.getAbsolutePath(), finalFileName, finalRealName);
+                                    loadFontFromPath(copied.getAbsolutePath(), finalFileName, finalRealName, 0);
                                     // سجل URI مع takeFlags حتى يمكن استعادته بشكل آمن لاحقاً
                                     saveLastUsedFontUri(finalUri, finalFileName, finalRealName, takeFlags);
                                 });
                             } else {
+                                final boolean cancelled = lastImportCancelled;
                                 mainHandler.post(() -> {
+                                    if (!isAdded()) return;
                                     Toast.makeText(requireContext(),
-                                            getString(R.string.font_viewer_error_loading_font),
+                                            getString(cancelled ? R.string.font_viewer_import_cancelled
+                                                    : R.string.font_viewer_error_loading_font),
                                             Toast.LENGTH_SHORT).show();
                                 });
                             }
@@ -150,6 +264,22 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
                 }
             }
         );
+
+        folderPickerLauncher = registerForActivityResult(
+            new ActivityResultContracts.StartActivityForResult(),
+            result -> {
+                if (result.getResultCode() != Activity.RESULT_OK || result.getData() == null) return;
+                Uri treeUri = result.getData().getData();
+                if (treeUri == null) return;
+                try {
+                    requireContext().getContentResolver().takePersistableUriPermission(treeUri,
+                            Intent.FLAG_GRANT_READ_URI_PERMISSION);
+                } catch (SecurityException se) {
+                    Log.w(TAG, "takePersistableUriPermission failed: " + se.getMessage());
+                }
+                startFolderImport(treeUri);
+            }
+        );
     }
 
     @Nullable
@@ -166,20 +296,29 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
         super.onViewCreated(view, savedInstanceState);
         initViews(view);
         selectFontButton.setOnClickListener(v -> openFontPicker());
+        selectFolderButton.setOnClickListener(v -> openFolderPicker());
+        faceSelectorButton.setOnClickListener(v -> showFacePicker());
+        view.findViewById(R.id.variation_instance_button).setOnClickListener(v -> showInstancePicker());
+        initControllers(view);
 
         if (savedInstanceState != null) {
             currentFontPath = savedInstanceState.getString(KEY_FONT_PATH);
             currentFontFileName = savedInstanceState.getString(KEY_FONT_FILE_NAME);
             currentFontRealName = savedInstanceState.getString(KEY_FONT_REAL_NAME);
+            currentFaceIndex = savedInstanceState.getInt(KEY_FONT_FACE_INDEX, 0);
 
+            String savedUri = savedInstanceState.getString(KEY_FONT_URI);
             if (currentFontPath != null && !currentFontPath.isEmpty()) {
-                loadFontFromPath(currentFontPath, currentFontFileName, currentFontRealName);
+                loadFontFromPath(currentFontPath, currentFontFileName, currentFontRealName, currentFaceIndex);
+            } else if (savedUri != null) {
+                loadFontFromUri(Uri.parse(savedUri), currentFontFileName, currentFontRealName, currentFaceIndex);
             }
         } else {
             loadLastUsedFont();
         }
 
         updatePreviewTexts();
+        FontCacheManager.getInstance(requireContext()).trimAsync();
     }
 
     @Override
@@ -209,14 +348,40 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
         super.onDestroyView();
         // تنظيف مراجع الواجهة لمنع NullPointer و memory leaks
         selectFontButton = null;
+        selectFolderButton = null;
+        faceSelectorButton = null;
+        faceSelectorSummary = null;
+        variationPanel = null;
+        importProgressPanel = null;
+        importProgressBar = null;
+        importProgressText = null;
+        importCancelButton = null;
+        batchImportPanel = null;
+        batchImportSummary = null;
+        batchImportResults = null;
+        fontSearchField = null;
+        fontSearchResults = null;
+        releaseControllers();
+        variationAxesContainer = null;
+        variationInstanceSummary = null;
+        mainHandler.removeCallbacks(applyVariationRunnable);
         previewSentence = null;
         previewNumbers = null;
+        previewWaterfall = null;
     }
 
     @Override
     public void onDestroy() {
         super.onDestroy();
+        CancellationSignal signal = currentImportSignal;
+        if (signal != null) signal.cancel();
+        CancellationSignal scan = folderScanSignal;
+        if (scan != null) scan.cancel();
+        if (batchPipeline != null) batchPipeline.cancel();
+        cancelPendingFontLoad();
+        holdTypefaceLease(null);
         bgExecutor.shutdownNow();
+        scanExecutor.shutdownNow();
     }
 
     @Override
@@ -225,6 +390,8 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
             String newPreviewText = SettingsHelper.getPreviewText(requireContext());
             lastPreviewText = newPreviewText;
             updatePreviewTexts();
+        } else if ("waterfall_enabled".equals(key) || "waterfall_sizes".equals(key)) {
+            updateWaterfall(SettingsHelper.getPreviewText(requireContext()));
         }
     }
 
@@ -238,24 +405,70 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
         previewSentence.setText(previewText);
 
         previewNumbers.setText(getString(R.string.font_viewer_english_numbers));
+        updateWaterfall(previewText);
         if (currentTypeface != null) {
             applyFontToPreviewTexts();
         }
     }
 
+    /**
+     * ★★★ المعاينة المتدرجة: الأسطر تُقاس في الخلفية داخل FontWaterfallView، هنا الإعدادات فقط ★★★
+     */
+    private void updateWaterfall(String previewText) {
+        if (previewWaterfall == null) return;
+        if (!SettingsHelper.isWaterfallEnabled(requireContext())) {
+            previewWaterfall.setVisibility(View.GONE);
+            return;
+        }
+        previewWaterfall.setTextColor(previewSentence.getCurrentTextColor());
+        previewWaterfall.setLabelColor(resolveColor(android.R.attr.textColorSecondary));
+        previewWaterfall.setSizesSp(SettingsHelper.getWaterfallSizesSp(requireContext()));
+        previewWaterfall.setText(previewText);
+        previewWaterfall.setTypeface(currentTypeface);
+        previewWaterfall.setVisibility(View.VISIBLE);
+    }
+
+    private int resolveColor(int attr) {
+        android.content.res.TypedArray a = requireContext().obtainStyledAttributes(new int[]{attr});
+        try {
+            return a.getColor(0, previewSentence.getCurrentTextColor());
+        } finally {
+            a.recycle();
+        }
+    }
+
     private void initViews(View view) {
         selectFontButton = view.findViewById(R.id.select_font_button);
+        selectFolderButton = view.findViewById(R.id.select_folder_button);
+        faceSelectorButton = view.findViewById(R.id.face_selector_button);
+        faceSelectorSummary = view.findViewById(R.id.face_selector_summary);
+        variationPanel = view.findViewById(R.id.variation_panel);
+        importProgressPanel = view.findViewById(R.id.import_progress_panel);
+        importProgressBar = view.findViewById(R.id.import_progress_bar);
+        importProgressText = view.findViewById(R.id.import_progress_text);
+        importCancelButton = view.findViewById(R.id.import_cancel_button);
+        batchImportPanel = view.findViewById(R.id.batch_import_panel);
+        batchImportSummary = view.findViewById(R.id.batch_import_summary);
+        batchImportResults = view.findViewById(R.id.batch_import_results);
+        fontSearchField = view.findViewById(R.id.font_search_field);
+        fontSearchResults = view.findViewById(R.id.font_search_results);
+        variationAxesContainer = view.findViewById(R.id.variation_axes_container);
+        variationInstanceSummary = view.findViewById(R.id.variation_instance_summary);
         previewSentence = view.findViewById(R.id.preview_sentence);
         previewNumbers = view.findViewById(R.id.preview_numbers);
+        previewWaterfall = view.findViewById(R.id.preview_waterfall);
     }
 
     private void openFontPicker() {
         Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
         intent.addCategory(Intent.CATEGORY_OPENABLE);
         intent.setType("*/*");
-        String[] mimeTypes = {"font/ttf", "font/otf", "application/x-font-ttf",
-                             "application/x-font-otf", "application/octet-stream"};
+        String[] mimeTypes = {"font/ttf", "font/otf", "font/collection", "font/woff", "font/woff2",
+                             "application/x-font-ttf", "application/x-font-otf", "application/font-woff",
+                             "application/zip", "application/x-zip-compressed",
+                             "application/octet-stream"};
         intent.putExtra(Intent.EXTRA_MIME_TYPES, mimeTypes);
+        intent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
 
         try {
             fontPickerLauncher.launch(intent);
@@ -267,113 +480,705 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
         }
     }
 
+    private void openFolderPicker() {
+        try {
+            folderPickerLauncher.launch(new Intent(Intent.ACTION_OPEN_DOCUMENT_TREE));
+        } catch (Exception e) {
+            Toast.makeText(requireContext(),
+                getString(R.string.font_viewer_error_opening_picker),
+                Toast.LENGTH_SHORT).show();
+            Log.e(TAG, "Error opening folder picker", e);
+        }
+    }
+
     /**
-     * نسخ URI إلى مجلد خاص بالتطبيق (filesDir/fonts) ورجوع ملف الوجهة.
+     * استيراد URI إلى مخزن الخطوط (filesDir/fonts) ورجوع ملف الوجهة.
+     * الملف يُسمى بـ hash محتواه، فإعادة اختيار نفس الخط لا تنشئ نسخة جديدة.
      * يجب استدعاؤها على خيط خلفي.
      */
     private File copyUriToAppStorage(Uri uri, String suggestedName) {
         try {
             String fileName = suggestedName != null ?
                 suggestedName : getFileNameFromUri(uri);
-            if (fileName == null) fileName = "font_" + System.currentTimeMillis() + ".ttf";
 
-            String ext = ".ttf";
-            int idx = fileName.lastIndexOf('.');
-            if (idx > 0 && idx < fileName.length() - 1) {
-                ext = fileName.substring(idx);
+            String ext = null;
+            if (fileName != null) {
+                int idx = fileName.lastIndexOf('.');
+                if (idx > 0 && idx < fileName.length() - 1) {
+                    ext = fileName.substring(idx);
+                }
             }
 
-            File fontsDir = new File(requireContext().getFilesDir(), "fonts");
-            if (!fontsDir.exists()) {
-                boolean ok = fontsDir.mkdirs();
-                if (!ok) Log.w(TAG, "Failed to create fonts dir");
-            }
+            ParcelFileDescriptor pfd = requireContext().getContentResolver().openFileDescriptor(uri, "r");
+            if (pfd == null) return null;
 
-            File outFile = new File(fontsDir, "selected_font_" + UUID.randomUUID().toString() + ext);
-            try (InputStream in = requireContext().getContentResolver().openInputStream(uri);
-                 FileOutputStream out = new FileOutputStream(outFile)) {
-                if (in == null) return null;
-                byte[] buf = new byte[4096];
-                int r;
-                while ((r = in.read(buf)) != -1) {
-                    out.write(buf, 0, r);
-                }
+            final CancellationSignal signal = new CancellationSignal();
+            currentImportSignal = signal;
+            lastImportCancelled = false;
+            mainHandler.post(() -> showImportProgress(signal, 0, pfd.getStatSize()));
+            try {
+                return FontStore.getInstance(requireContext()).importFont(pfd, ext,
+                        (copied, total) -> mainHandler.post(() -> showImportProgress(signal, copied, total)),
+                        signal);
+            } finally {
+                currentImportSignal = null;
+                mainHandler.post(() -> hideImportProgress(signal));
             }
-
-            return outFile;
+        } catch (OperationCanceledException e) {
+            lastImportCancelled = true;
+            return null;
         } catch (Exception e) {
             Log.w(TAG, "copyUriToAppStorage failed: " + e.getMessage());
             return null;
         }
     }
 
-    private void loadFontFromPath(String path, String fileName, String realName) {
-        // إنشاء Typeface يمكن أن يكون خفيفا أو ثقيلا حسب الجهاز؛
-        // استدعاؤه على UI لأنه يحدث تغييرات واجهة
-        try {
-            File fontFile = new File(path);
-            if (!fontFile.exists()) {
-                resetFontDisplay();
-                return;
-            }
+    private void showImportProgress(CancellationSignal signal, long copied, long total) {
+        if (importProgressPanel == null || signal.isCanceled()) return;
+        importProgressPanel.setVisibility(View.VISIBLE);
+        importCancelButton.setOnClickListener(v -> signal.cancel());
+        Context ctx = requireContext();
+        if (total > 0) {
+            importProgressBar.setIndeterminate(false);
+            importProgressBar.setProgress((int) (copied * 1000 / total));
+            importProgressText.setText(getString(R.string.font_viewer_import_progress,
+                    Formatter.formatShortFileSize(ctx, copied), Formatter.formatShortFileSize(ctx, total)));
+        } else {
+            importProgressBar.setIndeterminate(true);
+            importProgressText.setText(getString(R.string.font_viewer_import_progress_unknown,
+                    Formatter.formatShortFileSize(ctx, copied)));
+        }
+    }
 
-            Typeface typeface = null;
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                // حاول إنشاء من ملف مباشرة باستخدام Builder إن أمكن
+    private void hideImportProgress(CancellationSignal signal) {
+        // استيراد أحدث قد بدأ بعد هذا؛ لا نخفي تقدمه
+        if (importProgressPanel == null || (currentImportSignal != null && currentImportSignal != signal)) return;
+        importProgressPanel.setVisibility(View.GONE);
+    }
+
+    /**
+     * ★★★ استيراد عدة خطوط بالتوازي ★★★
+     * كل URI يُمنح صلاحية دائمة ثم تمر الدفعة عبر FontImportPipeline؛
+     * كل نتيجة تظهر كصف في اللوحة فور انتهائها، والضغط على صف ناجح يعرض الخط.
+     */
+    private void startBatchImport(ClipData clip, int flags) {
+        final List<Uri> uris = new ArrayList<>(clip.getItemCount());
+        for (int i = 0; i < clip.getItemCount(); i++) {
+            Uri uri = clip.getItemAt(i).getUri();
+            if (uri == null) continue;
+            if ((flags & Intent.FLAG_GRANT_READ_URI_PERMISSION) != 0) {
                 try {
-                    ParcelFileDescriptor pfd = ParcelFileDescriptor.open(fontFile, ParcelFileDescriptor.MODE_READ_ONLY);
-                    if (pfd != null) {
-                        typeface = new Typeface.Builder(pfd.getFileDescriptor()).build();
-                        pfd.close();
-                    }
-                } catch (Exception e) {
-                    Log.w(TAG, "Typeface.Builder failed, fallback to createFromFile: " + e.getMessage());
+                    requireContext().getContentResolver().takePersistableUriPermission(uri,
+                            Intent.FLAG_GRANT_READ_URI_PERMISSION);
+                } catch (SecurityException se) {
+                    Log.w(TAG, "takePersistableUriPermission failed: " + se.getMessage());
                 }
             }
+            uris.add(uri);
+        }
+        if (!uris.isEmpty()) startBatchImport(uris);
+    }
+
+    private void startBatchImport(List<Uri> uris) {
+        final FontImportPipeline pipeline = newBatchPipeline();
+        showBatchPanel(uris.size());
+
+        // أسماء الملفات تتطلب استعلاماً لكل URI، فتُجمع خارج الخيط الرئيسي
+        bgExecutor.execute(() -> {
+            List<String> names = new ArrayList<>(uris.size());
+            for (Uri uri : uris) names.add(getFileNameFromUri(uri));
+            pipeline.start(uris, names);
+        });
+    }
 
-            if (typeface == null) {
-                typeface = Typeface.createFromFile(fontFile);
+    /**
+     * دفعة جديدة تحل محل أي دفعة أو فحص مجلد جارٍ.
+     */
+    private FontImportPipeline newBatchPipeline() {
+        if (batchPipeline != null) batchPipeline.cancel();
+        CancellationSignal scan = folderScanSignal;
+        if (scan != null) scan.cancel();
+        final FontImportPipeline pipeline = new FontImportPipeline(requireContext(),
+                SettingsHelper.getImportConcurrency(requireContext()), new FontImportPipeline.Listener() {
+            @Override
+            public void onItemFinished(FontImportPipeline.Result result, int finishedCount, int totalCount) {
+                if (!isAdded()) return;
+                addBatchResultRow(result);
+                if (batchImportSummary != null) {
+                    batchImportSummary.setText(getString(R.string.font_viewer_batch_progress, finishedCount, totalCount));
+                }
+                // أول خط ناجح يُعرض مباشرة إن لم يكن هناك خط محمّل
+                if (result.isSuccess() && currentTypeface == null && pendingFontLoad == null) {
+                    showBatchResult(result);
+                }
             }
 
-            if (typeface != null) {
-                currentTypeface = typeface;
-                currentFontPath = path;
-                currentFontFileName = fileName;
-                currentFontRealName = realName;
+            @Override
+            public void onBatchFinished(int importedCount, int failedCount) {
+                if (!isAdded()) return;
+                if (batchImportSummary != null) {
+                    batchImportSummary.setText(getString(R.string.font_viewer_batch_done, importedCount, failedCount));
+                }
+                if (importedCount > 0) {
+                    FontCacheManager.getInstance(requireContext()).trimAsync();
+                }
+            }
+        });
+        batchPipeline = pipeline;
+        return pipeline;
+    }
 
-                applyFontToPreviewTexts();
-                if (fontChangedListener != null) {
-                    fontChangedListener.onFontChanged(realName, fileName);
+    private void showBatchPanel(int expected) {
+        if (batchImportPanel != null) {
+            batchImportResults.removeAllViews();
+            batchImportSummary.setText(getString(R.string.font_viewer_batch_progress, 0, expected));
+            batchImportPanel.setVisibility(View.VISIBLE);
+        }
+    }
+
+    /**
+     * ★★★ استيراد مجلد كامل ★★★
+     * الفحص يسلّم كل خط فور اكتشافه إلى نفس FontImportPipeline المستخدم للاختيار المتعدد،
+     * فتظهر النتائج أثناء المرور على المجلد وليس بعد اكتمال القائمة.
+     */
+    private void startFolderImport(Uri treeUri) {
+        final FontImportPipeline pipeline = newBatchPipeline();
+        final CancellationSignal signal = new CancellationSignal();
+        folderScanSignal = signal;
+        showBatchPanel(0);
+
+        final Context appContext = requireContext().getApplicationContext();
+        scanExecutor.execute(() -> {
+            try {
+                FontFolderScanner.scan(appContext, treeUri,
+                        (documentUri, displayName) -> pipeline.submit(documentUri, displayName, true),
+                        signal);
+            } catch (OperationCanceledException e) {
+                pipeline.cancel();
+            } catch (Exception e) {
+                Log.w(TAG, "Folder scan failed: " + e.getMessage());
+            } finally {
+                if (folderScanSignal == signal) folderScanSignal = null;
+                pipeline.finishSubmitting();
+            }
+        });
+    }
+
+    private void addBatchResultRow(FontImportPipeline.Result result) {
+        if (batchImportResults == null) return;
+        View row = LayoutInflater.from(requireContext()).inflate(R.layout.item_batch_result, batchImportResults, false);
+        TextView title = row.findViewById(R.id.batch_result_title);
+        TextView subtitle = row.findViewById(R.id.batch_result_subtitle);
+        if (result.isSuccess()) {
+            title.setText(result.displayName);
+            subtitle.setText(result.fileName != null ? result.fileName : result.file.getName());
+            row.setOnClickListener(v -> showBatchResult(result));
+        } else {
+            title.setText(result.fileName != null ? result.fileName : String.valueOf(result.uri));
+            subtitle.setText(getString(R.string.font_viewer_batch_failed, result.error));
+            row.setEnabled(false);
+        }
+        batchImportResults.addView(row);
+    }
+
+    private void showBatchResult(FontImportPipeline.Result result) {
+        String fileName = result.fileName != null ? result.fileName : result.file.getName();
+        saveLastUsedFont(result.file.getAbsolutePath(), fileName, result.displayName, 0);
+        loadFontFromPath(result.file.getAbsolutePath(), fileName, result.displayName, 0);
+    }
+
+    /**
+     * ★★★ لوحات العارض الإضافية ★★★
+     * كل لوحة (البحث، التغطية، التكرار، الأشكال، المقارنة) في controller بجانب محركها؛ العارض
+     * يمرر لها الخط المعروض ويفتح ما تختاره منها.
+     */
+    private void initControllers(View view) {
+        FontViewerController.FontOpener opener = (path, fileName, realName, faceIndex) -> {
+            saveLastUsedFont(path, fileName, realName, faceIndex);
+            loadFontFromPath(path, fileName, realName, faceIndex);
+        };
+        searchController = new FontSearchController(this, fontSearchField, fontSearchResults, opener);
+        coverageQueryController = new FontCoverageQueryController(this, opener);
+        duplicateController = new FontDuplicateController(this);
+        glyphGridController = new GlyphGridController(this);
+        comparisonController = new FontComparisonController(this);
+
+        view.findViewById(R.id.coverage_query_button).setOnClickListener(v -> coverageQueryController.show());
+        view.findViewById(R.id.duplicates_button).setOnClickListener(v -> duplicateController.run());
+        view.findViewById(R.id.glyph_grid_button).setOnClickListener(v ->
+                glyphGridController.show(currentTypeface, currentFontPath, currentFontUri, currentFaceIndex));
+        view.findViewById(R.id.compare_button).setOnClickListener(v ->
+                comparisonController.openPicker(currentFontPath, currentFaceIndex));
+    }
+
+    private void releaseControllers() {
+        for (FontViewerController c : new FontViewerController[]{searchController, coverageQueryController,
+                duplicateController, glyphGridController, comparisonController}) {
+            if (c != null) c.release();
+        }
+        searchController = null;
+        coverageQueryController = null;
+        duplicateController = null;
+        glyphGridController = null;
+        comparisonController = null;
+    }
+
+    private void loadFontFromPath(String path, String fileName, String realName, int faceIndex) {
+        File fontFile = new File(path);
+        if (!fontFile.exists()) {
+            // ربما أُخلي الملف لتجاوز حد المساحة؛ يُعاد جلبه من الـ URI الأصلي إن وُجد
+            refetchEvictedFont(fontFile, fileName, realName, faceIndex);
+            return;
+        }
+
+        // ★★★ بناء الـ Typeface في FontLoader على خيط خلفي؛ الطلب السابق يُلغى فتُهمل نتيجته ★★★
+        // الـ callback لا يصل إلا للطلب الأحدث، لأن كل طلب جديد يلغي السابق
+        cancelPendingFontLoad();
+        final Context appContext = requireContext().getApplicationContext();
+        pendingFontLoad = FontLoader.getInstance(appContext).load(fontFile, faceIndex, new FontLoader.Callback() {
+            @Override
+            public void onLoaded(FontLoader.Result result) {
+                pendingFontLoad = null;
+                if (!isAdded()) {
+                    TypefaceCache.getInstance(appContext).release(result.getLease());
+                    return;
                 }
-            } else {
-                throw new Exception("Failed to create Typeface");
+                FontCacheManager.getInstance(requireContext()).recordUse(fontFile);
+                holdTypefaceLease(result.getLease());
+                showLoadedFont(result.getLease().getTypeface(), path, null, fileName, realName, faceIndex,
+                        result.getFaceCount(), result.getFaceNames(), result.getVariations());
             }
 
-        } catch (Exception e) {
-            Toast.makeText(requireContext(),
-                getString(R.string.font_viewer_error_loading_font),
-                Toast.LENGTH_SHORT).show();
-            Log.e(TAG, "Error creating typeface from path: " + path, e);
-            resetFontDisplay();
+            @Override
+            public void onFailed() {
+                pendingFontLoad = null;
+                if (!isAdded()) return;
+                Toast.makeText(requireContext(),
+                    getString(R.string.font_viewer_error_loading_font),
+                    Toast.LENGTH_SHORT).show();
+                Log.e(TAG, "Error creating typeface from path: " + path);
+                resetFontDisplay();
+            }
+        });
+    }
+
+    private void cancelPendingFontLoad() {
+        FontLoader.Request pending = pendingFontLoad;
+        if (pending != null) pending.cancel();
+        pendingFontLoad = null;
+        fontLoadGeneration++;
+        cancelPendingVariation();
+        // شبكة أشكال قيد التحضير تخص الخط السابق
+        if (glyphGridController != null) glyphGridController.cancel();
+    }
+
+    private void cancelPendingVariation() {
+        FontLoader.Request pending = pendingVariationLoad;
+        if (pending != null) pending.cancel();
+        pendingVariationLoad = null;
+    }
+
+    /**
+     * ★★★ المعاينة بدون نسخ ★★★
+     * الـ Typeface يُبنى من ParcelFileDescriptor للـ URI المحفوظ، وجداول الخط تُقرأ من mapping
+     * لنفس الملف؛ لا يُكتب شيء إلى filesDir/fonts. إن فُقدت الصلاحية يُمسح الـ URI المحفوظ.
+     */
+    private void loadFontFromUri(Uri uri, String fileName, String realName, int faceIndex) {
+        cancelPendingFontLoad();
+        // نفس قاعدة FontLoader: الطلب الأحدث يفوز، فنتيجة هذا التحميل تُهمل إن طُلب خط بعده
+        final int generation = fontLoadGeneration;
+        final Context appContext = requireContext().getApplicationContext();
+        bgExecutor.execute(() -> {
+            if (generation != fontLoadGeneration) return;
+            Typeface typeface = null;
+            String name = realName;
+            int faceCount = 1;
+            String[] faceNames = null;
+            FontVariations variations = null;
+            boolean permissionLost = false;
+            try {
+                ParcelFileDescriptor pfd = appContext.getContentResolver().openFileDescriptor(uri, "r");
+                if (pfd != null) {
+                    try (FileInputStream in = new ParcelFileDescriptor.AutoCloseInputStream(pfd)) {
+                        typeface = new Typeface.Builder(pfd.getFileDescriptor())
+                                .setTtcIndex(faceIndex)
+                                .build();
+                        SfntParser parser = SfntParser.map(in.getChannel());
+                        faceCount = parser.getFaceCount();
+                        if (faceCount > 1) faceNames = FontLoader.faceNames(parser, faceCount);
+                        if (name == null) name = FontMetadataEngine.parse(parser, faceIndex, null).getDisplayName();
+                        try {
+                            variations = FontVariations.parse(parser, faceIndex);
+                        } catch (IOException e) {
+                            Log.w(TAG, "fvar parse failed: " + e.getMessage());
+                        }
+                    }
+                }
+            } catch (SecurityException | FileNotFoundException e) {
+                permissionLost = true;
+                Log.w(TAG, "Font URI no longer accessible: " + e.getMessage());
+            } catch (Exception e) {
+                Log.w(TAG, "loadFontFromUri failed: " + e.getMessage());
+            }
+
+            final Typeface finalTypeface = typeface;
+            final String finalName = name != null ? name : FontMetadata.UNKNOWN_FONT;
+            final String finalFileName = fileName != null ? fileName : uri.getLastPathSegment();
+            final int finalFaceCount = faceCount;
+            final String[] finalFaceNames = faceNames;
+            final FontVariations finalVariations = variations;
+            final boolean finalPermissionLost = permissionLost;
+            mainHandler.post(() -> {
+                if (!isAdded() || generation != fontLoadGeneration) return;
+                if (finalTypeface != null) {
+                    saveLastUsedFontFromUri(uri, finalFileName, finalName, faceIndex);
+                    holdTypefaceLease(null);
+                    showLoadedFont(finalTypeface, null, uri, finalFileName, finalName, faceIndex,
+                            finalFaceCount, finalFaceNames, finalVariations);
+                } else {
+                    if (finalPermissionLost) forgetLastUsedFontUri();
+                    Toast.makeText(requireContext(),
+                        getString(R.string.font_viewer_error_loading_font),
+                        Toast.LENGTH_SHORT).show();
+                    resetFontDisplay();
+                }
+            });
+        });
+    }
+
+    private void showLoadedFont(Typeface typeface, String path, Uri uri, String fileName, String realName,
+                                int faceIndex, int faceCount, String[] faceNames, FontVariations variations) {
+        currentTypeface = typeface;
+        currentFaceNames = faceNames;
+        currentFontPath = path;
+        currentFontUri = uri;
+        currentFontFileName = fileName;
+        currentFontRealName = realName;
+        currentFaceIndex = faceIndex;
+
+        applyFontToPreviewTexts();
+        updateFaceSelector(faceCount);
+        updateVariationPanel(variations);
+        if (fontChangedListener != null) {
+            fontChangedListener.onFontChanged(realName, fileName);
         }
     }
 
+    /**
+     * المعاينة بدون نسخ تتطلب صلاحية دائمة على الـ URI (وإلا لا يمكن فتحه لاحقاً، فيُنسخ الآن)
+     * وملف sfnt أو TTC جاهز؛ خطوط الويب تحتاج فك الضغط إلى ملف.
+     */
+    private boolean canPreviewWithoutCopy(Uri uri, FontFormat format) {
+        if (format == FontFormat.UNKNOWN || format.isWebFont()) return false;
+        if (!SettingsHelper.isZeroCopyPreviewEnabled(requireContext())) return false;
+        return hasPersistedReadPermission(uri);
+    }
+
+    private boolean hasPersistedReadPermission(Uri uri) {
+        for (UriPermission permission : requireContext().getContentResolver().getPersistedUriPermissions()) {
+            if (permission.isReadPermission() && permission.getUri().equals(uri)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * SfntParser مباشرة من الـ URI؛ الـ mapping يبقى صالحاً بعد إغلاق الـ descriptor.
+     */
+    static SfntParser openUriParser(Context context, Uri uri) throws IOException {
+        ParcelFileDescriptor pfd = context.getContentResolver().openFileDescriptor(uri, "r");
+        if (pfd == null) throw new FileNotFoundException(uri.toString());
+        try (FileInputStream in = new ParcelFileDescriptor.AutoCloseInputStream(pfd)) {
+            return SfntParser.map(in.getChannel());
+        }
+    }
+
+    private void refetchEvictedFont(File missing, String fileName, String realName, int faceIndex) {
+        final Context appContext = requireContext().getApplicationContext();
+        bgExecutor.execute(() -> {
+            File restored = null;
+            try {
+                restored = FontCacheManager.getInstance(appContext).refetch(missing);
+            } catch (Exception e) {
+                Log.w(TAG, "refetch failed: " + e.getMessage());
+            }
+            final File finalRestored = restored;
+            mainHandler.post(() -> {
+                if (!isAdded()) return;
+                if (finalRestored != null && finalRestored.exists()) {
+                    if (!finalRestored.getAbsolutePath().equals(missing.getAbsolutePath())) {
+                        saveLastUsedFont(finalRestored.getAbsolutePath(), fileName, realName, faceIndex);
+                    }
+                    loadFontFromPath(finalRestored.getAbsolutePath(), fileName, realName, faceIndex);
+                } else {
+                    resetFontDisplay();
+                }
+            });
+        });
+    }
+
     private void applyFontToPreviewTexts() {
         if (currentTypeface != null) {
             if (previewSentence != null) previewSentence.setTypeface(currentTypeface);
             if (previewNumbers != null) previewNumbers.setTypeface(currentTypeface);
+            if (previewWaterfall != null) previewWaterfall.setTypeface(currentTypeface);
         }
     }
 
+    /**
+     * إظهار زر اختيار الـ face فقط لملفات TTC. تُقرأ ترويسة المجموعة فقط هنا.
+     */
+    private void updateFaceSelector(int faceCount) {
+        currentFaceCount = faceCount;
+
+        if (faceSelectorButton == null) return;
+        if (currentFaceCount > 1) {
+            faceSelectorButton.setVisibility(View.VISIBLE);
+            faceSelectorSummary.setText(getString(R.string.font_viewer_face_summary,
+                    currentFaceIndex + 1, currentFaceCount, currentFontRealName));
+        } else {
+            faceSelectorButton.setVisibility(View.GONE);
+        }
+    }
+
+    /**
+     * عرض قائمة بكل faces المجموعة. أسماء الـ faces تُستخرج في الخلفية عند فتح القائمة،
+     * والـ Typeface يُبنى فقط للـ face الذي يختاره المستخدم.
+     */
+    private void showFacePicker() {
+        if ((currentFontPath == null && currentFontUri == null) || currentFaceCount <= 1) return;
+        // الأسماء حُسبت مع تحميل الخط على خيط خلفي
+        final String[] names = currentFaceNames;
+        if (names == null || names.length != currentFaceCount) return;
+        final String path = currentFontPath;
+        final Uri uri = currentFontUri;
+        final String fileName = currentFontFileName;
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.font_viewer_choose_face)
+                .setSingleChoiceItems(names, currentFaceIndex, (dialog, which) -> {
+                    dialog.dismiss();
+                    if (which == currentFaceIndex) return;
+                    if (uri != null) {
+                        loadFontFromUri(uri, fileName, names[which], which);
+                    } else {
+                        saveLastUsedFont(path, fileName, names[which], which);
+                        loadFontFromPath(path, fileName, names[which], which);
+                    }
+                })
+                .setNegativeButton(android.R.string.cancel, null)
+                .show();
+    }
+
+    /**
+     * قراءة fvar للـ face الحالي وبناء شريط تمرير لكل محور ظاهر. الخطوط غير المتغيرة تخفي اللوحة.
+     */
+    private void updateVariationPanel(FontVariations variations) {
+        mainHandler.removeCallbacks(applyVariationRunnable);
+        currentVariations = variations;
+        axisValues = null;
+
+        if (variationPanel == null) return;
+        variationAxesContainer.removeAllViews();
+        if (currentVariations == null) {
+            variationPanel.setVisibility(View.GONE);
+            return;
+        }
+
+        axisValues = currentVariations.getDefaultCoordinates();
+        LayoutInflater inflater = LayoutInflater.from(requireContext());
+        List<FontVariations.Axis> axes = currentVariations.getAxes();
+        for (int i = 0; i < axes.size(); i++) {
+            FontVariations.Axis axis = axes.get(i);
+            if (axis.isHidden()) continue;
+            final int axisIndex = i;
+
+            View row = inflater.inflate(R.layout.item_variation_axis, variationAxesContainer, false);
+            row.setTag(axisIndex);
+            ((TextView) row.findViewById(R.id.axis_name)).setText(axis.getName());
+            TextView valueView = row.findViewById(R.id.axis_value);
+            SeekBar seekBar = row.findViewById(R.id.axis_seekbar);
+            seekBar.setMax(AXIS_SLIDER_STEPS);
+            seekBar.setProgress(axisToProgress(axis, axisValues[axisIndex]));
+            valueView.setText(formatAxisValue(axisValues[axisIndex]));
+            seekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+                @Override
+                public void onProgressChanged(SeekBar bar, int progress, boolean fromUser) {
+                    if (!fromUser || axisValues == null) return;
+                    axisValues[axisIndex] = progressToAxis(axis, progress);
+                    valueView.setText(formatAxisValue(axisValues[axisIndex]));
+                    scheduleVariationPreview();
+                }
+
+                @Override
+                public void onStartTrackingTouch(SeekBar bar) {
+                }
+
+                @Override
+                public void onStopTrackingTouch(SeekBar bar) {
+                    // عند رفع الإصبع تُطبق القيمة الأخيرة فوراً
+                    mainHandler.removeCallbacks(applyVariationRunnable);
+                    applyVariation();
+                }
+            });
+            variationAxesContainer.addView(row);
+        }
+
+        variationPanel.setVisibility(View.VISIBLE);
+        updateInstanceSummary();
+    }
+
+    /**
+     * تأجيل بناء النسخة حتى يتوقف السحب لفترة قصيرة؛ كل تحريك جديد يلغي الطلب السابق.
+     */
+    private void scheduleVariationPreview() {
+        mainHandler.removeCallbacks(applyVariationRunnable);
+        mainHandler.postDelayed(applyVariationRunnable, VARIATION_DEBOUNCE_MS);
+        updateInstanceSummary();
+    }
+
+    /**
+     * ★★★ النسخة تُبنى في FontLoader على خيط خلفي؛ الطلب السابق يُلغى فلا تصل إلا آخر قيم ★★★
+     */
+    private void applyVariation() {
+        if (currentVariations == null || axisValues == null) return;
+        if (currentFontPath == null && currentFontUri == null) return;
+
+        String settings = currentVariations.toVariationSettings(axisValues);
+        cancelPendingVariation();
+        FontLoader loader = FontLoader.getInstance(requireContext());
+        if (currentFontPath != null) {
+            pendingVariationLoad = loader.loadInstance(new File(currentFontPath), currentFaceIndex, settings,
+                    (lease, typeface) -> {
+                        pendingVariationLoad = null;
+                        if (lease == null) return;
+                        holdTypefaceLease(lease);
+                        currentTypeface = typeface;
+                        applyFontToPreviewTexts();
+                    });
+            return;
+        }
+
+        final String key = currentFontUri + "#" + currentFaceIndex + "#" + settings;
+        Typeface cached = variationCache.get(key);
+        if (cached != null) {
+            currentTypeface = cached;
+            applyFontToPreviewTexts();
+            return;
+        }
+        pendingVariationLoad = loader.loadInstance(currentFontUri, currentFaceIndex, settings,
+                (lease, typeface) -> {
+                    pendingVariationLoad = null;
+                    if (typeface == null) return;
+                    variationCache.put(key, typeface);
+                    currentTypeface = typeface;
+                    applyFontToPreviewTexts();
+                });
+    }
+
+    /**
+     * قائمة النسخ المسماة من fvar؛ اختيار نسخة يضبط كل الأشرطة ويطبقها مباشرة.
+     */
+    private void showInstancePicker() {
+        if (currentVariations == null) return;
+        final List<FontVariations.NamedInstance> instances = currentVariations.getInstances();
+        String[] names = new String[instances.size()];
+        for (int i = 0; i < names.length; i++) names[i] = instances.get(i).getName();
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.font_viewer_variation_instance)
+                .setSingleChoiceItems(names, findCurrentInstance(), (dialog, which) -> {
+                    dialog.dismiss();
+                    setAxisValues(instances.get(which).getCoordinates());
+                })
+                .setNeutralButton(R.string.font_viewer_variation_reset,
+                        (dialog, which) -> setAxisValues(currentVariations.getDefaultCoordinates()))
+                .setNegativeButton(android.R.string.cancel, null)
+                .show();
+    }
+
+    private void setAxisValues(float[] values) {
+        if (currentVariations == null || variationAxesContainer == null) return;
+        axisValues = values;
+        List<FontVariations.Axis> axes = currentVariations.getAxes();
+        for (int c = 0; c < variationAxesContainer.getChildCount(); c++) {
+            View row = variationAxesContainer.getChildAt(c);
+            int axisIndex = (Integer) row.getTag();
+            ((SeekBar) row.findViewById(R.id.axis_seekbar))
+                    .setProgress(axisToProgress(axes.get(axisIndex), values[axisIndex]));
+            ((TextView) row.findViewById(R.id.axis_value)).setText(formatAxisValue(values[axisIndex]));
+        }
+        mainHandler.removeCallbacks(applyVariationRunnable);
+        applyVariation();
+        updateInstanceSummary();
+    }
+
+    private int findCurrentInstance() {
+        if (currentVariations == null || axisValues == null) return -1;
+        List<FontVariations.NamedInstance> instances = currentVariations.getInstances();
+        for (int i = 0; i < instances.size(); i++) {
+            if (Arrays.equals(instances.get(i).getCoordinates(), axisValues)) return i;
+        }
+        return -1;
+    }
+
+    private void updateInstanceSummary() {
+        if (variationInstanceSummary == null || currentVariations == null) return;
+        int idx = findCurrentInstance();
+        variationInstanceSummary.setText(idx >= 0
+                ? currentVariations.getInstances().get(idx).getName()
+                : getString(R.string.font_viewer_variation_custom));
+    }
+
+    private static int axisToProgress(FontVariations.Axis axis, float value) {
+        float range = axis.getMaxValue() - axis.getMinValue();
+        if (range <= 0) return 0;
+        return Math.round((value - axis.getMinValue()) / range * AXIS_SLIDER_STEPS);
+    }
+
+    private static float progressToAxis(FontVariations.Axis axis, int progress) {
+        float range = axis.getMaxValue() - axis.getMinValue();
+        float value = axis.getMinValue() + range * progress / AXIS_SLIDER_STEPS;
+        // التقريب يجعل المفاتيح المتقاربة في الكاش متطابقة؛ المحاور الضيقة (مثل ital) تُقرب لـ 0.01
+        float step = range >= 100 ? 1f : 0.01f;
+        return Math.round(value / step) * step;
+    }
+
+    /**
+     * حجز الـ Typeface الجديد وإعادة السابق إلى TypefaceCache (null لمصدر URI أو عند المسح).
+     */
+    private void holdTypefaceLease(TypefaceCache.Lease lease) {
+        TypefaceCache.Lease previous = currentTypefaceLease;
+        currentTypefaceLease = lease;
+        if (previous != null) TypefaceCache.getInstance(requireContext()).release(previous);
+    }
+
+    private static String formatAxisValue(float value) {
+        return value == Math.round(value)
+                ? String.valueOf(Math.round(value))
+                : String.format(Locale.US, "%.1f", value);
+    }
+
     private void resetFontDisplay() {
+        holdTypefaceLease(null);
         currentTypeface = null;
         currentFontPath = null;
+        currentFontUri = null;
         currentFontFileName = null;
         currentFontRealName = null;
+        currentFaceIndex = 0;
+        currentFaceCount = 1;
+        currentFaceNames = null;
+        if (faceSelectorButton != null) faceSelectorButton.setVisibility(View.GONE);
+        currentVariations = null;
+        axisValues = null;
+        variationCache.evictAll();
+        mainHandler.removeCallbacks(applyVariationRunnable);
+        if (variationPanel != null) variationPanel.setVisibility(View.GONE);
 
         Typeface defaultTypeface = Typeface.DEFAULT;
         if (previewSentence != null) previewSentence.setTypeface(defaultTypeface);
         if (previewNumbers != null) previewNumbers.setTypeface(defaultTypeface);
+        if (previewWaterfall != null) previewWaterfall.setTypeface(defaultTypeface);
 
         if (fontChangedListener != null) {
             fontChangedListener.onFontCleared();
@@ -425,13 +1230,16 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
         return fileName;
     }
 
-    private void saveLastUsedFont(String path, String fileName, String realName) {
+    private void saveLastUsedFont(String path, String fileName, String realName, int faceIndex) {
         requireContext().getSharedPreferences("FontViewerPrefs", Context.MODE_PRIVATE)
             .edit()
             .putString(PREF_LAST_FONT_PATH, path)
             .putString(PREF_LAST_FONT_FILE_NAME, fileName)
             .putString(PREF_LAST_FONT_REAL_NAME, realName)
+            .putInt(PREF_LAST_FONT_FACE_INDEX, faceIndex)
             .apply();
+        // الخط المحفوظ هنا لا يُخلى أبداً من مخزن الخطوط
+        FontCacheManager.getInstance(requireContext()).pin(new File(path));
     }
 
     /**
@@ -459,6 +1267,27 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
             .apply();
     }
 
+    /**
+     * آخر خط معروض بدون نسخ: الـ URI هو المصدر الوحيد، فيُمسح المسار المحلي القديم.
+     */
+    private void saveLastUsedFontFromUri(Uri uri, String fileName, String realName, int faceIndex) {
+        requireContext().getSharedPreferences("FontViewerPrefs", Context.MODE_PRIVATE)
+            .edit()
+            .remove(PREF_LAST_FONT_PATH)
+            .putString(PREF_LAST_FONT_URI, uri.toString())
+            .putString(PREF_LAST_FONT_FILE_NAME, fileName)
+            .putString(PREF_LAST_FONT_REAL_NAME, realName)
+            .putInt(PREF_LAST_FONT_FACE_INDEX, faceIndex)
+            .apply();
+    }
+
+    private void forgetLastUsedFontUri() {
+        requireContext().getSharedPreferences("FontViewerPrefs", Context.MODE_PRIVATE)
+            .edit()
+            .remove(PREF_LAST_FONT_URI)
+            .apply();
+    }
+
     // ★★★ تم تعديل هذا الكود لإصلاح الخطأ المنطقي ★★★
     private void loadLastUsedFont() {
         android.content.SharedPreferences prefs =
@@ -468,12 +1297,13 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
         String lastPath = prefs.getString(PREF_LAST_FONT_PATH, null);
         String lastFileName = prefs.getString(PREF_LAST_FONT_FILE_NAME, null);
         String lastRealName = prefs.getString(PREF_LAST_FONT_REAL_NAME, null);
+        int lastFaceIndex = prefs.getInt(PREF_LAST_FONT_FACE_INDEX, 0);
     
         if (lastPath != null && !lastPath.isEmpty()) {
             File localFile = new File(lastPath);
             if (localFile.exists()) {
                 // الملف المحلي موجود، قم بتحميله مباشرة
-                loadFontFromPath(lastPath, lastFileName, lastRealName);
+                loadFontFromPath(lastPath, lastFileName, lastRealName, lastFaceIndex);
                 return;
             }
         }
@@ -483,6 +1313,10 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
         if (lastUri != null) {
             try {
                 final Uri uri = Uri.parse(lastUri);
+                if (SettingsHelper.isZeroCopyPreviewEnabled(requireContext()) && hasPersistedReadPermission(uri)) {
+                    loadFontFromUri(uri, lastFileName, lastRealName, lastFaceIndex);
+                    return;
+                }
                 // استخدام المتغيرات المحلية في lambda
                 final String finalLastFileName = lastFileName;
                 final String finalLastRealName = lastRealName;
@@ -494,8 +1328,8 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
                         final String fn = finalLastFileName != null ? finalLastFileName : fontFile.getName();
                         final String rn = finalLastRealName != null ? finalLastRealName : extractFontRealName(fontFile);
                         // حفظ path المحلّي لأننا نسخنا الملف
-                        saveLastUsedFont(fontFile.getAbsolutePath(), fn, rn);
-                        mainHandler.post(() -> loadFontFromPath(fontFile.getAbsolutePath(), fn, rn));
+                        saveLastUsedFont(fontFile.getAbsolutePath(), fn, rn, lastFaceIndex);
+                        mainHandler.post(() -> loadFontFromPath(fontFile.getAbsolutePath(), fn, rn, lastFaceIndex));
                     } else {
                         mainHandler.post(this::resetFontDisplay);
                     }
@@ -516,12 +1350,27 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
         if (currentFontPath != null) {
             outState.putString(KEY_FONT_PATH, currentFontPath);
         }
+        if (currentFontUri != null) {
+            outState.putString(KEY_FONT_URI, currentFontUri.toString());
+        }
         if (currentFontFileName != null) {
             outState.putString(KEY_FONT_FILE_NAME, currentFontFileName);
         }
         if (currentFontRealName != null) {
             outState.putString(KEY_FONT_REAL_NAME, currentFontRealName);
         }
+        outState.putInt(KEY_FONT_FACE_INDEX, currentFaceIndex);
+    }
+
+    /**
+     * فتح خط مستورد من خارج العارض (مكتبة الخطوط) وحفظه كآخر خط مستخدم.
+     */
+    public void openFont(String path, String fileName, String realName, int faceIndex) {
+        if (!isAdded()) return;
+        saveLastUsedFont(path, fileName, realName, faceIndex);
+        if (previewSentence != null) {
+            loadFontFromPath(path, fileName, realName, faceIndex);
+        }
     }
 
     public String getCurrentFontRealName() {
@@ -533,216 +1382,124 @@ public class FontViewerFragment extends Fragment implements SharedPreferences.On
     }
 
     public boolean hasFontSelected() {
-        return currentFontPath != null && !currentFontPath.isEmpty();
+        return (currentFontPath != null && !currentFontPath.isEmpty()) || currentFontUri != null;
+    }
+
+    public interface MetaDataCallback {
+        void onMetaData(java.util.Map<String, String> meta);
     }
 
     /**
-     * Return common font metadata extracted from the loaded font file.
-     * Keys potentially returned: FullName, Family, SubFamily, PostScriptName, Version, Manufacturer, FileName, Path
+     * Collect common font metadata for the loaded font on bgExecutor and deliver it on the main thread.
+     * Keys potentially returned: FullName, Family, SubFamily, PostScriptName, Version, Manufacturer, Face, Coverage, FileName, Path
+     * Hashing, mapping a SAF URI and parsing cmap all happen off the UI thread.
      */
-    public java.util.Map<String, String> getFontMetaData() {
-        java.util.Map<String, String> out = new java.util.HashMap<>();
-        if (currentFontPath == null) return out;
-
-        out.put("Path", currentFontPath);
-        out.put("FileName", currentFontFileName != null ? currentFontFileName : "");
-        // Parsing may be heavy but here it's an on-demand method;
-        // keep it as-is but it's safe to call on BG thread if desired
-        try (RandomAccessFile raf = new RandomAccessFile(new File(currentFontPath), "r")) {
-            raf.seek(0);
-            int sfntVersion = raf.readInt();
-            if (sfntVersion != 0x00010000 && sfntVersion != 0x4F54544F) return out;
-
-            int numTables = raf.readUnsignedShort();
-            raf.skipBytes(6);
-            long nameTableOffset = -1;
-
-            for (int i = 0; i < numTables; i++) {
-                byte[] tag = new byte[4];
-                raf.readFully(tag);
-                String tagName = new String(tag, StandardCharsets.US_ASCII);
-                raf.skipBytes(4); // checksum
-                long offset = readUInt32(raf);
-                long length = readUInt32(raf);
-                if ("name".equals(tagName)) {
-                    nameTableOffset = offset;
-                }
-            }
-
-            if (nameTableOffset != -1) {
-                raf.seek(nameTableOffset);
-                raf.readUnsignedShort(); // format
-                int count = raf.readUnsignedShort();
-                int stringOffset = raf.readUnsignedShort();
-                long strBase = nameTableOffset + stringOffset;
-                String fullName = null, family = null, subfamily = null, postScriptName = null, version = null, manuf = null;
-                for (int i = 0; i < count; i++) {
-                    int platformID = raf.readUnsignedShort();
-                    int encodingID = raf.readUnsignedShort();
-                    int languageID = raf.readUnsignedShort();
-                    int nameID = raf.readUnsignedShort();
-                    int length = raf.readUnsignedShort();
-                    int offset = raf.readUnsignedShort();
-                    long cur = raf.getFilePointer();
-                    raf.seek(strBase + offset);
-                    byte[] data = new byte[length];
-                    raf.readFully(data);
-
-                    String name;
-                    if (platformID == 3 || platformID == 0) { // Windows or Unicode
-                        name = new String(data, StandardCharsets.UTF_16BE);
-                    } else if (platformID == 1) { // Macintosh
-                        try {
-                            name = new String(data, Charset.forName("MacRoman"));
-                        } catch (Exception ex) {
-                            name = new String(data, StandardCharsets.ISO_8859_1);
-                        }
-                    } else {
-                        name = new String(data, StandardCharsets.ISO_8859_1);
-                    }
-
-                    switch (nameID) {
-                        case 0: if (manuf == null) manuf = name;
-                            break;
-                        case 1: if (family == null) family = name; break;
-                        case 2: if (subfamily == null) subfamily = name;
-                            break;
-                        case 4: if (fullName == null) fullName = name; break;
-                        case 5: if (version == null) version = name;
-                            break;
-                        case 6: if (postScriptName == null) postScriptName = name; break;
-                    }
+    public void loadFontMetaData(MetaDataCallback callback) {
+        final String path = currentFontPath;
+        final Uri uri = currentFontUri;
+        final int faceIndex = currentFaceIndex;
+        final int faceCount = currentFaceCount;
+        final String fileName = currentFontFileName;
+        final String realName = currentFontRealName;
+        if (path == null && uri == null) {
+            callback.onMetaData(new java.util.HashMap<>());
+            return;
+        }
+        final Context appContext = requireContext().getApplicationContext();
+        bgExecutor.execute(() -> {
+            java.util.Map<String, String> meta =
+                    collectMetaData(appContext, path, uri, faceIndex, faceCount, fileName, realName);
+            mainHandler.post(() -> {
+                if (isAdded()) callback.onMetaData(meta);
+            });
+        });
+    }
 
-                    raf.seek(cur);
-                }
+    /**
+     * The name table is decoded once per file content by FontMetadataEngine; repeated calls hit its cache.
+     * Runs on a background thread.
+     */
+    private static java.util.Map<String, String> collectMetaData(Context context, String path, Uri uri, int faceIndex,
+                                                                 int faceCount, String fileName, String realName) {
+        java.util.Map<String, String> out = new java.util.HashMap<>();
 
-                if (fullName != null) out.put("FullName", fullName);
-                if (family != null) out.put("Family", family);
-                if (subfamily != null) out.put("SubFamily", subfamily);
-                if (postScriptName != null) out.put("PostScriptName", postScriptName);
-                if (version != null) out.put("Version", version);
-                if (manuf != null) out.put("Manufacturer", manuf);
+        // في وضع المعاينة بدون نسخ لا يوجد ملف خاص ولا ملف جانبي؛ الجداول تُقرأ من الـ URI
+        SfntParser uriParser = null;
+        if (uri != null) {
+            try {
+                uriParser = openUriParser(context, uri);
+            } catch (Exception e) {
+                Log.w(TAG, "getFontMetaData failed: " + e.getMessage());
             }
+        }
 
+        try {
+            FontMetadata meta = uriParser != null
+                    ? FontMetadataEngine.parse(uriParser, faceIndex, null)
+                    : FontMetadataEngine.getInstance(context).getMetadata(new File(path), faceIndex);
+            out.putAll(meta.toMap());
+            if (faceCount > 1) {
+                out.put("Face", (faceIndex + 1) + " / " + faceCount);
+            }
         } catch (Exception e) {
             Log.w(TAG, "getFontMetaData failed: " + e.getMessage());
         }
 
-        if (!out.containsKey("FullName") && currentFontRealName != null) {
-            out.put("FullName", currentFontRealName);
+        try {
+            // يُقرأ من الملف الجانبي .cmap بدون فتح الخط
+            CmapCoverage coverage = uriParser != null
+                    ? CmapCoverage.parse(uriParser, faceIndex)
+                    : CmapCoverage.forFont(new File(path), faceIndex);
+            out.put("Coverage", coverage.getCodepointCount() + " code points, Arabic "
+                    + coverage.countCovered(ARABIC_BLOCK_START, ARABIC_BLOCK_END) + "/"
+                    + (ARABIC_BLOCK_END - ARABIC_BLOCK_START + 1));
+        } catch (Exception e) {
+            Log.w(TAG, "coverage lookup failed: " + e.getMessage());
+        }
+
+        out.put("Path", path != null ? path : uri.toString());
+        out.put("FileName", fileName != null ? fileName : "");
+        if (!out.containsKey("FullName") && realName != null) {
+            out.put("FullName", realName);
         }
         return out;
     }
 
-    private String extractFontRealName(File fontFile) {
-        try (RandomAccessFile raf = new RandomAccessFile(fontFile, "r")) {
-            // اكتشاف نوع الملف (TTC أو SFNT)
-            raf.seek(0);
-            byte[] header = new byte[4];
-            raf.readFully(header);
-            String hdr = new String(header, StandardCharsets.US_ASCII);
-            long nameTableOffset = -1;
-            if ("ttcf".equals(hdr)) {
-                // قراءة TTC header: تخطي الإصدار ثم قراءة عدد الخطوط ثم أخذ أول offset
-                raf.skipBytes(4);
-                // TTC version (major/minor)
-                int numFonts = raf.readInt();
-                if (numFonts > 0) {
-                    long firstOffset = ((long) raf.readInt()) & 0xFFFFFFFFL;
-                    raf.seek(firstOffset);
-                    // استمر كأننا في ملف خط عادي من هذا الإزاحة
-                } else {
-                    return "Unknown Font";
-                }
-            } else {
-                // لم يكن TTC، عد إلى بداية للتحقق من sfntVersion كقيمة int
-                raf.seek(0);
-            }
-
-            int sfntVersion = raf.readInt();
-            if (sfntVersion != 0x00010000 && sfntVersion != 0x4F54544F) {
-                return "Unknown Font";
-            }
-
-            int numTables = raf.readUnsignedShort();
-            raf.skipBytes(6);
-            for (int i = 0; i < numTables; i++) {
-                byte[] tag = new byte[4];
-                raf.readFully(tag);
-                String tagName = new String(tag, StandardCharsets.US_ASCII);
-
-                raf.skipBytes(4);
-                long offset = readUInt32(raf);
-                readUInt32(raf);
-                if ("name".equals(tagName)) {
-                    nameTableOffset = offset;
-                    break;
-                }
-            }
-
-            if (nameTableOffset == -1) {
-                return "Unknown Font";
-            }
-
-            raf.seek(nameTableOffset);
-            raf.readUnsignedShort();
-            int count = raf.readUnsignedShort();
-            int stringOffset = raf.readUnsignedShort();
-
-            String fontName = null;
-            String familyName = null;
-            for (int i = 0; i < count; i++) {
-                int platformID = raf.readUnsignedShort();
-                raf.readUnsignedShort(); // encodingID
-                raf.readUnsignedShort();
-                // languageID
-                int nameID = raf.readUnsignedShort();
-                int length = raf.readUnsignedShort();
-                int offset = raf.readUnsignedShort();
-
-                long currentPos = raf.getFilePointer();
-                raf.seek(nameTableOffset + stringOffset + offset);
-                byte[] nameBytes = new byte[length];
-                raf.readFully(nameBytes);
-
-                String name;
-                if (platformID == 3 || platformID == 0) {
-                    name = new String(nameBytes, StandardCharsets.UTF_16BE);
-                } else if (platformID == 1) {
-                    try {
-                        name = new String(nameBytes, Charset.forName("MacRoman"));
-                    } catch (Exception ex) {
-                        name = new String(nameBytes, StandardCharsets.ISO_8859_1);
-                    }
-                } else {
-                    name = new String(nameBytes, StandardCharsets.ISO_8859_1);
-                }
-
-                if (nameID == 4 && (fontName == null || fontName.isEmpty())) {
-                    fontName = name;
-                } else if (nameID == 1 && (familyName == null || familyName.isEmpty())) {
-                    familyName = name;
-                } else if (nameID == 6 && (fontName == null || fontName.isEmpty())) {
-                    // اسم PostScript قد يكون مفيداً كبديل
-                    fontName = fontName == null ?
-                            name : fontName;
-                }
-
-                raf.seek(currentPos);
-                if (fontName != null) {
-                    break;
-                }
+    /**
+     * بناء فهرس تغطية cmap لكل faces الملف مرة واحدة بعد الاستيراد. يُستدعى على خيط خلفي.
+     */
+    private void buildCoverageIndex(File fontFile) {
+        try {
+            int faces = FontMetadataEngine.getInstance(requireContext()).getFaceCount(fontFile);
+            for (int i = 0; i < faces; i++) {
+                CmapCoverage.forFont(fontFile, i);
             }
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to build coverage index: " + e.getMessage());
+        }
+    }
 
-            return fontName != null ?
-                    fontName : (familyName != null ? familyName : "Unknown Font");
+    /**
+     * تسجيل كل faces الملف في FontLibrary. يُستدعى على خيط خلفي.
+     */
+    private void addToLibrary(File fontFile, Uri source) {
+        try {
+            Context ctx = requireContext();
+            List<FontLibrary.Entry> entries = FontLibrary.describe(ctx, fontFile, source);
+            FontLibrary.getInstance(ctx).putAll(entries);
+            FontSearchIndex.getInstance(ctx).addAll(entries);
         } catch (Exception e) {
-            Log.w(TAG, "Failed to extract font real name: " + e.getMessage());
-            return "Unknown Font";
+            Log.w(TAG, "Failed to add font to library: " + e.getMessage());
         }
     }
 
-    private long readUInt32(RandomAccessFile raf) throws Exception {
-        return ((long) raf.readInt()) & 0xFFFFFFFFL;
+    private String extractFontRealName(File fontFile) {
+        try {
+            // نفس المحرك المستخدم في loadFontMetaData، والنتيجة تبقى في الكاش لنافذة المعلومات
+            return FontMetadataEngine.getInstance(requireContext()).getMetadata(fontFile).getDisplayName();
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to extract font real name: " + e.getMessage());
+            return FontMetadata.UNKNOWN_FONT;
+        }
     }
 }
@@ -0,0 +1,293 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Layout;
+import android.text.PrecomputedText;
+import android.text.StaticLayout;
+import android.text.TextDirectionHeuristics;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * FontWaterfallView - نص المعاينة بسلسلة من الأحجام (waterfall)، سطر لكل حجم.
+ * - تخطيط كل سطر (PrecomputedText ثم StaticLayout) يُحسب على خيط خلفي ويُحفظ
+ * - onDraw يرسم التخطيطات المحفوظة فقط، فالنص العربي الطويل لا يكلف الخيط الرئيسي شيئاً
+ * - تغيير الأحجام يحسب الأحجام الجديدة فقط؛ تغيير الخط أو النص أو العرض يعيد حساب ما تغير فعلاً
+ * - تغيير اللون لا يعيد القياس: اللون يُضبط على الـ paint عند الرسم
+ * التخطيط القديم يبقى معروضاً حتى يصل الجديد، فلا يومض السطر أثناء سحب محاور الخط المتغير.
+ */
+public class FontWaterfallView extends View {
+
+    private static final float LABEL_TEXT_SIZE_SP = 12f;
+    private static final float LINE_GAP_DP = 12f;
+    private static final float LABEL_GAP_DP = 2f;
+    // ارتفاع تقديري للسطر قبل أن يصل تخطيطه، حتى لا تقفز الشاشة كثيراً
+    private static final float PENDING_LINE_HEIGHT = 1.3f;
+    // نفس القيم لـ PrecomputedText و StaticLayout؛ أي اختلاف يجعل الـ layout يرفض القياس المحسوب ويعيده
+    private static final int BREAK_STRATEGY = Layout.BREAK_STRATEGY_HIGH_QUALITY;
+    private static final int HYPHENATION_FREQUENCY = Layout.HYPHENATION_FREQUENCY_NORMAL;
+
+    // مشترك بين كل نسخ الـ View؛ الخيط الرئيسي لا ينتظره أبداً
+    private static final ExecutorService LAYOUT_EXECUTOR =
+            Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+    /**
+     * سطر واحد بحجم واحد. layout هو آخر تخطيط جاهز، و builtKey ما بُني له.
+     */
+    private static final class Line {
+        final float sizeSp;
+        final float sizePx;
+        final String label;
+        String builtKey;
+        String pendingKey;
+        StaticLayout layout;
+        Future<?> pending;
+
+        Line(float sizeSp, float sizePx) {
+            this.sizeSp = sizeSp;
+            this.sizePx = sizePx;
+            this.label = String.format(Locale.US, "%s sp", formatSize(sizeSp));
+        }
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Line> lines = new ArrayList<>();
+    private final TextPaint labelPaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+    private final float lineGapPx;
+    private final float labelGapPx;
+
+    private CharSequence text = "";
+    // يزيد مع كل نص جديد؛ مقارنة رقم أرخص من مقارنة نص طويل في كل مفتاح
+    private int textGeneration;
+    private Typeface typeface = Typeface.DEFAULT;
+    // يزيد مع كل Typeface جديد؛ identityHashCode قد يتكرر لـ Typeface جديد بعد جمع القديم
+    private int typefaceGeneration;
+    private int textColor = Color.BLACK;
+    private int layoutWidth;
+
+    public FontWaterfallView(Context context) {
+        this(context, null);
+    }
+
+    public FontWaterfallView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        labelPaint.setTextSize(sp(LABEL_TEXT_SIZE_SP));
+        labelPaint.setColor(Color.GRAY);
+        lineGapPx = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, LINE_GAP_DP,
+                getResources().getDisplayMetrics());
+        labelGapPx = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, LABEL_GAP_DP,
+                getResources().getDisplayMetrics());
+    }
+
+    /**
+     * ★★★ سلم الأحجام: الأحجام الموجودة تحتفظ بتخطيطها، والجديدة فقط تُقاس ★★★
+     */
+    public void setSizesSp(float[] sizesSp) {
+        List<Line> next = new ArrayList<>(sizesSp.length);
+        for (float size : sizesSp) {
+            Line line = takeLine(size);
+            next.add(line != null ? line : new Line(size, sp(size)));
+        }
+        // الأسطر التي لم تعد في السلم تُلغى أعمالها الجارية
+        for (Line old : lines) {
+            if (old.pending != null) old.pending.cancel(true);
+        }
+        lines.clear();
+        lines.addAll(next);
+        relayoutStale();
+    }
+
+    public void setText(CharSequence text) {
+        CharSequence value = text != null ? text : "";
+        if (value.toString().equals(this.text.toString())) return;
+        this.text = value;
+        textGeneration++;
+        relayoutStale();
+    }
+
+    public void setTypeface(Typeface typeface) {
+        Typeface value = typeface != null ? typeface : Typeface.DEFAULT;
+        if (value == this.typeface) return;
+        this.typeface = value;
+        typefaceGeneration++;
+        relayoutStale();
+    }
+
+    public void setTextColor(int color) {
+        textColor = color;
+        invalidate();
+    }
+
+    public void setLabelColor(int color) {
+        labelPaint.setColor(color);
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        setMeasuredDimension(width, resolveSize(Math.round(contentHeight()), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        int width = Math.max(0, w - getPaddingLeft() - getPaddingRight());
+        if (width != layoutWidth) {
+            layoutWidth = width;
+            relayoutStale();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        for (Line line : lines) {
+            if (line.pending != null) line.pending.cancel(true);
+            line.pending = null;
+            line.pendingKey = null;
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        relayoutStale();
+    }
+
+    /**
+     * ★★★ الرسم من التخطيطات المحفوظة فقط؛ لا قياس هنا ★★★
+     */
+    @Override
+    protected void onDraw(Canvas canvas) {
+        float y = getPaddingTop();
+        float labelHeight = -labelPaint.ascent() + labelPaint.descent();
+        boolean rtl = getLayoutDirection() == LAYOUT_DIRECTION_RTL;
+        for (Line line : lines) {
+            float labelX = rtl
+                    ? getWidth() - getPaddingRight() - labelPaint.measureText(line.label)
+                    : getPaddingLeft();
+            canvas.drawText(line.label, labelX, y - labelPaint.ascent(), labelPaint);
+            y += labelHeight + labelGapPx;
+
+            if (line.layout != null) {
+                // الـ paint الذي بُني به التخطيط؛ اللون لا يدخل في القياس
+                line.layout.getPaint().setColor(textColor);
+                canvas.save();
+                canvas.translate(getPaddingLeft(), y);
+                line.layout.draw(canvas);
+                canvas.restore();
+                y += line.layout.getHeight();
+            } else {
+                y += line.sizePx * PENDING_LINE_HEIGHT;
+            }
+            y += lineGapPx;
+        }
+    }
+
+    private float contentHeight() {
+        float labelHeight = -labelPaint.ascent() + labelPaint.descent();
+        float height = getPaddingTop() + getPaddingBottom();
+        for (Line line : lines) {
+            height += labelHeight + labelGapPx + lineGapPx;
+            height += line.layout != null ? line.layout.getHeight() : line.sizePx * PENDING_LINE_HEIGHT;
+        }
+        return height;
+    }
+
+    private Line takeLine(float sizeSp) {
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).sizeSp == sizeSp) return lines.remove(i);
+        }
+        return null;
+    }
+
+    /**
+     * إرسال الأسطر التي لا يطابق تخطيطها (أو التخطيط الجاري حسابه) الحالة الحالية إلى الخلفية.
+     */
+    private void relayoutStale() {
+        if (layoutWidth <= 0 || !isAttachedToWindow()) {
+            requestLayout();
+            return;
+        }
+        final CharSequence snapshotText = text;
+        final Typeface snapshotTypeface = typeface;
+        final int snapshotWidth = layoutWidth;
+        for (Line line : lines) {
+            final String key = key(line);
+            if (key.equals(line.builtKey) || key.equals(line.pendingKey)) continue;
+            if (line.pending != null) line.pending.cancel(true);
+
+            line.pendingKey = key;
+            final Line target = line;
+            line.pending = LAYOUT_EXECUTOR.submit(() -> {
+                StaticLayout layout = buildLayout(snapshotText, snapshotTypeface, target.sizePx,
+                        snapshotWidth, new TextPaint(TextPaint.ANTI_ALIAS_FLAG));
+                if (layout == null || Thread.currentThread().isInterrupted()) return;
+                mainHandler.post(() -> deliver(target, key, layout));
+            });
+        }
+    }
+
+    private void deliver(Line line, String key, StaticLayout layout) {
+        // نتيجة قديمة (تغير الخط أو النص أثناء الحساب) أو سطر أُزيل من السلم
+        if (!key.equals(line.pendingKey) || !lines.contains(line)) return;
+        line.layout = layout;
+        line.builtKey = key;
+        line.pendingKey = null;
+        line.pending = null;
+        requestLayout();
+        invalidate();
+    }
+
+    private String key(Line line) {
+        return typefaceGeneration + "|" + textGeneration + "|" + layoutWidth + "|" + line.sizePx;
+    }
+
+    private static StaticLayout buildLayout(CharSequence text, Typeface typeface, float sizePx, int width,
+                                            TextPaint paint) {
+        paint.setTypeface(typeface);
+        paint.setTextSize(sizePx);
+        CharSequence measured = text;
+        // PrecomputedText يقيس الكلمات مرة واحدة ويعيد الـ StaticLayout استخدام القياس
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            PrecomputedText.Params params = new PrecomputedText.Params.Builder(paint)
+                    .setTextDirection(TextDirectionHeuristics.FIRSTSTRONG_LTR)
+                    .setBreakStrategy(BREAK_STRATEGY)
+                    .setHyphenationFrequency(HYPHENATION_FREQUENCY)
+                    .build();
+            measured = PrecomputedText.create(text, params);
+        }
+        if (Thread.currentThread().isInterrupted()) return null;
+        return StaticLayout.Builder.obtain(measured, 0, measured.length(), paint, width)
+                .setTextDirection(TextDirectionHeuristics.FIRSTSTRONG_LTR)
+                .setAlignment(Layout.Alignment.ALIGN_NORMAL)
+                .setBreakStrategy(BREAK_STRATEGY)
+                .setHyphenationFrequency(HYPHENATION_FREQUENCY)
+                .setIncludePad(false)
+                .build();
+    }
+
+    private float sp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, value, getResources().getDisplayMetrics());
+    }
+
+    private static String formatSize(float size) {
+        return size == Math.round(size) ? String.valueOf(Math.round(size)) : String.valueOf(size);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.Locale;
+
+/**
+ * GlyphGridAdapter - خلية لكل محرف في جدول cmap للخط: الشكل ورمز U+XXXX.
+ * المحارف لا تُنسخ إلى قائمة؛ الموضع يُحوّل إلى محرف عبر CmapCoverage.codepointAt.
+ * الربط لا يرسم شيئاً؛ الشكل يأتي جاهزاً من GlyphGridRenderer.
+ */
+public class GlyphGridAdapter extends RecyclerView.Adapter<GlyphGridViewHolder> {
+
+    private final Context mContext;
+    private final CmapCoverage mCoverage;
+    private final GlyphGridRenderer mRenderer;
+    private final GlyphGridListener mListener;
+
+    public interface GlyphGridListener {
+        void onGlyphSelected(int codepoint);
+    }
+
+    public GlyphGridAdapter(@NonNull Context context, CmapCoverage coverage, GlyphGridRenderer renderer,
+                            GlyphGridListener listener) {
+        mContext = context;
+        mCoverage = coverage;
+        mRenderer = renderer;
+        mListener = listener;
+        setHasStableIds(true);
+    }
+
+    public int getCodepoint(int position) {
+        return mCoverage.codepointAt(position);
+    }
+
+    @NonNull
+    @Override
+    public GlyphGridViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(mContext).inflate(R.layout.item_glyph_cell, parent, false);
+        return new GlyphGridViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull GlyphGridViewHolder holder, int position) {
+        int codepoint = mCoverage.codepointAt(position);
+        holder.setCode(formatCodepoint(codepoint));
+        release(holder);
+
+        // ★★★ من الكاش مباشرة إن وُجد، وإلا يُرسم في الخلفية ويُعرض عند وصوله ★★★
+        holder.boundCodepoint = codepoint;
+        Bitmap cached = mRenderer.acquireCached(codepoint);
+        holder.shownBitmap = cached;
+        holder.setGlyph(cached);
+        if (cached == null) {
+            holder.pendingRender = mRenderer.render(codepoint, (cp, bitmap) -> {
+                if (cp != holder.boundCodepoint || holder.shownBitmap != null) {
+                    mRenderer.unpin(bitmap);
+                    return;
+                }
+                holder.pendingRender = null;
+                holder.shownBitmap = bitmap;
+                holder.setGlyph(bitmap);
+            });
+        }
+
+        holder.itemView.setOnClickListener(v -> {
+            int pos = holder.getBindingAdapterPosition();
+            if (pos != RecyclerView.NO_POSITION && mListener != null) {
+                mListener.onGlyphSelected(mCoverage.codepointAt(pos));
+            }
+        });
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull GlyphGridViewHolder holder) {
+        // الخلية خرجت من الشاشة: الرسم الجاري يُلغى والـ Bitmap يعود قابلاً لإعادة الاستخدام
+        release(holder);
+        holder.boundCodepoint = -1;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mCoverage.codepointAt(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return mCoverage.getCodepointCount();
+    }
+
+    private void release(GlyphGridViewHolder holder) {
+        holder.cancelRender();
+        holder.setGlyph(null);
+        mRenderer.unpin(holder.shownBitmap);
+        holder.shownBitmap = null;
+    }
+
+    static String formatCodepoint(int codepoint) {
+        return String.format(Locale.US, codepoint > 0xFFFF ? "U+%06X" : "U+%04X", codepoint);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.net.Uri;
+import android.os.CancellationSignal;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.LayoutInflater;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
+import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import dev.oneuiproject.oneui.widget.Toast;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * GlyphGridController - شبكة أشكال الخط المحمّل في نافذة، مع تكبير الشكل عند الضغط.
+ * المحارف من جدول cmap (extractCodepoints) على خيط اللوحة، والخلايا تُرسم عند ظهورها فقط.
+ */
+final class GlyphGridController extends FontViewerController {
+
+    private static final String TAG = "GlyphGrid";
+
+    // يطابق حجم glyph_cell_image في item_glyph_cell
+    private static final float GLYPH_CELL_DP = 56f;
+    // عرض الخلية مع هوامشها، لحساب عدد الأعمدة
+    private static final float GLYPH_COLUMN_DP = 72f;
+    // عدد الصفوف المرسومة مسبقاً في اتجاه التمرير
+    private static final int GLYPH_PREFETCH_ROWS = 3;
+    private static final float GLYPH_ZOOM_SP = 160f;
+
+    GlyphGridController(Fragment host) {
+        super(host);
+    }
+
+    /**
+     * path لخط مستورد، أو uri لخط معروض بدون نسخ.
+     */
+    void show(Typeface typeface, String path, Uri uri, int faceIndex) {
+        if (typeface == null || (path == null && uri == null)) {
+            Toast.makeText(requireContext(), getString(R.string.font_viewer_no_font_selected), Toast.LENGTH_SHORT).show();
+            return;
+        }
+        CancellationSignal signal = restart();
+        final Context appContext = requireContext().getApplicationContext();
+        execute(() -> {
+            CmapCoverage coverage = null;
+            try {
+                coverage = path != null
+                        ? extractCodepoints(new File(path), faceIndex)
+                        : CmapCoverage.parse(FontViewerFragment.openUriParser(appContext, uri), faceIndex);
+            } catch (Exception e) {
+                Log.w(TAG, "cmap parse failed: " + e.getMessage());
+            }
+            final CmapCoverage finalCoverage = coverage;
+            postIfCurrent(signal, () -> {
+                if (finalCoverage == null || finalCoverage.getCodepointCount() == 0) {
+                    Toast.makeText(requireContext(), getString(R.string.font_viewer_glyph_grid_empty),
+                            Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                showDialog(typeface, finalCoverage);
+            });
+        });
+    }
+
+    private void showDialog(Typeface typeface, CmapCoverage coverage) {
+        DisplayMetrics dm = host.getResources().getDisplayMetrics();
+        int cellPx = Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, GLYPH_CELL_DP, dm));
+        int columnPx = Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, GLYPH_COLUMN_DP, dm));
+        final int spanCount = Math.max(3, dm.widthPixels / columnPx);
+
+        final GlyphGridRenderer renderer = new GlyphGridRenderer(typeface, cellPx);
+        final GlyphGridAdapter adapter = new GlyphGridAdapter(requireContext(), coverage, renderer,
+                cp -> showZoom(typeface, cp));
+        final GridLayoutManager layoutManager = new GridLayoutManager(requireContext(), spanCount);
+
+        RecyclerView grid = (RecyclerView) LayoutInflater.from(requireContext())
+                .inflate(R.layout.dialog_glyph_grid, null, false);
+        grid.setLayoutManager(layoutManager);
+        grid.setHasFixedSize(true);
+        grid.setAdapter(adapter);
+        final int[] direction = {1};
+        grid.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy != 0) direction[0] = dy > 0 ? 1 : -1;
+                // رسم مسبق لصفوف قليلة بعد آخر خلية ظاهرة (أو قبل أول خلية عند التمرير للأعلى)
+                int count = adapter.getItemCount();
+                int ahead = GLYPH_PREFETCH_ROWS * spanCount;
+                int from;
+                int to;
+                if (direction[0] > 0) {
+                    from = layoutManager.findLastVisibleItemPosition() + 1;
+                    to = Math.min(count, from + ahead);
+                } else {
+                    to = layoutManager.findFirstVisibleItemPosition();
+                    from = Math.max(0, to - ahead);
+                }
+                for (int i = from; i < to; i++) renderer.prefetch(adapter.getCodepoint(i));
+            }
+        });
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(getString(R.string.font_viewer_glyph_grid_title, coverage.getCodepointCount()))
+                .setView(grid)
+                .setNegativeButton(android.R.string.cancel, null)
+                .setOnDismissListener(d -> renderer.shutdown())
+                .show();
+    }
+
+    /**
+     * الشكل مكبراً بالخط نفسه (TextView عادي؛ رسم واحد لا يحتاج كاش)، مع اسم المحرف في Unicode.
+     */
+    private void showZoom(Typeface typeface, int codepoint) {
+        TextView glyph = new TextView(requireContext());
+        glyph.setTypeface(typeface);
+        glyph.setTextSize(TypedValue.COMPLEX_UNIT_SP, GLYPH_ZOOM_SP);
+        glyph.setGravity(Gravity.CENTER);
+        glyph.setIncludeFontPadding(false);
+        glyph.setText(new String(Character.toChars(codepoint)));
+
+        String name = Character.getName(codepoint);
+        new AlertDialog.Builder(requireContext())
+                .setTitle(GlyphGridAdapter.formatCodepoint(codepoint) + (name != null ? "  " + name : ""))
+                .setView(glyph)
+                .setPositiveButton(android.R.string.ok, null)
+                .show();
+    }
+
+    /**
+     * محارف الخط من جدول cmap (الصيغ 4 و 12) بنفس فهرس CmapCoverage وملفه الجانبي، وليس بتجربة
+     * Paint.hasGlyph لكل محرف. خيط خلفي.
+     */
+    private static CmapCoverage extractCodepoints(File fontFile, int faceIndex) throws IOException {
+        return CmapCoverage.forFont(fontFile, faceIndex);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.oneuiapp;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.LruCache;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * GlyphGridRenderer - رسم خلايا شبكة الأشكال خارج الخيط الرئيسي.
+ * - كل خلية Bitmap بصيغة ALPHA_8 (بايت لكل بكسل)؛ اللون يأتي من tint الـ ImageView، فالسمة لا تدخل في الكاش
+ * - الكاش صغير ومحدود بعدد الخلايا، والـ Bitmap المحذوف منه يعود إلى مجمع (pool) ويُعاد الرسم فيه
+ * - الـ Bitmap المعروض في خلية محجوز (pin) فلا يُعاد استخدامه وهو على الشاشة
+ * - الجلب المسبق على خيط منفصل حتى لا يؤخر الخلايا الظاهرة
+ */
+public final class GlyphGridRenderer {
+
+    // حوالي ثلاث شاشات من الخلايا
+    private static final int CACHE_CELLS = 240;
+    private static final int POOL_CELLS = 32;
+    // حجم الشكل نسبة إلى ضلع الخلية
+    private static final float GLYPH_SCALE = 0.62f;
+
+    public interface Callback {
+        void onRendered(int codepoint, Bitmap bitmap);
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor;
+    // الرسم المسبق بأولوية خلفية حتى لا ينافس الخلايا الظاهرة وخيط الواجهة على المعالج
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(r -> new Thread(() -> {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        r.run();
+    }, "GlyphGridPrefetch"));
+    private final Typeface typeface;
+    private final int cellPx;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<Bitmap> pool = new ArrayDeque<>();
+    // عدد الخلايا التي تعرض كل Bitmap حالياً
+    private final Map<Bitmap, Integer> pinned = new IdentityHashMap<>();
+    // Bitmaps خرجت من الكاش وهي معروضة؛ تعود إلى المجمع عند فك حجزها
+    private final Set<Bitmap> evictedWhilePinned = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Integer> prefetching = new HashSet<>();
+    private final LruCache<Integer, Bitmap> cache = new LruCache<Integer, Bitmap>(CACHE_CELLS) {
+        @Override
+        protected void entryRemoved(boolean evicted, Integer key, Bitmap oldValue, Bitmap newValue) {
+            // يُستدعى من store أو evictAll؛ قفل المجمع لا يأخذ قفل الكاش أبداً فلا تعارض
+            synchronized (lock) {
+                if (pinned.containsKey(oldValue)) {
+                    evictedWhilePinned.add(oldValue);
+                } else {
+                    recycleLocked(oldValue);
+                }
+            }
+        }
+    };
+
+    public GlyphGridRenderer(Typeface typeface, int cellPx) {
+        this.typeface = typeface;
+        this.cellPx = cellPx;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * الخلية الجاهزة إن وُجدت في الكاش، محجوزة للعرض (تُفك بـ unpin). الخيط الرئيسي.
+     */
+    public Bitmap acquireCached(int codepoint) {
+        synchronized (cache) {
+            Bitmap bitmap = cache.get(codepoint);
+            pin(bitmap);
+            return bitmap;
+        }
+    }
+
+    /**
+     * رسم خلية ظاهرة؛ النتيجة تصل إلى callback على الخيط الرئيسي ما لم يُلغ الطلب.
+     * الـ Bitmap يصل محجوزاً: المستقبل يعرضه أو يفك حجزه.
+     */
+    public Future<?> render(int codepoint, Callback callback) {
+        return executor.submit(() -> {
+            // الحجز قبل الإرسال: لا يُعاد استخدامه إن خرج من الكاش قبل أن يصل إلى الخلية
+            Bitmap bitmap = acquireCached(codepoint);
+            if (bitmap == null) {
+                bitmap = draw(codepoint);
+                if (Thread.currentThread().isInterrupted()) {
+                    recycle(bitmap);
+                    return;
+                }
+                bitmap = store(codepoint, bitmap, true);
+            }
+            final Bitmap result = bitmap;
+            mainHandler.post(() -> callback.onRendered(codepoint, result));
+        });
+    }
+
+    /**
+     * رسم خلية قادمة في اتجاه التمرير ووضعها في الكاش فقط.
+     */
+    public void prefetch(int codepoint) {
+        synchronized (prefetching) {
+            if (cache.get(codepoint) != null || !prefetching.add(codepoint)) return;
+        }
+        prefetchExecutor.execute(() -> {
+            try {
+                if (cache.get(codepoint) == null) store(codepoint, draw(codepoint), false);
+            } finally {
+                synchronized (prefetching) {
+                    prefetching.remove(codepoint);
+                }
+            }
+        });
+    }
+
+    /**
+     * حجز Bitmap معروض في خلية.
+     */
+    public void pin(Bitmap bitmap) {
+        if (bitmap == null) return;
+        synchronized (lock) {
+            Integer count = pinned.get(bitmap);
+            pinned.put(bitmap, count == null ? 1 : count + 1);
+        }
+    }
+
+    public void unpin(Bitmap bitmap) {
+        if (bitmap == null) return;
+        synchronized (lock) {
+            Integer count = pinned.get(bitmap);
+            if (count == null) return;
+            if (count > 1) {
+                pinned.put(bitmap, count - 1);
+                return;
+            }
+            pinned.remove(bitmap);
+            if (evictedWhilePinned.remove(bitmap)) recycleLocked(bitmap);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        prefetchExecutor.shutdownNow();
+        synchronized (cache) {
+            cache.evictAll();
+        }
+        synchronized (lock) {
+            pool.clear();
+        }
+    }
+
+    /**
+     * ★★★ الرسم في Bitmap من المجمع إن وُجد، وإلا Bitmap جديد ★★★
+     */
+    private Bitmap draw(int codepoint) {
+        Bitmap bitmap;
+        synchronized (lock) {
+            bitmap = pool.poll();
+        }
+        if (bitmap == null) {
+            bitmap = Bitmap.createBitmap(cellPx, cellPx, Bitmap.Config.ALPHA_8);
+        } else {
+            bitmap.eraseColor(Color.TRANSPARENT);
+        }
+
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setTypeface(typeface);
+        paint.setTextSize(cellPx * GLYPH_SCALE);
+        String glyph = new String(Character.toChars(codepoint));
+        float x = (cellPx - paint.measureText(glyph)) / 2f;
+        float baseline = cellPx / 2f - (paint.ascent() + paint.descent()) / 2f;
+        new Canvas(bitmap).drawText(glyph, x, baseline, paint);
+        return bitmap;
+    }
+
+    /**
+     * وضع الخلية في الكاش ما لم يسبقه خيط آخر بنفس المحرف؛ الـ Bitmap الزائد يعود إلى المجمع.
+     */
+    private Bitmap store(int codepoint, Bitmap bitmap, boolean pin) {
+        synchronized (cache) {
+            Bitmap existing = cache.get(codepoint);
+            if (existing != null) {
+                recycle(bitmap);
+                bitmap = existing;
+            } else {
+                cache.put(codepoint, bitmap);
+            }
+            if (pin) pin(bitmap);
+            return bitmap;
+        }
+    }
+
+    private void recycle(Bitmap bitmap) {
+        synchronized (lock) {
+            recycleLocked(bitmap);
+        }
+    }
+
+    private void recycleLocked(Bitmap bitmap) {
+        if (pool.size() < POOL_CELLS) pool.push(bitmap);
+    }
+}
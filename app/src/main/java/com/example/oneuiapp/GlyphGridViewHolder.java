@@ -0,0 +1,42 @@
+package com.example.oneuiapp;
+
+import android.graphics.Bitmap;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.concurrent.Future;
+
+public class GlyphGridViewHolder extends RecyclerView.ViewHolder {
+
+    private final ImageView mGlyphView;
+    private final TextView mCodeView;
+
+    // المحرف المرتبط حالياً بالخلية؛ نتيجة لمحرف آخر تعني أن الخلية أُعيد استخدامها
+    int boundCodepoint = -1;
+    // الـ Bitmap المعروض، محجوز في GlyphGridRenderer حتى تُربط الخلية بغيره
+    Bitmap shownBitmap;
+    Future<?> pendingRender;
+
+    public GlyphGridViewHolder(@NonNull View itemView) {
+        super(itemView);
+        mGlyphView = itemView.findViewById(R.id.glyph_cell_image);
+        mCodeView = itemView.findViewById(R.id.glyph_cell_code);
+    }
+
+    public void setCode(String code) {
+        mCodeView.setText(code);
+    }
+
+    public void setGlyph(Bitmap bitmap) {
+        mGlyphView.setImageBitmap(bitmap);
+    }
+
+    void cancelRender() {
+        if (pendingRender != null) {
+            pendingRender.cancel(true);
+            pendingRender = null;
+        }
+    }
+}
@@ -13,6 +13,7 @@ import androidx.fragment.app.FragmentTransaction;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +36,7 @@ public class MainActivity extends BaseActivity implements FontViewerFragment.OnF
     private static final String KEY_CURRENT_FRAGMENT = "current_fragment_index";
     private static final String TAG_HOME = "fragment_home";
     private static final String TAG_FONT_VIEWER = "fragment_font_viewer";
+    private static final String TAG_FONT_LIBRARY = "fragment_font_library";
 
     private String currentFontRealName;
     private String currentFontFileName;
@@ -50,6 +52,8 @@ public class MainActivity extends BaseActivity implements FontViewerFragment.OnF
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // ★★★ آخر خط يُبنى في الخلفية أثناء بناء الواجهة، فيجده العارض جاهزاً في TypefaceCache ★★★
+        FontLoader.getInstance(this).prefetchLastUsed();
         setContentView(R.layout.activity_main);
         initViews();
         initFragmentsList();
@@ -61,12 +65,15 @@ public class MainActivity extends BaseActivity implements FontViewerFragment.OnF
             Fragment homeFragment = fm.findFragmentByTag(TAG_HOME);
             Fragment settingsFragment = fm.findFragmentByTag("settings");
             Fragment fontViewerFragment = fm.findFragmentByTag(TAG_FONT_VIEWER);
+            Fragment fontLibraryFragment = fm.findFragmentByTag(TAG_FONT_LIBRARY);
 
-            if (homeFragment != null && settingsFragment != null && fontViewerFragment != null) {
+            if (homeFragment != null && settingsFragment != null && fontViewerFragment != null
+                    && fontLibraryFragment != null) {
                 mFragments.clear();
                 mFragments.add(homeFragment);
                 mFragments.add(settingsFragment);
                 mFragments.add(fontViewerFragment);
+                mFragments.add(fontLibraryFragment);
             }
 
             showFragmentFast(mCurrentFragmentIndex);
@@ -114,6 +121,7 @@ public class MainActivity extends BaseActivity implements FontViewerFragment.OnF
             mFragments.add(new HomeFragment());
             mFragments.add(new SettingsFragment());
             mFragments.add(new FontViewerFragment());
+            mFragments.add(new FontLibraryFragment());
         }
     }
 
@@ -126,6 +134,8 @@ public class MainActivity extends BaseActivity implements FontViewerFragment.OnF
         transaction.hide(mFragments.get(1));
         transaction.add(R.id.main_content, mFragments.get(2), TAG_FONT_VIEWER);
         transaction.hide(mFragments.get(2));
+        transaction.add(R.id.main_content, mFragments.get(3), TAG_FONT_LIBRARY);
+        transaction.hide(mFragments.get(3));
 
         transaction.commit();
     }
@@ -215,6 +225,10 @@ public class MainActivity extends BaseActivity implements FontViewerFragment.OnF
                 subtitle = getString(R.string.font_viewer_select_description);
             }
 
+        } else if (fragmentIndex == 3) {
+            title = getString(R.string.drawer_font_library);
+            subtitle = getString(R.string.font_library_subtitle);
+
         } else {
             title = getString(R.string.app_name);
             subtitle = getString(R.string.app_subtitle);
@@ -256,10 +270,15 @@ public class MainActivity extends BaseActivity implements FontViewerFragment.OnF
             return;
         }
 
-        Map<String, String> meta = fvf.getFontMetaData();
+        // القراءة على خيط خلفي في العارض؛ النافذة تُعرض عند وصول النتيجة
+        fvf.loadFontMetaData(this::showFontMetaDialog);
+    }
+
+    private void showFontMetaDialog(Map<String, String> meta) {
+        if (isFinishing()) return;
         StringBuilder sb = new StringBuilder();
 
-        String[] keys = {"FullName", "Family", "SubFamily", "PostScriptName", "Version", "Manufacturer", "FileName", "Path"};
+        String[] keys = {"FullName", "Family", "SubFamily", "PostScriptName", "Version", "Manufacturer", "Face", "Coverage", "FileName", "Path"};
         for (String k : keys) {
             String v = meta.get(k);
             if (v != null && !v.isEmpty()) {
@@ -312,6 +331,18 @@ public class MainActivity extends BaseActivity implements FontViewerFragment.OnF
         }
     }
 
+    /**
+     * فتح خط من مكتبة الخطوط في عارض الخطوط (index 2).
+     */
+    public void openInFontViewer(FontLibrary.Entry entry) {
+        Fragment frag = mFragments.size() > 2 ? mFragments.get(2) : null;
+        if (!(frag instanceof FontViewerFragment)) return;
+        ((FontViewerFragment) frag).openFont(entry.getFilePath(),
+                new File(entry.getFilePath()).getName(), entry.getDisplayName(), entry.getFaceIndex());
+        showFragmentFast(2);
+        updateDrawerSelection(2);
+    }
+
     public void updateDrawerSelection(int position) {
         if (mDrawerAdapter != null && position >= 0 && position < mFragments.size()) {
             mCurrentFragmentIndex = position;
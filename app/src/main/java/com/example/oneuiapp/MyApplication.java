@@ -62,6 +62,14 @@ public class MyApplication extends Application {
         });
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            TypefaceCache.getInstance(this).trimUnused();
+        }
+    }
+
     public static MyApplication getInstance() {
         return sInstance;
     }
@@ -70,6 +78,7 @@ public class MyApplication extends Application {
      * إعادة إنشاء كل الأنشطة المفتوحة لتطبيق الخط الجديد
      */
     public void recreateAllActivities() {
+        // الخطوط المبنية تبقى في TypefaceCache؛ الأنشطة الجديدة تجدها بدون إعادة تحليل الملفات
         for (WeakReference<Activity> ref : activities) {
             Activity act = ref.get();
             if (act != null && !act.isFinishing()) {
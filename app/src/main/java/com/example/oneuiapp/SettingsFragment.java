@@ -24,6 +24,9 @@ public class SettingsFragment extends PreferenceFragmentCompat implements Prefer
     private ListPreference fontPreference;
     private SwitchPreferenceCompat notificationsPreference;
     private EditTextPreference previewTextPreference;
+    private ListPreference fontCacheLimitPreference;
+    private ListPreference typefaceCacheSizePreference;
+    private Preference typefaceCacheStatsPreference;
 
     @Override
     public void onAttach(@NonNull Context context) {
@@ -54,6 +57,9 @@ public class SettingsFragment extends PreferenceFragmentCompat implements Prefer
         fontPreference = findPreference("font_mode");
         notificationsPreference = findPreference("notifications_enabled");
         previewTextPreference = findPreference("preview_text");
+        fontCacheLimitPreference = findPreference("font_cache_limit");
+        typefaceCacheSizePreference = findPreference("typeface_cache_size");
+        typefaceCacheStatsPreference = findPreference("typeface_cache_stats");
     }
 
     private void setupPreferenceListeners() {
@@ -62,6 +68,8 @@ public class SettingsFragment extends PreferenceFragmentCompat implements Prefer
         if (fontPreference != null) fontPreference.setOnPreferenceChangeListener(this);
         if (notificationsPreference != null) notificationsPreference.setOnPreferenceChangeListener(this);
         if (previewTextPreference != null) previewTextPreference.setOnPreferenceChangeListener(this);
+        if (fontCacheLimitPreference != null) fontCacheLimitPreference.setOnPreferenceChangeListener(this);
+        if (typefaceCacheSizePreference != null) typefaceCacheSizePreference.setOnPreferenceChangeListener(this);
     }
 
     @Override
@@ -79,6 +87,22 @@ public class SettingsFragment extends PreferenceFragmentCompat implements Prefer
         getListView().seslSetLastRoundedCorner(true);
     }
 
+    @Override
+    public void onResume() {
+        super.onResume();
+        updateTypefaceCacheStats();
+    }
+
+    /**
+     * ★★★ عرض عدادات TypefaceCache الحالية تحت حد الكاش ★★★
+     */
+    private void updateTypefaceCacheStats() {
+        if (typefaceCacheStatsPreference == null) return;
+        TypefaceCache.Stats stats = TypefaceCache.getInstance(mContext).stats();
+        typefaceCacheStatsPreference.setSummary(mContext.getString(R.string.settings_typeface_cache_stats_summary,
+                stats.entries, stats.maxEntries, stats.hitRate(), stats.hits, stats.misses, stats.evictions));
+    }
+
     @Override
     public boolean onPreferenceChange(Preference preference, Object newValue) {
         String key = preference.getKey();
@@ -131,9 +155,25 @@ public class SettingsFragment extends PreferenceFragmentCompat implements Prefer
             Toast.makeText(mContext, msg, Toast.LENGTH_SHORT).show();
             return true;
 
+        } else if ("font_cache_limit".equals(key)) {
+            // القيمة الجديدة لم تُحفظ بعد، لذا تُمرر مباشرة
+            long limitBytes = Integer.parseInt((String) newValue) * 1024L * 1024L;
+            FontCacheManager.getInstance(mContext).trimAsync(limitBytes);
+            return true;
+
+        } else if ("typeface_cache_size".equals(key)) {
+            TypefaceCache.getInstance(mContext).setMaxEntries(Integer.parseInt((String) newValue));
+            updateTypefaceCacheStats();
+            return true;
+
         } else if ("preview_text".equals(key)) {
             String text = (String) newValue;
+            String oldText = SettingsHelper.getPreviewText(mContext);
             new SettingsHelper(mContext).setPreviewText(text);
+            // صور المعاينة المرسومة بالنص القديم فقط تُحذف؛ بقية الكاش يبقى
+            if (!oldText.equals(text)) {
+                FontThumbnailCache.getInstance(mContext).invalidateText(oldText);
+            }
 
             Toast.makeText(
                     mContext,
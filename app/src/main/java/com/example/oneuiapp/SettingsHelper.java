@@ -12,6 +12,7 @@ import androidx.core.content.res.ResourcesCompat;
 // ★★★ جديد: استيراد مدير التفضيلات الافتراضي ★★★
 import androidx.preference.PreferenceManager;
 
+import java.util.Arrays;
 import java.util.Locale;
 
 public class SettingsHelper {
@@ -22,6 +23,18 @@ public class SettingsHelper {
     private static final String KEYFONTMODE = "font_mode";
     private static final String KEYNOTIFICATIONSENABLED = "notifications_enabled";
     private static final String KEYPREVIEWTEXT = "preview_text";
+    private static final String KEYFONTCACHELIMIT = "font_cache_limit";
+    private static final String KEYFONTZEROCOPY = "font_zero_copy";
+    private static final String KEYTYPEFACECACHESIZE = "typeface_cache_size";
+    private static final String KEYIMPORTCONCURRENCY = "import_concurrency";
+    private static final String KEYWATERFALLENABLED = "waterfall_enabled";
+    private static final String KEYWATERFALLSIZES = "waterfall_sizes";
+
+    public static final int FONT_CACHE_LIMIT_DEFAULT_MB = 128;
+    public static final int TYPEFACE_CACHE_SIZE_DEFAULT = 16;
+    public static final String WATERFALL_SIZES_DEFAULT = "8,10,12,14,18,24,32,48,64,96";
+    private static final float WATERFALL_MIN_SP = 4f;
+    private static final float WATERFALL_MAX_SP = 200f;
 
     public static final int LANGUAGE_SYSTEM = 0;
     public static final int LANGUAGE_ARABIC = 1;
@@ -128,6 +141,65 @@ public class SettingsHelper {
         prefs.edit().putString(KEYPREVIEWTEXT, text == null ? "" : text).apply();
     }
 
+    // ---------------- Font cache ----------------
+    public static long getFontCacheLimitBytes(Context ctx) {
+        SettingsHelper sh = new SettingsHelper(ctx);
+        String v = sh.prefs.getString(KEYFONTCACHELIMIT, String.valueOf(FONT_CACHE_LIMIT_DEFAULT_MB));
+        int mb;
+        try { mb = Integer.parseInt(v); } catch (Exception e) { mb = FONT_CACHE_LIMIT_DEFAULT_MB; }
+        return mb * 1024L * 1024L;
+    }
+
+    // أقصى عدد من الـ Typeface المبنية يبقى في TypefaceCache
+    public static int getTypefaceCacheSize(Context ctx) {
+        SettingsHelper sh = new SettingsHelper(ctx);
+        String v = sh.prefs.getString(KEYTYPEFACECACHESIZE, String.valueOf(TYPEFACE_CACHE_SIZE_DEFAULT));
+        try { return Integer.parseInt(v); } catch (Exception e) { return TYPEFACE_CACHE_SIZE_DEFAULT; }
+    }
+
+    // عدد الملفات المنسوخة بالتوازي عند استيراد دفعة؛ 0 = تلقائي حسب أنوية الجهاز
+    public static int getImportConcurrency(Context ctx) {
+        SettingsHelper sh = new SettingsHelper(ctx);
+        String v = sh.prefs.getString(KEYIMPORTCONCURRENCY, "0");
+        int n;
+        try { n = Integer.parseInt(v); } catch (Exception e) { n = 0; }
+        return n > 0 ? n : FontImportPipeline.defaultConcurrency();
+    }
+
+    // عرض الخط مباشرة من الـ URI المحفوظ بدون نسخه إلى filesDir/fonts
+    public static boolean isZeroCopyPreviewEnabled(Context ctx) {
+        SettingsHelper sh = new SettingsHelper(ctx);
+        return sh.prefs.getBoolean(KEYFONTZEROCOPY, false);
+    }
+
+    // ---------------- Waterfall preview ----------------
+    public static boolean isWaterfallEnabled(Context ctx) {
+        SettingsHelper sh = new SettingsHelper(ctx);
+        return sh.prefs.getBoolean(KEYWATERFALLENABLED, false);
+    }
+
+    // سلم الأحجام بالـ sp مفصولة بفواصل؛ القيم غير الصالحة تُتجاهل والقائمة الفارغة تعود للافتراضي
+    public static float[] getWaterfallSizesSp(Context ctx) {
+        SettingsHelper sh = new SettingsHelper(ctx);
+        float[] sizes = parseWaterfallSizes(sh.prefs.getString(KEYWATERFALLSIZES, WATERFALL_SIZES_DEFAULT));
+        return sizes.length > 0 ? sizes : parseWaterfallSizes(WATERFALL_SIZES_DEFAULT);
+    }
+
+    static float[] parseWaterfallSizes(String value) {
+        if (value == null) return new float[0];
+        String[] parts = value.split("[,،\\s]+");
+        float[] sizes = new float[parts.length];
+        int n = 0;
+        for (String part : parts) {
+            try {
+                float size = Float.parseFloat(part.trim());
+                if (size >= WATERFALL_MIN_SP && size <= WATERFALL_MAX_SP) sizes[n++] = size;
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return Arrays.copyOf(sizes, n);
+    }
+
     // ---------------- Notifications ----------------
     public boolean areNotificationsEnabled() {
         return prefs.getBoolean(KEYNOTIFICATIONSENABLED, true);
@@ -0,0 +1,301 @@
+package com.example.oneuiapp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SfntParser - قارئ لبنية SFNT (TrueType / OpenType / TTC) فوق MappedByteBuffer للقراءة فقط.
+ * - يُربط الملف بالذاكرة مرة واحدة ثم تُقرأ كل البنى مباشرة من الـ mapping بدون seek/read لكل سجل
+ * - فهرسة جدول الجداول (table directory) تتم مرة واحدة لكل face وتُحفظ
+ * - سجلات جدول name تُفك عند الطلب فقط (lazy) بدون نسخ إلى byte[] وسيط
+ * الكائن آمن للقراءة من خيط واحد؛ لا يعدّل الملف أبداً.
+ */
+public final class SfntParser {
+
+    public static final int TAG_TTCF = 0x74746366;          // 'ttcf'
+    public static final int SFNT_VERSION_TRUETYPE = 0x00010000;
+    public static final int SFNT_VERSION_CFF = 0x4F54544F;  // 'OTTO'
+    // خطوط TrueType القديمة على Mac تستخدم 'true' بدلاً من 0x00010000
+    public static final int SFNT_VERSION_APPLE = 0x74727565; // 'true'
+    public static final int TAG_NAME = 0x6E616D65;          // 'name'
+    public static final int TAG_CMAP = 0x636D6170;          // 'cmap'
+
+    private static final int TABLE_RECORD_SIZE = 16;
+    private static final int NAME_RECORD_SIZE = 12;
+
+    private static final Charset MAC_ROMAN = resolveMacRoman();
+
+    private final ByteBuffer buffer;
+    private final boolean collection;
+    private final long[] faceOffsets;
+    private final TableDirectory[] directories;
+
+    private SfntParser(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.limit() < 12) {
+            throw new IOException("File too small for an sfnt header");
+        }
+
+        if (buffer.getInt(0) == TAG_TTCF) {
+            // TTC header: tag, version, numFonts ثم مصفوفة الإزاحات
+            int numFonts = buffer.getInt(8);
+            if (numFonts <= 0 || 12L + 4L * numFonts > buffer.limit()) {
+                throw new IOException("Invalid TTC header, numFonts=" + numFonts);
+            }
+            collection = true;
+            faceOffsets = new long[numFonts];
+            for (int i = 0; i < numFonts; i++) {
+                faceOffsets[i] = readUInt32(12 + 4 * i);
+            }
+        } else {
+            collection = false;
+            faceOffsets = new long[]{0};
+        }
+        directories = new TableDirectory[faceOffsets.length];
+    }
+
+    /**
+     * ربط ملف بالذاكرة وبناء parser عليه. يُغلق الـ channel فوراً لأن الـ mapping يبقى صالحاً بعده.
+     */
+    public static SfntParser open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return map(raf.getChannel());
+        }
+    }
+
+    /**
+     * ربط channel مفتوح بالذاكرة. لا يغلق الـ channel؛ المسؤولية على المستدعي.
+     */
+    public static SfntParser map(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Font file too large to map: " + size);
+        }
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        return new SfntParser(mapped);
+    }
+
+    public boolean isCollection() {
+        return collection;
+    }
+
+    public int getFaceCount() {
+        return faceOffsets.length;
+    }
+
+    /**
+     * جدول الجداول للـ face المطلوب؛ يُفهرس عند أول طلب فقط.
+     */
+    public TableDirectory getTableDirectory(int faceIndex) throws IOException {
+        if (faceIndex < 0 || faceIndex >= faceOffsets.length) {
+            throw new IOException("Face index out of range: " + faceIndex);
+        }
+        TableDirectory dir = directories[faceIndex];
+        if (dir == null) {
+            dir = new TableDirectory(faceOffsets[faceIndex]);
+            directories[faceIndex] = dir;
+        }
+        return dir;
+    }
+
+    /**
+     * قراءة ترويسة جدول name للـ face المطلوب، أو null إن لم يوجد الجدول.
+     */
+    public NameTable getNameTable(int faceIndex) throws IOException {
+        TableDirectory dir = getTableDirectory(faceIndex);
+        int idx = dir.indexOf(TAG_NAME);
+        if (idx < 0) return null;
+        return new NameTable(dir.getOffset(idx), dir.getLength(idx));
+    }
+
+    /**
+     * عرض للقراءة فقط لمحتوى جدول بعينه (big-endian، يبدأ من 0)، أو null إن لم يوجد الجدول.
+     */
+    public ByteBuffer getTable(int faceIndex, int tag) throws IOException {
+        TableDirectory dir = getTableDirectory(faceIndex);
+        int idx = dir.indexOf(tag);
+        if (idx < 0) return null;
+        long offset = dir.getOffset(idx);
+        long length = dir.getLength(idx);
+        checkRange(offset, length);
+
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit((int) (offset + length));
+        slice.position((int) offset);
+        return slice.slice().asReadOnlyBuffer().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    private long readUInt32(long pos) throws IOException {
+        checkRange(pos, 4);
+        return ((long) buffer.getInt((int) pos)) & 0xFFFFFFFFL;
+    }
+
+    private int readUInt16(long pos) throws IOException {
+        checkRange(pos, 2);
+        return buffer.getShort((int) pos) & 0xFFFF;
+    }
+
+    private void checkRange(long pos, long length) throws IOException {
+        if (pos < 0 || length < 0 || pos + length > buffer.limit()) {
+            throw new IOException("Read outside font data: pos=" + pos + " len=" + length);
+        }
+    }
+
+    /**
+     * فهرس الجداول لـ face واحد: الوسوم والإزاحات والأطوال في مصفوفات أولية.
+     */
+    public final class TableDirectory {
+        private final int sfntVersion;
+        private final int[] tags;
+        private final long[] offsets;
+        private final long[] lengths;
+
+        private TableDirectory(long faceOffset) throws IOException {
+            sfntVersion = (int) readUInt32(faceOffset);
+            int numTables = readUInt16(faceOffset + 4);
+            long recordsStart = faceOffset + 12;
+            checkRange(recordsStart, (long) numTables * TABLE_RECORD_SIZE);
+
+            tags = new int[numTables];
+            offsets = new long[numTables];
+            lengths = new long[numTables];
+            for (int i = 0; i < numTables; i++) {
+                long rec = recordsStart + (long) i * TABLE_RECORD_SIZE;
+                tags[i] = (int) readUInt32(rec);
+                // rec + 4 = checksum
+                offsets[i] = readUInt32(rec + 8);
+                lengths[i] = readUInt32(rec + 12);
+            }
+        }
+
+        public int getSfntVersion() {
+            return sfntVersion;
+        }
+
+        /**
+         * هل الإصدار TrueType (0x00010000 أو 'true') أو CFF ('OTTO')؟
+         */
+        public boolean hasKnownSfntVersion() {
+            return sfntVersion == SFNT_VERSION_TRUETYPE || sfntVersion == SFNT_VERSION_APPLE
+                    || sfntVersion == SFNT_VERSION_CFF;
+        }
+
+        public int getTableCount() {
+            return tags.length;
+        }
+
+        public int getTag(int index) {
+            return tags[index];
+        }
+
+        public long getOffset(int index) {
+            return offsets[index];
+        }
+
+        public long getLength(int index) {
+            return lengths[index];
+        }
+
+        public int indexOf(int tag) {
+            for (int i = 0; i < tags.length; i++) {
+                if (tags[i] == tag) return i;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * عرض مباشر لجدول name داخل الـ mapping. لا تُنسخ أي بايتات حتى يُطلب نص سجل بعينه.
+     */
+    public final class NameTable {
+        private final long recordsStart;
+        private final int count;
+        private final long stringBase;
+
+        private NameTable(long tableOffset, long tableLength) throws IOException {
+            checkRange(tableOffset, 6);
+            // tableOffset + 0 = format
+            count = readUInt16(tableOffset + 2);
+            stringBase = tableOffset + readUInt16(tableOffset + 4);
+            recordsStart = tableOffset + 6;
+            checkRange(recordsStart, (long) count * NAME_RECORD_SIZE);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public int getPlatformId(int index) throws IOException {
+            return readUInt16(recordsStart + (long) index * NAME_RECORD_SIZE);
+        }
+
+        public int getEncodingId(int index) throws IOException {
+            return readUInt16(recordsStart + (long) index * NAME_RECORD_SIZE + 2);
+        }
+
+        public int getLanguageId(int index) throws IOException {
+            return readUInt16(recordsStart + (long) index * NAME_RECORD_SIZE + 4);
+        }
+
+        public int getNameId(int index) throws IOException {
+            return readUInt16(recordsStart + (long) index * NAME_RECORD_SIZE + 6);
+        }
+
+        /**
+         * فك نص السجل حسب المنصة: Unicode/Windows = UTF-16BE، Macintosh = MacRoman، غير ذلك ISO-8859-1.
+         */
+        public String getString(int index) throws IOException {
+            long rec = recordsStart + (long) index * NAME_RECORD_SIZE;
+            int platformId = readUInt16(rec);
+            int length = readUInt16(rec + 8);
+            long start = stringBase + readUInt16(rec + 10);
+            checkRange(start, length);
+
+            ByteBuffer slice = buffer.duplicate();
+            slice.limit((int) (start + length));
+            slice.position((int) start);
+
+            Charset cs;
+            if (platformId == 3 || platformId == 0) {
+                cs = StandardCharsets.UTF_16BE;
+            } else if (platformId == 1) {
+                cs = MAC_ROMAN;
+            } else {
+                cs = StandardCharsets.ISO_8859_1;
+            }
+            return decode(cs, slice);
+        }
+    }
+
+    private static String decode(Charset cs, ByteBuffer bytes) throws IOException {
+        // نفس سلوك new String(bytes, cs): استبدال المقاطع غير الصالحة بدل الفشل
+        CharsetDecoder decoder = cs.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        try {
+            CharBuffer chars = decoder.decode(bytes);
+            return chars.toString();
+        } catch (CharacterCodingException e) {
+            throw new IOException("Failed to decode name record", e);
+        }
+    }
+
+    private static Charset resolveMacRoman() {
+        try {
+            return Charset.forName("MacRoman");
+        } catch (Exception ex) {
+            return StandardCharsets.ISO_8859_1;
+        }
+    }
+}
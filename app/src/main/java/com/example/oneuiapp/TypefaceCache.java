@@ -0,0 +1,208 @@
+package com.example.oneuiapp;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.util.Log;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TypefaceCache - كاش Typeface على مستوى التطبيق، يبقى بعد إعادة إنشاء الأنشطة.
+ * - المفتاح: المسار ووقت التعديل و face وإعدادات المحاور (variation settings)؛ الملف المعدل يُبنى من جديد
+ * - عداد مراجع (refcount) لكل Typeface: المستخدم حالياً لا يُحذف مهما امتلأ الكاش
+ * - الحذف LRU للـ Typeface غير المستخدمة فقط، حتى يعود العدد تحت الحد المضبوط في الإعدادات
+ * - عدادات الإصابة والإخفاق والحذف (hits/misses/evictions) تُقرأ عبر stats() في الإعدادات، بدون أي سجل
+ * البناء عند الإخفاق يحدث على خيط المستدعي وخارج القفل.
+ */
+public final class TypefaceCache {
+
+    private static final String TAG = "TypefaceCache";
+
+    /**
+     * Typeface محجوز من الكاش؛ يُعاد عبر release عندما لا يعود مستخدماً.
+     */
+    public static final class Lease {
+        private final String key;
+        private final Typeface typeface;
+        private boolean released;
+
+        Lease(String key, Typeface typeface) {
+            this.key = key;
+            this.typeface = typeface;
+        }
+
+        public Typeface getTypeface() {
+            return typeface;
+        }
+    }
+
+    /**
+     * لقطة من عدادات الكاش لحظة الطلب.
+     */
+    public static final class Stats {
+        public final int entries;
+        public final int maxEntries;
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+
+        Stats(int entries, int maxEntries, long hits, long misses, long evictions) {
+            this.entries = entries;
+            this.maxEntries = maxEntries;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        /**
+         * نسبة الإصابة من 0 إلى 100؛ 0 قبل أول طلب.
+         */
+        public int hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (int) (hits * 100 / total);
+        }
+    }
+
+    private static final class Node {
+        final Typeface typeface;
+        int refs;
+
+        Node(Typeface typeface) {
+            this.typeface = typeface;
+        }
+    }
+
+    private static volatile TypefaceCache sInstance;
+
+    // ترتيب الوصول: الأقدم استخداماً أولاً
+    private final LinkedHashMap<String, Node> nodes = new LinkedHashMap<>(16, 0.75f, true);
+    private int maxEntries;
+    // ★★★ عدادات رخيصة فقط في المسار الساخن؛ لا سجل ولا توقيت ★★★
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private TypefaceCache(Context context) {
+        maxEntries = SettingsHelper.getTypefaceCacheSize(context.getApplicationContext());
+    }
+
+    public static TypefaceCache getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (TypefaceCache.class) {
+                if (sInstance == null) {
+                    sInstance = new TypefaceCache(context);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    public static String key(File file, int faceIndex, String variationSettings) {
+        String key = file.getAbsolutePath() + "@" + file.lastModified() + "#" + faceIndex;
+        return variationSettings == null || variationSettings.isEmpty() ? key : key + "#" + variationSettings;
+    }
+
+    /**
+     * ★★★ Typeface الملف من الكاش أو بناؤه مرة واحدة ★★★
+     * يُرجع null إن فشل البناء. كل Lease مُرجع يجب أن يُعاد عبر release.
+     */
+    public Lease acquire(File file, int faceIndex, String variationSettings) {
+        final String key = key(file, faceIndex, variationSettings);
+        synchronized (this) {
+            Node node = nodes.get(key);
+            if (node != null) {
+                node.refs++;
+                hits.incrementAndGet();
+                return new Lease(key, node.typeface);
+            }
+        }
+        misses.incrementAndGet();
+
+        Typeface typeface = build(file, faceIndex, variationSettings);
+        if (typeface == null) return null;
+
+        synchronized (this) {
+            // خيط آخر بنى نفس المفتاح في الأثناء: نسخته تُستخدم حتى يبقى Typeface واحد لكل مفتاح
+            Node node = nodes.get(key);
+            if (node == null) {
+                node = new Node(typeface);
+                nodes.put(key, node);
+            }
+            node.refs++;
+            trimLocked();
+            return new Lease(key, node.typeface);
+        }
+    }
+
+    public synchronized void release(Lease lease) {
+        if (lease == null || lease.released) return;
+        lease.released = true;
+        Node node = nodes.get(lease.key);
+        if (node == null) return;
+        if (node.refs > 0) node.refs--;
+        trimLocked();
+    }
+
+    /**
+     * تغيير الحد من الإعدادات؛ الفائض غير المستخدم يُحذف فوراً.
+     */
+    public synchronized void setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        trimLocked();
+    }
+
+    /**
+     * حذف كل Typeface غير مستخدم، عند ضغط الذاكرة مثلاً.
+     */
+    public synchronized void trimUnused() {
+        Iterator<Node> it = nodes.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().refs == 0) {
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(nodes.size(), maxEntries, hits.get(), misses.get(), evictions.get());
+    }
+
+    private void trimLocked() {
+        if (nodes.size() <= maxEntries) return;
+        Iterator<Map.Entry<String, Node>> it = nodes.entrySet().iterator();
+        while (nodes.size() > maxEntries && it.hasNext()) {
+            // إن كان كل المتبقي مستخدماً يتجاوز الكاش الحد مؤقتاً حتى يُعاد أحدها
+            if (it.next().getValue().refs == 0) {
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static Typeface build(File file, int faceIndex, String variationSettings) {
+        try {
+            Typeface.Builder builder = new Typeface.Builder(file).setTtcIndex(faceIndex);
+            if (variationSettings != null && !variationSettings.isEmpty()) {
+                builder.setFontVariationSettings(variationSettings);
+            }
+            Typeface typeface = builder.build();
+            if (typeface != null) return typeface;
+        } catch (Exception e) {
+            Log.w(TAG, "Typeface.Builder failed for " + file.getName() + ": " + e.getMessage());
+        }
+        // نفس مسار الاحتياط القديم في loadFontFromPath: الـ face الأول فقط وبدون محاور
+        if (faceIndex == 0 && (variationSettings == null || variationSettings.isEmpty())) {
+            try {
+                return Typeface.createFromFile(file);
+            } catch (Exception e) {
+                Log.w(TAG, "createFromFile failed for " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,1020 @@
+package com.example.oneuiapp;
+
+import android.util.Log;
+
+import org.brotli.dec.BrotliInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * WoffDecoder - تحويل WOFF و WOFF2 إلى ملف sfnt عادي (TTF/OTF/TTC) بشكل متدفق.
+ * - WOFF: كل جدول يُفك بـ zlib ويُكتب مباشرة إلى الملف الناتج بترتيب وروده
+ * - WOFF2: تيار Brotli يُقرأ مرة واحدة؛ الجداول غير المحوّلة تُكتب مباشرة، والمحوّلة
+ *   (glyf/loca/hmtx) تُنقل إلى ملف مؤقت ثم يُعاد بناؤها من mapping له
+ * لا يُحمّل الملف كاملاً في الـ heap في أي مرحلة.
+ */
+public final class WoffDecoder {
+
+    private static final String TAG = "WoffDecoder";
+
+    private static final int TAG_GLYF = 0x676C7966;
+    private static final int TAG_LOCA = 0x6C6F6361;
+    private static final int TAG_HMTX = 0x686D7478;
+    private static final int TAG_HHEA = 0x68686561;
+    private static final int TAG_HEAD = 0x68656164;
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final int WOFF_HEADER_SIZE = 44;
+    private static final int WOFF_TABLE_ENTRY_SIZE = 20;
+    private static final long MAX_TABLE_LENGTH = 1L << 30;
+    private static final long CHECKSUM_MAGIC = 0xB1B0AFBAL;
+
+    // جدول الوسوم المعروفة في WOFF2 (الفهرس 63 يعني وسماً صريحاً)
+    private static final int[] KNOWN_TAGS = tags(
+            "cmap", "head", "hhea", "hmtx", "maxp", "name", "OS/2", "post", "cvt ", "fpgm",
+            "glyf", "loca", "prep", "CFF ", "VORG", "EBDT", "EBLC", "gasp", "hdmx", "kern",
+            "LTSH", "PCLT", "VDMX", "vhea", "vmtx", "BASE", "GDEF", "GPOS", "GSUB", "EBSC",
+            "JSTF", "MATH", "CBDT", "CBLC", "COLR", "CPAL", "SVG ", "sbix", "acnt", "avar",
+            "bdat", "bloc", "bsln", "cvar", "fdsc", "feat", "fmtx", "fvar", "gvar", "hsty",
+            "just", "lcar", "mort", "morx", "opbd", "prop", "trak", "Zapf", "Silf", "Glat",
+            "Gloc", "Feat", "Sill");
+
+    // أعلام نقاط glyf
+    private static final int GLYF_ON_CURVE = 0x01;
+    private static final int GLYF_X_SHORT = 0x02;
+    private static final int GLYF_Y_SHORT = 0x04;
+    private static final int GLYF_REPEAT = 0x08;
+    private static final int GLYF_THIS_X_IS_SAME = 0x10;
+    private static final int GLYF_THIS_Y_IS_SAME = 0x20;
+    private static final int GLYF_OVERLAP_SIMPLE = 0x40;
+
+    // أعلام المكونات في الحروف المركبة
+    private static final int ARG_1_AND_2_ARE_WORDS = 0x0001;
+    private static final int WE_HAVE_A_SCALE = 0x0008;
+    private static final int MORE_COMPONENTS = 0x0020;
+    private static final int WE_HAVE_AN_X_AND_Y_SCALE = 0x0040;
+    private static final int WE_HAVE_A_TWO_BY_TWO = 0x0080;
+    private static final int WE_HAVE_INSTRUCTIONS = 0x0100;
+
+    private WoffDecoder() {
+    }
+
+    /**
+     * فك خط ويب من تيار يبدأ بالتوقيع ('wOFF' أو 'wOF2') إلى outFile.
+     * tempDir يُستخدم لملف مؤقت أثناء إعادة بناء جداول WOFF2 المحوّلة.
+     */
+    public static void decode(InputStream in, File outFile, File tempDir) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, COPY_BUFFER_SIZE));
+        int signature = data.readInt();
+        try {
+            if (signature == FontFormat.SIGNATURE_WOFF) {
+                decodeWoff(data, outFile);
+            } else if (signature == FontFormat.SIGNATURE_WOFF2) {
+                decodeWoff2(data, outFile, tempDir);
+            } else {
+                throw new IOException("Not a WOFF/WOFF2 stream");
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Malformed web font data", e);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // WOFF 1.0
+    // ------------------------------------------------------------------------
+
+    private static final class WoffTable {
+        int tag;
+        long offset;
+        long compLength;
+        long origLength;
+        int checksum;
+        long outOffset;
+    }
+
+    private static void decodeWoff(DataInputStream in, File outFile) throws IOException {
+        int flavor = in.readInt();
+        long length = u32(in.readInt());
+        int numTables = in.readUnsignedShort();
+        in.readUnsignedShort();                 // reserved
+        in.readInt();                           // totalSfntSize
+        in.readInt();                           // majorVersion / minorVersion
+        skipFully(in, 20);                      // meta/private blocks (لا حاجة لها في sfnt)
+
+        if (numTables == 0) throw new IOException("WOFF without tables");
+
+        WoffTable[] tables = new WoffTable[numTables];
+        for (int i = 0; i < numTables; i++) {
+            WoffTable t = new WoffTable();
+            t.tag = in.readInt();
+            t.offset = u32(in.readInt());
+            t.compLength = u32(in.readInt());
+            t.origLength = u32(in.readInt());
+            t.checksum = in.readInt();
+            if (t.compLength > t.origLength || t.origLength > MAX_TABLE_LENGTH
+                    || t.offset + t.compLength > length) {
+                throw new IOException("Invalid WOFF table entry " + tagToString(t.tag));
+            }
+            tables[i] = t;
+        }
+
+        // الجداول تُكتب بترتيب ورودها في الملف حتى تبقى القراءة والكتابة متسلسلتين
+        WoffTable[] byOffset = tables.clone();
+        Arrays.sort(byOffset, (a, b) -> Long.compare(a.offset, b.offset));
+        long outPos = 12L + 16L * numTables;
+        for (WoffTable t : byOffset) {
+            t.outOffset = outPos;
+            outPos += align4(t.origLength);
+        }
+
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outFile), COPY_BUFFER_SIZE)) {
+            ByteBuffer header = sfntHeader(flavor, numTables);
+            for (WoffTable t : tables) {
+                header.putInt(t.tag).putInt(t.checksum).putInt((int) t.outOffset).putInt((int) t.origLength);
+            }
+            out.write(header.array(), 0, header.position());
+
+            byte[] buf = new byte[COPY_BUFFER_SIZE];
+            long inPos = WOFF_HEADER_SIZE + (long) WOFF_TABLE_ENTRY_SIZE * numTables;
+            for (WoffTable t : byOffset) {
+                if (t.offset < inPos) throw new IOException("Overlapping WOFF tables");
+                skipFully(in, t.offset - inPos);
+
+                LimitedInputStream limited = new LimitedInputStream(in, t.compLength);
+                long written;
+                if (t.compLength < t.origLength) {
+                    Inflater inflater = new Inflater();
+                    try {
+                        written = copy(new InflaterInputStream(limited, inflater, COPY_BUFFER_SIZE), out, buf, t.origLength);
+                    } finally {
+                        inflater.end();
+                    }
+                } else {
+                    written = copy(limited, out, buf, t.origLength);
+                }
+                if (written != t.origLength) {
+                    throw new IOException("Table " + tagToString(t.tag) + " decoded to " + written
+                            + " bytes, expected " + t.origLength);
+                }
+                limited.drain();
+                inPos = t.offset + t.compLength;
+                writePadding(out, t.origLength);
+            }
+        }
+
+        // ترتيب الجداول في الملف الناتج يختلف عن الأصل، لذا يُعاد حساب checkSumAdjustment
+        for (WoffTable t : tables) {
+            if (t.tag == TAG_HEAD && t.origLength >= 12) {
+                fixChecksumAdjustment(outFile, t.outOffset);
+            }
+        }
+    }
+
+    private static void fixChecksumAdjustment(File file, long headOffset) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            map.putInt((int) headOffset + 8, 0);
+            long sum = checksum(map, 0, channel.size());
+            map.putInt((int) headOffset + 8, (int) ((CHECKSUM_MAGIC - sum) & 0xFFFFFFFFL));
+            map.force();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // WOFF 2.0
+    // ------------------------------------------------------------------------
+
+    private static final class Woff2Table {
+        int tag;
+        long origLength;
+        long transformLength;
+        boolean transformed;
+        long spillOffset;
+        long outOffset = -1;
+        long outLength;
+        int checksum;
+    }
+
+    private static final class Woff2Font {
+        int flavor;
+        int[] tableIndices;
+    }
+
+    /** نتيجة إعادة بناء glyf: يحتاجها hmtx المحوّل. */
+    private static final class GlyfResult {
+        int numGlyphs;
+        short[] xMins;
+    }
+
+    private static void decodeWoff2(DataInputStream in, File outFile, File tempDir) throws IOException {
+        int flavor = in.readInt();
+        in.readInt();                           // length
+        int numTables = in.readUnsignedShort();
+        in.readUnsignedShort();                 // reserved
+        in.readInt();                           // totalSfntSize (تقديري فقط)
+        long totalCompressedSize = u32(in.readInt());
+        in.readInt();                           // majorVersion / minorVersion
+        skipFully(in, 20);                      // meta/private blocks
+
+        if (numTables == 0) throw new IOException("WOFF2 without tables");
+
+        Woff2Table[] tables = new Woff2Table[numTables];
+        for (int i = 0; i < numTables; i++) {
+            Woff2Table t = new Woff2Table();
+            int flags = in.readUnsignedByte();
+            int tagIndex = flags & 0x3F;
+            t.tag = tagIndex == 63 ? in.readInt() : KNOWN_TAGS[tagIndex];
+            int version = (flags >> 6) & 0x03;
+            t.origLength = readBase128(in);
+            // لـ glyf/loca الإصدار 0 يعني تحويلاً، و3 يعني بدون تحويل؛ لباقي الجداول العكس
+            if (t.tag == TAG_GLYF || t.tag == TAG_LOCA) {
+                t.transformed = version == 0;
+            } else {
+                t.transformed = version != 0;
+            }
+            t.transformLength = t.transformed ? readBase128(in) : t.origLength;
+            if (t.transformed && t.tag != TAG_GLYF && t.tag != TAG_LOCA
+                    && !(t.tag == TAG_HMTX && version == 1)) {
+                throw new IOException("Unsupported WOFF2 transform for " + tagToString(t.tag));
+            }
+            if (t.origLength > MAX_TABLE_LENGTH || t.transformLength > MAX_TABLE_LENGTH) {
+                throw new IOException("WOFF2 table too large: " + tagToString(t.tag));
+            }
+            tables[i] = t;
+        }
+
+        boolean collection = flavor == SfntParser.TAG_TTCF;
+        Woff2Font[] fonts;
+        if (collection) {
+            in.readInt();                       // ttc version
+            int numFonts = read255UShort(in);
+            if (numFonts == 0) throw new IOException("WOFF2 collection without fonts");
+            fonts = new Woff2Font[numFonts];
+            for (int f = 0; f < numFonts; f++) {
+                Woff2Font font = new Woff2Font();
+                int count = read255UShort(in);
+                font.flavor = in.readInt();
+                font.tableIndices = new int[count];
+                for (int k = 0; k < count; k++) {
+                    int idx = read255UShort(in);
+                    if (idx >= numTables) throw new IOException("Bad WOFF2 collection table index");
+                    font.tableIndices[k] = idx;
+                }
+                fonts[f] = font;
+            }
+        } else {
+            Woff2Font font = new Woff2Font();
+            font.flavor = flavor;
+            font.tableIndices = new int[numTables];
+            for (int k = 0; k < numTables; k++) font.tableIndices[k] = k;
+            fonts = new Woff2Font[]{font};
+        }
+
+        long headerSize = collection ? 12L + 4L * fonts.length : 0;
+        for (Woff2Font font : fonts) {
+            headerSize += 12L + 16L * font.tableIndices.length;
+        }
+
+        File spill = File.createTempFile("woff2_", ".tmp", tempDir);
+        try (RandomAccessFile outRaf = new RandomAccessFile(outFile, "rw");
+             RandomAccessFile spillRaf = new RandomAccessFile(spill, "rw")) {
+            outRaf.setLength(0);
+            FileChannel outChannel = outRaf.getChannel();
+            FileChannel spillChannel = spillRaf.getChannel();
+            ChannelWriter out = new ChannelWriter(outChannel, headerSize);
+            ChannelWriter spillOut = new ChannelWriter(spillChannel, 0);
+
+            // تمريرة واحدة على تيار Brotli بترتيب الجداول في الدليل
+            InputStream brotli = new BrotliInputStream(new LimitedInputStream(in, totalCompressedSize));
+            byte[] buf = new byte[COPY_BUFFER_SIZE];
+            for (Woff2Table t : tables) {
+                if (t.transformed) {
+                    t.spillOffset = spillOut.position();
+                    spillOut.copyFrom(brotli, t.transformLength, buf);
+                } else {
+                    t.outOffset = out.position();
+                    t.outLength = t.origLength;
+                    out.copyFrom(brotli, t.origLength, buf);
+                    out.pad4();
+                }
+            }
+            spillOut.flush();
+
+            if (spillChannel.size() > 0) {
+                MappedByteBuffer spillMap = spillChannel.map(FileChannel.MapMode.READ_ONLY, 0, spillChannel.size());
+                rebuildTransformedTables(tables, fonts, spillMap, out, outChannel);
+            }
+            out.flush();
+
+            for (Woff2Table t : tables) {
+                if (t.outOffset < 0) {
+                    throw new IOException("WOFF2 table not reconstructed: " + tagToString(t.tag));
+                }
+            }
+            writeDirectories(outChannel, tables, fonts, collection);
+        } finally {
+            if (!spill.delete()) {
+                Log.w(TAG, "Failed to delete spill file " + spill);
+            }
+        }
+    }
+
+    /**
+     * إعادة بناء glyf/loca ثم hmtx لكل خط في الملف، وإلحاقها بنهاية الملف الناتج.
+     */
+    private static void rebuildTransformedTables(Woff2Table[] tables, Woff2Font[] fonts, ByteBuffer spill,
+                                                 ChannelWriter out, FileChannel outChannel) throws IOException {
+        GlyfResult[] glyfResults = new GlyfResult[tables.length];
+
+        for (Woff2Font font : fonts) {
+            int glyfIdx = findTable(tables, font, TAG_GLYF);
+            int locaIdx = findTable(tables, font, TAG_LOCA);
+            if (glyfIdx < 0 || !tables[glyfIdx].transformed || glyfResults[glyfIdx] != null) continue;
+            if (locaIdx < 0 || !tables[locaIdx].transformed) {
+                throw new IOException("Transformed glyf without transformed loca");
+            }
+            Woff2Table glyf = tables[glyfIdx];
+            glyfResults[glyfIdx] = rebuildGlyf(slice(spill, glyf.spillOffset, glyf.transformLength),
+                    glyf, tables[locaIdx], out);
+        }
+
+        for (Woff2Font font : fonts) {
+            int hmtxIdx = findTable(tables, font, TAG_HMTX);
+            if (hmtxIdx < 0 || !tables[hmtxIdx].transformed || tables[hmtxIdx].outOffset >= 0) continue;
+            int glyfIdx = findTable(tables, font, TAG_GLYF);
+            int hheaIdx = findTable(tables, font, TAG_HHEA);
+            if (glyfIdx < 0 || glyfResults[glyfIdx] == null || hheaIdx < 0 || tables[hheaIdx].transformed) {
+                throw new IOException("Transformed hmtx requires transformed glyf and hhea");
+            }
+            out.flush();
+            ByteBuffer hhea = ByteBuffer.allocate(2);
+            outChannel.read(hhea, tables[hheaIdx].outOffset + 34);
+            int numHMetrics = hhea.getShort(0) & 0xFFFF;
+
+            Woff2Table hmtx = tables[hmtxIdx];
+            rebuildHmtx(slice(spill, hmtx.spillOffset, hmtx.transformLength), hmtx,
+                    glyfResults[glyfIdx], numHMetrics, out);
+        }
+    }
+
+    private static GlyfResult rebuildGlyf(ByteBuffer data, Woff2Table glyf, Woff2Table loca,
+                                          ChannelWriter out) throws IOException {
+        data.getShort();                            // reserved
+        int optionFlags = data.getShort() & 0xFFFF;
+        int numGlyphs = data.getShort() & 0xFFFF;
+        int indexFormat = data.getShort() & 0xFFFF;
+        long[] sizes = new long[7];
+        for (int i = 0; i < sizes.length; i++) sizes[i] = u32(data.getInt());
+
+        long pos = data.position();
+        ByteBuffer nContourStream = slice(data, pos, sizes[0]); pos += sizes[0];
+        ByteBuffer nPointsStream = slice(data, pos, sizes[1]); pos += sizes[1];
+        ByteBuffer flagStream = slice(data, pos, sizes[2]); pos += sizes[2];
+        ByteBuffer glyphStream = slice(data, pos, sizes[3]); pos += sizes[3];
+        ByteBuffer compositeStream = slice(data, pos, sizes[4]); pos += sizes[4];
+        ByteBuffer bboxStream = slice(data, pos, sizes[5]); pos += sizes[5];
+        ByteBuffer instructionStream = slice(data, pos, sizes[6]); pos += sizes[6];
+
+        int bitmapLength = ((numGlyphs + 31) >> 5) << 2;
+        ByteBuffer bboxBitmap = slice(bboxStream, 0, bitmapLength);
+        bboxStream.position(bitmapLength);
+
+        ByteBuffer overlapBitmap = null;
+        if ((optionFlags & 0x0001) != 0) {
+            overlapBitmap = slice(data, pos, (numGlyphs + 7) >> 3);
+        }
+
+        GlyfResult result = new GlyfResult();
+        result.numGlyphs = numGlyphs;
+        result.xMins = new short[numGlyphs];
+        long[] locaOffsets = new long[numGlyphs + 1];
+
+        glyf.outOffset = out.position();
+        GlyphWriter glyph = new GlyphWriter();
+        for (int i = 0; i < numGlyphs; i++) {
+            locaOffsets[i] = out.position() - glyf.outOffset;
+            glyph.reset();
+            int nContours = nContourStream.getShort();
+            boolean hasBbox = bitSet(bboxBitmap, i);
+
+            if (nContours == 0) {
+                if (hasBbox) throw new IOException("Empty glyph with bbox: " + i);
+                continue;
+            } else if (nContours > 0) {
+                buildSimpleGlyph(glyph, nContours, nPointsStream, flagStream, glyphStream,
+                        instructionStream, hasBbox ? bboxStream : null,
+                        overlapBitmap != null && bitSet(overlapBitmap, i));
+            } else if (nContours == -1) {
+                if (!hasBbox) throw new IOException("Composite glyph without bbox: " + i);
+                buildCompositeGlyph(glyph, compositeStream, glyphStream, instructionStream, bboxStream);
+            } else {
+                throw new IOException("Invalid contour count " + nContours);
+            }
+
+            result.xMins[i] = glyph.xMin();
+            out.write(glyph.bytes, 0, glyph.length);
+            out.pad4();
+        }
+        locaOffsets[numGlyphs] = out.position() - glyf.outOffset;
+        glyf.outLength = locaOffsets[numGlyphs];
+
+        loca.outOffset = out.position();
+        for (long offset : locaOffsets) {
+            if (indexFormat == 0) {
+                out.writeShort((int) (offset >> 1));
+            } else {
+                out.writeInt((int) offset);
+            }
+        }
+        loca.outLength = out.position() - loca.outOffset;
+        out.pad4();
+        return result;
+    }
+
+    private static void buildSimpleGlyph(GlyphWriter glyph, int nContours, ByteBuffer nPointsStream,
+                                         ByteBuffer flagStream, ByteBuffer glyphStream,
+                                         ByteBuffer instructionStream, ByteBuffer bboxStream,
+                                         boolean overlap) throws IOException {
+        int[] endPts = new int[nContours];
+        int totalPoints = 0;
+        for (int c = 0; c < nContours; c++) {
+            totalPoints += read255UShort(nPointsStream);
+            endPts[c] = totalPoints - 1;
+        }
+        if (totalPoints > 0xFFFF) throw new IOException("Too many points in glyph");
+
+        int[] xs = new int[totalPoints];
+        int[] ys = new int[totalPoints];
+        boolean[] onCurve = new boolean[totalPoints];
+        int x = 0;
+        int y = 0;
+        for (int p = 0; p < totalPoints; p++) {
+            int flag = flagStream.get() & 0xFF;
+            onCurve[p] = (flag >> 7) == 0;
+            flag &= 0x7F;
+            int dx;
+            int dy;
+            if (flag < 10) {
+                dx = 0;
+                dy = withSign(flag, ((flag & 14) << 7) + (glyphStream.get() & 0xFF));
+            } else if (flag < 20) {
+                dx = withSign(flag, (((flag - 10) & 14) << 7) + (glyphStream.get() & 0xFF));
+                dy = 0;
+            } else if (flag < 84) {
+                int b0 = flag - 20;
+                int b1 = glyphStream.get() & 0xFF;
+                dx = withSign(flag, 1 + (b0 & 0x30) + (b1 >> 4));
+                dy = withSign(flag >> 1, 1 + ((b0 & 0x0C) << 2) + (b1 & 0x0F));
+            } else if (flag < 120) {
+                int b0 = flag - 84;
+                dx = withSign(flag, 1 + ((b0 / 12) << 8) + (glyphStream.get() & 0xFF));
+                dy = withSign(flag >> 1, 1 + (((b0 % 12) >> 2) << 8) + (glyphStream.get() & 0xFF));
+            } else if (flag < 124) {
+                int b0 = glyphStream.get() & 0xFF;
+                int b1 = glyphStream.get() & 0xFF;
+                int b2 = glyphStream.get() & 0xFF;
+                dx = withSign(flag, (b0 << 4) + (b1 >> 4));
+                dy = withSign(flag >> 1, ((b1 & 0x0F) << 8) + b2);
+            } else {
+                int b0 = glyphStream.get() & 0xFF;
+                int b1 = glyphStream.get() & 0xFF;
+                int b2 = glyphStream.get() & 0xFF;
+                int b3 = glyphStream.get() & 0xFF;
+                dx = withSign(flag, (b0 << 8) + b1);
+                dy = withSign(flag >> 1, (b2 << 8) + b3);
+            }
+            x += dx;
+            y += dy;
+            xs[p] = x;
+            ys[p] = y;
+        }
+
+        int instructionLength = read255UShort(glyphStream);
+
+        int xMin = 0, yMin = 0, xMax = 0, yMax = 0;
+        if (bboxStream != null) {
+            xMin = bboxStream.getShort();
+            yMin = bboxStream.getShort();
+            xMax = bboxStream.getShort();
+            yMax = bboxStream.getShort();
+        } else if (totalPoints > 0) {
+            xMin = xMax = xs[0];
+            yMin = yMax = ys[0];
+            for (int p = 1; p < totalPoints; p++) {
+                xMin = Math.min(xMin, xs[p]);
+                xMax = Math.max(xMax, xs[p]);
+                yMin = Math.min(yMin, ys[p]);
+                yMax = Math.max(yMax, ys[p]);
+            }
+        }
+
+        glyph.writeShort(nContours);
+        glyph.writeShort(xMin);
+        glyph.writeShort(yMin);
+        glyph.writeShort(xMax);
+        glyph.writeShort(yMax);
+        for (int end : endPts) glyph.writeShort(end);
+        glyph.writeShort(instructionLength);
+        glyph.copyFrom(instructionStream, instructionLength);
+        glyph.writePoints(xs, ys, onCurve, totalPoints, overlap);
+    }
+
+    private static void buildCompositeGlyph(GlyphWriter glyph, ByteBuffer compositeStream,
+                                            ByteBuffer glyphStream, ByteBuffer instructionStream,
+                                            ByteBuffer bboxStream) throws IOException {
+        glyph.writeShort(-1);
+        for (int k = 0; k < 4; k++) glyph.writeShort(bboxStream.getShort());
+
+        int start = compositeStream.position();
+        boolean haveInstructions = false;
+        int flags;
+        do {
+            flags = compositeStream.getShort() & 0xFFFF;
+            int skip = 2 + ((flags & ARG_1_AND_2_ARE_WORDS) != 0 ? 4 : 2);
+            if ((flags & WE_HAVE_A_SCALE) != 0) {
+                skip += 2;
+            } else if ((flags & WE_HAVE_AN_X_AND_Y_SCALE) != 0) {
+                skip += 4;
+            } else if ((flags & WE_HAVE_A_TWO_BY_TWO) != 0) {
+                skip += 8;
+            }
+            if ((flags & WE_HAVE_INSTRUCTIONS) != 0) haveInstructions = true;
+            compositeStream.position(compositeStream.position() + skip);
+        } while ((flags & MORE_COMPONENTS) != 0);
+
+        int end = compositeStream.position();
+        compositeStream.position(start);
+        glyph.copyFrom(compositeStream, end - start);
+
+        if (haveInstructions) {
+            int instructionLength = read255UShort(glyphStream);
+            glyph.writeShort(instructionLength);
+            glyph.copyFrom(instructionStream, instructionLength);
+        }
+    }
+
+    private static void rebuildHmtx(ByteBuffer data, Woff2Table hmtx, GlyfResult glyf,
+                                    int numHMetrics, ChannelWriter out) throws IOException {
+        int flags = data.get() & 0xFF;
+        int numGlyphs = glyf.numGlyphs;
+        if (numHMetrics < 1 || numHMetrics > numGlyphs) {
+            throw new IOException("Invalid numberOfHMetrics " + numHMetrics);
+        }
+
+        int[] advances = new int[numHMetrics];
+        for (int i = 0; i < numHMetrics; i++) advances[i] = data.getShort() & 0xFFFF;
+
+        // عند غياب مصفوفة lsb تُؤخذ القيم من xMin لكل حرف في glyf المعاد بناؤه
+        short[] lsbs = new short[numGlyphs];
+        boolean proportionalAbsent = (flags & 0x01) != 0;
+        boolean monospaceAbsent = (flags & 0x02) != 0;
+        for (int i = 0; i < numHMetrics; i++) {
+            lsbs[i] = proportionalAbsent ? glyf.xMins[i] : data.getShort();
+        }
+        for (int i = numHMetrics; i < numGlyphs; i++) {
+            lsbs[i] = monospaceAbsent ? glyf.xMins[i] : data.getShort();
+        }
+
+        hmtx.outOffset = out.position();
+        for (int i = 0; i < numGlyphs; i++) {
+            if (i < numHMetrics) out.writeShort(advances[i]);
+            out.writeShort(lsbs[i]);
+        }
+        hmtx.outLength = out.position() - hmtx.outOffset;
+        out.pad4();
+    }
+
+    /**
+     * كتابة ترويسة TTC (إن وجدت) وجداول الجداول، ثم حساب checksums وتصحيح head.checkSumAdjustment.
+     */
+    private static void writeDirectories(FileChannel channel, Woff2Table[] tables, Woff2Font[] fonts,
+                                         boolean collection) throws IOException {
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        map.order(ByteOrder.BIG_ENDIAN);
+
+        for (Woff2Table t : tables) {
+            if (t.tag == TAG_HEAD && t.outLength >= 12) {
+                map.putInt((int) t.outOffset + 8, 0);
+            }
+        }
+        for (Woff2Table t : tables) {
+            t.checksum = (int) checksum(map, t.outOffset, t.outLength);
+        }
+
+        int pos = 0;
+        if (collection) {
+            map.putInt(0, SfntParser.TAG_TTCF);
+            map.putInt(4, 0x00010000);
+            map.putInt(8, fonts.length);
+            pos = 12 + 4 * fonts.length;
+        }
+
+        List<Integer> headOffsets = new ArrayList<>();
+        List<Long> fontSums = new ArrayList<>();
+        for (int f = 0; f < fonts.length; f++) {
+            Woff2Font font = fonts[f];
+            if (collection) map.putInt(12 + 4 * f, pos);
+
+            Integer[] order = new Integer[font.tableIndices.length];
+            for (int k = 0; k < order.length; k++) order[k] = font.tableIndices[k];
+            // الدليل يجب أن يكون مرتباً بالوسم ليعمل البحث الثنائي
+            Arrays.sort(order, (a, b) -> Long.compare(u32(tables[a].tag), u32(tables[b].tag)));
+
+            ByteBuffer header = sfntHeader(font.flavor, order.length);
+            long sum = 0;
+            int headOffset = -1;
+            for (int idx : order) {
+                Woff2Table t = tables[idx];
+                header.putInt(t.tag).putInt(t.checksum).putInt((int) t.outOffset).putInt((int) t.outLength);
+                sum += u32(t.checksum);
+                if (t.tag == TAG_HEAD && t.outLength >= 12) headOffset = (int) t.outOffset;
+            }
+            header.flip();
+            int dirStart = pos;
+            map.position(pos);
+            map.put(header);
+            pos = map.position();
+            sum += checksum(map, dirStart, pos - dirStart);
+
+            headOffsets.add(headOffset);
+            fontSums.add(sum);
+        }
+
+        for (int f = 0; f < fonts.length; f++) {
+            int headOffset = headOffsets.get(f);
+            if (headOffset >= 0) {
+                map.putInt(headOffset + 8, (int) ((CHECKSUM_MAGIC - fontSums.get(f)) & 0xFFFFFFFFL));
+            }
+        }
+        map.force();
+    }
+
+    private static int findTable(Woff2Table[] tables, Woff2Font font, int tag) {
+        for (int idx : font.tableIndices) {
+            if (tables[idx].tag == tag) return idx;
+        }
+        return -1;
+    }
+
+    // ------------------------------------------------------------------------
+    // أدوات مشتركة
+    // ------------------------------------------------------------------------
+
+    /**
+     * مخزن مؤقت لحرف واحد قبل كتابته؛ يُعاد استخدامه لكل الحروف.
+     */
+    private static final class GlyphWriter {
+        byte[] bytes = new byte[1024];
+        int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        short xMin() {
+            return length >= 4 ? (short) (((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF)) : 0;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+
+        void writeByte(int v) {
+            ensure(1);
+            bytes[length++] = (byte) v;
+        }
+
+        void writeShort(int v) {
+            ensure(2);
+            bytes[length++] = (byte) (v >> 8);
+            bytes[length++] = (byte) v;
+        }
+
+        void copyFrom(ByteBuffer src, int count) {
+            ensure(count);
+            src.get(bytes, length, count);
+            length += count;
+        }
+
+        /**
+         * ترميز النقاط بصيغة glyf القياسية: أعلام مضغوطة بالتكرار ثم فروق x ثم فروق y.
+         */
+        void writePoints(int[] xs, int[] ys, boolean[] onCurve, int n, boolean overlap) {
+            int lastFlag = -1;
+            int repeatCount = 0;
+            int lastX = 0;
+            int lastY = 0;
+            for (int p = 0; p < n; p++) {
+                int flag = onCurve[p] ? GLYF_ON_CURVE : 0;
+                if (overlap && p == 0) flag |= GLYF_OVERLAP_SIMPLE;
+                int dx = xs[p] - lastX;
+                int dy = ys[p] - lastY;
+                if (dx == 0) {
+                    flag |= GLYF_THIS_X_IS_SAME;
+                } else if (dx > -256 && dx < 256) {
+                    flag |= GLYF_X_SHORT | (dx > 0 ? GLYF_THIS_X_IS_SAME : 0);
+                }
+                if (dy == 0) {
+                    flag |= GLYF_THIS_Y_IS_SAME;
+                } else if (dy > -256 && dy < 256) {
+                    flag |= GLYF_Y_SHORT | (dy > 0 ? GLYF_THIS_Y_IS_SAME : 0);
+                }
+
+                if (flag == lastFlag && repeatCount != 255) {
+                    bytes[length - 1] |= GLYF_REPEAT;
+                    repeatCount++;
+                } else {
+                    if (repeatCount != 0) writeByte(repeatCount);
+                    writeByte(flag);
+                    repeatCount = 0;
+                }
+                lastX = xs[p];
+                lastY = ys[p];
+                lastFlag = flag;
+            }
+            if (repeatCount != 0) writeByte(repeatCount);
+
+            writeDeltas(xs, n);
+            writeDeltas(ys, n);
+        }
+
+        private void writeDeltas(int[] values, int n) {
+            int last = 0;
+            for (int p = 0; p < n; p++) {
+                int d = values[p] - last;
+                if (d != 0) {
+                    if (d > -256 && d < 256) {
+                        writeByte(Math.abs(d));
+                    } else {
+                        writeShort(d);
+                    }
+                }
+                last = values[p];
+            }
+        }
+    }
+
+    /**
+     * كتابة متسلسلة إلى FileChannel عبر direct buffer بموضع مطلق.
+     */
+    private static final class ChannelWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+        private long flushedPosition;
+
+        ChannelWriter(FileChannel channel, long startPosition) {
+            this.channel = channel;
+            this.flushedPosition = startPosition;
+        }
+
+        long position() {
+            return flushedPosition + buffer.position();
+        }
+
+        void writeShort(int v) throws IOException {
+            if (buffer.remaining() < 2) flush();
+            buffer.putShort((short) v);
+        }
+
+        void writeInt(int v) throws IOException {
+            if (buffer.remaining() < 4) flush();
+            buffer.putInt(v);
+        }
+
+        void write(byte[] src, int off, int len) throws IOException {
+            while (len > 0) {
+                if (!buffer.hasRemaining()) flush();
+                int n = Math.min(len, buffer.remaining());
+                buffer.put(src, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        void pad4() throws IOException {
+            while ((position() & 3) != 0) {
+                if (!buffer.hasRemaining()) flush();
+                buffer.put((byte) 0);
+            }
+        }
+
+        void copyFrom(InputStream in, long count, byte[] tmp) throws IOException {
+            while (count > 0) {
+                int r = in.read(tmp, 0, (int) Math.min(tmp.length, count));
+                if (r < 0) throw new EOFException("Unexpected end of compressed data");
+                write(tmp, 0, r);
+                count -= r;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                flushedPosition += channel.write(buffer, flushedPosition);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * يقيّد القراءة بعدد بايتات محدد دون إغلاق التيار الأصلي.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = in.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) return -1;
+            int r = in.read(b, off, (int) Math.min(len, remaining));
+            if (r > 0) remaining -= r;
+            return r;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long s = in.skip(Math.min(n, remaining));
+            remaining -= s;
+            return s;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // التيار الأصلي يُغلق من المستدعي
+        }
+
+        void drain() throws IOException {
+            skipFully(in, remaining);
+            remaining = 0;
+        }
+    }
+
+    private static ByteBuffer sfntHeader(int flavor, int numTables) {
+        int entrySelector = 31 - Integer.numberOfLeadingZeros(numTables);
+        int searchRange = (1 << entrySelector) * 16;
+        ByteBuffer header = ByteBuffer.allocate(12 + 16 * numTables).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(flavor)
+                .putShort((short) numTables)
+                .putShort((short) searchRange)
+                .putShort((short) entrySelector)
+                .putShort((short) (numTables * 16 - searchRange));
+        return header;
+    }
+
+    private static long checksum(ByteBuffer map, long offset, long length) {
+        long sum = 0;
+        int end = (int) (offset + length);
+        int p = (int) offset;
+        for (; p + 4 <= end; p += 4) {
+            sum += map.getInt(p) & 0xFFFFFFFFL;
+        }
+        if (p < end) {
+            int last = 0;
+            for (int k = 0; k < 4; k++) {
+                last = (last << 8) | (p + k < end ? (map.get(p + k) & 0xFF) : 0);
+            }
+            sum += last & 0xFFFFFFFFL;
+        }
+        return sum & 0xFFFFFFFFL;
+    }
+
+    private static ByteBuffer slice(ByteBuffer src, long offset, long length) throws IOException {
+        if (offset < 0 || length < 0 || offset + length > src.limit()) {
+            throw new IOException("WOFF2 stream out of bounds");
+        }
+        ByteBuffer dup = src.duplicate();
+        dup.position((int) offset);
+        dup.limit((int) (offset + length));
+        return dup.slice().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    private static boolean bitSet(ByteBuffer bitmap, int index) {
+        return (bitmap.get(index >> 3) & (0x80 >> (index & 7))) != 0;
+    }
+
+    private static int withSign(int flag, int value) {
+        return (flag & 1) != 0 ? value : -value;
+    }
+
+    private static int read255UShort(ByteBuffer in) {
+        int code = in.get() & 0xFF;
+        if (code == 253) return in.getShort() & 0xFFFF;
+        if (code == 255) return (in.get() & 0xFF) + 253;
+        if (code == 254) return (in.get() & 0xFF) + 506;
+        return code;
+    }
+
+    private static int read255UShort(DataInputStream in) throws IOException {
+        int code = in.readUnsignedByte();
+        if (code == 253) return in.readUnsignedShort();
+        if (code == 255) return in.readUnsignedByte() + 253;
+        if (code == 254) return in.readUnsignedByte() + 506;
+        return code;
+    }
+
+    private static long readBase128(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int i = 0; i < 5; i++) {
+            int b = in.readUnsignedByte();
+            if (i == 0 && b == 0x80) throw new IOException("UIntBase128 with leading zeros");
+            if ((value & 0xFE000000L) != 0) throw new IOException("UIntBase128 overflow");
+            value = (value << 7) | (b & 0x7F);
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("UIntBase128 longer than 5 bytes");
+    }
+
+    private static long copy(InputStream in, OutputStream out, byte[] buf, long limit) throws IOException {
+        long total = 0;
+        int r;
+        while ((r = in.read(buf)) != -1) {
+            total += r;
+            if (total > limit) throw new IOException("Decoded table larger than declared");
+            out.write(buf, 0, r);
+        }
+        return total;
+    }
+
+    private static void writePadding(OutputStream out, long length) throws IOException {
+        for (long i = length; (i & 3) != 0; i++) out.write(0);
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException {
+        while (count > 0) {
+            long s = in.skip(count);
+            if (s <= 0) {
+                if (in.read() < 0) throw new EOFException();
+                s = 1;
+            }
+            count -= s;
+        }
+    }
+
+    private static long u32(int v) {
+        return v & 0xFFFFFFFFL;
+    }
+
+    private static long align4(long v) {
+        return (v + 3) & ~3L;
+    }
+
+    private static String tagToString(int tag) {
+        char[] c = {(char) ((tag >> 24) & 0xFF), (char) ((tag >> 16) & 0xFF),
+                (char) ((tag >> 8) & 0xFF), (char) (tag & 0xFF)};
+        return new String(c);
+    }
+
+    private static int[] tags(String... names) {
+        int[] out = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            String n = names[i];
+            out[i] = (n.charAt(0) << 24) | (n.charAt(1) << 16) | (n.charAt(2) << 8) | n.charAt(3);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.oneuiapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class CmapCoverageTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File writeFont(byte[] cmap) throws IOException {
+        byte[] font = new TestFonts.Sfnt(TestFonts.TRUETYPE)
+                .table("head", TestFonts.head())
+                .table("cmap", cmap)
+                .build();
+        return TestFonts.write(temp.getRoot(), "font.ttf", font);
+    }
+
+    private CmapCoverage parse(byte[] cmap) throws IOException {
+        return CmapCoverage.parse(SfntParser.open(writeFont(cmap)), 0);
+    }
+
+    @Test
+    public void format4SegmentsWithDelta() throws IOException {
+        CmapCoverage coverage = parse(TestFonts.cmap(new Object[]{3, 1,
+                TestFonts.cmapFormat4(new int[][]{{0x41, 0x5A, 1}, {0x0627, 0x064A, 100}})}));
+
+        assertTrue(coverage.contains('A'));
+        assertTrue(coverage.contains('Z'));
+        assertFalse(coverage.contains('a'));
+        assertTrue(coverage.contains(0x0628));
+        // مقطع 0xFFFF الختامي لا يُحسب
+        assertFalse(coverage.contains(0xFFFF));
+        assertEquals(2, coverage.getRangeCount());
+        assertEquals(26 + 36, coverage.getCodepointCount());
+    }
+
+    @Test
+    public void format4ExcludesCodepointMappedToGlyphZero() throws IOException {
+        // (0x50 + delta) mod 65536 == 0 → الحرف P يُربط بـ .notdef
+        CmapCoverage coverage = parse(TestFonts.cmap(new Object[]{3, 1,
+                TestFonts.cmapFormat4(new int[][]{{0x41, 0x5A, 0x10000 - 0x50}})}));
+
+        assertTrue(coverage.contains('O'));
+        assertFalse(coverage.contains('P'));
+        assertTrue(coverage.contains('Q'));
+        assertEquals(25, coverage.getCodepointCount());
+        assertEquals('P', coverage.firstMissing("OPQ"));
+    }
+
+    @Test
+    public void format12CoversSupplementaryPlanes() throws IOException {
+        CmapCoverage coverage = parse(TestFonts.cmap(new Object[]{3, 10,
+                TestFonts.cmapFormat12(new long[][]{{0x20, 0x7E, 1}, {0x1F600, 0x1F64F, 200}})}));
+
+        assertTrue(coverage.contains(0x1F600));
+        assertTrue(coverage.coversText("Hi 😀"));
+        assertFalse(coverage.contains(0x1F650));
+        assertEquals(0x50, coverage.countCovered(0x1F000, 0x1FFFF));
+        assertEquals(0x1F600, coverage.codepointAt(0x5F));
+    }
+
+    @Test
+    public void format12GroupStartingAtGlyphZeroSkipsFirstCodepoint() throws IOException {
+        CmapCoverage coverage = parse(TestFonts.cmap(new Object[]{3, 10,
+                TestFonts.cmapFormat12(new long[][]{{0x20, 0x7E, 0}})}));
+
+        assertFalse(coverage.contains(0x20));
+        assertTrue(coverage.contains(0x21));
+        assertEquals(0x7E - 0x20, coverage.getCodepointCount());
+    }
+
+    @Test
+    public void unionOfSubtablesIsMerged() throws IOException {
+        // BMP من الصيغة 4 ومجموعة متداخلة ومجاورة من الصيغة 12
+        CmapCoverage coverage = parse(TestFonts.cmap(
+                new Object[]{3, 1, TestFonts.cmapFormat4(new int[][]{{0x41, 0x5A, 1}})},
+                new Object[]{0, 4, TestFonts.cmapFormat12(new long[][]{{0x50, 0x60, 1}})}));
+
+        assertEquals(1, coverage.getRangeCount());
+        assertEquals(0x60 - 0x41 + 1, coverage.getCodepointCount());
+        assertEquals(0x41, coverage.codepointAt(0));
+        assertEquals(0x60, coverage.codepointAt(coverage.getCodepointCount() - 1));
+    }
+
+    @Test
+    public void recordsSharingSubtableAreReadOnce() throws IOException {
+        byte[] cmap = TestFonts.cmap(
+                new Object[]{0, 3, TestFonts.cmapFormat4(new int[][]{{0x41, 0x5A, 1}})},
+                new Object[]{3, 1, TestFonts.cmapFormat4(new int[][]{{0x61, 0x7A, 1}})});
+        // السجل الثاني يشير إلى الجدول الفرعي الأول
+        ByteBuffer b = ByteBuffer.wrap(cmap);
+        b.putInt(4 + 8 + 4, b.getInt(4 + 4));
+        CmapCoverage coverage = parse(cmap);
+
+        assertTrue(coverage.contains('A'));
+        assertFalse(coverage.contains('a'));
+        assertEquals(26, coverage.getCodepointCount());
+    }
+
+    @Test
+    public void symbolEncodingIsIgnored() throws IOException {
+        CmapCoverage coverage = parse(TestFonts.cmap(new Object[]{3, 0,
+                TestFonts.cmapFormat4(new int[][]{{0xF020, 0xF0FF, 1}})}));
+
+        assertEquals(0, coverage.getCodepointCount());
+        assertFalse(coverage.contains(0xF041));
+    }
+
+    @Test
+    public void sidecarIsWrittenAndReused() throws IOException {
+        File font = writeFont(TestFonts.cmap(new Object[]{3, 1,
+                TestFonts.cmapFormat4(new int[][]{{0x41, 0x5A, 1}})}));
+
+        CmapCoverage first = CmapCoverage.forFont(font, 0);
+        File sidecar = CmapCoverage.sidecarFile(font, 0);
+        assertTrue(sidecar.isFile());
+        CmapCoverage second = CmapCoverage.forFont(font, 0);
+        assertEquals(first.getCodepointCount(), second.getCodepointCount());
+        assertEquals(first.getRangeCount(), second.getRangeCount());
+
+        CmapCoverage.deleteSidecars(font);
+        assertFalse(sidecar.exists());
+    }
+
+    @Test
+    public void sidecarNameMapsBackToFont() {
+        assertEquals("abc.ttf", CmapCoverage.fontNameOfSidecar("abc.ttf.cmap"));
+        assertEquals("abc.ttc", CmapCoverage.fontNameOfSidecar("abc.ttc.2.cmap"));
+        assertEquals("abc.ttc.cmap", CmapCoverage.sidecarFile(new File("abc.ttc"), 0).getName());
+        assertEquals("abc.ttc.2.cmap", CmapCoverage.sidecarFile(new File("abc.ttc"), 2).getName());
+        assertNull(CmapCoverage.fontNameOfSidecar("abc.ttf"));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.oneuiapp;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+public class FontCoverageQueryTest {
+
+    @Test
+    public void codepointsAreSortedAndDistinct() {
+        assertArrayEquals(new int[]{'a', 'b', 'c'}, FontCoverageQuery.distinctCodepoints("cabbac"));
+    }
+
+    @Test
+    public void whitespaceAndControlCharactersAreSkipped() {
+        assertArrayEquals(new int[]{'A', 'B'}, FontCoverageQuery.distinctCodepoints(" A\tB\n\u0000 "));
+        assertArrayEquals(new int[0], FontCoverageQuery.distinctCodepoints(" \r\n"));
+        assertArrayEquals(new int[0], FontCoverageQuery.distinctCodepoints(""));
+    }
+
+    @Test
+    public void surrogatePairsAreSingleCodepoints() {
+        // 😀 مرتين ومحرف عربي: الأزواج البديلة لا تُعد محرفين
+        assertArrayEquals(new int[]{0x0628, 0x1F600},
+                FontCoverageQuery.distinctCodepoints("😀ب😀"));
+    }
+}
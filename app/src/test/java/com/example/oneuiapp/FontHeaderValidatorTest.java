@@ -0,0 +1,131 @@
+package com.example.oneuiapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class FontHeaderValidatorTest {
+
+    private static FontHeaderValidator.Verdict validate(byte[] file) throws IOException {
+        return validate(file, file.length);
+    }
+
+    private static FontHeaderValidator.Verdict validate(byte[] file, long size) throws IOException {
+        return FontHeaderValidator.validate(new ByteArrayInputStream(file), size);
+    }
+
+    private static TestFonts.Sfnt font(int version) {
+        return new TestFonts.Sfnt(version)
+                .table("head", TestFonts.head())
+                .table("name", TestFonts.name(TestFonts.windows(4, "Valid Regular")))
+                .table("cmap", TestFonts.cmap(new Object[]{3, 1, TestFonts.cmapFormat4(new int[][]{{0x41, 0x5A, 1}})}));
+    }
+
+    private static void assertValid(FontFormat format, FontHeaderValidator.Verdict verdict) {
+        assertTrue(verdict.getDetail(), verdict.isValid());
+        assertEquals(format, verdict.getFormat());
+        assertEquals(0, verdict.getErrorMessage());
+    }
+
+    private static void assertDamaged(String detail, FontHeaderValidator.Verdict verdict) {
+        assertFalse(verdict.isValid());
+        assertEquals(R.string.font_viewer_error_damaged_font, verdict.getErrorMessage());
+        assertTrue(verdict.getDetail(), verdict.getDetail().contains(detail));
+    }
+
+    @Test
+    public void acceptsSfntFlavors() throws IOException {
+        assertValid(FontFormat.TRUETYPE, validate(font(TestFonts.TRUETYPE).build()));
+        assertValid(FontFormat.OPENTYPE, validate(font(TestFonts.CFF).build()));
+        // خطوط Apple القديمة بالإصدار 'true'
+        assertValid(FontFormat.TRUETYPE, validate(font(TestFonts.APPLE_TRUETYPE).build()));
+    }
+
+    @Test
+    public void acceptsUnknownSize() throws IOException {
+        assertValid(FontFormat.TRUETYPE, validate(font(TestFonts.TRUETYPE).build(), -1));
+    }
+
+    @Test
+    public void acceptsCollection() throws IOException {
+        byte[] ttc = TestFonts.collection(font(TestFonts.TRUETYPE).build(), font(TestFonts.TRUETYPE).build());
+        assertValid(FontFormat.COLLECTION, validate(ttc));
+    }
+
+    @Test
+    public void acceptsWebFonts() throws IOException {
+        byte[] sfnt = font(TestFonts.TRUETYPE).build();
+        assertValid(FontFormat.WOFF, validate(TestFonts.woff(sfnt)));
+        assertValid(FontFormat.WOFF2, validate(TestFonts.woff2(sfnt)));
+    }
+
+    @Test
+    public void rejectsMissingCmap() throws IOException {
+        byte[] noCmap = new TestFonts.Sfnt(TestFonts.TRUETYPE).table("head", TestFonts.head()).build();
+        assertDamaged("Missing cmap or head", validate(noCmap));
+    }
+
+    @Test
+    public void rejectsBadVersionOfCollectionFace() throws IOException {
+        byte[] ttc = TestFonts.collection(font(TestFonts.TRUETYPE).build());
+        ByteBuffer b = ByteBuffer.wrap(ttc);
+        b.putInt(b.getInt(12), 0x12345678);
+        FontHeaderValidator.Verdict verdict = validate(ttc);
+
+        assertDamaged("Bad sfnt version", verdict);
+        assertEquals(FontFormat.COLLECTION, verdict.getFormat());
+    }
+
+    @Test
+    public void rejectsTableOutOfBounds() throws IOException {
+        byte[] sfnt = font(TestFonts.TRUETYPE).build();
+        // طول آخر جدول (name) يتجاوز نهاية الملف
+        ByteBuffer.wrap(sfnt).putInt(12 + 2 * 16 + 12, sfnt.length);
+        assertDamaged("Table 'name' out of bounds", validate(sfnt));
+    }
+
+    @Test
+    public void rejectsTruncatedDirectory() throws IOException {
+        byte[] sfnt = font(TestFonts.TRUETYPE).build();
+        assertDamaged("Directory past end of file", validate(Arrays.copyOf(sfnt, 40)));
+        assertDamaged("Truncated header", validate(Arrays.copyOf(sfnt, 40), -1));
+    }
+
+    @Test
+    public void rejectsWoffLengthMismatch() throws IOException {
+        byte[] woff = TestFonts.woff(font(TestFonts.TRUETYPE).build());
+        assertDamaged("Length", validate(woff, woff.length + 4));
+    }
+
+    @Test
+    public void rejectsWoff2WithoutCompressedData() throws IOException {
+        byte[] woff2 = TestFonts.woff2(font(TestFonts.TRUETYPE).build());
+        ByteBuffer.wrap(woff2).putInt(20, 0);
+        assertDamaged("Compressed size 0", validate(woff2));
+    }
+
+    @Test
+    public void rejectsEmptyAndUnknownFiles() throws IOException {
+        FontHeaderValidator.Verdict empty = validate(new byte[0]);
+        assertEquals(R.string.font_viewer_error_not_a_font, empty.getErrorMessage());
+        assertEquals("Empty file", empty.getDetail());
+
+        FontHeaderValidator.Verdict text = validate("hello, world".getBytes());
+        assertEquals(R.string.font_viewer_error_not_a_font, text.getErrorMessage());
+        assertEquals(FontFormat.UNKNOWN, text.getFormat());
+    }
+
+    @Test
+    public void reportsZipAsArchive() throws IOException {
+        FontHeaderValidator.Verdict verdict = validate(new byte[]{'P', 'K', 3, 4, 0, 0, 0, 0});
+        assertTrue(verdict.isArchive());
+        assertFalse(verdict.isValid());
+    }
+}
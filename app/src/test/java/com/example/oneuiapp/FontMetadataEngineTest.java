@@ -0,0 +1,59 @@
+package com.example.oneuiapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+public class FontMetadataEngineTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private FontMetadata parse(TestFonts.NameRecord... records) throws IOException {
+        byte[] font = new TestFonts.Sfnt(TestFonts.TRUETYPE)
+                .table("head", TestFonts.head())
+                .table("name", TestFonts.name(records))
+                .build();
+        return FontMetadataEngine.parse(SfntParser.open(TestFonts.write(temp.getRoot(), "font.ttf", font)), 0, "hash");
+    }
+
+    @Test
+    public void fullNameBeforePostScriptNameIsDisplayName() throws IOException {
+        FontMetadata meta = parse(TestFonts.windows(1, "Family"), TestFonts.windows(4, "Family Bold"),
+                TestFonts.windows(6, "Family-Bold"));
+
+        assertEquals("Family Bold", meta.getDisplayName());
+        assertEquals("Family-Bold", meta.getPostScriptName());
+    }
+
+    @Test
+    public void postScriptNameBeforeFullNameIsDisplayName() throws IOException {
+        // أول 4 أو 6 بترتيب السجلات، لا الأولوية لـ 4
+        FontMetadata meta = parse(TestFonts.windows(6, "Family-Bold"), TestFonts.windows(4, "Family Bold"));
+
+        assertEquals("Family-Bold", meta.getDisplayName());
+        assertEquals("Family Bold", meta.getFullName());
+    }
+
+    @Test
+    public void familyIsFallbackAndTypographicFamilyIsIgnored() throws IOException {
+        FontMetadata meta = parse(TestFonts.windows(16, "Typographic"), TestFonts.windows(1, "Family"),
+                TestFonts.windows(2, "Regular"));
+
+        assertEquals("Family", meta.getDisplayName());
+        assertEquals("Regular", meta.getSubFamily());
+    }
+
+    @Test
+    public void noNamesGiveUnknownFont() throws IOException {
+        FontMetadata meta = parse(TestFonts.windows(2, "Regular"));
+
+        assertEquals(FontMetadata.UNKNOWN_FONT, meta.getDisplayName());
+        assertNull(meta.getFamily());
+    }
+}
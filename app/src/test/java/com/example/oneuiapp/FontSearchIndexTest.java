@@ -0,0 +1,153 @@
+package com.example.oneuiapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class FontSearchIndexTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static FontLibrary.Entry entry(String hash, String label, String postScriptName) {
+        return new FontLibrary.Entry(0, hash, 0, "/fonts/" + hash + ".ttf", null, label, label, null, null,
+                postScriptName, null, null, 0, null, 0, 0, 0, 0, null, null, null);
+    }
+
+    private static FontLibrary.Entry entry(String hash, String label) {
+        return entry(hash, label, null);
+    }
+
+    private FontSearchIndex newIndex(long generation) {
+        return new FontSearchIndex(new File(temp.getRoot(), "font_search.idx"), () -> generation);
+    }
+
+    private static List<String> labels(List<FontSearchIndex.Hit> hits) {
+        List<String> out = new ArrayList<>();
+        for (FontSearchIndex.Hit h : hits) out.add(h.getLabel());
+        return out;
+    }
+
+    private FontSearchIndex loaded(FontLibrary.Entry... entries) {
+        FontSearchIndex index = newIndex(1);
+        index.load(Arrays.asList(entries));
+        return index;
+    }
+
+    @Test
+    public void ranksLabelPrefixThenWordStartThenSubstring() {
+        FontSearchIndex index = loaded(
+                entry("a", "Opensans Bold"),
+                entry("b", "Noto Sans"),
+                entry("c", "Sans Serif Pro"),
+                entry("d", "Alpha Sans"),
+                entry("e", "Roboto"));
+
+        // نفس الرتبة تُرتب أبجدياً بالاسم
+        assertEquals(Arrays.asList("Sans Serif Pro", "Alpha Sans", "Noto Sans", "Opensans Bold"),
+                labels(index.search("Sans", 10)));
+        assertEquals(Arrays.asList("Sans Serif Pro", "Alpha Sans"), labels(index.search("sans", 2)));
+    }
+
+    @Test
+    public void matchesOtherNameFields() {
+        FontSearchIndex index = loaded(entry("a", "Noto Naskh", "NotoNaskhArabic-Regular"));
+
+        assertEquals(Collections.singletonList("Noto Naskh"), labels(index.search("arabic", 10)));
+        assertTrue(index.search("cairo", 10).isEmpty());
+    }
+
+    @Test
+    public void shortQueryMatchesWordPrefixesOnly() {
+        FontSearchIndex index = loaded(
+                entry("a", "Opensans Bold"),
+                entry("b", "Noto Sans"),
+                entry("c", "Sans Serif Pro"));
+
+        assertEquals(Arrays.asList("Sans Serif Pro", "Noto Sans"), labels(index.search("s", 10)));
+        assertEquals(Collections.singletonList("Opensans Bold"), labels(index.search("OP", 10)));
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    public void removeByPathHidesFont() {
+        FontSearchIndex index = loaded(entry("a", "Noto Sans"), entry("b", "Noto Serif"));
+
+        index.removeByPath("/fonts/a.ttf");
+        assertEquals(Collections.singletonList("Noto Serif"), labels(index.search("noto", 10)));
+        assertEquals(Collections.singletonList("Noto Serif"), labels(index.search("n", 10)));
+    }
+
+    @Test
+    public void reAddingFaceReplacesItsDocument() {
+        FontSearchIndex index = loaded(entry("a", "Old Name"));
+
+        index.addAll(Collections.singletonList(entry("a", "Old Name")));
+        assertEquals(1, index.docCount());
+
+        index.addAll(Collections.singletonList(entry("a", "New Name")));
+        assertEquals(2, index.docCount());
+        assertTrue(index.search("old", 10).isEmpty());
+        assertEquals(Collections.singletonList("New Name"), labels(index.search("name", 10)));
+    }
+
+    @Test
+    public void compactsRemovedDocuments() {
+        List<FontLibrary.Entry> first = new ArrayList<>();
+        List<FontLibrary.Entry> renamed = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            first.add(entry("h" + i, "Before " + i));
+            renamed.add(entry("h" + i, "After " + i));
+        }
+        FontSearchIndex index = loaded(first.toArray(new FontLibrary.Entry[0]));
+
+        index.addAll(renamed.subList(0, 50));
+        // 50 ملغاة: دون الحد الأدنى للضغط
+        assertEquals(150, index.docCount());
+
+        index.addAll(renamed.subList(50, 100));
+        assertEquals(100, index.docCount());
+        assertTrue(index.search("before", 10).isEmpty());
+        assertEquals(Collections.singletonList("After 42"), labels(index.search("after 42", 10)));
+        assertEquals(100, index.search("af", 1000).size());
+    }
+
+    @Test
+    public void savedIndexLoadsForSameGeneration() throws InterruptedException {
+        FontSearchIndex index = newIndex(7);
+        index.load(Arrays.asList(entry("a", "Noto Sans"), entry("b", "Noto Serif"), entry("c", "Roboto")));
+        index.removeByPath("/fonts/c.ttf");
+        index.awaitSave();
+
+        // لا صفوف من المكتبة: كل النتائج من الملف
+        FontSearchIndex reloaded = newIndex(7);
+        reloaded.load(Collections.emptyList());
+        assertEquals(2, reloaded.docCount());
+        assertEquals(Arrays.asList("Noto Sans", "Noto Serif"), labels(reloaded.search("noto", 10)));
+        assertEquals(Arrays.asList("Noto Sans", "Noto Serif"), labels(reloaded.search("n", 10)));
+        assertEquals("/fonts/a.ttf", reloaded.search("sans", 1).get(0).getPath());
+        assertTrue(reloaded.search("roboto", 10).isEmpty());
+    }
+
+    @Test
+    public void savedIndexIsIgnoredForOtherGeneration() throws InterruptedException {
+        FontSearchIndex index = newIndex(7);
+        index.load(Collections.singletonList(entry("a", "Noto Sans")));
+        index.awaitSave();
+
+        FontSearchIndex reloaded = newIndex(8);
+        reloaded.load(Collections.singletonList(entry("b", "Roboto")));
+        assertEquals(1, reloaded.docCount());
+        assertTrue(reloaded.search("noto", 10).isEmpty());
+        assertEquals(Collections.singletonList("Roboto"), labels(reloaded.search("rob", 10)));
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.oneuiapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class SfntParserTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private SfntParser open(byte[] bytes) throws IOException {
+        return SfntParser.open(TestFonts.write(temp.getRoot(), "font.bin", bytes));
+    }
+
+    private static byte[] simpleFont(int version, String fullName) {
+        return new TestFonts.Sfnt(version)
+                .table("head", TestFonts.head())
+                .table("name", TestFonts.name(TestFonts.windows(1, "Family"), TestFonts.windows(4, fullName)))
+                .table("cmap", TestFonts.cmap(new Object[]{3, 1, TestFonts.cmapFormat4(new int[][]{{0x41, 0x5A, 1}})}))
+                .build();
+    }
+
+    @Test
+    public void readsTableDirectoryOfSingleFont() throws IOException {
+        SfntParser parser = open(simpleFont(TestFonts.TRUETYPE, "Test Regular"));
+
+        assertFalse(parser.isCollection());
+        assertEquals(1, parser.getFaceCount());
+        SfntParser.TableDirectory dir = parser.getTableDirectory(0);
+        assertEquals(TestFonts.TRUETYPE, dir.getSfntVersion());
+        assertTrue(dir.hasKnownSfntVersion());
+        assertEquals(3, dir.getTableCount());
+        // الدليل مرتب بالوسم
+        assertEquals(TestFonts.tag("cmap"), dir.getTag(0));
+        assertEquals(TestFonts.tag("head"), dir.getTag(1));
+        assertEquals(TestFonts.tag("name"), dir.getTag(2));
+        assertEquals(54, dir.getLength(dir.indexOf(TestFonts.tag("head"))));
+        assertEquals(-1, dir.indexOf(TestFonts.tag("glyf")));
+    }
+
+    @Test
+    public void tableSliceStartsAtZero() throws IOException {
+        SfntParser parser = open(simpleFont(TestFonts.TRUETYPE, "Test Regular"));
+
+        ByteBuffer head = parser.getTable(0, TestFonts.tag("head"));
+        assertEquals(54, head.limit());
+        assertEquals(0x5F0F3CF5, head.getInt(12));
+        assertTrue(head.isReadOnly());
+        assertNull(parser.getTable(0, TestFonts.tag("GSUB")));
+    }
+
+    @Test
+    public void decodesWindowsAndMacNames() throws IOException {
+        // "Café" بترميز MacRoman: é = 0x8E
+        byte[] macCafe = {'C', 'a', 'f', (byte) 0x8E};
+        byte[] font = new TestFonts.Sfnt(TestFonts.TRUETYPE)
+                .table("head", TestFonts.head())
+                .table("name", TestFonts.name(TestFonts.mac(1, macCafe), TestFonts.windows(4, "خط Test")))
+                .build();
+        SfntParser.NameTable names = open(font).getNameTable(0);
+
+        assertEquals(2, names.getCount());
+        assertEquals(1, names.getPlatformId(0));
+        assertEquals(1, names.getNameId(0));
+        assertEquals("Café", names.getString(0));
+        assertEquals(3, names.getPlatformId(1));
+        assertEquals(0x0409, names.getLanguageId(1));
+        assertEquals("خط Test", names.getString(1));
+    }
+
+    @Test
+    public void nameTableIsNullWhenMissing() throws IOException {
+        byte[] font = new TestFonts.Sfnt(TestFonts.CFF).table("head", TestFonts.head()).build();
+        SfntParser parser = open(font);
+
+        assertTrue(parser.getTableDirectory(0).hasKnownSfntVersion());
+        assertNull(parser.getNameTable(0));
+    }
+
+    @Test
+    public void appleTrueTypeVersionIsKnown() throws IOException {
+        SfntParser parser = open(simpleFont(TestFonts.APPLE_TRUETYPE, "Apple"));
+
+        assertTrue(parser.getTableDirectory(0).hasKnownSfntVersion());
+        assertEquals("Apple", parser.getNameTable(0).getString(1));
+    }
+
+    @Test
+    public void readsEveryFaceOfCollection() throws IOException {
+        byte[] ttc = TestFonts.collection(simpleFont(TestFonts.TRUETYPE, "First"),
+                simpleFont(TestFonts.TRUETYPE, "Second"));
+        SfntParser parser = open(ttc);
+
+        assertTrue(parser.isCollection());
+        assertEquals(2, parser.getFaceCount());
+        assertEquals("First", parser.getNameTable(0).getString(1));
+        assertEquals("Second", parser.getNameTable(1).getString(1));
+    }
+
+    @Test
+    public void rejectsFaceIndexOutOfRange() throws IOException {
+        SfntParser parser = open(simpleFont(TestFonts.TRUETYPE, "Test"));
+        try {
+            parser.getTableDirectory(1);
+            fail();
+        } catch (IOException expected) {
+            // face واحد فقط
+        }
+    }
+
+    @Test
+    public void rejectsDirectoryPastEndOfFile() throws IOException {
+        byte[] font = simpleFont(TestFonts.TRUETYPE, "Test");
+        // numTables أكبر من السجلات الموجودة في الملف
+        ByteBuffer.wrap(font).putShort(4, (short) 4000);
+        SfntParser parser = open(font);
+        try {
+            parser.getTableDirectory(0);
+            fail();
+        } catch (IOException expected) {
+            // القراءة خارج الملف تُرفض بدل IndexOutOfBoundsException
+        }
+    }
+
+    @Test
+    public void rejectsFileSmallerThanHeader() throws IOException {
+        File tiny = TestFonts.write(temp.getRoot(), "tiny.bin", new byte[]{0, 1, 0, 0});
+        try {
+            SfntParser.open(tiny);
+            fail();
+        } catch (IOException expected) {
+            // أقل من 12 بايتاً
+        }
+    }
+}
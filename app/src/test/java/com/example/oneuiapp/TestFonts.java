@@ -0,0 +1,422 @@
+package com.example.oneuiapp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+
+/**
+ * TestFonts - بناء خطوط sfnt صغيرة في الاختبار بدلاً من ملفات ثنائية في المستودع.
+ * - الجداول مرتبة بالوسم ومحاذاة 4 بايت، و checkSumAdjustment في head محسوب كما في الخط الحقيقي
+ * - الشكل الناتج هو نفس ما يكتبه WoffDecoder، فالمقارنة بعد الفك تكون بايتاً ببايت
+ * - woff و woff2 يغلفان الخط: zlib لكل جدول في WOFF، وتيار Brotli من meta-blocks غير مضغوطة
+ *   في WOFF2 (بدون تحويل glyf/loca)، فلا حاجة لمكتبة ضغط Brotli في الاختبار
+ */
+final class TestFonts {
+
+    static final int TRUETYPE = 0x00010000;
+    static final int CFF = 0x4F54544F;          // 'OTTO'
+    static final int APPLE_TRUETYPE = 0x74727565; // 'true'
+    static final long CHECKSUM_MAGIC = 0xB1B0AFBAL;
+
+    private TestFonts() {
+    }
+
+    static int tag(String s) {
+        byte[] b = s.getBytes(StandardCharsets.US_ASCII);
+        return ((b[0] & 0xFF) << 24) | ((b[1] & 0xFF) << 16) | ((b[2] & 0xFF) << 8) | (b[3] & 0xFF);
+    }
+
+    /**
+     * خط sfnt واحد: الإصدار وجداوله بالوسم.
+     */
+    static final class Sfnt {
+        private final int version;
+        // ترتيب String يطابق ترتيب الوسوم كأرقام بدون إشارة لأن كل المحارف ASCII
+        private final Map<String, byte[]> tables = new TreeMap<>();
+
+        Sfnt(int version) {
+            this.version = version;
+        }
+
+        Sfnt table(String tag, byte[] data) {
+            tables.put(tag, data);
+            return this;
+        }
+
+        byte[] build() {
+            int numTables = tables.size();
+            int size = 12 + 16 * numTables;
+            for (byte[] t : tables.values()) size += align4(t.length);
+
+            ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.BIG_ENDIAN);
+            int entrySelector = 31 - Integer.numberOfLeadingZeros(numTables);
+            int searchRange = (1 << entrySelector) * 16;
+            out.putInt(version).putShort((short) numTables).putShort((short) searchRange)
+                    .putShort((short) entrySelector).putShort((short) (numTables * 16 - searchRange));
+
+            int offset = 12 + 16 * numTables;
+            int headOffset = -1;
+            for (Map.Entry<String, byte[]> t : tables.entrySet()) {
+                byte[] data = t.getValue();
+                if (t.getKey().equals("head") && data.length >= 12) {
+                    data = data.clone();
+                    ByteBuffer.wrap(data).putInt(8, 0);
+                    headOffset = offset;
+                }
+                out.putInt(tag(t.getKey())).putInt((int) checksum(data, 0, data.length))
+                        .putInt(offset).putInt(data.length);
+                int pos = out.position();
+                out.position(offset);
+                out.put(data);
+                out.position(pos);
+                offset += align4(data.length);
+            }
+
+            byte[] bytes = out.array();
+            if (headOffset >= 0) {
+                long adjustment = (CHECKSUM_MAGIC - checksum(bytes, 0, bytes.length)) & 0xFFFFFFFFL;
+                ByteBuffer.wrap(bytes).putInt(headOffset + 8, (int) adjustment);
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * جدول head من 54 بايتاً؛ checkSumAdjustment يملؤه Sfnt.build.
+     */
+    static byte[] head() {
+        ByteBuffer b = ByteBuffer.allocate(54);
+        b.putInt(0x00010000);       // version
+        b.putInt(0x00010000);       // fontRevision
+        b.putInt(0);                // checkSumAdjustment
+        b.putInt(0x5F0F3CF5);       // magicNumber
+        b.putShort((short) 0x000B); // flags
+        b.putShort((short) 1000);   // unitsPerEm
+        b.putLong(0).putLong(0);    // created, modified
+        b.putShort((short) 0).putShort((short) -200).putShort((short) 1000).putShort((short) 800);
+        b.putShort((short) 0);      // macStyle
+        b.putShort((short) 8);      // lowestRecPPEM
+        b.putShort((short) 2);      // fontDirectionHint
+        b.putShort((short) 0);      // indexToLocFormat
+        b.putShort((short) 0);      // glyphDataFormat
+        return b.array();
+    }
+
+    /**
+     * سجل في جدول name؛ النص يُرمز حسب المنصة (Windows/Unicode = UTF-16BE، Mac = MacRoman).
+     */
+    static final class NameRecord {
+        final int platformId;
+        final int encodingId;
+        final int languageId;
+        final int nameId;
+        final byte[] bytes;
+
+        NameRecord(int platformId, int encodingId, int languageId, int nameId, byte[] bytes) {
+            this.platformId = platformId;
+            this.encodingId = encodingId;
+            this.languageId = languageId;
+            this.nameId = nameId;
+            this.bytes = bytes;
+        }
+    }
+
+    static NameRecord windows(int nameId, String value) {
+        return new NameRecord(3, 1, 0x0409, nameId, value.getBytes(StandardCharsets.UTF_16BE));
+    }
+
+    static NameRecord mac(int nameId, byte[] macRoman) {
+        return new NameRecord(1, 0, 0, nameId, macRoman);
+    }
+
+    static byte[] name(NameRecord... records) {
+        int stringOffset = 6 + 12 * records.length;
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        ByteBuffer header = ByteBuffer.allocate(stringOffset);
+        header.putShort((short) 0).putShort((short) records.length).putShort((short) stringOffset);
+        for (NameRecord r : records) {
+            header.putShort((short) r.platformId).putShort((short) r.encodingId).putShort((short) r.languageId)
+                    .putShort((short) r.nameId).putShort((short) r.bytes.length).putShort((short) strings.size());
+            strings.write(r.bytes, 0, r.bytes.length);
+        }
+        return concat(header.array(), strings.toByteArray());
+    }
+
+    /**
+     * جدول cmap فرعي بالصيغة 4. كل مقطع {start, end, idDelta} بدون idRangeOffset؛ مقطع 0xFFFF يُضاف.
+     */
+    static byte[] cmapFormat4(int[][] segments) {
+        int segCount = segments.length + 1;
+        int length = 16 + 8 * segCount;
+        ByteBuffer b = ByteBuffer.allocate(length);
+        int entrySelector = 31 - Integer.numberOfLeadingZeros(segCount);
+        int searchRange = 2 * (1 << entrySelector);
+        b.putShort((short) 4).putShort((short) length).putShort((short) 0);
+        b.putShort((short) (segCount * 2)).putShort((short) searchRange).putShort((short) entrySelector)
+                .putShort((short) (segCount * 2 - searchRange));
+        for (int[] s : segments) b.putShort((short) s[1]);
+        b.putShort((short) 0xFFFF);
+        b.putShort((short) 0);      // reservedPad
+        for (int[] s : segments) b.putShort((short) s[0]);
+        b.putShort((short) 0xFFFF);
+        for (int[] s : segments) b.putShort((short) s[2]);
+        b.putShort((short) 1);
+        for (int i = 0; i < segCount; i++) b.putShort((short) 0);
+        return b.array();
+    }
+
+    /**
+     * جدول cmap فرعي بالصيغة 12. كل مجموعة {startCharCode, endCharCode, startGlyphID}.
+     */
+    static byte[] cmapFormat12(long[][] groups) {
+        int length = 16 + 12 * groups.length;
+        ByteBuffer b = ByteBuffer.allocate(length);
+        b.putShort((short) 12).putShort((short) 0).putInt(length).putInt(0).putInt(groups.length);
+        for (long[] g : groups) b.putInt((int) g[0]).putInt((int) g[1]).putInt((int) g[2]);
+        return b.array();
+    }
+
+    /**
+     * جدول cmap من جداول فرعية: كل عنصر {platformId, encodingId, subtable}.
+     */
+    static byte[] cmap(Object[]... subtables) {
+        int offset = 4 + 8 * subtables.length;
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ByteBuffer header = ByteBuffer.allocate(offset);
+        header.putShort((short) 0).putShort((short) subtables.length);
+        for (Object[] s : subtables) {
+            byte[] data = (byte[]) s[2];
+            header.putShort((short) (int) (Integer) s[0]).putShort((short) (int) (Integer) s[1])
+                    .putInt(offset + body.size());
+            body.write(data, 0, data.length);
+        }
+        return concat(header.array(), body.toByteArray());
+    }
+
+    /**
+     * ملف TTC من عدة خطوط sfnt كاملة؛ إزاحات كل دليل تُزاح بموضع الخط داخل الملف.
+     */
+    static byte[] collection(byte[]... faces) {
+        int headerSize = 12 + 4 * faces.length;
+        int size = headerSize;
+        for (byte[] f : faces) size += align4(f.length);
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(SfntParser.TAG_TTCF).putInt(0x00010000).putInt(faces.length);
+
+        int pos = headerSize;
+        for (int i = 0; i < faces.length; i++) {
+            out.putInt(12 + 4 * i, pos);
+            byte[] face = faces[i].clone();
+            ByteBuffer dir = ByteBuffer.wrap(face);
+            int numTables = dir.getShort(4) & 0xFFFF;
+            for (int t = 0; t < numTables; t++) {
+                int rec = 12 + 16 * t;
+                dir.putInt(rec + 8, dir.getInt(rec + 8) + pos);
+            }
+            System.arraycopy(face, 0, out.array(), pos, face.length);
+            pos += align4(face.length);
+        }
+        return out.array();
+    }
+
+    /**
+     * WOFF 1.0 من خط sfnt: كل جدول يُضغط بـ zlib إلا إن لم يصغر.
+     */
+    static byte[] woff(byte[] sfnt) {
+        ByteBuffer in = ByteBuffer.wrap(sfnt);
+        int numTables = in.getShort(4) & 0xFFFF;
+        byte[][] data = new byte[numTables][];
+        int[] origLengths = new int[numTables];
+        int size = 44 + 20 * numTables;
+        for (int i = 0; i < numTables; i++) {
+            int rec = 12 + 16 * i;
+            byte[] table = Arrays.copyOfRange(sfnt, in.getInt(rec + 8), in.getInt(rec + 8) + in.getInt(rec + 12));
+            byte[] compressed = deflate(table);
+            data[i] = compressed.length < table.length ? compressed : table;
+            origLengths[i] = table.length;
+            size += align4(data[i].length);
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(FontFormat.SIGNATURE_WOFF).putInt(in.getInt(0)).putInt(size)
+                .putShort((short) numTables).putShort((short) 0).putInt(sfnt.length)
+                .putShort((short) 1).putShort((short) 0);
+        out.putInt(0).putInt(0).putInt(0).putInt(0).putInt(0);     // meta/private
+        int offset = 44 + 20 * numTables;
+        for (int i = 0; i < numTables; i++) {
+            int rec = 12 + 16 * i;
+            out.putInt(in.getInt(rec)).putInt(offset).putInt(data[i].length).putInt(origLengths[i])
+                    .putInt(in.getInt(rec + 4));
+            System.arraycopy(data[i], 0, out.array(), offset, data[i].length);
+            offset += align4(data[i].length);
+        }
+        return out.array();
+    }
+
+    // فهارس الوسوم المعروفة في WOFF2 المستخدمة في الاختبارات؛ غيرها يُكتب صريحاً (63)
+    private static final List<String> WOFF2_KNOWN_TAGS = Arrays.asList(
+            "cmap", "head", "hhea", "hmtx", "maxp", "name", "OS/2", "post", "cvt ", "fpgm", "glyf", "loca",
+            "prep", "CFF ");
+
+    /**
+     * WOFF 2.0 من خط sfnt واحد. glyf/loca بالإصدار 3 (بدون تحويل)، والجداول بترتيب الدليل.
+     */
+    static byte[] woff2(byte[] sfnt) {
+        ByteBuffer in = ByteBuffer.wrap(sfnt);
+        int numTables = in.getShort(4) & 0xFFFF;
+        ByteArrayOutputStream directory = new ByteArrayOutputStream();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (int i = 0; i < numTables; i++) {
+            int rec = 12 + 16 * i;
+            int tag = in.getInt(rec);
+            String name = new String(Arrays.copyOfRange(sfnt, rec, rec + 4), StandardCharsets.US_ASCII);
+            int known = WOFF2_KNOWN_TAGS.indexOf(name);
+            int version = name.equals("glyf") || name.equals("loca") ? 3 : 0;
+            directory.write((version << 6) | (known >= 0 ? known : 63));
+            if (known < 0) {
+                directory.write(tag >>> 24);
+                directory.write(tag >>> 16);
+                directory.write(tag >>> 8);
+                directory.write(tag);
+            }
+            writeBase128(directory, in.getInt(rec + 12));
+            stream.write(sfnt, in.getInt(rec + 8), in.getInt(rec + 12));
+        }
+        byte[] compressed = brotliStored(stream.toByteArray());
+
+        int size = align4(48 + directory.size() + compressed.length);
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(FontFormat.SIGNATURE_WOFF2).putInt(in.getInt(0)).putInt(size)
+                .putShort((short) numTables).putShort((short) 0).putInt(sfnt.length).putInt(compressed.length)
+                .putShort((short) 1).putShort((short) 0);
+        out.putInt(0).putInt(0).putInt(0).putInt(0).putInt(0);     // meta/private
+        out.put(directory.toByteArray()).put(compressed);
+        return out.array();
+    }
+
+    /**
+     * تيار Brotli صالح بدون ضغط: WBITS=16 ثم meta-blocks غير مضغوطة (64 KB لكل منها) ثم كتلة أخيرة فارغة.
+     */
+    static byte[] brotliStored(byte[] data) {
+        BitWriter bits = new BitWriter();
+        bits.write(0, 1);                               // WBITS = 16
+        for (int pos = 0; pos < data.length; pos += 65536) {
+            int len = Math.min(65536, data.length - pos);
+            bits.write(0, 1);                           // ISLAST
+            bits.write(0, 2);                           // MNIBBLES = 4
+            bits.write(len - 1, 16);                    // MLEN - 1
+            bits.write(1, 1);                           // ISUNCOMPRESSED
+            bits.alignToByte();
+            bits.out.write(data, pos, len);
+        }
+        bits.write(1, 1);                               // ISLAST
+        bits.write(1, 1);                               // ISLASTEMPTY
+        bits.alignToByte();
+        return bits.out.toByteArray();
+    }
+
+    private static final class BitWriter {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int current;
+        private int count;
+
+        void write(int value, int n) {
+            for (int i = 0; i < n; i++) {
+                current |= ((value >>> i) & 1) << count;
+                if (++count == 8) alignToByte();
+            }
+        }
+
+        void alignToByte() {
+            if (count == 0) return;
+            out.write(current);
+            current = 0;
+            count = 0;
+        }
+    }
+
+    private static void writeBase128(ByteArrayOutputStream out, int value) {
+        int groups = 1;
+        while (groups < 5 && (value >>> (7 * groups)) != 0) groups++;
+        for (int i = groups - 1; i >= 0; i--) {
+            int b = (value >>> (7 * i)) & 0x7F;
+            out.write(i > 0 ? b | 0x80 : b);
+        }
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buf);
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * يتحقق من checksum كل جدول في الدليل ومن أن مجموع الملف كله يساوي 0xB1B0AFBA.
+     */
+    static String checksumProblem(byte[] sfnt) {
+        ByteBuffer in = ByteBuffer.wrap(sfnt);
+        int numTables = in.getShort(4) & 0xFFFF;
+        for (int i = 0; i < numTables; i++) {
+            int rec = 12 + 16 * i;
+            byte[] table = Arrays.copyOfRange(sfnt, in.getInt(rec + 8), in.getInt(rec + 8) + in.getInt(rec + 12));
+            if (in.getInt(rec) == tag("head")) ByteBuffer.wrap(table).putInt(8, 0);
+            if ((int) checksum(table, 0, table.length) != in.getInt(rec + 4)) {
+                return "checksum of table " + i;
+            }
+        }
+        long total = checksum(sfnt, 0, sfnt.length);
+        return total == CHECKSUM_MAGIC ? null : "file checksum " + Long.toHexString(total);
+    }
+
+    static long checksum(byte[] data, int offset, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i += 4) {
+            long word = 0;
+            for (int k = 0; k < 4; k++) {
+                int p = offset + i + k;
+                word = (word << 8) | (i + k < length ? data[p] & 0xFF : 0);
+            }
+            sum = (sum + word) & 0xFFFFFFFFL;
+        }
+        return sum;
+    }
+
+    static int align4(int n) {
+        return (n + 3) & ~3;
+    }
+
+    static byte[] concat(byte[] a, byte[] b) {
+        byte[] out = new byte[a.length + b.length];
+        System.arraycopy(a, 0, out, 0, a.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    static File write(File dir, String name, byte[] bytes) throws IOException {
+        File file = new File(dir, name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(bytes);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.oneuiapp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * قياس سرعة WoffDecoder على خط بحجم عدة ميغابايت.
+ * لا يُشغَّل مع الاختبارات العادية (الاسم لا ينتهي بـ Test):
+ * ./gradlew :app:testDebugUnitTest --tests com.example.oneuiapp.WoffDecoderBenchmark
+ */
+public class WoffDecoderBenchmark {
+
+    private static final int CFF_SIZE = 8 * 1024 * 1024;
+    private static final int RUNS = 3;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static byte[] largeFont() {
+        // نصف الجدول عشوائي ونصفه متكرر ليقترب من نسبة ضغط CFF حقيقي
+        byte[] cff = new byte[CFF_SIZE];
+        Random random = new Random(4);
+        for (int i = 0; i < cff.length; i += 64) {
+            if ((i / 64) % 2 == 0) {
+                byte[] chunk = new byte[Math.min(64, cff.length - i)];
+                random.nextBytes(chunk);
+                System.arraycopy(chunk, 0, cff, i, chunk.length);
+            } else {
+                for (int j = i; j < Math.min(i + 64, cff.length); j++) cff[j] = (byte) (j & 0x0F);
+            }
+        }
+        return new TestFonts.Sfnt(TestFonts.CFF)
+                .table("head", TestFonts.head())
+                .table("name", TestFonts.name(TestFonts.windows(4, "Benchmark Regular")))
+                .table("cmap", TestFonts.cmap(new Object[]{3, 1, TestFonts.cmapFormat4(new int[][]{{0x20, 0x7E, 1}})}))
+                .table("CFF ", cff)
+                .build();
+    }
+
+    private void measure(String label, byte[] sfnt, byte[] webFont) throws IOException {
+        File out = new File(temp.getRoot(), "out.otf");
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            WoffDecoder.decode(new ByteArrayInputStream(webFont), out, temp.getRoot());
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        byte[] decoded = Files.readAllBytes(out.toPath());
+        assertArrayEquals(sfnt, decoded);
+        assertNull(TestFonts.checksumProblem(decoded));
+
+        double mb = sfnt.length / (1024.0 * 1024.0);
+        System.out.println(String.format(Locale.US, "%s: %.1f MB -> %.1f ms, %.1f MB/s",
+                label, mb, best / 1e6, mb / (best / 1e9)));
+    }
+
+    @Test
+    public void decodeWoff() throws IOException {
+        byte[] sfnt = largeFont();
+        measure("WOFF", sfnt, TestFonts.woff(sfnt));
+    }
+
+    @Test
+    public void decodeWoff2() throws IOException {
+        byte[] sfnt = largeFont();
+        measure("WOFF2", sfnt, TestFonts.woff2(sfnt));
+    }
+}
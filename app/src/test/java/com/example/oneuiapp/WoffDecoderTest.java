@@ -0,0 +1,125 @@
+package com.example.oneuiapp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+public class WoffDecoderTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private byte[] decode(byte[] webFont) throws IOException {
+        File out = new File(temp.getRoot(), "out.bin");
+        WoffDecoder.decode(new ByteArrayInputStream(webFont), out, temp.getRoot());
+        return Files.readAllBytes(out.toPath());
+    }
+
+    private static byte[] randomBytes(int length, long seed) {
+        byte[] b = new byte[length];
+        new Random(seed).nextBytes(b);
+        return b;
+    }
+
+    private static byte[] trueTypeFont() {
+        // glyf عشوائي لا يصغر بالضغط (يُخزن كما هو)، و name و cmap يصغران
+        return new TestFonts.Sfnt(TestFonts.TRUETYPE)
+                .table("head", TestFonts.head())
+                .table("name", TestFonts.name(TestFonts.windows(1, "Round Trip"), TestFonts.windows(4, "Round Trip Regular")))
+                .table("cmap", TestFonts.cmap(new Object[]{3, 1, TestFonts.cmapFormat4(new int[][]{{0x20, 0x7E, 1}})}))
+                .table("glyf", randomBytes(1021, 1))
+                .table("loca", new byte[]{0, 0, 1, 0, 2, 0})
+                .table("zzzz", new byte[]{1, 2, 3})
+                .build();
+    }
+
+    private static byte[] cffFont() {
+        return new TestFonts.Sfnt(TestFonts.CFF)
+                .table("head", TestFonts.head())
+                .table("name", TestFonts.name(TestFonts.windows(4, "CFF Regular")))
+                .table("cmap", TestFonts.cmap(new Object[]{3, 10, TestFonts.cmapFormat12(new long[][]{{0x20, 0x1F600, 1}})}))
+                .table("CFF ", randomBytes(70_001, 2))
+                .build();
+    }
+
+    @Test
+    public void woffDecodesToOriginalSfnt() throws IOException {
+        byte[] sfnt = trueTypeFont();
+        byte[] decoded = decode(TestFonts.woff(sfnt));
+
+        assertArrayEquals(sfnt, decoded);
+        assertNull(TestFonts.checksumProblem(decoded));
+    }
+
+    @Test
+    public void woffDecodesCffFont() throws IOException {
+        byte[] sfnt = cffFont();
+        byte[] decoded = decode(TestFonts.woff(sfnt));
+
+        assertArrayEquals(sfnt, decoded);
+        assertNull(TestFonts.checksumProblem(decoded));
+    }
+
+    @Test
+    public void woff2DecodesToOriginalSfnt() throws IOException {
+        // glyf/loca بدون تحويل (الإصدار 3)، ووسم غير معروف يُكتب صريحاً
+        byte[] sfnt = trueTypeFont();
+        byte[] decoded = decode(TestFonts.woff2(sfnt));
+
+        assertArrayEquals(sfnt, decoded);
+        assertNull(TestFonts.checksumProblem(decoded));
+    }
+
+    @Test
+    public void woff2SpansSeveralBrotliBlocks() throws IOException {
+        // CFF أكبر من meta-block واحد (64 KB)
+        byte[] sfnt = cffFont();
+        byte[] decoded = decode(TestFonts.woff2(sfnt));
+
+        assertArrayEquals(sfnt, decoded);
+        assertNull(TestFonts.checksumProblem(decoded));
+    }
+
+    @Test
+    public void rejectsUnknownSignature() throws IOException {
+        try {
+            decode(trueTypeFont());
+            fail();
+        } catch (IOException expected) {
+            // ليس WOFF ولا WOFF2
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedWoff() throws IOException {
+        byte[] webFont = TestFonts.woff(trueTypeFont());
+        try {
+            decode(Arrays.copyOf(webFont, webFont.length - 600));
+            fail();
+        } catch (IOException expected) {
+            // الجدول الأخير ناقص
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedWoff2() throws IOException {
+        byte[] webFont = TestFonts.woff2(cffFont());
+        try {
+            decode(Arrays.copyOf(webFont, webFont.length / 2));
+            fail();
+        } catch (IOException expected) {
+            // تيار Brotli ينتهي قبل آخر جدول
+        }
+    }
+}